@@ -10,6 +10,11 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.viewpager2.widget.ViewPager2;
 
 import com.by.soh.R;
+import com.by.soh.database.DatabaseContract;
+import com.by.soh.database.GameDatabaseHelper;
+import com.by.soh.database.InvalidationTracker;
+import com.by.soh.managers.DatabaseMaintenanceManager;
+import com.by.soh.managers.OfflineProgressManager;
 import com.by.soh.managers.PlayerDataManager;
 import com.by.soh.managers.SaveGameManager;
 import com.google.android.material.tabs.TabLayout;
@@ -35,6 +40,13 @@ public class MainActivity extends AppCompatActivity {
     private PlayerDataManager playerDataManager;
 
     private SaveGameManager saveManager;
+    private DatabaseMaintenanceManager maintenanceManager;
+    private OfflineProgressManager offlineProgressManager;
+
+    // Re-consulta del inventario solo cuando cambia la tabla de equipamiento
+    private InvalidationTracker invalidationTracker;
+    private final InvalidationTracker.Observer equipmentObserver = tables -> loadEquipmentData();
+
     // Data
     private List<Equipment> allEquipment = new ArrayList<>();
     private List<Equipment> testEquipment = new ArrayList<>();
@@ -48,6 +60,8 @@ public class MainActivity extends AppCompatActivity {
         equipmentManager = EquipmentManager.getInstance(this);
         playerDataManager = PlayerDataManager.getInstance(this);
         saveManager = SaveGameManager.getInstance(this);
+        maintenanceManager = DatabaseMaintenanceManager.getInstance(this);
+        offlineProgressManager = OfflineProgressManager.getInstance(this);
         // Inicializar UI
         initializeViews();
 
@@ -59,6 +73,10 @@ public class MainActivity extends AppCompatActivity {
 
         // Cargar datos
         loadEquipmentData();
+
+        // Suscribirse a cambios de equipamiento
+        invalidationTracker = GameDatabaseHelper.getInstance(this).getInvalidationTracker();
+        invalidationTracker.addObserver(equipmentObserver, DatabaseContract.Equipment.TABLE_NAME);
     }
 
     private void initializeViews() {
@@ -84,8 +102,7 @@ public class MainActivity extends AppCompatActivity {
             playerDataManager.addGold(5000);
             playerDataManager.addExperience(1000);
 
-            SaveGameManager.SaveResult result = saveManager.saveGame("test_save", true);
-            Log.d("TEST", result.toString());
+            saveManager.saveGameAsync("test_save", true, result -> Log.d("TEST", result.toString()));
             if (item != null) {
                 Log.d("TEST", item.getDescription());
 
@@ -162,11 +179,9 @@ public class MainActivity extends AppCompatActivity {
         // Cargar todo el equipment (incluyendo los de prueba)
         allEquipment = equipmentManager.getAllEquipment();
 
-        // Calcular poder total
-        int totalPower = 0;
-        for (Equipment equipment : allEquipment) {
-            totalPower += equipment.getPowerRating();
-        }
+        // Poder total (mantenido por el manager, sin recorrer el inventario)
+        EquipmentManager.EquipmentInventoryStats stats = equipmentManager.getInventoryStats();
+        long totalPower = stats.totalPower;
 
         // Actualizar UI
         currentPowerText.setText(String.valueOf(totalPower));
@@ -175,7 +190,6 @@ public class MainActivity extends AppCompatActivity {
         Log.d(TAG, "Datos cargados - Total items: " + allEquipment.size() + ", Poder total: " + totalPower);
 
         // Mostrar estadísticas del inventario
-        EquipmentManager.EquipmentInventoryStats stats = equipmentManager.getInventoryStats();
         Log.d("STATS", stats.toString());
 
         // Log de algunos items para verificar
@@ -299,12 +313,47 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+        GameDatabaseHelper.getInstance(this).getIntegrityVerifier().markSessionActive();
+        maintenanceManager.onAppForegrounded();
+
+        // Al volver: resolver lo ocurrido durante el periodo AFK
+        offlineProgressManager.resolveOfflineProgressAsync(report -> {
+            if (report.simulation.battles > 0 || report.afkRewards.gold > 0) {
+                Log.i(TAG, "Progreso offline: " + report);
+            }
+        });
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        maintenanceManager.onAppBackgrounded();
+        // En segundo plano el sistema puede matar el proceso sin que sea un cierre inesperado
+        GameDatabaseHelper.getInstance(this).getIntegrityVerifier().markCleanShutdown();
+    }
+
+    @Override
+    public void onUserInteraction() {
+        super.onUserInteraction();
+        maintenanceManager.notifyUserActivity();
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (invalidationTracker != null) {
+            invalidationTracker.removeObserver(equipmentObserver);
+        }
         // Limpiar cache si es necesario
         if (equipmentManager != null) {
             equipmentManager.clearCache();
         }
+        // Cierre real (no un cambio de configuración): detener el mantenimiento
+        if (isFinishing() && maintenanceManager != null) {
+            maintenanceManager.shutdown();
+        }
     }
 }
\ No newline at end of file
@@ -180,29 +180,6 @@ public class BattleConstants {
         return Math.max(1, Math.round(damage)); // Mínimo 1 de daño
     }
 
-    /**
-     * Determina si un ataque es crítico
-     */
-    public static boolean isCriticalHit(float critRate) {
-        return Math.random() < Math.min(critRate, 1.0f);
-    }
-
-    /**
-     * Determina si un ataque acierta
-     */
-    public static boolean doesAttackHit(float accuracy, float evasion) {
-        float hitChance = Math.min(accuracy, MAX_ACCURACY) - Math.min(evasion, MAX_EVASION);
-        return Math.random() < Math.max(hitChance, 0.05f); // Mínimo 5% de acierto
-    }
-
-    /**
-     * Calcula la velocidad efectiva con variación aleatoria
-     */
-    public static float calculateEffectiveSpeed(int baseSpeed) {
-        float variation = 1.0f + (float)(Math.random() - 0.5) * 2 * SPEED_RANDOMNESS;
-        return baseSpeed * variation;
-    }
-
     /**
      * Obtiene el nombre de un efecto por ID
      */
@@ -286,58 +263,6 @@ public class BattleConstants {
         return 1.0f; // Sin resistencia especial
     }
 
-    /**
-     * Determina el objetivo basado en la estrategia de targeting
-     */
-    public static int selectTarget(int targetingType, int[] availableTargets,
-                                   int[] targetHp, int[] targetAtk) {
-        if (availableTargets.length == 0) return -1;
-
-        switch (targetingType) {
-            case TARGET_RANDOM:
-                return availableTargets[(int)(Math.random() * availableTargets.length)];
-
-            case TARGET_LOWEST_HP:
-                int lowestHpIndex = 0;
-                for (int i = 1; i < availableTargets.length; i++) {
-                    if (targetHp[availableTargets[i]] < targetHp[availableTargets[lowestHpIndex]]) {
-                        lowestHpIndex = i;
-                    }
-                }
-                return availableTargets[lowestHpIndex];
-
-            case TARGET_HIGHEST_ATK:
-                int highestAtkIndex = 0;
-                for (int i = 1; i < availableTargets.length; i++) {
-                    if (targetAtk[availableTargets[i]] > targetAtk[availableTargets[highestAtkIndex]]) {
-                        highestAtkIndex = i;
-                    }
-                }
-                return availableTargets[highestAtkIndex];
-
-            case TARGET_FRONT_ROW:
-                // Priorizar posiciones frontales (1, 2, 3)
-                for (int target : availableTargets) {
-                    if (target <= POSITION_FRONT_RIGHT) {
-                        return target;
-                    }
-                }
-                break;
-
-            case TARGET_BACK_ROW:
-                // Priorizar posiciones traseras (4, 5)
-                for (int target : availableTargets) {
-                    if (target >= POSITION_BACK_LEFT) {
-                        return target;
-                    }
-                }
-                break;
-        }
-
-        // Fallback a aleatorio
-        return availableTargets[(int)(Math.random() * availableTargets.length)];
-    }
-
     /**
      * Calcula el multiplicador de protección por posición
      */
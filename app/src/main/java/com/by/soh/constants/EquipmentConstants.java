@@ -299,24 +299,6 @@ public class EquipmentConstants {
         return basePower + secondaryPower;
     }
 
-    /**
-     * Genera stats secundarios aleatorios para equipamiento
-     */
-    public static int[] generateRandomSecondaryStats(int rarity) {
-        int count = getSecondaryStatsCount(rarity);
-        if (count == 0) return new int[0];
-
-        int[] stats = new int[count];
-        int[] range = getSecondaryStatRange(rarity);
-
-        for (int i = 0; i < count; i++) {
-            stats[i] = range[0] + (int)(Math.random() * (range[1] - range[0] + 1));
-        }
-
-        return stats;
-    }
-
-
     public static int getRarityMultiplier(int rarity) {
         if (rarity >= 1 && rarity < RARITY_MULTIPLIERS.length) {
             return RARITY_MULTIPLIERS[rarity];
@@ -4,7 +4,7 @@ public class GameConstants {
 
     public static final String GAME_VERSION = "1.0.0";
     public static final String DATABASE_NAME = "Soul_of_Hunter";
-    public static final int DATABASE_VERSION = 1;
+    public static final int DATABASE_VERSION = 2;
     // Sistema de formacion
     public static final int MAX_TEAM_SIZE = 5;
     public static final int INITIAL_TEAM_SIZE = 1;
@@ -54,6 +54,15 @@ public class GameConstants {
     public static final float AFK_GOLD_BASE_RATE = 100.0f;
     public static final float AFK_EXP_BASE_RATE = 50.0f;
 
+    // Offline Progression (simulación de combates durante el AFK)
+    public static final int STAGES_PER_CHAPTER = 10;
+    public static final int OFFLINE_BATTLE_INTERVAL_MINUTES = 5; // Un intento de etapa cada 5 minutos
+    public static final float OFFLINE_STAGE_BASE_POWER = 1000.0f; // Poder recomendado de la etapa 1-1
+    public static final float OFFLINE_STAGE_POWER_GROWTH = 1.06f; // +6% por etapa
+    public static final float OFFLINE_WIN_CURVE = 4.0f;           // Pendiente de la probabilidad de victoria
+    public static final float OFFLINE_MIN_WIN_CHANCE = 0.001f;    // Por debajo, la etapa es un muro
+    public static final float OFFLINE_DROP_CHANCE = 0.15f;        // Equipamiento por victoria
+
     // Currency System
     public static final int INITIAL_GOLD = 10000;
     public static final int INITIAL_GEMS = 500;
@@ -69,6 +78,8 @@ public class GameConstants {
     public static final int GEMS_PER_SINGLE_PULL = 100;
     public static final int GEMS_PER_10_PULL = 900; // 10% descuento
     public static final int PITY_SYSTEM_THRESHOLD = 30; // Garantía después de 30 pulls
+    public static final int PITY_GUARANTEED_RARITY = EPIC_RARITY; // Rareza mínima garantizada por pity
+    public static final int GACHA_MULTI_PULL_COUNT = 10;
 
     // Gacha Props System
     public static final float COMMON_GACHA_RATE = 60.0f;
@@ -114,6 +125,7 @@ public class GameConstants {
     // Save Configuration
     public static final String SAVE_FILE_PREFIX = "save_";
     public static final long AUTO_SAVE_INTERVAL_MS = 60_000; // Auto-save cada minuto
+    public static final int DEFAULT_SAVE_CODEC = 2; // deflate-fast (ver SaveCodecs)
 
     // UI Configuration
     public static final int ANIMATION_DURATION_SHORT = 200;
@@ -141,6 +153,13 @@ public class GameConstants {
     public static final String PREF_AFK_START_TIME = "afk_start_time";
     public static final String PREF_SOUND_ENABLED = "sound_enabled";
     public static final String PREF_MUSIC_ENABLED = "music_enabled";
+    public static final String PREF_LAST_DB_OPTIMIZE_TIME = "last_db_optimize_time";
+    public static final String PREF_SESSION_ACTIVE = "session_active";
+    public static final String PREF_INTEGRITY_TOKEN = "integrity_token";
+    public static final String PREF_INTEGRITY_LEVEL = "integrity_level";
+    public static final String PREF_LAST_FULL_INTEGRITY_CHECK = "last_full_integrity_check";
+    public static final String PREF_SAVE_JOURNAL_BASE = "save_journal_base";
+    public static final String PREF_SAVE_CODEC = "save_codec";
 
     // Helper Methods
     /**
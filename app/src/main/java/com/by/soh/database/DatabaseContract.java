@@ -357,6 +357,37 @@ public final class DatabaseContract {
                         ")";
     }
 
+    // ==================== TABLA DE AUDITORÍA DE MONEDAS ====================
+    /**
+     * Registro de solo inserción de cada transacción de monedas (desde la versión 2)
+     */
+    public static class CurrencyAudit implements BaseColumns {
+        public static final String TABLE_NAME = "currency_audit";
+        public static final String COLUMN_REASON = "reason";
+        public static final String COLUMN_GOLD_DELTA = "gold_delta";
+        public static final String COLUMN_GEMS_DELTA = "gems_delta";
+        public static final String COLUMN_PVP_COINS_DELTA = "pvp_coins_delta";
+        public static final String COLUMN_GUILD_COINS_DELTA = "guild_coins_delta";
+        public static final String COLUMN_DETAILS = "details"; // Fragmentos: template:cantidad;...
+        public static final String COLUMN_CREATED_AT = "created_at";
+
+        public static final String CREATE_TABLE =
+                "CREATE TABLE " + TABLE_NAME + " (" +
+                        _ID + " INTEGER PRIMARY KEY," +
+                        COLUMN_REASON + " TEXT," +
+                        COLUMN_GOLD_DELTA + " INTEGER DEFAULT 0," +
+                        COLUMN_GEMS_DELTA + " INTEGER DEFAULT 0," +
+                        COLUMN_PVP_COINS_DELTA + " INTEGER DEFAULT 0," +
+                        COLUMN_GUILD_COINS_DELTA + " INTEGER DEFAULT 0," +
+                        COLUMN_DETAILS + " TEXT," +
+                        COLUMN_CREATED_AT + " INTEGER" +
+                        ")";
+
+        public static final String CREATE_INDEX =
+                "CREATE INDEX IF NOT EXISTS idx_currency_audit_created ON " +
+                        TABLE_NAME + "(" + COLUMN_CREATED_AT + ")";
+    }
+
     // ==================== CONFIGURACIÓN DE LA BASE DE DATOS ====================
 
     public static final String[] ALL_TABLES_CREATE_STATEMENTS = {
@@ -370,7 +401,8 @@ public final class DatabaseContract {
             TowerProgress.CREATE_TABLE,
             TeamFormations.CREATE_TABLE,
             Missions.CREATE_TABLE,
-            GameEvents.CREATE_TABLE
+            GameEvents.CREATE_TABLE,
+            CurrencyAudit.CREATE_TABLE
     };
 
     public static final String[] ALL_TABLE_NAMES = {
@@ -384,29 +416,40 @@ public final class DatabaseContract {
             TowerProgress.TABLE_NAME,
             TeamFormations.TABLE_NAME,
             Missions.TABLE_NAME,
-            GameEvents.TABLE_NAME
+            GameEvents.TABLE_NAME,
+            CurrencyAudit.TABLE_NAME
+    };
+
+    /**
+     * Tablas con estado del jugador incluidas en los guardados completos
+     * (los templates y eventos son contenido del juego y no se guardan)
+     */
+    public static final String[] PLAYER_STATE_TABLE_NAMES = {
+            PlayerData.TABLE_NAME,
+            PlayerHeroes.TABLE_NAME,
+            Equipment.TABLE_NAME,
+            HeroShards.TABLE_NAME,
+            Inventory.TABLE_NAME,
+            CampaignProgress.TABLE_NAME,
+            TowerProgress.TABLE_NAME,
+            TeamFormations.TABLE_NAME,
+            Missions.TABLE_NAME
     };
 
     // ==================== QUERIES ÚTILES ====================
 
     /**
-     * Query para obtener héroes con sus datos de template
+     * Query para obtener los héroes del jugador (solo columnas de player_heroes; los datos
+     * de plantilla se resuelven con HeroTemplateRegistry)
      */
-    public static final String QUERY_HEROES_WITH_TEMPLATES =
-            "SELECT ph.*, ht.name, ht.faction, ht.attribute, ht.role, ht.rarity, " +
-                    "ht.sprite_name, ht.skill_1_name, ht.skill_2_name, ht.skill_3_name " +
-                    "FROM " + PlayerHeroes.TABLE_NAME + " ph " +
-                    "INNER JOIN " + HeroTemplates.TABLE_NAME + " ht " +
-                    "ON ph." + PlayerHeroes.COLUMN_HERO_TEMPLATE_ID + " = ht." + HeroTemplates.COLUMN_HERO_ID;
+    public static final String QUERY_PLAYER_HEROES =
+            "SELECT ph.* FROM " + PlayerHeroes.TABLE_NAME + " ph";
 
     /**
      * Query para obtener el equipo activo
      */
     public static final String QUERY_ACTIVE_TEAM =
-            "SELECT ph.*, ht.name, ht.faction, ht.attribute, ht.role " +
-                    "FROM " + PlayerHeroes.TABLE_NAME + " ph " +
-                    "INNER JOIN " + HeroTemplates.TABLE_NAME + " ht " +
-                    "ON ph." + PlayerHeroes.COLUMN_HERO_TEMPLATE_ID + " = ht." + HeroTemplates.COLUMN_HERO_ID + " " +
+            "SELECT ph.* FROM " + PlayerHeroes.TABLE_NAME + " ph " +
                     "WHERE ph." + PlayerHeroes.COLUMN_TEAM_POSITION + " > 0 " +
                     "ORDER BY ph." + PlayerHeroes.COLUMN_TEAM_POSITION;
 
@@ -472,7 +515,9 @@ public final class DatabaseContract {
                     Missions.TABLE_NAME + "(" + Missions.COLUMN_MISSION_TYPE + ")",
 
             "CREATE INDEX IF NOT EXISTS idx_events_active ON " +
-                    GameEvents.TABLE_NAME + "(" + GameEvents.COLUMN_IS_ACTIVE + ")"
+                    GameEvents.TABLE_NAME + "(" + GameEvents.COLUMN_IS_ACTIVE + ")",
+
+            CurrencyAudit.CREATE_INDEX
     };
 
     // ==================== DATOS INICIALES ====================
@@ -552,31 +597,36 @@ public final class DatabaseContract {
                     "VALUES ('Equipo Principal', 1, 1, 1200, ?)";
 
     /**
-     * Misiones diarias iniciales
+     * Insert parametrizado de misiones: una sola sentencia compilada para todas las filas.
+     * Orden de parámetros: columnas de INITIAL_*_MISSIONS, después expires_at y created_at
      */
-    public static final String[] INITIAL_DAILY_MISSIONS = {
-            "INSERT INTO " + Missions.TABLE_NAME + " VALUES " +
-                    "(null, 'daily_login', 'daily', 'Inicio de Sesión Diario', 'Inicia sesión en el juego', 1, 0, 0, 0, 'gold', 1000, ?, ?)",
+    public static final String INSERT_MISSION =
+            "INSERT INTO " + Missions.TABLE_NAME + " (" +
+                    Missions.COLUMN_MISSION_ID + ", " + Missions.COLUMN_MISSION_TYPE + ", " +
+                    Missions.COLUMN_TITLE + ", " + Missions.COLUMN_DESCRIPTION + ", " +
+                    Missions.COLUMN_TARGET_VALUE + ", " + Missions.COLUMN_CURRENT_PROGRESS + ", " +
+                    Missions.COLUMN_IS_COMPLETED + ", " + Missions.COLUMN_IS_CLAIMED + ", " +
+                    Missions.COLUMN_REWARD_TYPE + ", " + Missions.COLUMN_REWARD_AMOUNT + ", " +
+                    Missions.COLUMN_EXPIRES_AT + ", " + Missions.COLUMN_CREATED_AT + ") " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-            "INSERT INTO " + Missions.TABLE_NAME + " VALUES " +
-                    "(null, 'daily_battles', 'daily', 'Batallas Diarias', 'Completa 5 batallas', 5, 0, 0, 0, 'gems', 50, ?, ?)",
-
-            "INSERT INTO " + Missions.TABLE_NAME + " VALUES " +
-                    "(null, 'daily_upgrade', 'daily', 'Mejora Diaria', 'Mejora un héroe o equipamiento', 1, 0, 0, 0, 'gold', 2000, ?, ?)"
+    /**
+     * Misiones diarias iniciales
+     * (mission_id, tipo, título, descripción, objetivo, progreso, completada, reclamada, recompensa, cantidad)
+     */
+    public static final Object[][] INITIAL_DAILY_MISSIONS = {
+            {"daily_login", "daily", "Inicio de Sesión Diario", "Inicia sesión en el juego", 1, 0, 0, 0, "gold", 1000},
+            {"daily_battles", "daily", "Batallas Diarias", "Completa 5 batallas", 5, 0, 0, 0, "gems", 50},
+            {"daily_upgrade", "daily", "Mejora Diaria", "Mejora un héroe o equipamiento", 1, 0, 0, 0, "gold", 2000}
     };
 
     /**
-     * Misiones permanentes iniciales
+     * Misiones permanentes iniciales (mismas columnas; no expiran)
      */
-    public static final String[] INITIAL_PERMANENT_MISSIONS = {
-            "INSERT INTO " + Missions.TABLE_NAME + " VALUES " +
-                    "(null, 'reach_level_10', 'permanent', 'Alcanzar Nivel 10', 'Llega al nivel 10 de jugador', 10, 0, 0, 0, 'gems', 200, 0, ?)",
-
-            "INSERT INTO " + Missions.TABLE_NAME + " VALUES " +
-                    "(null, 'collect_5_heroes', 'permanent', 'Coleccionista', 'Obtén 5 héroes diferentes', 5, 1, 0, 0, 'gems', 500, 0, ?)",
-
-            "INSERT INTO " + Missions.TABLE_NAME + " VALUES " +
-                    "(null, 'complete_chapter_1', 'permanent', 'Primer Capítulo', 'Completa el capítulo 1 de la campaña', 1, 0, 0, 0, 'gems', 300, 0, ?)"
+    public static final Object[][] INITIAL_PERMANENT_MISSIONS = {
+            {"reach_level_10", "permanent", "Alcanzar Nivel 10", "Llega al nivel 10 de jugador", 10, 0, 0, 0, "gems", 200},
+            {"collect_5_heroes", "permanent", "Coleccionista", "Obtén 5 héroes diferentes", 5, 1, 0, 0, "gems", 500},
+            {"complete_chapter_1", "permanent", "Primer Capítulo", "Completa el capítulo 1 de la campaña", 1, 0, 0, 0, "gems", 300}
     };
 
     // ==================== MÉTODOS HELPER PARA QUERIES ====================
@@ -585,7 +635,10 @@ public final class DatabaseContract {
      * Obtiene el query para buscar héroes por filtros
      */
     public static String getHeroSearchQuery(String faction, String rarity, String role, String sortBy) {
-        StringBuilder query = new StringBuilder(QUERY_HEROES_WITH_TEMPLATES);
+        // Los filtros son columnas de plantilla: el JOIN solo filtra y ordena
+        StringBuilder query = new StringBuilder(QUERY_PLAYER_HEROES + " " +
+                "INNER JOIN " + HeroTemplates.TABLE_NAME + " ht " +
+                "ON ph." + PlayerHeroes.COLUMN_HERO_TEMPLATE_ID + " = ht." + HeroTemplates.COLUMN_HERO_ID);
 
         // Agregar filtros
         boolean hasWhere = false;
@@ -0,0 +1,342 @@
+package com.by.soh.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.provider.BaseColumns;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imagen en memoria de un conjunto de tablas, capturada dentro de una única transacción
+ * para que todas las tablas reflejen el mismo estado. Una vez capturada es inmutable y
+ * puede serializarse desde cualquier hilo sin tocar la base de datos
+ */
+public class DatabaseSnapshot {
+
+    // Tipos de valor (coinciden con Cursor.FIELD_TYPE_*)
+    public static final int TYPE_NULL = Cursor.FIELD_TYPE_NULL;
+    public static final int TYPE_INTEGER = Cursor.FIELD_TYPE_INTEGER;
+    public static final int TYPE_FLOAT = Cursor.FIELD_TYPE_FLOAT;
+    public static final int TYPE_STRING = Cursor.FIELD_TYPE_STRING;
+    public static final int TYPE_BLOB = Cursor.FIELD_TYPE_BLOB;
+
+    private final long capturedAt;
+    private final List<TableImage> tables;
+
+    public DatabaseSnapshot(long capturedAt, List<TableImage> tables) {
+        this.capturedAt = capturedAt;
+        this.tables = Collections.unmodifiableList(tables);
+    }
+
+    public long getCapturedAt() {
+        return capturedAt;
+    }
+
+    public List<TableImage> getTables() {
+        return tables;
+    }
+
+    /**
+     * Busca la imagen de una tabla por nombre
+     */
+    public TableImage getTable(String name) {
+        for (TableImage table : tables) {
+            if (table.name.equals(name)) return table;
+        }
+        return null;
+    }
+
+    /**
+     * Número total de filas capturadas
+     */
+    public int getTotalRows() {
+        int total = 0;
+        for (TableImage table : tables) {
+            total += table.rows.size();
+        }
+        return total;
+    }
+
+    // ==================== CAPTURA Y RESTAURACIÓN ====================
+
+    /**
+     * Copia las tablas indicadas dentro de una transacción (lectura consistente).
+     * Solo copia valores; la codificación a disco se hace fuera de la transacción
+     */
+    static DatabaseSnapshot capture(SQLiteDatabase db, String[] tableNames) {
+        List<TableImage> images = new ArrayList<>(tableNames.length);
+
+        db.beginTransactionNonExclusive();
+        try {
+            for (String tableName : tableNames) {
+                Cursor cursor = db.query(tableName, null, null, null, null, null, null);
+                try {
+                    images.add(TableImage.fromCursor(tableName, cursor));
+                } finally {
+                    cursor.close();
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        return new DatabaseSnapshot(System.currentTimeMillis(), images);
+    }
+
+    /**
+     * Sustituye el contenido de las tablas capturadas en una sola transacción.
+     * Las claves foráneas se comprueban al confirmar, no fila a fila
+     */
+    static void restore(SQLiteDatabase db, DatabaseSnapshot snapshot) {
+        db.beginTransaction();
+        try {
+            db.execSQL("PRAGMA defer_foreign_keys=ON;");
+
+            // Borrar en orden inverso (hijos antes que padres)
+            List<TableImage> images = snapshot.getTables();
+            for (int i = images.size() - 1; i >= 0; i--) {
+                db.delete(images.get(i).name, null, null);
+            }
+
+            for (TableImage image : images) {
+                image.insertInto(db);
+            }
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Copia solo lo modificado: tablas completas marcadas como tales y, para el resto,
+     * las filas cambiadas. Las filas marcadas que ya no existen se registran como borradas
+     */
+    static DatabaseSnapshot captureDelta(SQLiteDatabase db, String[] tableOrder,
+                                         Map<String, DirtyTracker.DirtyTable> dirtyTables) {
+        List<TableImage> images = new ArrayList<>(dirtyTables.size());
+
+        db.beginTransactionNonExclusive();
+        try {
+            for (String tableName : tableOrder) {
+                DirtyTracker.DirtyTable dirty = dirtyTables.get(tableName);
+                if (dirty == null) continue;
+
+                if (dirty.wholeTable) {
+                    Cursor cursor = db.query(tableName, null, null, null, null, null, null);
+                    try {
+                        images.add(TableImage.fromCursor(tableName, cursor));
+                    } finally {
+                        cursor.close();
+                    }
+                    continue;
+                }
+
+                Set<Long> deleted = new HashSet<>(dirty.deletedRows);
+                TableImage changed = queryRows(db, tableName, dirty.changedRows);
+
+                // Filas marcadas como cambiadas que ya no están: se borraron después
+                Set<Long> found = new HashSet<>();
+                int idIndex = changed.indexOfColumn(BaseColumns._ID);
+                for (Object[] row : changed.rows) {
+                    found.add((Long) row[idIndex]);
+                }
+                for (long rowId : dirty.changedRows) {
+                    if (!found.contains(rowId)) deleted.add(rowId);
+                }
+
+                long[] deletedIds = new long[deleted.size()];
+                int i = 0;
+                for (long rowId : deleted) deletedIds[i++] = rowId;
+
+                images.add(new TableImage(tableName, changed.columns, changed.rows, false, deletedIds));
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        return new DatabaseSnapshot(System.currentTimeMillis(), images);
+    }
+
+    /**
+     * Aplica un snapshot parcial: reemplaza las tablas completas y hace upsert/borrado
+     * de las filas sueltas, todo en una transacción
+     */
+    static void applyDelta(SQLiteDatabase db, DatabaseSnapshot delta) {
+        db.beginTransaction();
+        try {
+            db.execSQL("PRAGMA defer_foreign_keys=ON;");
+
+            for (TableImage image : delta.getTables()) {
+                if (image.fullTable) {
+                    db.delete(image.name, null, null);
+                } else {
+                    for (long rowId : image.deletedIds) {
+                        db.delete(image.name, BaseColumns._ID + " = ?", new String[]{String.valueOf(rowId)});
+                    }
+                }
+                image.insertInto(db);
+            }
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Lee las filas con los _id indicados
+     */
+    private static TableImage queryRows(SQLiteDatabase db, String tableName, Set<Long> rowIds) {
+        StringBuilder where = new StringBuilder(BaseColumns._ID).append(" IN (");
+        boolean first = true;
+        for (long rowId : rowIds) {
+            if (!first) where.append(',');
+            where.append(rowId);
+            first = false;
+        }
+        where.append(')');
+
+        // Sin filas cambiadas se consulta igualmente para obtener las columnas
+        Cursor cursor = db.query(tableName, null, rowIds.isEmpty() ? "0" : where.toString(),
+                null, null, null, null);
+        try {
+            return TableImage.fromCursor(tableName, cursor);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Columnas y filas de una tabla
+     */
+    public static class TableImage {
+        public final String name;
+        public final String[] columns;
+        public final List<Object[]> rows;
+
+        // Imagen completa de la tabla o solo filas cambiadas (+ ids borrados)
+        public final boolean fullTable;
+        public final long[] deletedIds;
+
+        public TableImage(String name, String[] columns, List<Object[]> rows) {
+            this(name, columns, rows, true, new long[0]);
+        }
+
+        public TableImage(String name, String[] columns, List<Object[]> rows,
+                          boolean fullTable, long[] deletedIds) {
+            this.name = name;
+            this.columns = columns;
+            this.rows = Collections.unmodifiableList(rows);
+            this.fullTable = fullTable;
+            this.deletedIds = deletedIds;
+        }
+
+        /**
+         * Posición de una columna o -1 si no existe
+         */
+        public int indexOfColumn(String column) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equals(column)) return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Copia todas las filas del cursor respetando el tipo de cada valor
+         */
+        static TableImage fromCursor(String name, Cursor cursor) {
+            String[] columns = cursor.getColumnNames();
+            List<Object[]> rows = new ArrayList<>(Math.max(cursor.getCount(), 0));
+
+            while (cursor.moveToNext()) {
+                Object[] row = new Object[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    switch (cursor.getType(i)) {
+                        case Cursor.FIELD_TYPE_INTEGER:
+                            row[i] = cursor.getLong(i);
+                            break;
+                        case Cursor.FIELD_TYPE_FLOAT:
+                            row[i] = cursor.getDouble(i);
+                            break;
+                        case Cursor.FIELD_TYPE_STRING:
+                            row[i] = cursor.getString(i);
+                            break;
+                        case Cursor.FIELD_TYPE_BLOB:
+                            row[i] = cursor.getBlob(i);
+                            break;
+                        default:
+                            row[i] = null;
+                            break;
+                    }
+                }
+                rows.add(row);
+            }
+
+            return new TableImage(name, columns, rows);
+        }
+
+        /**
+         * Inserta las filas con una única sentencia preparada
+         * (INSERT OR REPLACE para que los deltas actualicen filas existentes)
+         */
+        void insertInto(SQLiteDatabase db) {
+            if (rows.isEmpty()) return;
+
+            StringBuilder sql = new StringBuilder("INSERT OR REPLACE INTO ").append(name).append(" (");
+            StringBuilder placeholders = new StringBuilder();
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                    placeholders.append(", ");
+                }
+                sql.append(columns[i]);
+                placeholders.append('?');
+            }
+            sql.append(") VALUES (").append(placeholders).append(")");
+
+            SQLiteStatement statement = db.compileStatement(sql.toString());
+            try {
+                for (Object[] row : rows) {
+                    statement.clearBindings();
+                    for (int i = 0; i < row.length; i++) {
+                        bindValue(statement, i + 1, row[i]);
+                    }
+                    statement.executeInsert();
+                }
+            } finally {
+                statement.close();
+            }
+        }
+
+        private static void bindValue(SQLiteStatement statement, int index, Object value) {
+            if (value == null) {
+                statement.bindNull(index);
+            } else if (value instanceof Long) {
+                statement.bindLong(index, (Long) value);
+            } else if (value instanceof Double) {
+                statement.bindDouble(index, (Double) value);
+            } else if (value instanceof byte[]) {
+                statement.bindBlob(index, (byte[]) value);
+            } else {
+                statement.bindString(index, value.toString());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("TableImage{name='%s', columns=%d, rows=%d, full=%b, deleted=%d}",
+                    name, columns.length, rows.size(), fullTable, deletedIds.length);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.by.soh.database;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registro de entidades modificadas desde el último guardado
+ * Las escrituras de GameDatabaseHelper (a las que llegan todas las mutaciones de los
+ * managers: addGold, equipToHero, addExperienceToHero...) marcan la fila o la tabla
+ * afectada; el auto-save drena el conjunto y guarda solo lo que cambió
+ */
+public class DirtyTracker {
+
+    // Solo las tablas con estado del jugador se guardan
+    private final Set<String> trackedTables =
+            new HashSet<>(Arrays.asList(DatabaseContract.PLAYER_STATE_TABLE_NAMES));
+
+    private Map<String, DirtyTable> dirtyTables = new HashMap<>();
+
+    DirtyTracker() {
+    }
+
+    // ==================== MARCADO ====================
+
+    /**
+     * Marca una fila insertada o actualizada
+     */
+    public synchronized void markRow(String table, long rowId) {
+        DirtyTable dirty = getOrCreate(table);
+        if (dirty != null && !dirty.wholeTable) {
+            dirty.deletedRows.remove(rowId);
+            dirty.changedRows.add(rowId);
+        }
+    }
+
+    /**
+     * Marca una fila eliminada
+     */
+    public synchronized void markDeleted(String table, long rowId) {
+        DirtyTable dirty = getOrCreate(table);
+        if (dirty != null && !dirty.wholeTable) {
+            dirty.changedRows.remove(rowId);
+            dirty.deletedRows.add(rowId);
+        }
+    }
+
+    /**
+     * Marca la tabla completa (escrituras sin id de fila concreto)
+     */
+    public synchronized void markTable(String table) {
+        DirtyTable dirty = getOrCreate(table);
+        if (dirty != null) {
+            dirty.wholeTable = true;
+            dirty.changedRows.clear();
+            dirty.deletedRows.clear();
+        }
+    }
+
+    // ==================== CONSUMO ====================
+
+    /**
+     * Indica si no hay cambios pendientes de guardar
+     */
+    public synchronized boolean isClean() {
+        return dirtyTables.isEmpty();
+    }
+
+    /**
+     * Devuelve los cambios pendientes y empieza un conjunto nuevo.
+     * Las escrituras posteriores se acumulan para el siguiente guardado
+     */
+    public synchronized Map<String, DirtyTable> drain() {
+        Map<String, DirtyTable> drained = dirtyTables;
+        dirtyTables = new HashMap<>();
+        return drained;
+    }
+
+    /**
+     * Devuelve al tracker cambios drenados cuyo guardado falló
+     */
+    public synchronized void requeue(Map<String, DirtyTable> failed) {
+        for (Map.Entry<String, DirtyTable> entry : failed.entrySet()) {
+            DirtyTable pending = entry.getValue();
+            if (pending.wholeTable) {
+                markTable(entry.getKey());
+                continue;
+            }
+            for (long rowId : pending.deletedRows) {
+                markDeleted(entry.getKey(), rowId);
+            }
+            for (long rowId : pending.changedRows) {
+                markRow(entry.getKey(), rowId);
+            }
+        }
+    }
+
+    /**
+     * Descarta los cambios pendientes (p.ej. tras restaurar un guardado)
+     */
+    public synchronized void clear() {
+        dirtyTables.clear();
+    }
+
+    /**
+     * Número de tablas con cambios pendientes
+     */
+    public synchronized int getDirtyTableCount() {
+        return dirtyTables.size();
+    }
+
+    private DirtyTable getOrCreate(String table) {
+        if (!trackedTables.contains(table)) {
+            return null;
+        }
+        DirtyTable dirty = dirtyTables.get(table);
+        if (dirty == null) {
+            dirty = new DirtyTable();
+            dirtyTables.put(table, dirty);
+        }
+        return dirty;
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Cambios pendientes de una tabla
+     */
+    public static class DirtyTable {
+        public boolean wholeTable;
+        public final Set<Long> changedRows = new HashSet<>();
+        public final Set<Long> deletedRows = new HashSet<>();
+
+        @Override
+        public String toString() {
+            return wholeTable ? "DirtyTable{all}" :
+                    String.format("DirtyTable{changed=%d, deleted=%d}", changedRows.size(), deletedRows.size());
+        }
+    }
+}
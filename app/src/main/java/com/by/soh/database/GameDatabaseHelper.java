@@ -5,10 +5,27 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.SystemClock;
 import android.util.Log;
 
 import com.by.soh.constants.GameConstants;
 import com.by.soh.database.DatabaseContract.*;
+import com.by.soh.utils.StatMultiplierTable;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Helper principal para la base de datos SQLite del juego
@@ -18,12 +35,41 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
 
     private static final String TAG = "GameDatabaseHelper";
 
+    // Modos de PRAGMA auto_vacuum
+    public static final int AUTO_VACUUM_NONE = 0;
+    public static final int AUTO_VACUUM_FULL = 1;
+    public static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    // Mantenimiento
+    public static final int PURGE_BATCH_SIZE = 200;
+    private static final int CLEANUP_MAX_VACUUM_PAGES = 256;
+    private static final long EXPIRED_EVENT_AGE_MS = 7 * 24 * 60 * 60 * 1000L; // 7 días
+
+    // Debugging
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     // Singleton instance
     private static GameDatabaseHelper instance;
 
+    // Verificación de integridad por niveles
+    private final IntegrityVerifier integrityVerifier;
+
+    // Invalidación reactiva de consultas por tabla
+    private final InvalidationTracker invalidationTracker;
+
+    // Registro de cambios para guardados incrementales
+    private final DirtyTracker dirtyTracker;
+
+    // Carga de datos iniciales desde assets
+    private final SeedLoader seedLoader;
+
     // Constructor privado para patrón Singleton
     private GameDatabaseHelper(Context context) {
         super(context, GameConstants.DATABASE_NAME, null, GameConstants.DATABASE_VERSION);
+        this.integrityVerifier = new IntegrityVerifier(context, this);
+        this.invalidationTracker = new InvalidationTracker();
+        this.dirtyTracker = new DirtyTracker();
+        this.seedLoader = new SeedLoader(context);
     }
 
     /**
@@ -36,6 +82,16 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         return instance;
     }
 
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // Debe fijarse antes de crear las tablas; en BDs existentes se aplica
+        // con un único VACUUM desde DatabaseMaintenanceManager
+        if (!db.isReadOnly()) {
+            db.execSQL("PRAGMA auto_vacuum=INCREMENTAL;");
+        }
+    }
+
     @Override
     public void onCreate(SQLiteDatabase db) {
         Log.i(TAG, "Creando base de datos...");
@@ -68,8 +124,27 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
         Log.i(TAG, "Actualizando base de datos de versión " + oldVersion + " a " + newVersion);
 
-        // Por ahora, estrategia simple: drop y recrear
-        // En producción, implementar migraciones apropiadas
+        // Migraciones incrementales (onUpgrade ya corre dentro de una transacción):
+        // cada paso lleva la BD de la versión N-1 a la N conservando los datos del jugador
+        if (oldVersion < 2) {
+            migrateToVersion2(db);
+        }
+    }
+
+    /**
+     * v2: auditoría de transacciones de monedas
+     */
+    private void migrateToVersion2(SQLiteDatabase db) {
+        db.execSQL(CurrencyAudit.CREATE_TABLE);
+        db.execSQL(CurrencyAudit.CREATE_INDEX);
+        Log.i(TAG, "Migración a v2 completada: tabla " + CurrencyAudit.TABLE_NAME);
+    }
+
+    @Override
+    public void onDowngrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        Log.w(TAG, "Bajando base de datos de versión " + oldVersion + " a " + newVersion);
+
+        // El esquema nuevo no es legible por esta versión: recrear
         dropAllTables(db);
         onCreate(db);
     }
@@ -90,48 +165,12 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
      */
     private void populateInitialData(SQLiteDatabase db) {
         Log.i(TAG, "Poblando datos iniciales...");
-
-        long currentTime = System.currentTimeMillis();
+        long startTime = SystemClock.elapsedRealtime();
 
         try {
-            // Insertar templates de héroes
-            for (String heroTemplate : DatabaseContract.INITIAL_HERO_TEMPLATES) {
-                db.execSQL(heroTemplate);
-            }
-            Log.d(TAG, "Templates de héroes insertados");
-
-            // Insertar datos iniciales del jugador
-            db.execSQL(DatabaseContract.INITIAL_PLAYER_DATA,
-                    new Object[]{currentTime, currentTime});
-            Log.d(TAG, "Datos del jugador insertados");
-
-            // Insertar héroe inicial (Ichigo)
-            db.execSQL(DatabaseContract.INITIAL_PLAYER_HERO,
-                    new Object[]{currentTime});
-            Log.d(TAG, "Héroe inicial insertado");
-
-            // Insertar formación inicial
-            db.execSQL(DatabaseContract.INITIAL_TEAM_FORMATION,
-                    new Object[]{currentTime});
-            Log.d(TAG, "Formación inicial insertada");
-
-            // Insertar misiones diarias
-            long tomorrowMidnight = getTomorrowMidnightTimestamp();
-            for (String mission : DatabaseContract.INITIAL_DAILY_MISSIONS) {
-                db.execSQL(mission, new Object[]{tomorrowMidnight, currentTime});
-            }
-            Log.d(TAG, "Misiones diarias insertadas");
-
-            // Insertar misiones permanentes
-            for (String mission : DatabaseContract.INITIAL_PERMANENT_MISSIONS) {
-                db.execSQL(mission, new Object[]{currentTime});
-            }
-            Log.d(TAG, "Misiones permanentes insertadas");
-
-            // Insertar progreso inicial de campaña (nivel 1-1)
-            insertInitialCampaignProgress(db);
-
-            Log.i(TAG, "Datos iniciales poblados exitosamente");
+            seedLoader.seedInitialData(db);
+            Log.i(TAG, "Datos iniciales poblados exitosamente en " +
+                    (SystemClock.elapsedRealtime() - startTime) + "ms");
 
         } catch (Exception e) {
             Log.e(TAG, "Error poblando datos iniciales", e);
@@ -140,21 +179,7 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
     }
 
     /**
-     * Inserta el progreso inicial de la campaña
-     */
-    private void insertInitialCampaignProgress(SQLiteDatabase db) {
-        ContentValues values = new ContentValues();
-        values.put(CampaignProgress.COLUMN_CHAPTER, 1);
-        values.put(CampaignProgress.COLUMN_STAGE, 1);
-        values.put(CampaignProgress.COLUMN_IS_COMPLETED, 0);
-        values.put(CampaignProgress.COLUMN_STARS_EARNED, 0);
-
-        db.insert(CampaignProgress.TABLE_NAME, null, values);
-        Log.d(TAG, "Progreso inicial de campaña insertado");
-    }
-
-    /**
-     * Elimina todas las tablas (para upgrades)
+     * Elimina todas las tablas (para downgrades)
      */
     private void dropAllTables(SQLiteDatabase db) {
         Log.w(TAG, "Eliminando todas las tablas...");
@@ -182,6 +207,10 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         values.put(PlayerData.COLUMN_UPDATED_AT, System.currentTimeMillis());
 
         int rowsAffected = db.update(PlayerData.TABLE_NAME, values, null, null);
+        if (rowsAffected > 0) {
+            invalidationTracker.notifyTablesChanged(PlayerData.TABLE_NAME);
+            dirtyTracker.markTable(PlayerData.TABLE_NAME);
+        }
         return rowsAffected > 0;
     }
 
@@ -197,6 +226,10 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         values.put(PlayerData.COLUMN_UPDATED_AT, System.currentTimeMillis());
 
         int rowsAffected = db.update(PlayerData.TABLE_NAME, values, null, null);
+        if (rowsAffected > 0) {
+            invalidationTracker.notifyTablesChanged(PlayerData.TABLE_NAME);
+            dirtyTracker.markTable(PlayerData.TABLE_NAME);
+        }
         return rowsAffected > 0;
     }
 
@@ -214,17 +247,102 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         values.put(PlayerData.COLUMN_UPDATED_AT, System.currentTimeMillis());
 
         int rowsAffected = db.update(PlayerData.TABLE_NAME, values, null, null);
+        if (rowsAffected > 0) {
+            invalidationTracker.notifyTablesChanged(PlayerData.TABLE_NAME);
+            dirtyTracker.markTable(PlayerData.TABLE_NAME);
+        }
         return rowsAffected > 0;
     }
 
+    /**
+     * Aplica un lote de transacciones de monedas en una sola transacción: suma los
+     * deltas a los saldos guardados, suma los fragmentos ganados e inserta una fila de
+     * auditoría por transacción. Los deltas son relativos, así que no pisan cambios
+     * hechos en la BD por otras vías (p. ej. el gacha)
+     */
+    public boolean commitCurrencyBatch(long goldDelta, long gemsDelta, long pvpCoinsDelta, long guildCoinsDelta,
+                                       Map<String, Integer> shardDeltas, List<ContentValues> auditEntries) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        long now = System.currentTimeMillis();
+
+        db.beginTransaction();
+        try {
+            SQLiteStatement balances = db.compileStatement("UPDATE " + PlayerData.TABLE_NAME + " SET " +
+                    PlayerData.COLUMN_GOLD + " = " + PlayerData.COLUMN_GOLD + " + ?, " +
+                    PlayerData.COLUMN_GEMS + " = " + PlayerData.COLUMN_GEMS + " + ?, " +
+                    PlayerData.COLUMN_PVP_COINS + " = " + PlayerData.COLUMN_PVP_COINS + " + ?, " +
+                    PlayerData.COLUMN_GUILD_COINS + " = " + PlayerData.COLUMN_GUILD_COINS + " + ?, " +
+                    PlayerData.COLUMN_UPDATED_AT + " = ?");
+            try {
+                balances.bindLong(1, goldDelta);
+                balances.bindLong(2, gemsDelta);
+                balances.bindLong(3, pvpCoinsDelta);
+                balances.bindLong(4, guildCoinsDelta);
+                balances.bindLong(5, now);
+                balances.executeUpdateDelete();
+            } finally {
+                balances.close();
+            }
+
+            for (Map.Entry<String, Integer> shard : shardDeltas.entrySet()) {
+                addHeroShards(db, shard.getKey(), shard.getValue(), now);
+            }
+
+            for (ContentValues entry : auditEntries) {
+                db.insert(CurrencyAudit.TABLE_NAME, null, entry);
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error aplicando lote de monedas", e);
+            return false;
+        } finally {
+            db.endTransaction();
+        }
+
+        if (shardDeltas.isEmpty()) {
+            invalidationTracker.notifyTablesChanged(PlayerData.TABLE_NAME);
+        } else {
+            invalidationTracker.notifyTablesChanged(PlayerData.TABLE_NAME, HeroShards.TABLE_NAME);
+            dirtyTracker.markTable(HeroShards.TABLE_NAME);
+        }
+        dirtyTracker.markTable(PlayerData.TABLE_NAME);
+        return true;
+    }
+
+    /**
+     * Suma fragmentos a un héroe, creando la fila si no existía
+     */
+    private void addHeroShards(SQLiteDatabase db, String heroTemplateId, int amount, long now) {
+        SQLiteStatement update = db.compileStatement("UPDATE " + HeroShards.TABLE_NAME + " SET " +
+                HeroShards.COLUMN_SHARD_COUNT + " = " + HeroShards.COLUMN_SHARD_COUNT + " + ?, " +
+                HeroShards.COLUMN_UPDATED_AT + " = ? WHERE " + HeroShards.COLUMN_HERO_TEMPLATE_ID + " = ?");
+        int updated;
+        try {
+            update.bindLong(1, amount);
+            update.bindLong(2, now);
+            update.bindString(3, heroTemplateId);
+            updated = update.executeUpdateDelete();
+        } finally {
+            update.close();
+        }
+
+        if (updated == 0) {
+            ContentValues values = new ContentValues();
+            values.put(HeroShards.COLUMN_HERO_TEMPLATE_ID, heroTemplateId);
+            values.put(HeroShards.COLUMN_SHARD_COUNT, amount);
+            values.put(HeroShards.COLUMN_UPDATED_AT, now);
+            db.insertOrThrow(HeroShards.TABLE_NAME, null, values);
+        }
+    }
+
     // ==================== OPERACIONES DE HÉROES ====================
 
     /**
-     * Obtiene todos los héroes del jugador con sus datos de template
+     * Obtiene todos los héroes del jugador
      */
     public Cursor getAllPlayerHeroes() {
         SQLiteDatabase db = this.getReadableDatabase();
-        return db.rawQuery(DatabaseContract.QUERY_HEROES_WITH_TEMPLATES, null);
+        return db.rawQuery(DatabaseContract.QUERY_PLAYER_HEROES, null);
     }
 
     /**
@@ -232,7 +350,7 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
      */
     public Cursor getPlayerHeroById(long heroId) {
         SQLiteDatabase db = this.getReadableDatabase();
-        String query = DatabaseContract.QUERY_HEROES_WITH_TEMPLATES + " WHERE ph._id = ?";
+        String query = DatabaseContract.QUERY_PLAYER_HEROES + " WHERE ph._id = ?";
         return db.rawQuery(query, new String[]{String.valueOf(heroId)});
     }
 
@@ -248,8 +366,18 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
      * Inserta un nuevo héroe para el jugador
      */
     public long insertPlayerHero(String heroTemplateId, int stars, int enhancement) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        long heroId = insertPlayerHero(this.getWritableDatabase(), heroTemplateId, stars, enhancement);
+        if (heroId != -1) {
+            invalidationTracker.notifyTablesChanged(PlayerHeroes.TABLE_NAME);
+            dirtyTracker.markRow(PlayerHeroes.TABLE_NAME, heroId);
+        }
+        return heroId;
+    }
 
+    /**
+     * Inserta el héroe sin notificar cambios (para usar dentro de una transacción)
+     */
+    private long insertPlayerHero(SQLiteDatabase db, String heroTemplateId, int stars, int enhancement) {
         // Primero obtener datos del template
         Cursor templateCursor = db.query(HeroTemplates.TABLE_NAME, null,
                 HeroTemplates.COLUMN_HERO_ID + " = ?", new String[]{heroTemplateId},
@@ -270,10 +398,7 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         templateCursor.close();
 
         // Aplicar multiplicadores
-        float rarityMult = GameConstants.getRarityMultiplier(rarity);
-        float starMult = GameConstants.getStarMultiplier(stars);
-        float enhanceMult = GameConstants.getEnhancementMultiplier(enhancement);
-        float totalMult = rarityMult * starMult * enhanceMult;
+        float totalMult = StatMultiplierTable.getGrowthMultiplier(rarity, stars, enhancement);
 
         int finalHp = Math.round(baseHp * totalMult);
         int finalAtk = Math.round(baseAtk * totalMult);
@@ -297,6 +422,75 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         return db.insert(PlayerHeroes.TABLE_NAME, null, values);
     }
 
+    /**
+     * Obtiene el catálogo completo de templates de héroe
+     */
+    public Cursor getAllHeroTemplates() {
+        SQLiteDatabase db = this.getReadableDatabase();
+        return db.query(HeroTemplates.TABLE_NAME, null, null, null, null, null, HeroTemplates._ID);
+    }
+
+    /**
+     * Registra una invocación múltiple en una sola transacción: descuenta las gemas,
+     * inserta los héroes y guarda el contador de pity. Devuelve los IDs de los héroes,
+     * o null si no había gemas suficientes o la transacción falla (no se aplica nada)
+     */
+    public long[] commitGachaPulls(String[] heroTemplateIds, int gemCost, int newPityCount) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        long[] heroIds = new long[heroTemplateIds.length];
+
+        db.beginTransaction();
+        try {
+            // El saldo se comprueba en la propia sentencia para no gastar lo que no hay
+            SQLiteStatement spend = db.compileStatement("UPDATE " + PlayerData.TABLE_NAME +
+                    " SET " + PlayerData.COLUMN_GEMS + " = " + PlayerData.COLUMN_GEMS + " - ?, " +
+                    PlayerData.COLUMN_GACHA_PITY_COUNT + " = ?, " +
+                    PlayerData.COLUMN_UPDATED_AT + " = ?" +
+                    " WHERE " + PlayerData.COLUMN_GEMS + " >= ?");
+            int spent;
+            try {
+                spend.bindLong(1, gemCost);
+                spend.bindLong(2, newPityCount);
+                spend.bindLong(3, System.currentTimeMillis());
+                spend.bindLong(4, gemCost);
+                spent = spend.executeUpdateDelete();
+            } finally {
+                spend.close();
+            }
+            if (spent == 0) {
+                Log.w(TAG, "Gemas insuficientes para la invocación: " + gemCost);
+                return null;
+            }
+
+            ContentValues audit = new ContentValues();
+            audit.put(CurrencyAudit.COLUMN_REASON, "gacha_x" + heroTemplateIds.length);
+            audit.put(CurrencyAudit.COLUMN_GEMS_DELTA, -gemCost);
+            audit.put(CurrencyAudit.COLUMN_CREATED_AT, System.currentTimeMillis());
+            db.insert(CurrencyAudit.TABLE_NAME, null, audit);
+
+            for (int i = 0; i < heroTemplateIds.length; i++) {
+                heroIds[i] = insertPlayerHero(db, heroTemplateIds[i], 1, 0);
+                if (heroIds[i] == -1) {
+                    Log.e(TAG, "Template de gacha no encontrado: " + heroTemplateIds[i]);
+                    return null;
+                }
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error registrando invocación", e);
+            return null;
+        } finally {
+            db.endTransaction();
+        }
+
+        invalidationTracker.notifyTablesChanged(PlayerData.TABLE_NAME, PlayerHeroes.TABLE_NAME);
+        dirtyTracker.markTable(PlayerData.TABLE_NAME);
+        for (long heroId : heroIds) {
+            dirtyTracker.markRow(PlayerHeroes.TABLE_NAME, heroId);
+        }
+        return heroIds;
+    }
+
     /**
      * Actualiza las stats de un héroe
      */
@@ -305,10 +499,98 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
 
         int rowsAffected = db.update(PlayerHeroes.TABLE_NAME, values,
                 PlayerHeroes._ID + " = ?", new String[]{String.valueOf(heroId)});
+        if (rowsAffected > 0) {
+            invalidationTracker.notifyTablesChanged(PlayerHeroes.TABLE_NAME);
+            dirtyTracker.markRow(PlayerHeroes.TABLE_NAME, heroId);
+        }
 
         return rowsAffected > 0;
     }
 
+    /**
+     * Actualiza experiencia y nivel de varios héroes en una sola transacción.
+     * Devuelve el número de filas actualizadas (0 si la transacción falla)
+     */
+    public int updateHeroProgressBatch(long[] heroIds, long[] exps, int[] levels) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        List<Long> updated = new ArrayList<>(heroIds.length);
+
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            for (int i = 0; i < heroIds.length; i++) {
+                values.put(PlayerHeroes.COLUMN_EXP, exps[i]);
+                values.put(PlayerHeroes.COLUMN_LEVEL, levels[i]);
+                if (db.update(PlayerHeroes.TABLE_NAME, values, PlayerHeroes._ID + " = ?",
+                        new String[]{String.valueOf(heroIds[i])}) > 0) {
+                    updated.add(heroIds[i]);
+                }
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error actualizando experiencia de héroes", e);
+            return 0;
+        } finally {
+            db.endTransaction();
+        }
+
+        if (!updated.isEmpty()) {
+            invalidationTracker.notifyTablesChanged(PlayerHeroes.TABLE_NAME);
+            for (long heroId : updated) {
+                dirtyTracker.markRow(PlayerHeroes.TABLE_NAME, heroId);
+            }
+        }
+        return updated.size();
+    }
+
+    /**
+     * Registra la progresión offline en una sola transacción: EXP, nivel, campaña y reloj
+     * AFK del jugador (playerValues), EXP y nivel de los héroes y el botín. Devuelve los
+     * ids del equipamiento creado, o null si la transacción falla (no se escribe nada)
+     */
+    public long[] commitOfflineProgress(ContentValues playerValues, long[] heroIds, long[] heroExps,
+                                        int[] heroLevels, List<ContentValues> loot) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        long[] equipmentIds = new long[loot.size()];
+
+        db.beginTransaction();
+        try {
+            playerValues.put(PlayerData.COLUMN_UPDATED_AT, System.currentTimeMillis());
+            if (db.update(PlayerData.TABLE_NAME, playerValues, null, null) == 0) {
+                Log.e(TAG, "Progresión offline sin fila de jugador");
+                return null;
+            }
+
+            ContentValues heroValues = new ContentValues();
+            for (int i = 0; i < heroIds.length; i++) {
+                heroValues.put(PlayerHeroes.COLUMN_EXP, heroExps[i]);
+                heroValues.put(PlayerHeroes.COLUMN_LEVEL, heroLevels[i]);
+                db.update(PlayerHeroes.TABLE_NAME, heroValues, PlayerHeroes._ID + " = ?",
+                        new String[]{String.valueOf(heroIds[i])});
+            }
+
+            for (int i = 0; i < equipmentIds.length; i++) {
+                equipmentIds[i] = db.insertOrThrow(Equipment.TABLE_NAME, null, loot.get(i));
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error registrando progresión offline", e);
+            return null;
+        } finally {
+            db.endTransaction();
+        }
+
+        invalidationTracker.notifyTablesChanged(PlayerData.TABLE_NAME, PlayerHeroes.TABLE_NAME, Equipment.TABLE_NAME);
+        dirtyTracker.markTable(PlayerData.TABLE_NAME);
+        for (long heroId : heroIds) {
+            dirtyTracker.markRow(PlayerHeroes.TABLE_NAME, heroId);
+        }
+        for (long equipmentId : equipmentIds) {
+            dirtyTracker.markRow(Equipment.TABLE_NAME, equipmentId);
+        }
+        return equipmentIds;
+    }
+
     /**
      * Actualiza la posición de un héroe en el equipo
      */
@@ -320,6 +602,10 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
 
         int rowsAffected = db.update(PlayerHeroes.TABLE_NAME, values,
                 PlayerHeroes._ID + " = ?", new String[]{String.valueOf(heroId)});
+        if (rowsAffected > 0) {
+            invalidationTracker.notifyTablesChanged(PlayerHeroes.TABLE_NAME);
+            dirtyTracker.markRow(PlayerHeroes.TABLE_NAME, heroId);
+        }
 
         return rowsAffected > 0;
     }
@@ -351,6 +637,22 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
                                 int mainStatValue, String secondaryStats, int setId) {
         SQLiteDatabase db = this.getWritableDatabase();
 
+        ContentValues values = buildEquipmentValues(type, rarity, mainStatType, mainStatValue,
+                secondaryStats, setId);
+
+        long equipmentId = db.insert(Equipment.TABLE_NAME, null, values);
+        if (equipmentId != -1) {
+            invalidationTracker.notifyTablesChanged(Equipment.TABLE_NAME);
+            dirtyTracker.markRow(Equipment.TABLE_NAME, equipmentId);
+        }
+        return equipmentId;
+    }
+
+    /**
+     * Fila de una pieza de equipamiento nueva (para insertEquipment o commitOfflineProgress)
+     */
+    public ContentValues buildEquipmentValues(int type, int rarity, String mainStatType,
+                                              int mainStatValue, String secondaryStats, int setId) {
         ContentValues values = new ContentValues();
         values.put(Equipment.COLUMN_EQUIPMENT_TYPE, type);
         values.put(Equipment.COLUMN_RARITY, rarity);
@@ -361,8 +663,7 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         values.put(Equipment.COLUMN_POWER_RATING,
                 calculateEquipmentPower(mainStatValue, secondaryStats));
         values.put(Equipment.COLUMN_OBTAINED_AT, System.currentTimeMillis());
-
-        return db.insert(Equipment.TABLE_NAME, null, values);
+        return values;
     }
 
     /**
@@ -376,6 +677,10 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
 
         int rowsAffected = db.update(Equipment.TABLE_NAME, values,
                 Equipment._ID + " = ?", new String[]{String.valueOf(equipmentId)});
+        if (rowsAffected > 0) {
+            invalidationTracker.notifyTablesChanged(Equipment.TABLE_NAME);
+            dirtyTracker.markRow(Equipment.TABLE_NAME, equipmentId);
+        }
 
         return rowsAffected > 0;
     }
@@ -387,6 +692,38 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         return equipItemToHero(equipmentId, 0);
     }
 
+    /**
+     * Actualiza una pieza de equipamiento
+     */
+    public boolean updateEquipment(long equipmentId, ContentValues values) {
+        SQLiteDatabase db = this.getWritableDatabase();
+
+        int rowsAffected = db.update(Equipment.TABLE_NAME, values,
+                Equipment._ID + " = ?", new String[]{String.valueOf(equipmentId)});
+        if (rowsAffected > 0) {
+            invalidationTracker.notifyTablesChanged(Equipment.TABLE_NAME);
+            dirtyTracker.markRow(Equipment.TABLE_NAME, equipmentId);
+        }
+
+        return rowsAffected > 0;
+    }
+
+    /**
+     * Elimina una pieza de equipamiento
+     */
+    public boolean deleteEquipment(long equipmentId) {
+        SQLiteDatabase db = this.getWritableDatabase();
+
+        int rowsAffected = db.delete(Equipment.TABLE_NAME,
+                Equipment._ID + " = ?", new String[]{String.valueOf(equipmentId)});
+        if (rowsAffected > 0) {
+            invalidationTracker.notifyTablesChanged(Equipment.TABLE_NAME);
+            dirtyTracker.markDeleted(Equipment.TABLE_NAME, equipmentId);
+        }
+
+        return rowsAffected > 0;
+    }
+
     // ==================== OPERACIONES DE CAMPAÑA ====================
 
     /**
@@ -429,6 +766,10 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         }
 
         cursor.close();
+        if (success) {
+            invalidationTracker.notifyTablesChanged(CampaignProgress.TABLE_NAME);
+            dirtyTracker.markTable(CampaignProgress.TABLE_NAME);
+        }
         return success;
     }
 
@@ -468,6 +809,10 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
 
         int rowsAffected = db.update(Missions.TABLE_NAME, values,
                 Missions.COLUMN_MISSION_ID + " = ?", new String[]{missionId});
+        if (rowsAffected > 0) {
+            invalidationTracker.notifyTablesChanged(Missions.TABLE_NAME);
+            dirtyTracker.markTable(Missions.TABLE_NAME);
+        }
 
         return rowsAffected > 0;
     }
@@ -483,6 +828,10 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
 
         int rowsAffected = db.update(Missions.TABLE_NAME, values,
                 Missions.COLUMN_MISSION_ID + " = ?", new String[]{missionId});
+        if (rowsAffected > 0) {
+            invalidationTracker.notifyTablesChanged(Missions.TABLE_NAME);
+            dirtyTracker.markTable(Missions.TABLE_NAME);
+        }
 
         return rowsAffected > 0;
     }
@@ -509,8 +858,13 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         values.put(HeroShards.COLUMN_UPDATED_AT, System.currentTimeMillis());
 
         // Usar INSERT OR REPLACE para manejar casos de actualización
-        return db.insertWithOnConflict(HeroShards.TABLE_NAME, null, values,
+        boolean success = db.insertWithOnConflict(HeroShards.TABLE_NAME, null, values,
                 SQLiteDatabase.CONFLICT_REPLACE) != -1;
+        if (success) {
+            invalidationTracker.notifyTablesChanged(HeroShards.TABLE_NAME);
+            dirtyTracker.markTable(HeroShards.TABLE_NAME);
+        }
+        return success;
     }
 
     // ==================== OPERACIONES DE BÚSQUEDA ====================
@@ -523,7 +877,7 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         String query = DatabaseContract.getHeroSearchQuery(faction, rarity, role, sortBy);
 
         // Construir parámetros dinámicamente
-        java.util.List<String> params = new java.util.ArrayList<>();
+        List<String> params = new ArrayList<>();
         if (faction != null && !faction.equals("all")) params.add(faction);
         if (rarity != null && !rarity.equals("all")) params.add(rarity);
         if (role != null && !role.equals("all")) params.add(role);
@@ -538,13 +892,75 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = this.getReadableDatabase();
         String query = DatabaseContract.getEquipmentSearchQuery(type, rarity, onlyUnequipped);
 
-        java.util.List<String> params = new java.util.ArrayList<>();
+        List<String> params = new ArrayList<>();
         if (type != null && !type.equals("all")) params.add(type);
         if (rarity != null && !rarity.equals("all")) params.add(rarity);
 
         return db.rawQuery(query, params.toArray(new String[0]));
     }
 
+    // ==================== SNAPSHOTS DE ESTADO ====================
+
+    /**
+     * Captura el estado completo del jugador en una única transacción de lectura
+     */
+    public DatabaseSnapshot captureSnapshot() {
+        return DatabaseSnapshot.capture(this.getReadableDatabase(),
+                DatabaseContract.PLAYER_STATE_TABLE_NAMES);
+    }
+
+    /**
+     * Captura solo las filas y tablas modificadas (transacción única)
+     */
+    public DatabaseSnapshot captureDelta(Map<String, DirtyTracker.DirtyTable> dirtyTables) {
+        return DatabaseSnapshot.captureDelta(this.getReadableDatabase(),
+                DatabaseContract.PLAYER_STATE_TABLE_NAMES, dirtyTables);
+    }
+
+    /**
+     * Aplica un snapshot parcial (segmento del diario de guardado) en una transacción
+     */
+    public boolean applyDelta(DatabaseSnapshot delta) {
+        try {
+            DatabaseSnapshot.applyDelta(this.getWritableDatabase(), delta);
+        } catch (Exception e) {
+            Log.e(TAG, "Error aplicando delta de guardado", e);
+            return false;
+        }
+
+        String[] changedTables = new String[delta.getTables().size()];
+        for (int i = 0; i < changedTables.length; i++) {
+            changedTables[i] = delta.getTables().get(i).name;
+        }
+        invalidationTracker.notifyTablesChanged(changedTables);
+        for (String table : changedTables) {
+            dirtyTracker.markTable(table);
+        }
+        return true;
+    }
+
+    /**
+     * Reemplaza el estado del jugador con el de un snapshot (transacción única)
+     */
+    public boolean restoreSnapshot(DatabaseSnapshot snapshot) {
+        try {
+            DatabaseSnapshot.restore(this.getWritableDatabase(), snapshot);
+        } catch (Exception e) {
+            Log.e(TAG, "Error restaurando snapshot", e);
+            return false;
+        }
+
+        String[] restoredTables = new String[snapshot.getTables().size()];
+        for (int i = 0; i < restoredTables.length; i++) {
+            restoredTables[i] = snapshot.getTables().get(i).name;
+        }
+        invalidationTracker.notifyTablesChanged(restoredTables);
+        for (String table : restoredTables) {
+            dirtyTracker.markTable(table);
+        }
+        return true;
+    }
+
     // ==================== OPERACIONES DE MANTENIMIENTO ====================
 
     /**
@@ -562,9 +978,9 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         long tomorrowMidnight = getTomorrowMidnightTimestamp();
 
         try {
-            for (String mission : DatabaseContract.INITIAL_DAILY_MISSIONS) {
-                db.execSQL(mission, new Object[]{tomorrowMidnight, currentTime});
-            }
+            SeedLoader.insertMissions(db, DatabaseContract.INITIAL_DAILY_MISSIONS, tomorrowMidnight, currentTime);
+            invalidationTracker.notifyTablesChanged(Missions.TABLE_NAME);
+            dirtyTracker.markTable(Missions.TABLE_NAME);
             return true;
         } catch (Exception e) {
             Log.e(TAG, "Error reseteando misiones diarias", e);
@@ -573,34 +989,152 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
     }
 
     /**
-     * Limpia datos antiguos para optimizar la base de datos
+     * Limpia datos antiguos para optimizar la base de datos.
+     * Purga por lotes y libera páginas de forma incremental en lugar de un VACUUM completo
      */
     public boolean cleanupOldData() {
+        try {
+            int purged;
+            int totalPurged = 0;
+            do {
+                purged = purgeExpiredRows(PURGE_BATCH_SIZE);
+                totalPurged += purged;
+            } while (purged > 0);
+
+            int reclaimed = incrementalVacuum(CLEANUP_MAX_VACUUM_PAGES);
+
+            Log.i(TAG, "Limpieza de datos completada: " + totalPurged +
+                    " filas purgadas, " + reclaimed + " páginas liberadas");
+            return true;
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error en limpieza de datos", e);
+            return false;
+        }
+    }
+
+    /**
+     * Elimina como máximo batchSize filas expiradas por tabla (eventos antiguos y
+     * misiones diarias vencidas). Devuelve el número de filas eliminadas
+     */
+    public int purgeExpiredRows(int batchSize) {
         SQLiteDatabase db = this.getWritableDatabase();
+        long now = System.currentTimeMillis();
+        long weekAgo = now - EXPIRED_EVENT_AGE_MS;
+        int deleted = 0;
 
+        db.beginTransaction();
         try {
-            // Limpiar eventos antiguos (más de 7 días)
-            long weekAgo = System.currentTimeMillis() - (7 * 24 * 60 * 60 * 1000L);
-            db.delete(GameEvents.TABLE_NAME,
-                    GameEvents.COLUMN_END_TIME + " < ? AND " + GameEvents.COLUMN_IS_ACTIVE + " = 0",
+            // Eventos antiguos (más de 7 días)
+            deleted += db.delete(GameEvents.TABLE_NAME,
+                    GameEvents._ID + " IN (SELECT " + GameEvents._ID + " FROM " + GameEvents.TABLE_NAME +
+                            " WHERE " + GameEvents.COLUMN_END_TIME + " < ? AND " +
+                            GameEvents.COLUMN_IS_ACTIVE + " = 0 LIMIT " + batchSize + ")",
                     new String[]{String.valueOf(weekAgo)});
 
-            // Limpiar misiones diarias expiradas
-            db.delete(Missions.TABLE_NAME,
-                    Missions.COLUMN_MISSION_TYPE + " = 'daily' AND " +
-                            Missions.COLUMN_EXPIRES_AT + " < ?",
-                    new String[]{String.valueOf(System.currentTimeMillis())});
+            // Misiones diarias expiradas
+            deleted += db.delete(Missions.TABLE_NAME,
+                    Missions._ID + " IN (SELECT " + Missions._ID + " FROM " + Missions.TABLE_NAME +
+                            " WHERE " + Missions.COLUMN_MISSION_TYPE + " = 'daily' AND " +
+                            Missions.COLUMN_EXPIRES_AT + " < ? LIMIT " + batchSize + ")",
+                    new String[]{String.valueOf(now)});
 
-            // Vacuum para optimizar espacio
-            db.execSQL("VACUUM");
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
 
-            Log.i(TAG, "Limpieza de datos completada");
-            return true;
+        if (deleted > 0) {
+            invalidationTracker.notifyTablesChanged(GameEvents.TABLE_NAME, Missions.TABLE_NAME);
+            dirtyTracker.markTable(Missions.TABLE_NAME);
+        }
+        return deleted;
+    }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error en limpieza de datos", e);
+    /**
+     * Libera como máximo maxPages páginas de la freelist (requiere auto_vacuum=INCREMENTAL).
+     * Devuelve el número de páginas realmente liberadas
+     */
+    public int incrementalVacuum(int maxPages) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        long freeBefore = queryPragmaLong(db, "freelist_count");
+        if (freeBefore <= 0 || maxPages <= 0) {
+            return 0;
+        }
+
+        // El pragma libera una página por paso; hay que recorrer el cursor completo
+        Cursor cursor = db.rawQuery("PRAGMA incremental_vacuum(" + maxPages + ")", null);
+        try {
+            while (cursor.moveToNext()) {
+                // Consumir resultados
+            }
+        } finally {
+            cursor.close();
+        }
+
+        long freeAfter = queryPragmaLong(db, "freelist_count");
+        return (int) Math.max(0, freeBefore - freeAfter);
+    }
+
+    /**
+     * Actualiza las estadísticas del planificador de consultas
+     */
+    public void optimizeDatabase() {
+        SQLiteDatabase db = this.getWritableDatabase();
+
+        // SQLite ignora los PRAGMA desconocidos sin error, así que hay que mirar la versión
+        if (!isSqliteVersionAtLeast(db, 3, 18, 0)) {
+            db.execSQL("ANALYZE");
+            return;
+        }
+
+        Cursor cursor = db.rawQuery("PRAGMA optimize", null);
+        try {
+            while (cursor.moveToNext()) {
+                // Consumir resultados
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Obtiene el modo actual de auto_vacuum
+     */
+    public int getAutoVacuumMode() {
+        return (int) queryPragmaLong(this.getReadableDatabase(), "auto_vacuum");
+    }
+
+    /**
+     * Convierte una BD existente a auto_vacuum=INCREMENTAL. Requiere un VACUUM completo,
+     * por lo que solo debe llamarse una vez y desde un hilo en segundo plano
+     */
+    public boolean enableIncrementalAutoVacuum() {
+        SQLiteDatabase db = this.getWritableDatabase();
+        if (queryPragmaLong(db, "auto_vacuum") == AUTO_VACUUM_INCREMENTAL) {
             return false;
         }
+
+        db.execSQL("PRAGMA auto_vacuum=INCREMENTAL;");
+        db.execSQL("VACUUM");
+        Log.i(TAG, "auto_vacuum convertido a INCREMENTAL");
+        return true;
+    }
+
+    /**
+     * Obtiene las estadísticas de almacenamiento (páginas y fragmentación)
+     */
+    public StorageStats getStorageStats() {
+        SQLiteDatabase db = this.getReadableDatabase();
+
+        StorageStats stats = new StorageStats();
+        stats.pageSize = queryPragmaLong(db, "page_size");
+        stats.pageCount = queryPragmaLong(db, "page_count");
+        stats.freelistCount = queryPragmaLong(db, "freelist_count");
+        stats.autoVacuumMode = (int) queryPragmaLong(db, "auto_vacuum");
+        stats.fileSize = new File(db.getPath()).length();
+
+        return stats;
     }
 
     // ==================== MÉTODOS HELPER PRIVADOS ====================
@@ -620,16 +1154,50 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
         return mainStat * 10; // Factor arbitrario
     }
 
+    /**
+     * Lee el valor numérico de un PRAGMA
+     */
+    private long queryPragmaLong(SQLiteDatabase db, String pragma) {
+        Cursor cursor = db.rawQuery("PRAGMA " + pragma, null);
+        try {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Compara la versión de la librería SQLite con major.minor.patch
+     */
+    private boolean isSqliteVersionAtLeast(SQLiteDatabase db, int major, int minor, int patch) {
+        Cursor cursor = db.rawQuery("SELECT sqlite_version()", null);
+        try {
+            if (!cursor.moveToFirst()) return false;
+
+            String[] parts = cursor.getString(0).split("\\.");
+            int[] required = {major, minor, patch};
+            for (int i = 0; i < required.length; i++) {
+                int value = i < parts.length ? Integer.parseInt(parts[i].replaceAll("[^0-9].*", "")) : 0;
+                if (value != required[i]) return value > required[i];
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        } finally {
+            cursor.close();
+        }
+    }
+
     /**
      * Obtiene el timestamp de medianoche del día siguiente
      */
-    private long getTomorrowMidnightTimestamp() {
-        java.util.Calendar calendar = java.util.Calendar.getInstance();
-        calendar.add(java.util.Calendar.DAY_OF_YEAR, 1);
-        calendar.set(java.util.Calendar.HOUR_OF_DAY, 0);
-        calendar.set(java.util.Calendar.MINUTE, 0);
-        calendar.set(java.util.Calendar.SECOND, 0);
-        calendar.set(java.util.Calendar.MILLISECOND, 0);
+    static long getTomorrowMidnightTimestamp() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.DAY_OF_YEAR, 1);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
         return calendar.getTimeInMillis();
     }
 
@@ -639,34 +1207,129 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
      * Obtiene estadísticas de la base de datos para debugging
      */
     public String getDatabaseStats() {
-        SQLiteDatabase db = this.getReadableDatabase();
-        StringBuilder stats = new StringBuilder();
+        return collectDatabaseStats().toString();
+    }
 
-        stats.append("=== ESTADÍSTICAS DE BASE DE DATOS ===\n");
+    /**
+     * Recoge conteos de filas, páginas y tamaño de índices en una sola pasada:
+     * un único SELECT con UNION ALL para los conteos, dbstat para los bytes por
+     * tabla/índice si está compilado, y sqlite_stat1 como estimación de índices si no
+     */
+    public DatabaseStats collectDatabaseStats() {
+        SQLiteDatabase db = this.getReadableDatabase();
+        DatabaseStats stats = new DatabaseStats();
 
+        // Conteos exactos de todas las tablas en una única consulta
+        StringBuilder countQuery = new StringBuilder();
         for (String tableName : DatabaseContract.ALL_TABLE_NAMES) {
-            Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM " + tableName, null);
-            if (cursor.moveToFirst()) {
-                int count = cursor.getInt(0);
-                stats.append(tableName).append(": ").append(count).append(" registros\n");
+            if (countQuery.length() > 0) countQuery.append(" UNION ALL ");
+            countQuery.append("SELECT '").append(tableName).append("', COUNT(*) FROM ").append(tableName);
+        }
+        Cursor countCursor = db.rawQuery(countQuery.toString(), null);
+        try {
+            while (countCursor.moveToNext()) {
+                stats.rowCounts.put(countCursor.getString(0), countCursor.getLong(1));
             }
-            cursor.close();
+        } finally {
+            countCursor.close();
+        }
+
+        // Bytes por tabla e índice (requiere SQLITE_ENABLE_DBSTAT_VTAB)
+        try {
+            Cursor dbstatCursor = db.rawQuery(
+                    "SELECT s.name, m.type, SUM(s.pgsize), COUNT(*) FROM dbstat s " +
+                            "LEFT JOIN sqlite_master m ON m.name = s.name GROUP BY s.name", null);
+            try {
+                while (dbstatCursor.moveToNext()) {
+                    String name = dbstatCursor.getString(0);
+                    long bytes = dbstatCursor.getLong(2);
+                    if ("index".equals(dbstatCursor.getString(1))) {
+                        stats.indexBytes.put(name, bytes);
+                    } else {
+                        stats.tableBytes.put(name, bytes);
+                    }
+                }
+                stats.fromDbstat = true;
+            } finally {
+                dbstatCursor.close();
+            }
+        } catch (Exception e) {
+            // dbstat no disponible: usar las estimaciones de ANALYZE
+            collectIndexEstimates(db, stats);
         }
 
-        // Información adicional
-        stats.append("\nVersión BD: ").append(GameConstants.DATABASE_VERSION);
-        stats.append("\nTamaño BD: ").append(new java.io.File(db.getPath()).length() / 1024).append(" KB");
+        stats.storage = getStorageStats();
+        return stats;
+    }
 
-        return stats.toString();
+    /**
+     * Lee las entradas estimadas por índice de sqlite_stat1 (generado por ANALYZE/optimize)
+     */
+    private void collectIndexEstimates(SQLiteDatabase db, DatabaseStats stats) {
+        try {
+            Cursor cursor = db.rawQuery(
+                    "SELECT idx, stat FROM sqlite_stat1 WHERE idx IS NOT NULL", null);
+            try {
+                while (cursor.moveToNext()) {
+                    String stat = cursor.getString(1);
+                    if (stat == null) continue;
+                    int space = stat.indexOf(' ');
+                    String entries = space > 0 ? stat.substring(0, space) : stat;
+                    stats.indexEntries.put(cursor.getString(0), Long.parseLong(entries));
+                }
+            } finally {
+                cursor.close();
+            }
+        } catch (Exception e) {
+            // sqlite_stat1 aún no existe (ANALYZE nunca ejecutado)
+            Log.d(TAG, "Sin estadísticas de índices disponibles");
+        }
     }
 
     /**
-     * Verifica la integridad de la base de datos
+     * Verifica la integridad completa de la base de datos (PRAGMA integrity_check).
+     * No se repite si la BD no cambió desde la última verificación completa
      */
     public boolean checkDatabaseIntegrity() {
+        return integrityVerifier.verify(true);
+    }
+
+    /**
+     * Verificación por niveles: quick_check en el camino normal y verificación completa
+     * solo si se solicita, tras un cierre inesperado o según la planificación
+     */
+    public boolean verifyIntegrity(boolean fullRequested) {
+        return integrityVerifier.verify(fullRequested);
+    }
+
+    /**
+     * Obtiene el tracker de invalidación para suscribirse a cambios por tabla
+     */
+    public InvalidationTracker getInvalidationTracker() {
+        return invalidationTracker;
+    }
+
+    /**
+     * Obtiene el registro de cambios pendientes de guardar
+     */
+    public DirtyTracker getDirtyTracker() {
+        return dirtyTracker;
+    }
+
+    /**
+     * Obtiene el verificador de integridad
+     */
+    public IntegrityVerifier getIntegrityVerifier() {
+        return integrityVerifier;
+    }
+
+    /**
+     * Ejecuta PRAGMA integrity_check o quick_check y devuelve si la BD está intacta
+     */
+    boolean runIntegrityCheck(String pragma) {
         SQLiteDatabase db = this.getReadableDatabase();
 
-        Cursor cursor = db.rawQuery("PRAGMA integrity_check", null);
+        Cursor cursor = db.rawQuery("PRAGMA " + pragma, null);
         boolean isIntact = false;
 
         if (cursor.moveToFirst()) {
@@ -674,7 +1337,7 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
             isIntact = "ok".equalsIgnoreCase(result);
 
             if (!isIntact) {
-                Log.e(TAG, "Integridad de BD comprometida: " + result);
+                Log.e(TAG, "Integridad de BD comprometida (" + pragma + "): " + result);
             }
         }
 
@@ -683,31 +1346,166 @@ public class GameDatabaseHelper extends SQLiteOpenHelper {
     }
 
     /**
-     * Exporta datos de la base de datos para backup (solo en debug)
+     * Exporta todas las tablas a un archivo en streaming (solo en debug).
+     * Cada fila se escribe directamente al BufferedWriter, sin acumular la exportación en memoria.
+     * Devuelve el número de filas exportadas o -1 si hubo error
      */
-    public String exportDatabaseForDebug() {
+    public long exportDatabaseToFile(File outputFile) {
         if (!GameConstants.DEBUG_MODE) {
-            return "Exportación solo disponible en modo debug";
+            Log.w(TAG, "Exportación solo disponible en modo debug");
+            return -1;
         }
 
         SQLiteDatabase db = this.getReadableDatabase();
-        StringBuilder export = new StringBuilder();
-
-        export.append("=== EXPORTACIÓN DE DATOS ===\n");
-        export.append("Timestamp: ").append(new java.util.Date().toString()).append("\n\n");
-
-        // Exportar datos del jugador
-        Cursor playerCursor = getPlayerData();
-        if (playerCursor.moveToFirst()) {
-            export.append("DATOS DEL JUGADOR:\n");
-            for (int i = 0; i < playerCursor.getColumnCount(); i++) {
-                export.append(playerCursor.getColumnName(i)).append(": ")
-                        .append(playerCursor.getString(i)).append("\n");
+        long totalRows = 0;
+
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(outputFile),
+                        StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE)) {
+
+            writer.write("=== EXPORTACIÓN DE DATOS ===\n");
+            writer.write("Timestamp: " + new Date().toString() + "\n");
+            writer.write("Versión BD: " + GameConstants.DATABASE_VERSION + "\n");
+
+            for (String tableName : DatabaseContract.ALL_TABLE_NAMES) {
+                Cursor cursor = db.query(tableName, null, null, null, null, null, null);
+                try {
+                    int columnCount = cursor.getColumnCount();
+                    writer.write("\n[" + tableName + "]\n");
+
+                    // Cabecera
+                    for (int i = 0; i < columnCount; i++) {
+                        if (i > 0) writer.write('\t');
+                        writer.write(cursor.getColumnName(i));
+                    }
+                    writer.write('\n');
+
+                    // Filas
+                    while (cursor.moveToNext()) {
+                        for (int i = 0; i < columnCount; i++) {
+                            if (i > 0) writer.write('\t');
+                            writeExportValue(writer, cursor, i);
+                        }
+                        writer.write('\n');
+                        totalRows++;
+                    }
+                } finally {
+                    cursor.close();
+                }
             }
-            export.append("\n");
+
+        } catch (IOException e) {
+            Log.e(TAG, "Error exportando base de datos", e);
+            return -1;
+        }
+
+        Log.i(TAG, "Exportación completada: " + totalRows + " filas en " + outputFile.getName());
+        return totalRows;
+    }
+
+    /**
+     * Escribe un valor de columna escapando tabuladores y saltos de línea
+     */
+    private void writeExportValue(Writer writer, Cursor cursor, int column) throws IOException {
+        switch (cursor.getType(column)) {
+            case Cursor.FIELD_TYPE_NULL:
+                writer.write("NULL");
+                break;
+            case Cursor.FIELD_TYPE_BLOB:
+                writer.write("<blob " + cursor.getBlob(column).length + " bytes>");
+                break;
+            default:
+                String value = cursor.getString(column);
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    if (c == '\t') writer.write("\\t");
+                    else if (c == '\n') writer.write("\\n");
+                    else if (c == '\\') writer.write("\\\\");
+                    else writer.write(c);
+                }
+                break;
         }
-        playerCursor.close();
+    }
+
+    // ==================== CLASES INTERNAS ====================
 
-        return export.toString();
+    /**
+     * Estadísticas de almacenamiento de la base de datos
+     */
+    public static class StorageStats {
+        public long pageSize;
+        public long pageCount;
+        public long freelistCount;
+        public int autoVacuumMode;
+        public long fileSize;
+
+        /**
+         * Fracción de páginas libres sobre el total (0.0 - 1.0)
+         */
+        public float getFragmentation() {
+            return pageCount > 0 ? (float) freelistCount / pageCount : 0.0f;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("StorageStats{pages=%d, free=%d (%.1f%%), pageSize=%d, autoVacuum=%d, size=%dKB}",
+                    pageCount, freelistCount, getFragmentation() * 100, pageSize,
+                    autoVacuumMode, fileSize / 1024);
+        }
+    }
+
+    /**
+     * Estadísticas de contenido de la base de datos recogidas en una pasada
+     */
+    public static class DatabaseStats {
+        public final Map<String, Long> rowCounts = new LinkedHashMap<>();
+        public final Map<String, Long> tableBytes = new LinkedHashMap<>();
+        public final Map<String, Long> indexBytes = new LinkedHashMap<>();
+        public final Map<String, Long> indexEntries = new LinkedHashMap<>();
+        public boolean fromDbstat;
+        public StorageStats storage;
+
+        public long getTotalRows() {
+            long total = 0;
+            for (long count : rowCounts.values()) total += count;
+            return total;
+        }
+
+        public long getTotalIndexBytes() {
+            long total = 0;
+            for (long bytes : indexBytes.values()) total += bytes;
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("=== ESTADÍSTICAS DE BASE DE DATOS ===\n");
+
+            for (Map.Entry<String, Long> entry : rowCounts.entrySet()) {
+                sb.append(entry.getKey()).append(": ").append(entry.getValue()).append(" registros");
+                Long bytes = tableBytes.get(entry.getKey());
+                if (bytes != null) {
+                    sb.append(" (").append(bytes / 1024).append(" KB)");
+                }
+                sb.append("\n");
+            }
+
+            if (fromDbstat) {
+                sb.append("\nÍndices: ").append(indexBytes.size())
+                        .append(" (").append(getTotalIndexBytes() / 1024).append(" KB)");
+            } else if (!indexEntries.isEmpty()) {
+                sb.append("\nÍndices (estimado): ").append(indexEntries);
+            }
+
+            sb.append("\nVersión BD: ").append(GameConstants.DATABASE_VERSION);
+            if (storage != null) {
+                sb.append("\nPáginas: ").append(storage.pageCount)
+                        .append(" (libres: ").append(storage.freelistCount).append(")");
+                sb.append("\nTamaño BD: ").append(storage.fileSize / 1024).append(" KB");
+            }
+
+            return sb.toString();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,185 @@
+package com.by.soh.database;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.by.soh.constants.GameConstants;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+/**
+ * Verificación de integridad por niveles para la base de datos
+ * - Sin cambios desde la última verificación: no se vuelve a verificar
+ * - Camino normal (auto-save): PRAGMA quick_check
+ * - Tras un cierre inesperado o cada FULL_CHECK_INTERVAL: PRAGMA integrity_check
+ * Los resultados se cachean contra el contador de cambios del archivo
+ */
+public class IntegrityVerifier {
+
+    private static final String TAG = "IntegrityVerifier";
+
+    // Niveles de verificación
+    public static final int LEVEL_NONE = 0;
+    public static final int LEVEL_QUICK = 1;
+    public static final int LEVEL_FULL = 2;
+
+    // Configuraciones
+    private static final long FULL_CHECK_INTERVAL = 24 * 60 * 60 * 1000L; // 24 horas
+    private static final int HEADER_CHANGE_COUNTER_OFFSET = 24;
+
+    // Referencias
+    private final GameDatabaseHelper dbHelper;
+    private final SharedPreferences preferences;
+
+    // Estado de la caché
+    private String lastVerifiedToken;
+    private int lastVerifiedLevel;
+    private long lastFullCheckTime;
+    private boolean uncleanShutdownDetected;
+
+    // Estadísticas
+    private int quickChecks;
+    private int fullChecks;
+    private int cacheHits;
+
+    IntegrityVerifier(Context context, GameDatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+        this.preferences = context.getSharedPreferences(GameConstants.PREFS_NAME, Context.MODE_PRIVATE);
+
+        this.lastVerifiedToken = preferences.getString(GameConstants.PREF_INTEGRITY_TOKEN, null);
+        this.lastVerifiedLevel = preferences.getInt(GameConstants.PREF_INTEGRITY_LEVEL, LEVEL_NONE);
+        this.lastFullCheckTime = preferences.getLong(GameConstants.PREF_LAST_FULL_INTEGRITY_CHECK, 0);
+
+        // Si la sesión anterior no se cerró limpiamente, forzar una verificación completa
+        this.uncleanShutdownDetected = preferences.getBoolean(GameConstants.PREF_SESSION_ACTIVE, false);
+        preferences.edit().putBoolean(GameConstants.PREF_SESSION_ACTIVE, true).apply();
+
+        if (uncleanShutdownDetected) {
+            Log.w(TAG, "Cierre inesperado detectado - próxima verificación será completa");
+        }
+    }
+
+    /**
+     * Verifica la integridad usando el nivel más barato que sea suficiente
+     *
+     * @param fullRequested fuerza PRAGMA integrity_check salvo que la BD no haya cambiado
+     *                      desde la última verificación completa
+     */
+    public synchronized boolean verify(boolean fullRequested) {
+        boolean needsFull = fullRequested || uncleanShutdownDetected ||
+                System.currentTimeMillis() - lastFullCheckTime > FULL_CHECK_INTERVAL;
+        int requiredLevel = needsFull ? LEVEL_FULL : LEVEL_QUICK;
+
+        String token = readChangeToken();
+        if (token != null && token.equals(lastVerifiedToken) && lastVerifiedLevel >= requiredLevel) {
+            cacheHits++;
+            return true;
+        }
+
+        boolean intact;
+        if (requiredLevel == LEVEL_FULL) {
+            intact = dbHelper.runIntegrityCheck("integrity_check");
+            fullChecks++;
+        } else {
+            intact = dbHelper.runIntegrityCheck("quick_check");
+            quickChecks++;
+        }
+
+        if (intact) {
+            recordVerified(token, requiredLevel);
+        } else {
+            invalidate();
+        }
+
+        return intact;
+    }
+
+    /**
+     * Marca la sesión como activa (la app vuelve a primer plano). Si el proceso muere
+     * antes de markCleanShutdown, el siguiente arranque hace una verificación completa
+     */
+    public void markSessionActive() {
+        preferences.edit().putBoolean(GameConstants.PREF_SESSION_ACTIVE, true).apply();
+    }
+
+    /**
+     * Marca el cierre limpio de la sesión actual. Se llama al pasar a segundo plano: un
+     * proceso que el sistema mata después ya no cuenta como cierre inesperado
+     */
+    public void markCleanShutdown() {
+        preferences.edit().putBoolean(GameConstants.PREF_SESSION_ACTIVE, false).apply();
+    }
+
+    /**
+     * Descarta el resultado cacheado (p.ej. tras restaurar la BD)
+     */
+    public synchronized void invalidate() {
+        lastVerifiedToken = null;
+        lastVerifiedLevel = LEVEL_NONE;
+        preferences.edit()
+                .remove(GameConstants.PREF_INTEGRITY_TOKEN)
+                .putInt(GameConstants.PREF_INTEGRITY_LEVEL, LEVEL_NONE)
+                .apply();
+    }
+
+    /**
+     * Registra una verificación exitosa
+     */
+    private void recordVerified(String token, int level) {
+        lastVerifiedToken = token;
+        lastVerifiedLevel = level;
+
+        SharedPreferences.Editor editor = preferences.edit()
+                .putString(GameConstants.PREF_INTEGRITY_TOKEN, token)
+                .putInt(GameConstants.PREF_INTEGRITY_LEVEL, level);
+
+        if (level == LEVEL_FULL) {
+            lastFullCheckTime = System.currentTimeMillis();
+            uncleanShutdownDetected = false;
+            editor.putLong(GameConstants.PREF_LAST_FULL_INTEGRITY_CHECK, lastFullCheckTime);
+        }
+
+        editor.apply();
+    }
+
+    /**
+     * Construye un token que cambia con cada escritura confirmada:
+     * contador de cambios de la cabecera SQLite (bytes 24-27) más el estado del WAL
+     */
+    private String readChangeToken() {
+        String dbPath = dbHelper.getReadableDatabase().getPath();
+        File dbFile = new File(dbPath);
+        if (!dbFile.exists()) {
+            return null;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(dbFile, "r")) {
+            if (raf.length() < HEADER_CHANGE_COUNTER_OFFSET + 4) {
+                return null;
+            }
+            raf.seek(HEADER_CHANGE_COUNTER_OFFSET);
+            long changeCounter = raf.readInt() & 0xFFFFFFFFL;
+
+            // En modo WAL el contador no avanza hasta el checkpoint
+            File walFile = new File(dbPath + "-wal");
+            long walLength = walFile.exists() ? walFile.length() : 0;
+            long walModified = walFile.exists() ? walFile.lastModified() : 0;
+
+            return changeCounter + ":" + walLength + ":" + walModified;
+
+        } catch (Exception e) {
+            Log.w(TAG, "No se pudo leer el contador de cambios", e);
+            return null;
+        }
+    }
+
+    /**
+     * Obtiene estadísticas de verificación
+     */
+    public synchronized String getStats() {
+        return String.format("IntegrityVerifier{quick=%d, full=%d, cached=%d, lastFull=%d}",
+                quickChecks, fullChecks, cacheHits, lastFullCheckTime);
+    }
+}
@@ -0,0 +1,143 @@
+package com.by.soh.database;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Choreographer;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Seguimiento de invalidación reactiva por tabla
+ * Cada escritura registra las tablas que modificó; los observadores suscritos a esas
+ * tablas se notifican una sola vez por frame en el hilo principal, agrupando todas
+ * las escrituras ocurridas desde el frame anterior
+ */
+public class InvalidationTracker {
+
+    private static final String TAG = "InvalidationTracker";
+
+    /**
+     * Observador de cambios en un conjunto de tablas
+     */
+    public interface Observer {
+        /**
+         * Llamado en el hilo principal con las tablas observadas que cambiaron
+         */
+        void onTablesInvalidated(Set<String> tables);
+    }
+
+    // Observadores y las tablas que observan
+    private final Map<Observer, Set<String>> observers = new ConcurrentHashMap<>();
+
+    // Tablas modificadas pendientes de notificar
+    private final Set<String> pendingTables = new HashSet<>();
+    private boolean flushScheduled;
+
+    // Entrega por frame
+    private final Handler mainHandler;
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> flushPending();
+
+    // Estadísticas
+    private long tablesRecorded;
+    private long flushes;
+    private long notificationsDelivered;
+
+    InvalidationTracker() {
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    // ==================== SUSCRIPCIÓN ====================
+
+    /**
+     * Suscribe un observador a una o más tablas (ver DatabaseContract)
+     */
+    public void addObserver(Observer observer, String... tables) {
+        if (observer == null || tables == null || tables.length == 0) return;
+
+        Set<String> observed = new HashSet<>();
+        Collections.addAll(observed, tables);
+        observers.put(observer, Collections.unmodifiableSet(observed));
+
+        Log.d(TAG, "Observador registrado para " + observed);
+    }
+
+    /**
+     * Cancela la suscripción de un observador
+     */
+    public void removeObserver(Observer observer) {
+        if (observer != null) {
+            observers.remove(observer);
+        }
+    }
+
+    // ==================== REGISTRO DE ESCRITURAS ====================
+
+    /**
+     * Registra que una escritura modificó las tablas indicadas
+     * Puede llamarse desde cualquier hilo; la notificación se agrupa hasta el próximo frame
+     */
+    public void notifyTablesChanged(String... tables) {
+        if (tables == null || tables.length == 0) return;
+
+        boolean schedule;
+        synchronized (pendingTables) {
+            Collections.addAll(pendingTables, tables);
+            tablesRecorded += tables.length;
+            schedule = !flushScheduled;
+            flushScheduled = true;
+        }
+
+        if (schedule) {
+            mainHandler.post(() -> Choreographer.getInstance().postFrameCallback(frameCallback));
+        }
+    }
+
+    /**
+     * Entrega las invalidaciones acumuladas a los observadores afectados
+     */
+    private void flushPending() {
+        Set<String> changed;
+        synchronized (pendingTables) {
+            changed = new HashSet<>(pendingTables);
+            pendingTables.clear();
+            flushScheduled = false;
+            flushes++;
+        }
+
+        if (changed.isEmpty() || observers.isEmpty()) return;
+
+        for (Map.Entry<Observer, Set<String>> entry : observers.entrySet()) {
+            Set<String> affected = null;
+            for (String table : entry.getValue()) {
+                if (changed.contains(table)) {
+                    if (affected == null) affected = new HashSet<>();
+                    affected.add(table);
+                }
+            }
+
+            if (affected != null) {
+                try {
+                    entry.getKey().onTablesInvalidated(Collections.unmodifiableSet(affected));
+                    notificationsDelivered++;
+                } catch (Exception e) {
+                    Log.e(TAG, "Error notificando observador", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene estadísticas del tracker
+     */
+    public String getStats() {
+        synchronized (pendingTables) {
+            return String.format("InvalidationTracker{observers=%d, recorded=%d, flushes=%d, delivered=%d}",
+                    observers.size(), tablesRecorded, flushes, notificationsDelivered);
+        }
+    }
+}
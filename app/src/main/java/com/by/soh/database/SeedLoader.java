@@ -0,0 +1,278 @@
+package com.by.soh.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import com.by.soh.database.DatabaseContract.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cargador de datos iniciales de la base de datos
+ * El contenido de templates se lee de un asset precompilado (TSV) y cada tabla se inserta
+ * con una única sentencia preparada reutilizada por fila, todo dentro de una sola transacción
+ */
+public class SeedLoader {
+
+    private static final String TAG = "SeedLoader";
+
+    // Assets de contenido
+    static final String HERO_TEMPLATES_ASSET = "seed/hero_templates.tsv";
+    private static final String FIELD_SEPARATOR = "\t";
+
+    private final AssetManager assets;
+
+    public SeedLoader(Context context) {
+        this.assets = context.getApplicationContext().getAssets();
+    }
+
+    // ==================== SEEDING ====================
+
+    /**
+     * Puebla la base de datos con todos los datos iniciales en una transacción
+     */
+    public void seedInitialData(SQLiteDatabase db) {
+        long currentTime = System.currentTimeMillis();
+
+        // onCreate ya se ejecuta dentro de la transacción del helper; anidar es seguro
+        db.beginTransaction();
+        try {
+            int templates = loadHeroTemplates(db);
+            Log.d(TAG, "Templates de héroes insertados: " + templates);
+
+            // Datos iniciales del jugador, héroe inicial y formación
+            bindAndInsert(db, DatabaseContract.INITIAL_PLAYER_DATA, currentTime, currentTime);
+            bindAndInsert(db, DatabaseContract.INITIAL_PLAYER_HERO, currentTime);
+            bindAndInsert(db, DatabaseContract.INITIAL_TEAM_FORMATION, currentTime);
+
+            // Misiones diarias y permanentes
+            long tomorrowMidnight = GameDatabaseHelper.getTomorrowMidnightTimestamp();
+            insertMissions(db, DatabaseContract.INITIAL_DAILY_MISSIONS, tomorrowMidnight, currentTime);
+            insertMissions(db, DatabaseContract.INITIAL_PERMANENT_MISSIONS, 0, currentTime);
+
+            // Progreso inicial de campaña (nivel 1-1)
+            ContentValues values = new ContentValues();
+            values.put(CampaignProgress.COLUMN_CHAPTER, 1);
+            values.put(CampaignProgress.COLUMN_STAGE, 1);
+            values.put(CampaignProgress.COLUMN_IS_COMPLETED, 0);
+            values.put(CampaignProgress.COLUMN_STARS_EARNED, 0);
+            db.insert(CampaignProgress.TABLE_NAME, null, values);
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Inserta los templates de héroes desde el asset con una sentencia preparada.
+     * El asset se lee y valida entero antes de insertar nada: si no está disponible o tiene
+     * una fila inválida se usan los INSERT de DatabaseContract sin filas a medias. Un error
+     * al insertar se propaga y aborta la creación de la BD
+     */
+    int loadHeroTemplates(SQLiteDatabase db) {
+        AssetRows rows;
+        try {
+            rows = readAsset(db, HeroTemplates.TABLE_NAME, HERO_TEMPLATES_ASSET);
+        } catch (IOException e) {
+            Log.w(TAG, "Asset de templates no disponible, usando SQL embebido", e);
+            for (String heroTemplate : DatabaseContract.INITIAL_HERO_TEMPLATES) {
+                db.execSQL(heroTemplate);
+            }
+            return DatabaseContract.INITIAL_HERO_TEMPLATES.length;
+        }
+
+        SQLiteStatement statement = db.compileStatement(buildInsert(HeroTemplates.TABLE_NAME, rows.columns));
+        try {
+            for (Object[] row : rows.values) {
+                bindRow(statement, row);
+                statement.executeInsert();
+            }
+        } finally {
+            statement.close();
+        }
+        return rows.values.size();
+    }
+
+    /**
+     * Inserta filas de misiones con una única sentencia compilada
+     */
+    static void insertMissions(SQLiteDatabase db, Object[][] missions, long expiresAt, long createdAt) {
+        SQLiteStatement statement = db.compileStatement(DatabaseContract.INSERT_MISSION);
+        try {
+            for (Object[] mission : missions) {
+                bindRow(statement, mission);
+                statement.bindLong(mission.length + 1, expiresAt);
+                statement.bindLong(mission.length + 2, createdAt);
+                statement.executeInsert();
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    /**
+     * Construye un INSERT con placeholders para las columnas dadas
+     */
+    private String buildInsert(String table, String[] columns) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (");
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+                placeholders.append(", ");
+            }
+            sql.append(columns[i]);
+            placeholders.append('?');
+        }
+        return sql.append(") VALUES (").append(placeholders).append(")").toString();
+    }
+
+    /**
+     * Lee y valida todas las filas de un asset TSV, convirtiendo cada campo según el tipo
+     * declarado de su columna en la tabla (INTEGER, REAL o texto; vacío = NULL)
+     */
+    private AssetRows readAsset(SQLiteDatabase db, String table, String assetPath) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                assets.open(assetPath), StandardCharsets.UTF_8))) {
+
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IOException("Asset vacío: " + assetPath);
+            }
+
+            String[] columns = header.split(FIELD_SEPARATOR);
+            Map<String, Integer> declaredTypes = readColumnTypes(db, table);
+            int[] types = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                Integer type = declaredTypes.get(columns[i]);
+                if (type == null) {
+                    throw new IOException("Columna desconocida en " + table + ": " + columns[i]);
+                }
+                types[i] = type;
+            }
+
+            List<Object[]> values = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+
+                String[] fields = line.split(FIELD_SEPARATOR, -1);
+                if (fields.length != columns.length) {
+                    throw new IOException("Fila inválida en " + assetPath + ": " + line);
+                }
+
+                Object[] row = new Object[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    row[i] = parseField(fields[i], types[i], columns[i]);
+                }
+                values.add(row);
+            }
+            return new AssetRows(columns, values);
+        }
+    }
+
+    /**
+     * Tipo de cada columna de la tabla según su tipo declarado (reglas de afinidad de SQLite)
+     */
+    private Map<String, Integer> readColumnTypes(SQLiteDatabase db, String table) {
+        Map<String, Integer> types = new HashMap<>();
+        Cursor cursor = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        try {
+            int nameColumn = cursor.getColumnIndexOrThrow("name");
+            int typeColumn = cursor.getColumnIndexOrThrow("type");
+            while (cursor.moveToNext()) {
+                String declared = cursor.getString(typeColumn).toUpperCase(Locale.ROOT);
+                int type;
+                if (declared.contains("INT")) {
+                    type = Cursor.FIELD_TYPE_INTEGER;
+                } else if (declared.contains("REAL") || declared.contains("FLOA") || declared.contains("DOUB")) {
+                    type = Cursor.FIELD_TYPE_FLOAT;
+                } else {
+                    type = Cursor.FIELD_TYPE_STRING;
+                }
+                types.put(cursor.getString(nameColumn), type);
+            }
+        } finally {
+            cursor.close();
+        }
+        return types;
+    }
+
+    private static Object parseField(String value, int type, String column) throws IOException {
+        if (value.isEmpty()) return null;
+        try {
+            switch (type) {
+                case Cursor.FIELD_TYPE_INTEGER: return Long.parseLong(value);
+                case Cursor.FIELD_TYPE_FLOAT: return Double.parseDouble(value);
+                default: return value;
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Valor inválido para " + column + ": " + value, e);
+        }
+    }
+
+    /**
+     * Enlaza los valores de una fila a partir del parámetro 1
+     */
+    private static void bindRow(SQLiteStatement statement, Object[] row) {
+        statement.clearBindings();
+        for (int i = 0; i < row.length; i++) {
+            Object value = row[i];
+            if (value == null) {
+                statement.bindNull(i + 1);
+            } else if (value instanceof Double) {
+                statement.bindDouble(i + 1, (Double) value);
+            } else if (value instanceof Number) {
+                statement.bindLong(i + 1, ((Number) value).longValue());
+            } else {
+                statement.bindString(i + 1, value.toString());
+            }
+        }
+    }
+
+    /**
+     * Inserta una fila única (jugador, héroe inicial, formación): una sentencia por tabla
+     */
+    private void bindAndInsert(SQLiteDatabase db, String sql, long... args) {
+        SQLiteStatement statement = db.compileStatement(sql);
+        try {
+            for (int i = 0; i < args.length; i++) {
+                statement.bindLong(i + 1, args[i]);
+            }
+            statement.executeInsert();
+        } finally {
+            statement.close();
+        }
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Filas de un asset ya convertidas a su tipo
+     */
+    private static class AssetRows {
+        final String[] columns;
+        final List<Object[]> values;
+
+        AssetRows(String[] columns, List<Object[]> values) {
+            this.columns = columns;
+            this.values = values;
+        }
+    }
+}
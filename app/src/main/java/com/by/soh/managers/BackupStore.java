@@ -0,0 +1,693 @@
+package com.by.soh.managers;
+
+import android.util.Log;
+
+import com.by.soh.utils.AtomicFileWriter;
+import com.by.soh.utils.BinarySaveReader;
+import com.by.soh.utils.BinarySaveWriter;
+import com.by.soh.utils.SaveCodec;
+import com.by.soh.utils.SaveCodecs;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Checksum;
+
+/**
+ * Almacén de backups deduplicado por contenido
+ * Cada backup se corta en trozos de tamaño variable con un hash rodante (los cortes
+ * dependen del contenido, así un cambio local solo altera los trozos cercanos) y cada
+ * trozo se guarda una sola vez bajo su SHA-256, comprimido con el códec elegido
+ * (primer byte del archivo del trozo). Un índice pequeño lista los backups y
+ * sus trozos; la retención por niveles decide qué backups se conservan y los trozos
+ * que ya nadie referencia se eliminan.
+ * Los trozos nuevos se escriben sin forzar cada archivo a disco: al terminar se sincronizan
+ * una vez los directorios tocados y el índice (atómico) hace de punto de confirmación. Un
+ * trozo dañado por un corte se detecta por su SHA-256 al leerlo y se descarta
+ */
+class BackupStore {
+
+    private static final String TAG = "BackupStore";
+
+    private static final String CHUNK_DIRECTORY = "chunks";
+    private static final String INDEX_FILE = "index.bin";
+
+    private static final int INDEX_MAGIC = 0x534F4842; // "SOHB"
+    private static final int INDEX_FORMAT_VERSION = 2;
+    private static final int CODEC_HEADER_SINCE_VERSION = 2;
+    private static final int TAG_ENTRY = 1;
+
+    // Tamaños de trozo: la máscara de 13 bits da cortes cada ~8KB de media
+    private static final int MIN_CHUNK_SIZE = 2 * 1024;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024;
+    private static final long CHUNK_MASK = (1L << 13) - 1;
+    private static final int READ_BUFFER_SIZE = 4 * MAX_CHUNK_SIZE;
+
+    // Retención por niveles: último backup de cada hora/día/semana
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    private static final long WEEK_MS = 7 * DAY_MS;
+    private static final int KEEP_HOURLY = 24;
+    private static final int KEEP_DAILY = 7;
+    private static final int KEEP_WEEKLY = 4;
+
+    // Tabla del hash rodante Gear (valores fijos para que los cortes sean estables)
+    private static final long[] GEAR = new long[256];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < GEAR.length; i++) {
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            GEAR[i] = seed;
+        }
+    }
+
+    private final File chunkDirectory;
+    private final File indexFile;
+
+    // Índice en memoria, del más antiguo al más reciente
+    private final List<Entry> entries = new ArrayList<>();
+
+    // Backups con un canal de lectura abierto: sus trozos no se recolectan
+    private final Map<Entry, Integer> openReaders = new HashMap<>();
+
+    // Tamaños recalculados al cambiar el índice (las consultas de estadísticas no recorren trozos)
+    private long logicalSize;
+    private long storedSize;
+
+    BackupStore(File directory) {
+        this.chunkDirectory = new File(directory, CHUNK_DIRECTORY);
+        this.indexFile = new File(directory, INDEX_FILE);
+
+        chunkDirectory.mkdirs();
+        loadIndex();
+        updateSizes();
+    }
+
+    // ==================== ALTA Y BAJA ====================
+
+    /**
+     * Guarda el contenido de in como un backup nuevo. Solo se escriben (comprimidos con
+     * codec) los trozos que no estaban ya en el almacén
+     */
+    synchronized Entry add(String name, String saveName, InputStream in, long timestamp,
+                           SaveCodec codec) throws IOException {
+        Entry entry = new Entry();
+        entry.name = name;
+        entry.saveName = saveName;
+        entry.timestamp = timestamp;
+        entry.checksumAlgorithm = BinarySaveWriter.preferredChecksum();
+
+        Checksum checksum = BinarySaveWriter.newChecksum(entry.checksumAlgorithm);
+        MessageDigest digest = newDigest();
+        List<byte[]> hashes = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        Set<File> touchedDirectories = new HashSet<>();
+        int newChunks = 0;
+
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int filled = 0;
+        int position = 0;
+        boolean eof = false;
+
+        while (true) {
+            // Mantener al menos un trozo máximo por delante del cursor
+            if (!eof && filled - position < MAX_CHUNK_SIZE) {
+                System.arraycopy(buffer, position, buffer, 0, filled - position);
+                filled -= position;
+                position = 0;
+                while (filled < buffer.length) {
+                    int read = in.read(buffer, filled, buffer.length - filled);
+                    if (read < 0) {
+                        eof = true;
+                        break;
+                    }
+                    filled += read;
+                }
+            }
+            if (position >= filled) break;
+
+            int end = findBoundary(buffer, position, filled);
+            int length = end - position;
+
+            digest.update(buffer, position, length);
+            byte[] hash = digest.digest();
+            if (writeChunkIfAbsent(hash, buffer, position, length, codec, touchedDirectories)) {
+                newChunks++;
+            }
+            checksum.update(buffer, position, length);
+            hashes.add(hash);
+            lengths.add(length);
+            entry.size += length;
+            position = end;
+        }
+
+        entry.checksum = checksum.getValue();
+        entry.chunkHashes = hashes.toArray(new byte[0][]);
+        entry.chunkLengths = new int[lengths.size()];
+        for (int i = 0; i < entry.chunkLengths.length; i++) {
+            entry.chunkLengths[i] = lengths.get(i);
+        }
+
+        // Un único sync por directorio antes de que el índice referencie los trozos nuevos
+        syncDirectories(touchedDirectories);
+
+        // Sustituir un backup anterior con el mismo nombre
+        removeEntry(name);
+        entries.add(entry);
+        saveIndex();
+        updateSizes();
+
+        Log.d(TAG, "Backup " + name + ": " + hashes.size() + " trozos, " + newChunks + " nuevos");
+        return entry;
+    }
+
+    /**
+     * Elimina un backup del índice y los trozos que solo él usaba
+     */
+    synchronized boolean remove(String name) throws IOException {
+        if (getEntry(name) == null) {
+            return false;
+        }
+        removeEntry(name);
+        saveIndex();
+        updateSizes();
+        collectGarbage();
+        return true;
+    }
+
+    /**
+     * Aplica la retención por niveles a cada guardado y elimina los trozos huérfanos.
+     * Devuelve el número de backups eliminados
+     */
+    synchronized int applyRetention() {
+        Map<String, List<Entry>> bySave = new HashMap<>();
+        for (Entry entry : entries) {
+            List<Entry> group = bySave.get(entry.saveName);
+            if (group == null) {
+                group = new ArrayList<>();
+                bySave.put(entry.saveName, group);
+            }
+            group.add(entry);
+        }
+
+        Set<Entry> keep = new HashSet<>();
+        for (List<Entry> group : bySave.values()) {
+            // Más reciente primero
+            group.sort((e1, e2) -> Long.compare(e2.timestamp, e1.timestamp));
+            keep.add(group.get(0));
+            keepNewestPerBucket(group, HOUR_MS, KEEP_HOURLY, keep);
+            keepNewestPerBucket(group, DAY_MS, KEEP_DAILY, keep);
+            keepNewestPerBucket(group, WEEK_MS, KEEP_WEEKLY, keep);
+        }
+
+        int removed = entries.size() - keep.size();
+        if (removed == 0) {
+            return 0;
+        }
+
+        entries.retainAll(keep);
+        updateSizes();
+        try {
+            saveIndex();
+        } catch (IOException e) {
+            Log.e(TAG, "Error guardando índice tras la retención", e);
+            return 0;
+        }
+
+        collectGarbage();
+        return removed;
+    }
+
+    /**
+     * Borra los trozos que ningún backup del índice referencia
+     * (también los de un alta interrumpida antes de guardar el índice)
+     */
+    synchronized int collectGarbage() {
+        Set<String> referenced = new HashSet<>();
+        for (Entry entry : entries) {
+            for (byte[] hash : entry.chunkHashes) {
+                referenced.add(toHex(hash));
+            }
+        }
+        // Un backup que se está leyendo conserva sus trozos aunque ya no esté en el índice
+        for (Entry entry : openReaders.keySet()) {
+            for (byte[] hash : entry.chunkHashes) {
+                referenced.add(toHex(hash));
+            }
+        }
+
+        int deleted = 0;
+        File[] buckets = chunkDirectory.listFiles(File::isDirectory);
+        if (buckets == null) return 0;
+
+        for (File bucket : buckets) {
+            File[] chunks = bucket.listFiles();
+            if (chunks == null) continue;
+            for (File chunk : chunks) {
+                if (!referenced.contains(chunk.getName()) && chunk.delete()) {
+                    deleted++;
+                }
+            }
+        }
+
+        if (deleted > 0) {
+            Log.d(TAG, "Trozos huérfanos eliminados: " + deleted);
+        }
+        return deleted;
+    }
+
+    // ==================== CONSULTA Y LECTURA ====================
+
+    /**
+     * Backups del índice, del más reciente al más antiguo
+     */
+    synchronized List<Entry> getEntries() {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort((e1, e2) -> Long.compare(e2.timestamp, e1.timestamp));
+        return sorted;
+    }
+
+    synchronized Entry getEntry(String name) {
+        for (Entry entry : entries) {
+            if (entry.name.equals(name)) return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Canal que reconstruye el backup trozo a trozo, verificando el SHA-256 de cada
+     * trozo y el checksum del archivo completo al llegar al final. Mientras está abierto
+     * la recolección de trozos no toca los de este backup
+     */
+    ReadableByteChannel open(Entry entry) throws IOException {
+        ChunkChannel channel = new ChunkChannel(entry);
+        pinReader(entry);
+        return channel;
+    }
+
+    /**
+     * Bytes que ocuparían los backups como copias completas
+     */
+    synchronized long getLogicalSize() {
+        return logicalSize;
+    }
+
+    /**
+     * Bytes realmente almacenados (cada trozo distinto una vez)
+     */
+    synchronized long getStoredSize() {
+        return storedSize;
+    }
+
+    synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    private synchronized void pinReader(Entry entry) {
+        Integer count = openReaders.get(entry);
+        openReaders.put(entry, count != null ? count + 1 : 1);
+    }
+
+    private synchronized void unpinReader(Entry entry) {
+        Integer count = openReaders.get(entry);
+        if (count == null) return;
+        if (count <= 1) {
+            openReaders.remove(entry);
+        } else {
+            openReaders.put(entry, count - 1);
+        }
+    }
+
+    /**
+     * Descarta un trozo que no verificó para que el próximo backup lo vuelva a escribir
+     */
+    private synchronized void discardChunk(byte[] hash) {
+        if (chunkFile(hash).delete()) {
+            Log.w(TAG, "Trozo dañado eliminado: " + toHex(hash));
+        }
+    }
+
+    /**
+     * Recalcula los tamaños lógico y almacenado (cada trozo distinto una vez)
+     */
+    private void updateSizes() {
+        Map<String, Integer> unique = new HashMap<>();
+        long logical = 0;
+        for (Entry entry : entries) {
+            logical += entry.size;
+            for (int i = 0; i < entry.chunkHashes.length; i++) {
+                unique.put(toHex(entry.chunkHashes[i]), entry.chunkLengths[i]);
+            }
+        }
+        long stored = 0;
+        for (int length : unique.values()) {
+            stored += length;
+        }
+        logicalSize = logical;
+        storedSize = stored;
+    }
+
+    /**
+     * Busca el siguiente corte con el hash rodante Gear entre los tamaños mínimo y máximo
+     */
+    private static int findBoundary(byte[] data, int start, int end) {
+        int limit = Math.min(end, start + MAX_CHUNK_SIZE);
+        if (limit - start <= MIN_CHUNK_SIZE) {
+            return limit;
+        }
+
+        long hash = 0;
+        for (int i = start + MIN_CHUNK_SIZE; i < limit; i++) {
+            hash = (hash << 1) + GEAR[data[i] & 0xFF];
+            if ((hash & CHUNK_MASK) == 0) {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    private static void keepNewestPerBucket(List<Entry> newestFirst, long bucketMs, int maxBuckets, Set<Entry> keep) {
+        Set<Long> buckets = new HashSet<>();
+        for (Entry entry : newestFirst) {
+            if (buckets.size() >= maxBuckets) break;
+            if (buckets.add(entry.timestamp / bucketMs)) {
+                keep.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Escribe un trozo si aún no existe; devuelve true si era nuevo.
+     * Si comprimir no reduce el tamaño se guarda sin comprimir
+     */
+    private boolean writeChunkIfAbsent(byte[] hash, byte[] data, int offset, int length,
+                                       SaveCodec codec, Set<File> touchedDirectories) throws IOException {
+        File chunkFile = chunkFile(hash);
+        if (chunkFile.exists()) {
+            return false;
+        }
+
+        byte[] payload = codec.compress(data, offset, length);
+        int codecId = codec.getId();
+        if (payload.length >= length && codecId != SaveCodecs.NONE) {
+            payload = SaveCodecs.forId(SaveCodecs.NONE).compress(data, offset, length);
+            codecId = SaveCodecs.NONE;
+        }
+
+        File bucket = chunkFile.getParentFile();
+        if (!bucket.exists() && bucket.mkdirs()) {
+            touchedDirectories.add(chunkDirectory);
+        }
+        writeChunk(chunkFile, codecId, payload);
+        touchedDirectories.add(bucket);
+        return true;
+    }
+
+    /**
+     * Escribe un trozo en un temporal y lo renombra (sin forzar a disco): el archivo del
+     * trozo nunca queda a medias con su nombre final
+     */
+    private static void writeChunk(File chunkFile, int codecId, byte[] payload) throws IOException {
+        File temp = new File(chunkFile.getParentFile(), chunkFile.getName() + AtomicFileWriter.TEMP_SUFFIX);
+        try (FileOutputStream fos = new FileOutputStream(temp)) {
+            fos.write(codecId);
+            fos.write(payload);
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        if (!temp.renameTo(chunkFile)) {
+            temp.delete();
+            throw new IOException("No se pudo renombrar el trozo " + chunkFile.getName());
+        }
+    }
+
+    private static void syncDirectories(Set<File> directories) {
+        for (File directory : directories) {
+            AtomicFileWriter.syncDirectory(directory);
+        }
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        byte[] content = new byte[(int) file.length()];
+        try (FileInputStream fis = new FileInputStream(file)) {
+            int offset = 0;
+            while (offset < content.length) {
+                int read = fis.read(content, offset, content.length - offset);
+                if (read < 0) throw new IOException("Trozo incompleto: " + file.getName());
+                offset += read;
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Los trozos del índice versión 1 se guardaban sin byte de códec: se reescriben
+     * una vez con el códec "none"
+     */
+    private void addCodecHeaders() throws IOException {
+        Set<String> upgraded = new HashSet<>();
+        Set<File> touchedDirectories = new HashSet<>();
+        for (Entry entry : entries) {
+            for (byte[] hash : entry.chunkHashes) {
+                File chunkFile = chunkFile(hash);
+                if (upgraded.add(chunkFile.getName()) && chunkFile.exists()) {
+                    writeChunk(chunkFile, SaveCodecs.NONE, readFile(chunkFile));
+                    touchedDirectories.add(chunkFile.getParentFile());
+                }
+            }
+        }
+        syncDirectories(touchedDirectories);
+        saveIndex();
+        Log.i(TAG, "Trozos actualizados al formato con códec: " + upgraded.size());
+    }
+
+    /**
+     * Ruta del trozo: chunks/<2 primeros hex>/<hash hex>
+     */
+    private File chunkFile(byte[] hash) {
+        String hex = toHex(hash);
+        return new File(new File(chunkDirectory, hex.substring(0, 2)), hex);
+    }
+
+    private void removeEntry(String name) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).name.equals(name)) {
+                entries.remove(i);
+                return;
+            }
+        }
+    }
+
+    private void loadIndex() {
+        if (!indexFile.exists()) {
+            return;
+        }
+
+        try (FileInputStream fis = new FileInputStream(indexFile);
+             BinarySaveReader reader = new BinarySaveReader(fis.getChannel())) {
+
+            int version = reader.readHeader(INDEX_MAGIC);
+            if (version < 1 || version > INDEX_FORMAT_VERSION) {
+                Log.w(TAG, "Índice de backups con formato desconocido");
+                return;
+            }
+            reader.enableChecksums();
+
+            int tag;
+            while ((tag = reader.nextRecord()) != BinarySaveWriter.TAG_END) {
+                if (tag == TAG_ENTRY) {
+                    entries.add(Entry.readFrom(reader));
+                }
+            }
+
+            if (version < CODEC_HEADER_SINCE_VERSION) {
+                addCodecHeaders();
+            }
+
+        } catch (IOException e) {
+            // Sin índice válido no se puede saber qué trozos forman cada backup
+            Log.e(TAG, "Índice de backups ilegible", e);
+            entries.clear();
+        }
+    }
+
+    private void saveIndex() throws IOException {
+        AtomicFileWriter.write(indexFile, channel -> {
+            BinarySaveWriter writer = new BinarySaveWriter(channel);
+            writer.writeHeader(INDEX_MAGIC, INDEX_FORMAT_VERSION);
+            writer.enableChecksums(BinarySaveWriter.preferredChecksum());
+            for (Entry entry : entries) {
+                entry.writeTo(writer);
+            }
+            writer.finish();
+        });
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Backup registrado en el índice
+     */
+    static class Entry {
+        String name;
+        String saveName;
+        long timestamp;
+        long size;
+        int checksumAlgorithm;
+        long checksum;
+        byte[][] chunkHashes;
+        int[] chunkLengths;
+
+        void writeTo(BinarySaveWriter writer) throws IOException {
+            writer.beginRecord(TAG_ENTRY);
+            writer.writeString(name);
+            writer.writeString(saveName);
+            writer.writeLong(timestamp);
+            writer.writeLong(size);
+            writer.writeInt(checksumAlgorithm);
+            writer.writeLong(checksum);
+            writer.writeInt(chunkHashes.length);
+            for (int i = 0; i < chunkHashes.length; i++) {
+                writer.writeBytes(chunkHashes[i]);
+                writer.writeInt(chunkLengths[i]);
+            }
+            writer.endRecord();
+        }
+
+        static Entry readFrom(BinarySaveReader reader) throws IOException {
+            Entry entry = new Entry();
+            entry.name = reader.readString();
+            entry.saveName = reader.readString();
+            entry.timestamp = reader.readLong();
+            entry.size = reader.readLong();
+            entry.checksumAlgorithm = reader.readInt();
+            entry.checksum = reader.readLong();
+
+            int count = reader.readInt();
+            entry.chunkHashes = new byte[count][];
+            entry.chunkLengths = new int[count];
+            for (int i = 0; i < count; i++) {
+                entry.chunkHashes[i] = reader.readBytes();
+                entry.chunkLengths[i] = reader.readInt();
+            }
+            return entry;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Entry{name='%s', size=%d, chunks=%d}", name, size, chunkHashes.length);
+        }
+    }
+
+    /**
+     * Lectura secuencial de un backup a partir de sus trozos
+     */
+    private class ChunkChannel implements ReadableByteChannel {
+        private final Entry entry;
+        private final MessageDigest digest;
+        private final Checksum checksum;
+
+        private int chunkIndex;
+        private ByteBuffer current = ByteBuffer.allocate(0);
+        private boolean open = true;
+
+        ChunkChannel(Entry entry) throws IOException {
+            this.entry = entry;
+            this.digest = newDigest();
+            this.checksum = BinarySaveWriter.newChecksum(entry.checksumAlgorithm);
+        }
+
+        @Override
+        public int read(ByteBuffer target) throws IOException {
+            if (!open) throw new ClosedChannelException();
+
+            while (!current.hasRemaining()) {
+                if (chunkIndex >= entry.chunkHashes.length) {
+                    if (checksum.getValue() != entry.checksum) {
+                        throw new IOException("Checksum del backup incorrecto: " + entry.name);
+                    }
+                    return -1;
+                }
+                current = ByteBuffer.wrap(readChunk(chunkIndex++));
+            }
+
+            int count = Math.min(target.remaining(), current.remaining());
+            target.put(current.array(), current.position(), count);
+            current.position(current.position() + count);
+            return count;
+        }
+
+        private byte[] readChunk(int index) throws IOException {
+            byte[] hash = entry.chunkHashes[index];
+            byte[] data = new byte[entry.chunkLengths[index]];
+
+            byte[] stored = readFile(chunkFile(hash));
+            if (stored.length == 0) {
+                discardChunk(hash);
+                throw new IOException("Trozo vacío en " + entry.name);
+            }
+            try {
+                SaveCodecs.forId(stored[0] & 0xFF).decompress(stored, 1, stored.length - 1, data, 0, data.length);
+            } catch (IOException e) {
+                discardChunk(hash);
+                throw e;
+            }
+
+            if (!MessageDigest.isEqual(hash, digest.digest(data))) {
+                discardChunk(hash);
+                throw new IOException("Trozo dañado en " + entry.name);
+            }
+            checksum.update(data, 0, data.length);
+            return data;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            if (open) {
+                open = false;
+                unpinReader(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.by.soh.managers;
+
+import com.by.soh.constants.BattleConstants;
+import com.by.soh.utils.GameRandom;
+
+/**
+ * Tiradas aleatorias del combate (crítico, acierto, velocidad y objetivo)
+ * Las reglas y límites están en BattleConstants; aquí solo se tira el dado, siempre
+ * con el flujo de combate de GameRandom para que un combate sea reproducible con su semilla
+ */
+public final class BattleRolls {
+
+    private BattleRolls() {
+    }
+
+    // ==================== TIRADAS ====================
+
+    /**
+     * Determina si un ataque es crítico
+     */
+    public static boolean isCriticalHit(float critRate) {
+        return random().chance(Math.min(critRate, 1.0f));
+    }
+
+    /**
+     * Determina si un ataque acierta
+     */
+    public static boolean doesAttackHit(float accuracy, float evasion) {
+        float hitChance = Math.min(accuracy, BattleConstants.MAX_ACCURACY) -
+                Math.min(evasion, BattleConstants.MAX_EVASION);
+        return random().chance(Math.max(hitChance, 0.05f)); // Mínimo 5% de acierto
+    }
+
+    /**
+     * Calcula la velocidad efectiva con variación aleatoria
+     */
+    public static float calculateEffectiveSpeed(int baseSpeed) {
+        float variation = random().nextFloat(1.0f - BattleConstants.SPEED_RANDOMNESS,
+                1.0f + BattleConstants.SPEED_RANDOMNESS);
+        return baseSpeed * variation;
+    }
+
+    /**
+     * Determina el objetivo basado en la estrategia de targeting
+     */
+    public static int selectTarget(int targetingType, int[] availableTargets,
+                                   int[] targetHp, int[] targetAtk) {
+        if (availableTargets.length == 0) return -1;
+
+        switch (targetingType) {
+            case BattleConstants.TARGET_RANDOM:
+                return availableTargets[random().nextInt(availableTargets.length)];
+
+            case BattleConstants.TARGET_LOWEST_HP:
+                int lowestHpIndex = 0;
+                for (int i = 1; i < availableTargets.length; i++) {
+                    if (targetHp[availableTargets[i]] < targetHp[availableTargets[lowestHpIndex]]) {
+                        lowestHpIndex = i;
+                    }
+                }
+                return availableTargets[lowestHpIndex];
+
+            case BattleConstants.TARGET_HIGHEST_ATK:
+                int highestAtkIndex = 0;
+                for (int i = 1; i < availableTargets.length; i++) {
+                    if (targetAtk[availableTargets[i]] > targetAtk[availableTargets[highestAtkIndex]]) {
+                        highestAtkIndex = i;
+                    }
+                }
+                return availableTargets[highestAtkIndex];
+
+            case BattleConstants.TARGET_FRONT_ROW:
+                // Priorizar posiciones frontales (1, 2, 3)
+                for (int target : availableTargets) {
+                    if (target <= BattleConstants.POSITION_FRONT_RIGHT) {
+                        return target;
+                    }
+                }
+                break;
+
+            case BattleConstants.TARGET_BACK_ROW:
+                // Priorizar posiciones traseras (4, 5)
+                for (int target : availableTargets) {
+                    if (target >= BattleConstants.POSITION_BACK_LEFT) {
+                        return target;
+                    }
+                }
+                break;
+        }
+
+        // Fallback a aleatorio
+        return availableTargets[random().nextInt(availableTargets.length)];
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    private static GameRandom random() {
+        return GameRandom.stream(GameRandom.STREAM_BATTLE);
+    }
+}
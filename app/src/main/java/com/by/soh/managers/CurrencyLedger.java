@@ -0,0 +1,374 @@
+package com.by.soh.managers;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.util.Log;
+
+import com.by.soh.constants.GameConstants;
+import com.by.soh.database.DatabaseContract;
+import com.by.soh.database.GameDatabaseHelper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Libro de monedas del jugador
+ * Las transacciones (p. ej. "gastar 900 gemas y sumar 50 fragmentos") se validan y
+ * aplican en memoria de forma atómica: o entran todos sus movimientos o ninguno. El
+ * saldo visible es el último guardado en la BD más los deltas pendientes, así que la UI
+ * lo ve al instante; los deltas se escriben agrupados cada FLUSH_DELAY_MS en una sola
+ * transacción junto con una fila de auditoría por transacción
+ */
+public class CurrencyLedger {
+
+    private static final String TAG = "CurrencyLedger";
+
+    // Monedas
+    public static final int GOLD = 0;
+    public static final int GEMS = 1;
+    public static final int PVP_COINS = 2;
+    public static final int GUILD_COINS = 3;
+
+    private static final int CURRENCY_COUNT = 4;
+    private static final String[] CURRENCY_NAMES = {"gold", "gems", "pvp_coins", "guild_coins"};
+    private static final long[] MAX_BALANCE = {
+            GameConstants.MAX_GOLD, GameConstants.MAX_GEMS, Integer.MAX_VALUE, Integer.MAX_VALUE
+    };
+
+    private static final long FLUSH_DELAY_MS = 500;
+
+    /**
+     * Aviso de cambio de saldos (en el hilo que aplicó la transacción)
+     */
+    public interface BalanceListener {
+        void onBalancesChanged(CurrencyLedger ledger);
+    }
+
+    /**
+     * Escritura en la BD que incluye el gasto de una transacción retenida; devuelve null
+     * si falla (no se escribe nada)
+     */
+    interface ExternalCommit<T> {
+        T commit();
+    }
+
+    private final GameDatabaseHelper dbHelper;
+    private final ScheduledExecutorService flushExecutor;
+    private final List<BalanceListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Saldo = persisted + inFlight + pending + held
+    private final long[] persisted = new long[CURRENCY_COUNT];
+    private final long[] inFlight = new long[CURRENCY_COUNT];
+    private final long[] pending = new long[CURRENCY_COUNT];
+    private final long[] held = new long[CURRENCY_COUNT];
+    private Map<String, Integer> pendingShards = new LinkedHashMap<>();
+    private List<ContentValues> pendingAudit = new ArrayList<>();
+    private boolean flushScheduled;
+
+    // Serializa escrituras y recargas para no contar dos veces un lote recién escrito
+    private final Object flushLock = new Object();
+
+    CurrencyLedger(GameDatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    // ==================== SALDOS ====================
+
+    /**
+     * Saldo actual, incluidos los movimientos aún no escritos
+     */
+    public synchronized long getBalance(int currency) {
+        return persisted[currency] + inFlight[currency] + pending[currency] + held[currency];
+    }
+
+    /**
+     * Relee de la BD los saldos guardados; los movimientos pendientes se mantienen encima
+     */
+    void reload() {
+        synchronized (flushLock) {
+            Cursor cursor = dbHelper.getPlayerData();
+            if (cursor == null) return;
+            try {
+                if (!cursor.moveToFirst()) return;
+                synchronized (this) {
+                    persisted[GOLD] = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_GOLD));
+                    persisted[GEMS] = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_GEMS));
+                    persisted[PVP_COINS] = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_PVP_COINS));
+                    persisted[GUILD_COINS] = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_GUILD_COINS));
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+    }
+
+    // ==================== TRANSACCIONES ====================
+
+    /**
+     * Aplica la transacción si ningún saldo queda negativo; los ingresos se limitan al
+     * máximo de cada moneda. Devuelve false sin aplicar nada si no hay saldo
+     */
+    public boolean apply(Transaction transaction) {
+        synchronized (this) {
+            long[] applied = new long[CURRENCY_COUNT];
+            for (int currency = 0; currency < CURRENCY_COUNT; currency++) {
+                long balance = getBalance(currency);
+                long next = balance + transaction.deltas[currency];
+                if (next < 0) {
+                    Log.w(TAG, "Saldo insuficiente de " + CURRENCY_NAMES[currency] + " para '" +
+                            transaction.reason + "': " + balance + " < " + -transaction.deltas[currency]);
+                    return false;
+                }
+                applied[currency] = Math.min(next, MAX_BALANCE[currency]) - balance;
+            }
+
+            for (int currency = 0; currency < CURRENCY_COUNT; currency++) {
+                pending[currency] += applied[currency];
+            }
+            for (Map.Entry<String, Integer> shard : transaction.shards.entrySet()) {
+                Integer current = pendingShards.get(shard.getKey());
+                pendingShards.put(shard.getKey(), (current != null ? current : 0) + shard.getValue());
+            }
+            pendingAudit.add(toAuditEntry(transaction, applied));
+            scheduleFlush();
+        }
+
+        notifyListeners();
+        return true;
+    }
+
+    /**
+     * Escribe ahora los movimientos pendientes (en el hilo llamante).
+     * Devuelve false si la escritura falla; los movimientos quedan pendientes
+     */
+    public boolean flush() {
+        synchronized (flushLock) {
+            Map<String, Integer> shards;
+            List<ContentValues> audit;
+            synchronized (this) {
+                if (pendingAudit.isEmpty()) return true;
+
+                for (int currency = 0; currency < CURRENCY_COUNT; currency++) {
+                    inFlight[currency] = pending[currency];
+                    pending[currency] = 0;
+                }
+                shards = pendingShards;
+                audit = pendingAudit;
+                pendingShards = new LinkedHashMap<>();
+                pendingAudit = new ArrayList<>();
+            }
+
+            boolean success = dbHelper.commitCurrencyBatch(inFlight[GOLD], inFlight[GEMS],
+                    inFlight[PVP_COINS], inFlight[GUILD_COINS], shards, audit);
+
+            synchronized (this) {
+                for (int currency = 0; currency < CURRENCY_COUNT; currency++) {
+                    if (success) {
+                        persisted[currency] += inFlight[currency];
+                    } else {
+                        pending[currency] += inFlight[currency];
+                    }
+                    inFlight[currency] = 0;
+                }
+
+                if (!success) {
+                    // Devolver el lote delante de lo que haya llegado mientras tanto
+                    for (Map.Entry<String, Integer> shard : pendingShards.entrySet()) {
+                        Integer current = shards.get(shard.getKey());
+                        shards.put(shard.getKey(), (current != null ? current : 0) + shard.getValue());
+                    }
+                    audit.addAll(pendingAudit);
+                    pendingShards = shards;
+                    pendingAudit = audit;
+                    scheduleFlush();
+                }
+            }
+
+            if (success) {
+                Log.d(TAG, "Lote de monedas escrito: " + audit.size() + " transacciones");
+            } else {
+                Log.w(TAG, "No se pudo escribir el lote de monedas, se reintentará");
+            }
+            return success;
+        }
+    }
+
+    /**
+     * Gasta la transacción dentro de otra escritura de la BD (p. ej. las gemas del gacha,
+     * que van en la transacción de los héroes). Los importes se retienen antes de escribir,
+     * así que ningún gasto concurrente puede usarlos; después se escribe lo pendiente, para
+     * que la BD tenga el saldo real, y se ejecuta commit sin que otra escritura o recarga
+     * del libro se intercale. Devuelve el resultado de commit, o null sin gastar nada si
+     * falta saldo o falla alguna escritura
+     */
+    <T> T commitThrough(Transaction transaction, ExternalCommit<T> commit) {
+        if (!transaction.shards.isEmpty()) {
+            throw new IllegalArgumentException("Solo se pueden retener gastos: " + transaction);
+        }
+
+        T result = null;
+        synchronized (flushLock) {
+            if (!hold(transaction)) return null;
+            try {
+                if (flush()) {
+                    result = commit.commit();
+                } else {
+                    Log.w(TAG, "No se pudo escribir lo pendiente antes de '" + transaction.reason + "'");
+                }
+            } finally {
+                releaseHold(transaction, result != null);
+            }
+        }
+
+        notifyListeners();
+        return result;
+    }
+
+    /**
+     * Transacciones aplicadas en memoria y aún no escritas
+     */
+    public synchronized int getPendingCount() {
+        return pendingAudit.size();
+    }
+
+    // ==================== LISTENERS ====================
+
+    public void addBalanceListener(BalanceListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeBalanceListener(BalanceListener listener) {
+        listeners.remove(listener);
+    }
+
+    // ==================== CLEANUP ====================
+
+    /**
+     * Escribe lo pendiente y detiene el hilo de escritura
+     */
+    void shutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    private synchronized boolean hold(Transaction transaction) {
+        for (int currency = 0; currency < CURRENCY_COUNT; currency++) {
+            if (transaction.deltas[currency] > 0) {
+                throw new IllegalArgumentException("Solo se pueden retener gastos: " + transaction);
+            }
+            long balance = getBalance(currency);
+            if (balance + transaction.deltas[currency] < 0) {
+                Log.w(TAG, "Saldo insuficiente de " + CURRENCY_NAMES[currency] + " para '" +
+                        transaction.reason + "': " + balance + " < " + -transaction.deltas[currency]);
+                return false;
+            }
+        }
+        for (int currency = 0; currency < CURRENCY_COUNT; currency++) {
+            held[currency] += transaction.deltas[currency];
+        }
+        return true;
+    }
+
+    /**
+     * Suelta lo retenido; si la escritura externa entró, el gasto ya está en la BD
+     */
+    private synchronized void releaseHold(Transaction transaction, boolean committed) {
+        for (int currency = 0; currency < CURRENCY_COUNT; currency++) {
+            held[currency] -= transaction.deltas[currency];
+            if (committed) {
+                persisted[currency] += transaction.deltas[currency];
+            }
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled || flushExecutor.isShutdown()) return;
+
+        flushScheduled = true;
+        flushExecutor.schedule(() -> {
+            synchronized (CurrencyLedger.this) {
+                flushScheduled = false;
+            }
+            flush();
+        }, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void notifyListeners() {
+        for (BalanceListener listener : listeners) {
+            listener.onBalancesChanged(this);
+        }
+    }
+
+    private static ContentValues toAuditEntry(Transaction transaction, long[] applied) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseContract.CurrencyAudit.COLUMN_REASON, transaction.reason);
+        values.put(DatabaseContract.CurrencyAudit.COLUMN_GOLD_DELTA, applied[GOLD]);
+        values.put(DatabaseContract.CurrencyAudit.COLUMN_GEMS_DELTA, applied[GEMS]);
+        values.put(DatabaseContract.CurrencyAudit.COLUMN_PVP_COINS_DELTA, applied[PVP_COINS]);
+        values.put(DatabaseContract.CurrencyAudit.COLUMN_GUILD_COINS_DELTA, applied[GUILD_COINS]);
+        if (!transaction.shards.isEmpty()) {
+            StringBuilder details = new StringBuilder();
+            for (Map.Entry<String, Integer> shard : transaction.shards.entrySet()) {
+                if (details.length() > 0) details.append(';');
+                details.append(shard.getKey()).append(':').append(shard.getValue());
+            }
+            values.put(DatabaseContract.CurrencyAudit.COLUMN_DETAILS, details.toString());
+        }
+        values.put(DatabaseContract.CurrencyAudit.COLUMN_CREATED_AT, transaction.createdAt);
+        return values;
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Conjunto de movimientos que se aplican juntos. Los importes son positivos;
+     * spend resta y add suma
+     */
+    public static class Transaction {
+        private final String reason;
+        private final long createdAt = System.currentTimeMillis();
+        private final long[] deltas = new long[CURRENCY_COUNT];
+        private final Map<String, Integer> shards = new LinkedHashMap<>();
+
+        public Transaction(String reason) {
+            this.reason = reason;
+        }
+
+        public Transaction add(int currency, long amount) {
+            if (amount < 0) throw new IllegalArgumentException("Importe negativo: " + amount);
+            deltas[currency] += amount;
+            return this;
+        }
+
+        public Transaction spend(int currency, long amount) {
+            if (amount < 0) throw new IllegalArgumentException("Importe negativo: " + amount);
+            deltas[currency] -= amount;
+            return this;
+        }
+
+        /**
+         * Fragmentos de héroe ganados (solo ingresos)
+         */
+        public Transaction addShards(String heroTemplateId, int amount) {
+            if (amount < 0) throw new IllegalArgumentException("Importe negativo: " + amount);
+            Integer current = shards.get(heroTemplateId);
+            shards.put(heroTemplateId, (current != null ? current : 0) + amount);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Transaction{reason='%s', gold=%d, gems=%d, pvp=%d, guild=%d, shards=%s}",
+                    reason, deltas[GOLD], deltas[GEMS], deltas[PVP_COINS], deltas[GUILD_COINS], shards);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.by.soh.managers;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.by.soh.constants.GameConstants;
+import com.by.soh.database.GameDatabaseHelper;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manager para el mantenimiento de la base de datos en segundo plano
+ * Purga filas expiradas por lotes, libera páginas de forma incremental y
+ * actualiza las estadísticas del planificador sin bloquear el juego.
+ * Las porciones solo se ejecutan con la app en segundo plano o sin interacción
+ * reciente del usuario; la conversión con VACUUM completo, solo en segundo plano
+ */
+public class DatabaseMaintenanceManager {
+
+    private static final String TAG = "DatabaseMaintenanceManager";
+
+    // Singleton instance
+    private static DatabaseMaintenanceManager instance;
+
+    // Referencias
+    private Context context;
+    private GameDatabaseHelper dbHelper;
+    private SharedPreferences preferences;
+
+    // Scheduler
+    private ScheduledExecutorService maintenanceExecutor;
+    private boolean maintenanceEnabled;
+    private long lastOptimizeTime;
+
+    // Estado de la app (lo notifica la actividad)
+    private volatile boolean appInForeground;
+    private volatile long lastUserActivityTime;
+
+    // Estadísticas
+    private MaintenanceReport lastReport;
+    private long totalRowsPurged;
+    private long totalPagesReclaimed;
+    private int slicesExecuted;
+
+    // Configuraciones
+    private static final long INITIAL_DELAY = 2 * 60 * 1000L; // 2 minutos tras el arranque
+    private static final long MAINTENANCE_INTERVAL = 5 * 60 * 1000L; // 5 minutos
+    private static final long OPTIMIZE_INTERVAL = 24 * 60 * 60 * 1000L; // 24 horas
+    private static final int MAX_PAGES_PER_SLICE = 64;
+    private static final float MIN_FRAGMENTATION_TO_VACUUM = 0.05f; // 5% de páginas libres
+    private static final long IDLE_THRESHOLD = 60 * 1000L; // 1 minuto sin interacción
+    private static final long MAX_VACUUM_CONVERSION_BYTES = 16 * 1024 * 1024L; // 16 MB
+
+    // Constructor privado
+    private DatabaseMaintenanceManager(Context context) {
+        this.context = context.getApplicationContext();
+        this.dbHelper = GameDatabaseHelper.getInstance(context);
+        this.preferences = context.getSharedPreferences(GameConstants.PREFS_NAME, Context.MODE_PRIVATE);
+        this.lastOptimizeTime = preferences.getLong(GameConstants.PREF_LAST_DB_OPTIMIZE_TIME, 0);
+        this.maintenanceEnabled = true;
+
+        startMaintenance();
+
+        Log.i(TAG, "DatabaseMaintenanceManager inicializado");
+    }
+
+    /**
+     * Obtiene la instancia singleton del manager
+     */
+    public static synchronized DatabaseMaintenanceManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new DatabaseMaintenanceManager(context);
+        }
+        return instance;
+    }
+
+    // ==================== SCHEDULER ====================
+
+    /**
+     * Inicia el mantenimiento periódico
+     */
+    private void startMaintenance() {
+        if (maintenanceExecutor != null) {
+            maintenanceExecutor.shutdown();
+        }
+
+        maintenanceExecutor = Executors.newSingleThreadScheduledExecutor();
+        maintenanceExecutor.scheduleWithFixedDelay(
+                this::runMaintenanceSlice,
+                INITIAL_DELAY,
+                MAINTENANCE_INTERVAL,
+                TimeUnit.MILLISECONDS
+        );
+
+        Log.d(TAG, "Mantenimiento iniciado (intervalo: " + MAINTENANCE_INTERVAL + "ms)");
+    }
+
+    /**
+     * Ejecuta una porción acotada de mantenimiento
+     */
+    private void runMaintenanceSlice() {
+        if (!maintenanceEnabled) return;
+        if (!isAppIdle()) {
+            Log.d(TAG, "Mantenimiento aplazado: app en uso");
+            return;
+        }
+
+        try {
+            MaintenanceReport report = new MaintenanceReport();
+            long startTime = System.currentTimeMillis();
+
+            // Conversión única de BDs creadas antes de auto_vacuum=INCREMENTAL. El VACUUM
+            // completo bloquea la BD mientras dura: solo en segundo plano y con BDs pequeñas
+            if (!appInForeground
+                    && dbHelper.getAutoVacuumMode() != GameDatabaseHelper.AUTO_VACUUM_INCREMENTAL) {
+                GameDatabaseHelper.StorageStats storage = dbHelper.getStorageStats();
+                if (storage.pageCount * storage.pageSize <= MAX_VACUUM_CONVERSION_BYTES) {
+                    report.convertedToIncremental = dbHelper.enableIncrementalAutoVacuum();
+                }
+            }
+
+            // Purgar un lote de filas expiradas
+            report.rowsPurged = dbHelper.purgeExpiredRows(GameDatabaseHelper.PURGE_BATCH_SIZE);
+
+            // Liberar un número acotado de páginas si hay suficiente fragmentación
+            report.before = dbHelper.getStorageStats();
+            if (report.before.getFragmentation() >= MIN_FRAGMENTATION_TO_VACUUM) {
+                report.pagesReclaimed = dbHelper.incrementalVacuum(MAX_PAGES_PER_SLICE);
+            }
+
+            // ANALYZE/optimize periódico
+            if (System.currentTimeMillis() - lastOptimizeTime > OPTIMIZE_INTERVAL) {
+                dbHelper.optimizeDatabase();
+                lastOptimizeTime = System.currentTimeMillis();
+                preferences.edit()
+                        .putLong(GameConstants.PREF_LAST_DB_OPTIMIZE_TIME, lastOptimizeTime)
+                        .apply();
+                report.optimized = true;
+            }
+
+            report.after = report.pagesReclaimed > 0 ? dbHelper.getStorageStats() : report.before;
+            report.timestamp = System.currentTimeMillis();
+            report.duration = report.timestamp - startTime;
+
+            synchronized (this) {
+                lastReport = report;
+                totalRowsPurged += report.rowsPurged;
+                totalPagesReclaimed += report.pagesReclaimed;
+                slicesExecuted++;
+            }
+
+            Log.d(TAG, report.toString());
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error en mantenimiento de BD", e);
+        }
+    }
+
+    // ==================== ESTADO DE LA APP ====================
+
+    /**
+     * La app pasa a primer plano: el mantenimiento espera a que el usuario esté inactivo
+     */
+    public void onAppForegrounded() {
+        appInForeground = true;
+        lastUserActivityTime = System.currentTimeMillis();
+    }
+
+    /**
+     * La app pasa a segundo plano: se aprovecha para una porción inmediata
+     */
+    public void onAppBackgrounded() {
+        appInForeground = false;
+        requestMaintenanceNow();
+    }
+
+    /**
+     * Interacción del usuario (toques, teclas); aplaza el mantenimiento
+     */
+    public void notifyUserActivity() {
+        lastUserActivityTime = System.currentTimeMillis();
+    }
+
+    private boolean isAppIdle() {
+        return !appInForeground || System.currentTimeMillis() - lastUserActivityTime >= IDLE_THRESHOLD;
+    }
+
+    // ==================== CONFIGURACIONES ====================
+
+    /**
+     * Habilita/deshabilita el mantenimiento en segundo plano
+     */
+    public void setMaintenanceEnabled(boolean enabled) {
+        this.maintenanceEnabled = enabled;
+        Log.d(TAG, "Mantenimiento " + (enabled ? "habilitado" : "deshabilitado"));
+    }
+
+    /**
+     * Verifica si el mantenimiento está habilitado
+     */
+    public boolean isMaintenanceEnabled() {
+        return maintenanceEnabled;
+    }
+
+    /**
+     * Solicita una porción de mantenimiento inmediata (p.ej. al pasar la app a segundo plano)
+     */
+    public void requestMaintenanceNow() {
+        if (maintenanceExecutor != null && !maintenanceExecutor.isShutdown()) {
+            maintenanceExecutor.execute(this::runMaintenanceSlice);
+        }
+    }
+
+    /**
+     * Obtiene el informe de la última porción ejecutada (null si aún no se ejecutó)
+     */
+    public synchronized MaintenanceReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Obtiene estadísticas acumuladas del mantenimiento
+     */
+    public synchronized MaintenanceStats getMaintenanceStats() {
+        MaintenanceStats stats = new MaintenanceStats();
+        stats.maintenanceEnabled = maintenanceEnabled;
+        stats.slicesExecuted = slicesExecuted;
+        stats.totalRowsPurged = totalRowsPurged;
+        stats.totalPagesReclaimed = totalPagesReclaimed;
+        stats.lastOptimizeTime = lastOptimizeTime;
+        stats.lastReport = lastReport;
+        return stats;
+    }
+
+    // ==================== CLEANUP ====================
+
+    /**
+     * Detiene el mantenimiento en segundo plano
+     */
+    public void shutdown() {
+        synchronized (DatabaseMaintenanceManager.class) {
+            if (instance == this) {
+                instance = null;
+            }
+        }
+
+        if (maintenanceExecutor != null) {
+            maintenanceExecutor.shutdown();
+            try {
+                if (!maintenanceExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    maintenanceExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                maintenanceExecutor.shutdownNow();
+            }
+        }
+        Log.i(TAG, "DatabaseMaintenanceManager finalizado");
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Informe de una porción de mantenimiento
+     */
+    public static class MaintenanceReport {
+        public long timestamp;
+        public long duration;
+        public int rowsPurged;
+        public int pagesReclaimed;
+        public boolean optimized;
+        public boolean convertedToIncremental;
+        public GameDatabaseHelper.StorageStats before;
+        public GameDatabaseHelper.StorageStats after;
+
+        @Override
+        public String toString() {
+            return String.format("MaintenanceReport{purged=%d, reclaimed=%d pages, optimized=%b, duration=%dms, storage=%s}",
+                    rowsPurged, pagesReclaimed, optimized, duration, after);
+        }
+    }
+
+    /**
+     * Estadísticas acumuladas del mantenimiento
+     */
+    public static class MaintenanceStats {
+        public boolean maintenanceEnabled;
+        public int slicesExecuted;
+        public long totalRowsPurged;
+        public long totalPagesReclaimed;
+        public long lastOptimizeTime;
+        public MaintenanceReport lastReport;
+
+        @Override
+        public String toString() {
+            return String.format("MaintenanceStats{enabled=%b, slices=%d, purged=%d, reclaimed=%d pages}",
+                    maintenanceEnabled, slicesExecuted, totalRowsPurged, totalPagesReclaimed);
+        }
+    }
+}
@@ -10,11 +10,15 @@ import com.by.soh.constants.GameConstants;
 import com.by.soh.database.GameDatabaseHelper;
 import com.by.soh.database.DatabaseContract;
 import com.by.soh.models.Equipment;
+import com.by.soh.utils.ColumnarIndex;
+import com.by.soh.utils.GameRandom;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manager para el sistema de equipamiento
@@ -36,6 +40,47 @@ public class EquipmentManager {
     private long lastCacheUpdate;
     private static final long CACHE_DURATION = 5 * 60 * 1000; // 5 minutos
 
+    // Estadísticas del inventario, mantenidas en cada alta/baja/cambio
+    private final InventoryAggregate inventory = new InventoryAggregate();
+
+    // Columnas y criterios de orden del índice
+    private static final String COLUMN_TYPE = "type";
+    private static final String COLUMN_RARITY = "rarity";
+    private static final String COLUMN_SET = "set";
+    private static final String COLUMN_EQUIPPED = "equipped";
+    private static final String COLUMN_LOCKED = "locked";
+    private static final String SORT_POWER = "power";
+    private static final String SORT_RARITY = "rarity";
+    private static final String SORT_TYPE = "type";
+    private static final String SORT_ENHANCEMENT = "enhancement";
+    private static final String SORT_OBTAINED = "obtained";
+
+    // Índice por columnas para búsquedas y ordenaciones sin consultar la BD
+    private final ColumnarIndex<Equipment> equipmentIndex = new ColumnarIndex<>(Equipment::getId)
+            .addBitmap(COLUMN_TYPE, Equipment::getEquipmentType)
+            .addBitmap(COLUMN_RARITY, Equipment::getRarity)
+            .addBitmap(COLUMN_SET, Equipment::getSetId)
+            .addBitmap(COLUMN_EQUIPPED, equipment -> equipment.isEquipped() ? 1 : 0)
+            .addBitmap(COLUMN_LOCKED, equipment -> equipment.isLocked() ? 1 : 0)
+            .addSortKey(SORT_POWER, Equipment::getPowerRating, true)
+            .addSortKey(SORT_RARITY, Equipment::getRarity, true)
+            .addSortKey(SORT_TYPE, Equipment::getEquipmentType, false)
+            .addSortKey(SORT_ENHANCEMENT, Equipment::getEnhancement, true)
+            .addSortKey(SORT_OBTAINED, Equipment::getObtainedAt, true);
+
+    /**
+     * Aviso de que cambió el equipamiento de un héroe (sus stats totales cambian)
+     */
+    public interface HeroEquipmentListener {
+        void onHeroEquipmentChanged(long heroId);
+    }
+
+    private final List<HeroEquipmentListener> heroEquipmentListeners = new CopyOnWriteArrayList<>();
+
+    // Rareza de drop por probabilidades (índice = rareza)
+    private static final GameRandom.AliasTable RARITY_TABLE =
+            new GameRandom.AliasTable(EquipmentConstants.EQUIPMENT_DROP_RATES);
+
     // Constructor privado
     private EquipmentManager(Context context) {
         this.context = context.getApplicationContext();
@@ -152,6 +197,7 @@ public class EquipmentManager {
             if (equipmentId != -1) {
                 equipment.setId(equipmentId);
                 equipmentCache.put(equipmentId, equipment);
+                onEquipmentChanged(equipment);
                 Log.i(TAG, "Equipamiento creado: " + equipment.toString());
             }
 
@@ -178,6 +224,20 @@ public class EquipmentManager {
         );
     }
 
+    /**
+     * Refleja en la caché equipamiento ya registrado en la base de datos (el botín offline
+     * se inserta en la misma transacción que el resto de la progresión)
+     */
+    void applyLootCommit(List<Equipment> items, long[] equipmentIds) {
+        for (int i = 0; i < items.size(); i++) {
+            Equipment equipment = items.get(i);
+            equipment.setId(equipmentIds[i]);
+            equipmentCache.put(equipmentIds[i], equipment);
+            onEquipmentChanged(equipment);
+        }
+        Log.d(TAG, "Botín registrado: " + items.size() + " items");
+    }
+
     /**
      * Genera loot de equipamiento para un nivel específico
      */
@@ -189,8 +249,8 @@ public class EquipmentManager {
 
             if (guaranteeRare && i == 0) {
                 // Primer item garantizado raro o mejor
-                rarity = EquipmentConstants.EQUIPMENT_BLUE +
-                        (int)(Math.random() * (EquipmentConstants.EQUIPMENT_RED - EquipmentConstants.EQUIPMENT_BLUE + 1));
+                rarity = GameRandom.stream(GameRandom.STREAM_LOOT)
+                        .nextInt(EquipmentConstants.EQUIPMENT_BLUE, EquipmentConstants.EQUIPMENT_RED);
             } else {
                 // Rarity basada en probabilidades
                 rarity = determineRandomRarity();
@@ -236,6 +296,8 @@ public class EquipmentManager {
             if (success) {
                 equipment.setEquippedByHero(heroId);
                 equipmentCache.put(equipmentId, equipment);
+                onEquipmentChanged(equipment);
+                notifyHeroEquipmentChanged(heroId);
                 Log.i(TAG, "Equipment " + equipmentId + " equipado a héroe " + heroId);
             }
 
@@ -263,10 +325,13 @@ public class EquipmentManager {
                 return true;
             }
 
+            long heroId = equipment.getEquippedByHero();
             boolean success = dbHelper.unequipItem(equipmentId);
             if (success) {
                 equipment.setEquippedByHero(0);
                 equipmentCache.put(equipmentId, equipment);
+                onEquipmentChanged(equipment);
+                notifyHeroEquipmentChanged(heroId);
                 Log.i(TAG, "Equipment " + equipmentId + " desequipado");
             }
 
@@ -323,6 +388,8 @@ public class EquipmentManager {
                 success = updateEquipmentInDatabase(equipment);
                 if (success) {
                     equipmentCache.put(equipmentId, equipment);
+                    onEquipmentChanged(equipment);
+                    if (equipment.isEquipped()) notifyHeroEquipmentChanged(equipment.getEquippedByHero());
                     Log.i(TAG, "Equipment mejorado: " + equipment.toString());
                 }
             }
@@ -363,6 +430,8 @@ public class EquipmentManager {
                 success = updateEquipmentInDatabase(equipment);
                 if (success) {
                     equipmentCache.put(equipmentId, equipment);
+                    onEquipmentChanged(equipment);
+                    if (equipment.isEquipped()) notifyHeroEquipmentChanged(equipment.getEquippedByHero());
                     Log.i(TAG, "Equipment reforjado: " + equipment.toString());
                 }
             }
@@ -456,7 +525,7 @@ public class EquipmentManager {
      * Determina cuántos items se obtienen del melt
      */
     private int determineItemsFromMelt() {
-        double random = Math.random();
+        double random = GameRandom.stream(GameRandom.STREAM_LOOT).nextDouble();
 
         if (random < EquipmentConstants.MELT_3_ITEM_CHANCE) {
             return 3;
@@ -470,26 +539,48 @@ public class EquipmentManager {
     // ==================== OPERACIONES DE BÚSQUEDA Y FILTRADO ====================
 
     /**
-     * Busca equipamiento con filtros
+     * Busca equipamiento con filtros (ordenado por poder)
      */
     public List<Equipment> searchEquipment(String type, String rarity, boolean onlyUnequipped) {
-        List<Equipment> results = new ArrayList<>();
+        return queryEquipment(type, rarity, onlyUnequipped, 0, SORT_POWER);
+    }
 
-        Cursor cursor = dbHelper.searchEquipment(type, rarity, onlyUnequipped);
-        if (cursor != null) {
-            while (cursor.moveToNext()) {
-                Equipment equipment = new Equipment(cursor);
-                results.add(equipment);
-                equipmentCache.put(equipment.getId(), equipment); // Actualizar cache
-            }
-            cursor.close();
+    /**
+     * Filtro y orden combinados sobre el índice en memoria: tipo, rareza ("all" o null
+     * para no filtrar), solo sin equipar, poder mínimo y criterio de orden
+     * (power, rarity, type, enhancement, obtained)
+     */
+    public List<Equipment> queryEquipment(String type, String rarity, boolean onlyUnequipped,
+                                          int minimumPower, String sortBy) {
+        ColumnarIndex<Equipment>.Query query = getEquipmentIndex().query()
+                .orderBy(toSortKey(sortBy));
+
+        try {
+            if (type != null && !type.equals("all")) query.where(COLUMN_TYPE, Integer.parseInt(type));
+            if (rarity != null && !rarity.equals("all")) query.where(COLUMN_RARITY, Integer.parseInt(rarity));
+        } catch (NumberFormatException e) {
+            Log.w(TAG, "Filtro de equipamiento inválido: " + type + "/" + rarity);
+            return new ArrayList<>();
         }
+        if (onlyUnequipped) query.where(COLUMN_EQUIPPED, 0);
+        if (minimumPower > 0) query.atLeast(SORT_POWER, minimumPower);
 
-        return results;
+        return query.list();
     }
 
     /**
-     * Filtra equipamiento por poder mínimo
+     * Equipamiento de un set concreto, ordenado por poder
+     */
+    public List<Equipment> getEquipmentBySet(int setId) {
+        return getEquipmentIndex().query()
+                .where(COLUMN_SET, setId)
+                .orderBy(SORT_POWER)
+                .list();
+    }
+
+    /**
+     * Filtra una lista arbitraria por poder mínimo (para el inventario completo usar
+     * queryEquipment)
      */
     public List<Equipment> filterByMinimumPower(List<Equipment> equipment, int minimumPower) {
         List<Equipment> filtered = new ArrayList<>();
@@ -504,7 +595,8 @@ public class EquipmentManager {
     }
 
     /**
-     * Ordena equipamiento por diferentes criterios
+     * Ordena una lista arbitraria de equipamiento (para el inventario completo es más
+     * rápido queryEquipment, que usa las permutaciones ya ordenadas del índice)
      */
     public List<Equipment> sortEquipment(List<Equipment> equipment, String sortBy) {
         List<Equipment> sorted = new ArrayList<>(equipment);
@@ -593,14 +685,7 @@ public class EquipmentManager {
             values.put(DatabaseContract.Equipment.COLUMN_SECONDARY_STATS, equipment.secondaryStatsToJson());
             values.put(DatabaseContract.Equipment.COLUMN_POWER_RATING, equipment.calculatePowerRating());
 
-            int rowsAffected = dbHelper.getWritableDatabase().update(
-                    DatabaseContract.Equipment.TABLE_NAME,
-                    values,
-                    DatabaseContract.Equipment._ID + " = ?",
-                    new String[]{String.valueOf(equipment.getId())}
-            );
-
-            return rowsAffected > 0;
+            return dbHelper.updateEquipment(equipment.getId(), values);
 
         } catch (Exception e) {
             Log.e(TAG, "Error actualizando equipment en BD", e);
@@ -619,14 +704,9 @@ public class EquipmentManager {
                 return false;
             }
 
-            int rowsAffected = dbHelper.getWritableDatabase().delete(
-                    DatabaseContract.Equipment.TABLE_NAME,
-                    DatabaseContract.Equipment._ID + " = ?",
-                    new String[]{String.valueOf(equipmentId)}
-            );
-
-            if (rowsAffected > 0) {
+            if (dbHelper.deleteEquipment(equipmentId)) {
                 equipmentCache.remove(equipmentId);
+                onEquipmentRemoved(equipmentId);
                 Log.i(TAG, "Equipment eliminado: " + equipmentId);
                 return true;
             }
@@ -657,23 +737,10 @@ public class EquipmentManager {
     // ==================== UTILIDADES ====================
 
     /**
-     * Determina rareza aleatoria basada en probabilidades
+     * Determina rareza aleatoria basada en probabilidades (tabla de alias, O(1))
      */
     private int determineRandomRarity() {
-        double random = Math.random() * 100.0; // 0-100
-        double cumulative = 0.0;
-
-        float[] dropRates = EquipmentConstants.EQUIPMENT_DROP_RATES;
-
-        for (int i = 1; i < dropRates.length; i++) {
-            cumulative += dropRates[i] * 100; // Convertir a porcentaje
-            if (random <= cumulative) {
-                return i;
-            }
-        }
-
-        // Fallback a común
-        return EquipmentConstants.EQUIPMENT_GRAY;
+        return GameRandom.stream(GameRandom.STREAM_LOOT).sample(RARITY_TABLE);
     }
 
     /**
@@ -684,44 +751,83 @@ public class EquipmentManager {
     }
 
     /**
-     * Limpia el cache
+     * Limpia el cache (y las estadísticas, que se reconstruyen en la siguiente lectura)
      */
     public void clearCache() {
         equipmentCache.clear();
+        inventory.reset();
+        equipmentIndex.reset();
         lastCacheUpdate = 0;
         Log.d(TAG, "Cache de equipamiento limpiado");
     }
 
     /**
-     * Obtiene estadísticas del inventario de equipamiento
+     * Obtiene estadísticas del inventario de equipamiento.
+     * Solo la primera lectura (o la siguiente a clearCache) recorre el inventario;
+     * después los totales se mantienen en cada operación del manager
      */
     public EquipmentInventoryStats getInventoryStats() {
-        List<Equipment> allEquipment = getAllEquipment();
+        synchronized (inventory) {
+            if (!inventory.isBuilt()) {
+                List<Equipment> allEquipment = getAllEquipment();
+                inventory.rebuild(allEquipment);
+                Log.d(TAG, "Estadísticas de inventario reconstruidas: " + allEquipment.size() + " items");
+            }
+            return inventory.toStats();
+        }
+    }
 
-        EquipmentInventoryStats stats = new EquipmentInventoryStats();
-        stats.totalItems = allEquipment.size();
-        stats.equippedItems = 0;
-        stats.lockedItems = 0;
-        stats.totalPower = 0;
-        stats.rarityCount = new int[EquipmentConstants.EQUIPMENT_RARITY_NAMES.length];
-        stats.typeCount = new int[EquipmentConstants.EQUIPMENT_TYPE_NAMES.length];
+    /**
+     * Índice por columnas del inventario (se carga una vez desde la BD)
+     */
+    private ColumnarIndex<Equipment> getEquipmentIndex() {
+        synchronized (equipmentIndex) {
+            if (!equipmentIndex.isBuilt()) {
+                equipmentIndex.rebuild(getAllEquipment());
+            }
+        }
+        return equipmentIndex;
+    }
 
-        for (Equipment equipment : allEquipment) {
-            if (equipment.isEquipped()) stats.equippedItems++;
-            if (equipment.isLocked()) stats.lockedItems++;
+    private static String toSortKey(String sortBy) {
+        if (sortBy == null) return SORT_POWER;
+        switch (sortBy.toLowerCase()) {
+            case "rarity": return SORT_RARITY;
+            case "type": return SORT_TYPE;
+            case "enhancement": return SORT_ENHANCEMENT;
+            case "obtained": return SORT_OBTAINED;
+            default: return SORT_POWER;
+        }
+    }
 
-            stats.totalPower += equipment.getPowerRating();
+    /**
+     * Mantiene estadísticas e índice al día tras un alta o cambio
+     */
+    private void onEquipmentChanged(Equipment equipment) {
+        inventory.put(equipment);
+        equipmentIndex.put(equipment);
+    }
 
-            if (equipment.getRarity() < stats.rarityCount.length) {
-                stats.rarityCount[equipment.getRarity()]++;
-            }
+    private void onEquipmentRemoved(long equipmentId) {
+        inventory.remove(equipmentId);
+        equipmentIndex.remove(equipmentId);
+    }
 
-            if (equipment.getEquipmentType() < stats.typeCount.length) {
-                stats.typeCount[equipment.getEquipmentType()]++;
-            }
-        }
+    // ==================== LISTENERS ====================
+
+    public void addHeroEquipmentListener(HeroEquipmentListener listener) {
+        heroEquipmentListeners.add(listener);
+    }
+
+    public void removeHeroEquipmentListener(HeroEquipmentListener listener) {
+        heroEquipmentListeners.remove(listener);
+    }
 
-        return stats;
+    private void notifyHeroEquipmentChanged(long heroId) {
+        if (heroId <= 0) return;
+        for (HeroEquipmentListener listener : heroEquipmentListeners) {
+            listener.onHeroEquipmentChanged(heroId);
+        }
     }
 
     /**
@@ -791,4 +897,94 @@ public class EquipmentManager {
                     totalItems, equippedItems, lockedItems, totalPower);
         }
     }
+
+    /**
+     * Totales del inventario mantenidos de forma incremental. Guarda lo que aportó cada
+     * item para poder restarlo cuando cambia o se elimina
+     */
+    private static class InventoryAggregate {
+        private final Map<Long, ItemEntry> entries = new HashMap<>();
+        private final int[] rarityCount = new int[EquipmentConstants.EQUIPMENT_RARITY_NAMES.length];
+        private final int[] typeCount = new int[EquipmentConstants.EQUIPMENT_TYPE_NAMES.length];
+        private int equippedItems;
+        private int lockedItems;
+        private long totalPower;
+        private boolean built;
+
+        synchronized boolean isBuilt() {
+            return built;
+        }
+
+        synchronized void rebuild(List<Equipment> allEquipment) {
+            reset();
+            built = true;
+            for (Equipment equipment : allEquipment) {
+                put(equipment);
+            }
+        }
+
+        /**
+         * Alta o actualización de un item (sin efecto hasta la primera reconstrucción)
+         */
+        synchronized void put(Equipment equipment) {
+            if (!built) return;
+            remove(equipment.getId());
+
+            ItemEntry entry = new ItemEntry(equipment);
+            entries.put(equipment.getId(), entry);
+            apply(entry, 1);
+        }
+
+        synchronized void remove(long equipmentId) {
+            ItemEntry entry = entries.remove(equipmentId);
+            if (entry != null) {
+                apply(entry, -1);
+            }
+        }
+
+        synchronized void reset() {
+            entries.clear();
+            Arrays.fill(rarityCount, 0);
+            Arrays.fill(typeCount, 0);
+            equippedItems = 0;
+            lockedItems = 0;
+            totalPower = 0;
+            built = false;
+        }
+
+        synchronized EquipmentInventoryStats toStats() {
+            EquipmentInventoryStats stats = new EquipmentInventoryStats();
+            stats.totalItems = entries.size();
+            stats.equippedItems = equippedItems;
+            stats.lockedItems = lockedItems;
+            stats.totalPower = totalPower;
+            stats.rarityCount = rarityCount.clone();
+            stats.typeCount = typeCount.clone();
+            return stats;
+        }
+
+        private void apply(ItemEntry entry, int sign) {
+            if (entry.equipped) equippedItems += sign;
+            if (entry.locked) lockedItems += sign;
+            totalPower += sign * entry.power;
+            if (entry.rarity >= 0 && entry.rarity < rarityCount.length) rarityCount[entry.rarity] += sign;
+            if (entry.type >= 0 && entry.type < typeCount.length) typeCount[entry.type] += sign;
+        }
+    }
+
+    private static class ItemEntry {
+        final int rarity;
+        final int type;
+        final boolean equipped;
+        final boolean locked;
+        final int power;
+
+        ItemEntry(Equipment equipment) {
+            this.rarity = equipment.getRarity();
+            this.type = equipment.getEquipmentType();
+            this.equipped = equipment.isEquipped();
+            this.locked = equipment.isLocked();
+            this.power = equipment.getPowerRating();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,335 @@
+package com.by.soh.managers;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.by.soh.constants.GameConstants;
+import com.by.soh.database.GameDatabaseHelper;
+import com.by.soh.models.HeroTemplate;
+import com.by.soh.utils.GameRandom;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Manager del gacha de héroes
+ * La rareza de cada tirada sale de una tabla de alias sobre las tasas publicadas (O(1)).
+ * El pity cuenta las tiradas seguidas sin PITY_GUARANTEED_RARITY o superior; al llegar a
+ * PITY_SYSTEM_THRESHOLD la siguiente tirada usa la tabla restringida a esas rarezas. El
+ * contador avanza tirada a tirada también dentro de una invocación múltiple, y las
+ * gemas, los héroes y el pity de toda la invocación se escriben en una sola transacción
+ */
+public class GachaManager {
+
+    private static final String TAG = "GachaManager";
+
+    // Tasas publicadas por rareza (índice = rareza, en %)
+    private static final float[] RARITY_RATES = {
+            0f,
+            GameConstants.COMMON_GACHA_RATE,
+            GameConstants.RARE_GACHA_RATE,
+            GameConstants.EPIC_GACHA_RATE,
+            GameConstants.LEGENDARY_GACHA_RATE,
+            GameConstants.MYTHIC_GACHA_RATE
+    };
+
+    private static final GameRandom.AliasTable RATE_TABLE = new GameRandom.AliasTable(RARITY_RATES);
+    private static final GameRandom.AliasTable PITY_TABLE = new GameRandom.AliasTable(pityRates());
+
+    // Singleton instance
+    private static GachaManager instance;
+
+    // Referencias
+    private Context context;
+    private GameDatabaseHelper dbHelper;
+    private PlayerDataManager playerDataManager;
+    private HeroManager heroManager;
+    private HeroTemplateRegistry templateRegistry;
+    private final GameRandom random = GameRandom.stream(GameRandom.STREAM_GACHA);
+
+    // Templates invocables por rareza (se cargan una vez)
+    private String[][] templatePool;
+
+    // Constructor privado
+    private GachaManager(Context context) {
+        this.context = context.getApplicationContext();
+        this.dbHelper = GameDatabaseHelper.getInstance(context);
+        this.playerDataManager = PlayerDataManager.getInstance(context);
+        this.heroManager = HeroManager.getInstance(context);
+        this.templateRegistry = HeroTemplateRegistry.getInstance(context);
+    }
+
+    /**
+     * Obtiene la instancia singleton del manager
+     */
+    public static synchronized GachaManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new GachaManager(context);
+        }
+        return instance;
+    }
+
+    // ==================== INVOCACIÓN ====================
+
+    /**
+     * Invocación simple
+     */
+    public PullResult pullSingle() {
+        return pull(1, GameConstants.GEMS_PER_SINGLE_PULL);
+    }
+
+    /**
+     * Invocación múltiple (precio con descuento)
+     */
+    public PullResult pullMulti() {
+        return pull(GameConstants.GACHA_MULTI_PULL_COUNT, GameConstants.GEMS_PER_10_PULL);
+    }
+
+    private synchronized PullResult pull(int count, int gemCost) {
+        if (!playerDataManager.hasEnoughGems(gemCost)) {
+            return new PullResult(false, "Gemas insuficientes");
+        }
+
+        String[][] pool = getTemplatePool();
+        if (pool == null) {
+            return new PullResult(false, "No hay héroes invocables");
+        }
+
+        int pityBefore = playerDataManager.getGachaPityCount();
+        int[] rarities = new int[count];
+        int pityAfter = rollRarities(random, pityBefore, rarities);
+
+        String[] templateIds = new String[count];
+        for (int i = 0; i < count; i++) {
+            String[] candidates = pool[rarities[i]];
+            templateIds[i] = candidates[random.nextInt(candidates.length)];
+        }
+
+        // Las gemas quedan retenidas en el libro mientras la BD registra la invocación:
+        // ningún otro gasto puede usarlas, y lo pendiente se escribe antes para que la
+        // comprobación de saldo de la BD vea el saldo real
+        CurrencyLedger.Transaction spend = new CurrencyLedger.Transaction("gacha_x" + count)
+                .spend(CurrencyLedger.GEMS, gemCost);
+        long[] heroIds = playerDataManager.getCurrencyLedger().commitThrough(spend,
+                () -> dbHelper.commitGachaPulls(templateIds, gemCost, pityAfter));
+        if (heroIds == null) {
+            return new PullResult(false, "No se pudo registrar la invocación");
+        }
+
+        playerDataManager.applyGachaCommit(gemCost, pityAfter);
+        heroManager.onHeroesCreated(heroIds);
+
+        PullResult result = new PullResult(true, "Invocación completada");
+        result.heroIds = heroIds;
+        result.templateIds = templateIds;
+        result.rarities = rarities;
+        result.pityBefore = pityBefore;
+        result.pityAfter = pityAfter;
+        result.gemsSpent = gemCost;
+
+        Log.i(TAG, result.toString());
+        return result;
+    }
+
+    /**
+     * Tira las rarezas de una invocación aplicando el pity tirada a tirada.
+     * Devuelve el contador de pity resultante
+     */
+    static int rollRarities(GameRandom random, int pityCount, int[] outRarities) {
+        int pity = pityCount;
+        for (int i = 0; i < outRarities.length; i++) {
+            boolean guaranteed = pity >= GameConstants.PITY_SYSTEM_THRESHOLD;
+            int rarity = random.sample(guaranteed ? PITY_TABLE : RATE_TABLE);
+            outRarities[i] = rarity;
+            pity = rarity >= GameConstants.PITY_GUARANTEED_RARITY ? 0 : pity + 1;
+        }
+        return pity;
+    }
+
+    // ==================== SIMULACIÓN ====================
+
+    /**
+     * Simula pulls tiradas en invocaciones de pullSize con una semilla fija
+     */
+    public static GachaSimulation simulate(long pulls, int pullSize, long seed) {
+        GameRandom simulationRandom = new GameRandom(seed);
+        GachaSimulation simulation = new GachaSimulation();
+        int[] rarities = new int[Math.max(1, pullSize)];
+        int pity = 0;
+        int drought = 0;
+
+        long startTime = System.nanoTime();
+        while (simulation.pulls < pulls) {
+            int pityBefore = pity;
+            pity = rollRarities(simulationRandom, pity, rarities);
+            simulation.pityActivations += countPityActivations(pityBefore, rarities);
+            simulation.pulls += rarities.length;
+
+            for (int rarity : rarities) {
+                simulation.counts[rarity]++;
+                if (rarity >= GameConstants.PITY_GUARANTEED_RARITY) {
+                    drought = 0;
+                } else {
+                    drought++;
+                    simulation.longestDrought = Math.max(simulation.longestDrought, drought);
+                }
+            }
+        }
+        simulation.elapsedMs = (System.nanoTime() - startTime) / 1_000_000;
+        return simulation;
+    }
+
+    /**
+     * Tasa esperada de PITY_GUARANTEED_RARITY+ con pity: 1 / E[tiradas entre aciertos],
+     * con E = Σ_{k=0..T} (1 - q)^k
+     */
+    public static double getExpectedGuaranteedRate() {
+        double total = 0;
+        double guaranteed = 0;
+        for (int rarity = 1; rarity < RARITY_RATES.length; rarity++) {
+            total += RARITY_RATES[rarity];
+            if (rarity >= GameConstants.PITY_GUARANTEED_RARITY) guaranteed += RARITY_RATES[rarity];
+        }
+
+        double miss = 1.0 - guaranteed / total;
+        double expectedPulls = 0;
+        double survival = 1.0;
+        for (int k = 0; k <= GameConstants.PITY_SYSTEM_THRESHOLD; k++) {
+            expectedPulls += survival;
+            survival *= miss;
+        }
+        return 1.0 / expectedPulls;
+    }
+
+    // ==================== CACHE ====================
+
+    /**
+     * Olvida el catálogo de templates (tras recargar los datos semilla)
+     */
+    public synchronized void clearCache() {
+        templatePool = null;
+        Log.d(TAG, "Cache de gacha limpiado");
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    /**
+     * Templates por rareza; las rarezas sin templates usan la más cercana por debajo
+     * (o por encima si no hay ninguna menor)
+     */
+    private String[][] getTemplatePool() {
+        if (templatePool != null) return templatePool;
+
+        List<List<String>> byRarity = new ArrayList<>();
+        for (int i = 0; i < RARITY_RATES.length; i++) {
+            byRarity.add(new ArrayList<>());
+        }
+
+        for (HeroTemplate template : templateRegistry.getAll()) {
+            int rarity = template.getRarity();
+            if (rarity >= GameConstants.COMMON_RARITY && rarity < RARITY_RATES.length) {
+                byRarity.get(rarity).add(template.getTemplateId());
+            }
+        }
+
+        String[][] pool = new String[RARITY_RATES.length][];
+        for (int rarity = GameConstants.COMMON_RARITY; rarity < RARITY_RATES.length; rarity++) {
+            List<String> candidates = nearestNonEmpty(byRarity, rarity);
+            if (candidates == null) {
+                Log.w(TAG, "Catálogo de templates vacío");
+                return null;
+            }
+            pool[rarity] = candidates.toArray(new String[0]);
+        }
+
+        templatePool = pool;
+        return pool;
+    }
+
+    private static List<String> nearestNonEmpty(List<List<String>> byRarity, int rarity) {
+        for (int r = rarity; r >= GameConstants.COMMON_RARITY; r--) {
+            if (!byRarity.get(r).isEmpty()) return byRarity.get(r);
+        }
+        for (int r = rarity + 1; r < byRarity.size(); r++) {
+            if (!byRarity.get(r).isEmpty()) return byRarity.get(r);
+        }
+        return null;
+    }
+
+    /**
+     * Tiradas de la invocación que se hicieron con el pity activo
+     */
+    private static int countPityActivations(int pityBefore, int[] rarities) {
+        int activations = 0;
+        int pity = pityBefore;
+        for (int rarity : rarities) {
+            if (pity >= GameConstants.PITY_SYSTEM_THRESHOLD) activations++;
+            pity = rarity >= GameConstants.PITY_GUARANTEED_RARITY ? 0 : pity + 1;
+        }
+        return activations;
+    }
+
+    private static float[] pityRates() {
+        float[] rates = RARITY_RATES.clone();
+        for (int rarity = 0; rarity < GameConstants.PITY_GUARANTEED_RARITY; rarity++) {
+            rates[rarity] = 0f;
+        }
+        return rates;
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Resultado de una invocación
+     */
+    public static class PullResult {
+        public final boolean success;
+        public final String message;
+        public long[] heroIds = new long[0];
+        public String[] templateIds = new String[0];
+        public int[] rarities = new int[0];
+        public int pityBefore;
+        public int pityAfter;
+        public int gemsSpent;
+
+        public PullResult(boolean success, String message) {
+            this.success = success;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PullResult{success=%s, pulls=%d, gems=%d, pity=%d->%d, message='%s'}",
+                    success, heroIds.length, gemsSpent, pityBefore, pityAfter, message);
+        }
+    }
+
+    /**
+     * Resultado agregado de una simulación de invocaciones
+     */
+    public static class GachaSimulation {
+        public long pulls;
+        public final long[] counts = new long[RARITY_RATES.length];
+        public long pityActivations;
+        public int longestDrought;
+        public long elapsedMs;
+
+        public double getObservedRate(int rarity) {
+            return pulls > 0 ? counts[rarity] / (double) pulls : 0.0;
+        }
+
+        public double getGuaranteedRate() {
+            long guaranteed = 0;
+            for (int rarity = GameConstants.PITY_GUARANTEED_RARITY; rarity < counts.length; rarity++) {
+                guaranteed += counts[rarity];
+            }
+            return pulls > 0 ? guaranteed / (double) pulls : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("GachaSimulation{pulls=%d, pityActivations=%d, longestDrought=%d, %dms}",
+                    pulls, pityActivations, longestDrought, elapsedMs);
+        }
+    }
+}
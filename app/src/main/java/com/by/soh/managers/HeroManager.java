@@ -11,12 +11,20 @@ import com.by.soh.database.GameDatabaseHelper;
 import com.by.soh.database.DatabaseContract;
 import com.by.soh.models.Hero;
 import com.by.soh.models.HeroStats;
+import com.by.soh.models.HeroTemplate;
 import com.by.soh.models.Equipment;
+import com.by.soh.utils.ColumnarIndex;
+import com.by.soh.utils.ExpTable;
+import com.by.soh.utils.StatMultiplierTable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Manager integrado para el sistema de héroes
@@ -34,6 +42,7 @@ public class HeroManager {
     private Context context;
     private EquipmentManager equipmentManager;
     private PlayerDataManager playerDataManager;
+    private HeroTemplateRegistry templateRegistry;
 
     // Cache
     private Map<Long, Hero> heroCache;
@@ -41,6 +50,33 @@ public class HeroManager {
     private long lastCacheUpdate;
     private static final long CACHE_DURATION = 2 * 60 * 1000; // 2 minutos
 
+    // Estadísticas de la colección, mantenidas en cada alta/cambio de héroe
+    private final CollectionAggregate collection = new CollectionAggregate();
+
+    // Columnas y criterios de orden del índice
+    private static final String COLUMN_FACTION = "faction";
+    private static final String COLUMN_RARITY = "rarity";
+    private static final String COLUMN_ROLE = "role";
+    private static final String COLUMN_FAVORITE = "favorite";
+    private static final String SORT_POWER = "power";
+    private static final String SORT_LEVEL = "level";
+    private static final String SORT_RARITY = "rarity";
+    private static final String SORT_NAME = "name";
+    private static final String SORT_OBTAINED = "obtained";
+
+    // Índice por columnas para búsquedas y ordenaciones sin consultar la BD
+    private final ColumnarIndex<Hero> heroIndex = new ColumnarIndex<>(Hero::getId)
+            .addBitmap(COLUMN_FACTION, Hero::getFaction)
+            .addBitmap(COLUMN_RARITY, Hero::getRarity)
+            .addBitmap(COLUMN_ROLE, Hero::getRole)
+            .addBitmap(COLUMN_FAVORITE, hero -> hero.isFavorite() ? 1 : 0)
+            .addSortKey(SORT_POWER, Hero::getPowerRating, true)
+            .addSortKey(SORT_LEVEL, Hero::getLevel, true)
+            .addSortKey(SORT_RARITY, Hero::getRarity, true)
+            .addSortKey(SORT_NAME, Comparator.comparing(Hero::getName,
+                    Comparator.nullsFirst(Comparator.<String>naturalOrder())))
+            .addSortKey(SORT_OBTAINED, Hero::getCreatedAt, true);
+
     // Constructor privado
     private HeroManager(Context context) {
         this.context = context.getApplicationContext();
@@ -52,6 +88,13 @@ public class HeroManager {
         // Inicializar dependencias
         this.equipmentManager = EquipmentManager.getInstance(context);
         this.playerDataManager = PlayerDataManager.getInstance(context);
+        this.templateRegistry = HeroTemplateRegistry.getInstance(context);
+
+        // Las stats con equipamiento solo cambian para el héroe afectado
+        equipmentManager.addHeroEquipmentListener(heroId -> {
+            clearStatsCache(heroId);
+            collection.markPowerStale(heroId);
+        });
     }
 
     /**
@@ -146,8 +189,7 @@ public class HeroManager {
             long heroId = dbHelper.insertPlayerHero(heroTemplateId, stars, enhancement);
 
             if (heroId != -1) {
-                // Limpiar cache para que se recargue con el nuevo héroe
-                clearCache();
+                onHeroesCreated(heroId);
                 Log.i(TAG, "Héroe creado desde template: " + heroTemplateId + " (ID: " + heroId + ")");
             }
 
@@ -159,6 +201,28 @@ public class HeroManager {
         }
     }
 
+    /**
+     * Registra héroes recién insertados en la BD (gacha, creación desde template)
+     */
+    void onHeroesCreated(long... heroIds) {
+        if (!collection.isBuilt() && !heroIndex.isBuilt()) return;
+
+        for (long heroId : heroIds) {
+            Hero hero = getHeroById(heroId);
+            if (hero != null) {
+                onHeroChanged(hero, true);
+            }
+        }
+    }
+
+    /**
+     * Mantiene estadísticas e índice al día tras un alta o cambio
+     */
+    private void onHeroChanged(Hero hero, boolean powerChanged) {
+        collection.put(hero, powerChanged);
+        heroIndex.put(hero);
+    }
+
     // ==================== OPERACIONES DE STATS ====================
 
     /**
@@ -172,8 +236,7 @@ public class HeroManager {
         }
 
         // Verificar cache
-        String cacheKey = heroId + "_" + includeEquipment + "_" + includeFormation;
-        long cacheKeyHash = cacheKey.hashCode();
+        long cacheKeyHash = statsCacheKey(heroId, includeEquipment, includeFormation);
 
         if (isCacheValid() && statsCache.containsKey(cacheKeyHash)) {
             return statsCache.get(cacheKeyHash);
@@ -219,15 +282,10 @@ public class HeroManager {
         int baseSpeed = hero.getBaseSpeed();
         int baseMagicDef = hero.getBaseMagicDef();
 
-        // Aplicar multiplicadores de rareza, estrellas y enhancement
-        float rarityMult = GameConstants.getRarityMultiplier(hero.getRarity());
-        float starMult = GameConstants.getStarMultiplier(hero.getStars());
-        float enhanceMult = GameConstants.getEnhancementMultiplier(hero.getEnhancement());
-
-        // Bonus por nivel (5% por nivel después del 1)
-        float levelMult = 1.0f + (hero.getLevel() - 1) * 0.05f;
-
-        float totalMultiplier = rarityMult * starMult * enhanceMult * levelMult;
+        // Multiplicadores de rareza, estrellas, enhancement y nivel (5% por nivel después del 1)
+        float levelMult = StatMultiplierTable.getLevelMultiplier(hero.getLevel());
+        float totalMultiplier = StatMultiplierTable.getGrowthMultiplier(
+                hero.getRarity(), hero.getStars(), hero.getEnhancement()) * levelMult;
 
         // Calcular stats finales
         int finalHp = Math.round(baseHp * totalMultiplier);
@@ -245,14 +303,74 @@ public class HeroManager {
         stats.setFinalAccuracy(hero.getAccuracy());
         stats.setFinalEvasion(hero.getEvasion());
 
-        // Guardar bonos aplicados
-        stats.setLevelBonus((levelMult - 1.0f));
-        stats.setEnhancementBonus((enhanceMult - 1.0f));
-        stats.setStarBonus((starMult - 1.0f));
+        setAppliedBonuses(stats, hero, levelMult);
 
         return stats;
     }
 
+    /**
+     * Stats base de varios héroes a la vez: los multiplicadores salen de la tabla precalculada
+     * y cada stat se escala en un bucle sobre arrays primitivos (mismo resultado que
+     * calculateBaseStats héroe a héroe, sin bonos de equipamiento ni formación)
+     */
+    public Map<Long, HeroStats> calculateRosterBaseStats(List<Hero> heroes) {
+        int count = heroes.size();
+        Map<Long, HeroStats> result = new HashMap<>();
+        if (count == 0) return result;
+
+        int[] rarities = new int[count];
+        int[] stars = new int[count];
+        int[] enhancements = new int[count];
+        int[] levels = new int[count];
+        int[][] base = new int[5][count];
+
+        for (int i = 0; i < count; i++) {
+            Hero hero = heroes.get(i);
+            rarities[i] = hero.getRarity();
+            stars[i] = hero.getStars();
+            enhancements[i] = hero.getEnhancement();
+            levels[i] = hero.getLevel();
+            base[0][i] = hero.getBaseHp();
+            base[1][i] = hero.getBaseAtk();
+            base[2][i] = hero.getBaseDef();
+            base[3][i] = hero.getBaseSpeed();
+            base[4][i] = hero.getBaseMagicDef();
+        }
+
+        float[] multipliers = new float[count];
+        StatMultiplierTable.fillTotalMultipliers(rarities, stars, enhancements, levels, multipliers, count);
+
+        int[][] scaled = new int[5][count];
+        for (int stat = 0; stat < scaled.length; stat++) {
+            StatMultiplierTable.scaleStats(base[stat], multipliers, scaled[stat], count);
+        }
+
+        for (int i = 0; i < count; i++) {
+            Hero hero = heroes.get(i);
+            HeroStats stats = new HeroStats(hero.getId(),
+                    scaled[0][i], scaled[1][i], scaled[2][i], scaled[3][i], scaled[4][i]);
+
+            stats.setFinalCritRate(hero.getCritRate());
+            stats.setFinalCritDamage(hero.getCritDamage());
+            stats.setFinalAccuracy(hero.getAccuracy());
+            stats.setFinalEvasion(hero.getEvasion());
+
+            setAppliedBonuses(stats, hero, StatMultiplierTable.getLevelMultiplier(levels[i]));
+            result.put(hero.getId(), stats);
+        }
+
+        return result;
+    }
+
+    /**
+     * Guarda los bonos de nivel, enhancement y estrellas aplicados
+     */
+    private void setAppliedBonuses(HeroStats stats, Hero hero, float levelMult) {
+        stats.setLevelBonus((levelMult - 1.0f));
+        stats.setEnhancementBonus((GameConstants.getEnhancementMultiplier(hero.getEnhancement()) - 1.0f));
+        stats.setStarBonus((GameConstants.getStarMultiplier(hero.getStars()) - 1.0f));
+    }
+
     /**
      * Aplica bonos específicos de facción
      */
@@ -324,24 +442,23 @@ public class HeroManager {
     // ==================== BÚSQUEDAS Y FILTROS ====================
 
     /**
-     * Busca héroes con filtros específicos
+     * Busca héroes con filtros específicos ("all" o null para no filtrar) sobre el
+     * índice en memoria. Orden: power, level, rarity, name u obtained (por defecto)
      */
     public List<Hero> searchHeroes(String faction, String rarity, String role, String sortBy) {
-        List<Hero> results = new ArrayList<>();
+        ColumnarIndex<Hero>.Query query = getHeroIndex().query();
+        if (sortBy != null) query.orderBy(toSortKey(sortBy));
 
-        Cursor cursor = dbHelper.searchHeroes(faction, rarity, role, sortBy);
-        if (cursor != null) {
-            while (cursor.moveToNext()) {
-                Hero hero = createHeroFromCursor(cursor);
-                if (hero != null) {
-                    results.add(hero);
-                    heroCache.put(hero.getId(), hero);
-                }
-            }
-            cursor.close();
+        try {
+            if (faction != null && !faction.equals("all")) query.where(COLUMN_FACTION, Integer.parseInt(faction));
+            if (rarity != null && !rarity.equals("all")) query.where(COLUMN_RARITY, Integer.parseInt(rarity));
+            if (role != null && !role.equals("all")) query.where(COLUMN_ROLE, Integer.parseInt(role));
+        } catch (NumberFormatException e) {
+            Log.w(TAG, "Filtro de héroes inválido: " + faction + "/" + rarity + "/" + role);
+            return new ArrayList<>();
         }
 
-        return results;
+        return query.list();
     }
 
     /**
@@ -355,16 +472,31 @@ public class HeroManager {
      * Obtiene héroes favoritos
      */
     public List<Hero> getFavoriteHeroes() {
-        List<Hero> favorites = new ArrayList<>();
-        List<Hero> allHeroes = getAllPlayerHeroes();
+        return getHeroIndex().query()
+                .where(COLUMN_FAVORITE, 1)
+                .list();
+    }
 
-        for (Hero hero : allHeroes) {
-            if (hero.isFavorite()) {
-                favorites.add(hero);
+    /**
+     * Índice por columnas de la colección (se carga una vez desde la BD)
+     */
+    private ColumnarIndex<Hero> getHeroIndex() {
+        synchronized (heroIndex) {
+            if (!heroIndex.isBuilt()) {
+                heroIndex.rebuild(getAllPlayerHeroes());
             }
         }
+        return heroIndex;
+    }
 
-        return favorites;
+    private static String toSortKey(String sortBy) {
+        switch (sortBy.toLowerCase()) {
+            case "power": return SORT_POWER;
+            case "level": return SORT_LEVEL;
+            case "rarity": return SORT_RARITY;
+            case "name": return SORT_NAME;
+            default: return SORT_OBTAINED;
+        }
     }
 
     /**
@@ -383,6 +515,7 @@ public class HeroManager {
         boolean success = dbHelper.updateHeroStats(heroId, values);
         if (success) {
             heroCache.put(heroId, hero);
+            onHeroChanged(hero, false);
             Log.d(TAG, "Héroe " + heroId + " marcado como favorito: " + newFavoriteStatus);
         }
 
@@ -399,28 +532,30 @@ public class HeroManager {
     }
 
     /**
-     * Limpia todo el cache
+     * Limpia todo el cache (y las estadísticas, que se reconstruyen en la siguiente lectura)
      */
     public void clearCache() {
         heroCache.clear();
         statsCache.clear();
+        collection.reset();
+        heroIndex.reset();
         lastCacheUpdate = 0;
         Log.d(TAG, "Cache de héroes limpiado");
     }
 
     /**
-     * Limpia cache de stats para un héroe específico
+     * Clave de cache de stats: el id del héroe y dos bits con las opciones de cálculo
+     */
+    private static long statsCacheKey(long heroId, boolean includeEquipment, boolean includeFormation) {
+        return (heroId << 2) | (includeEquipment ? 2 : 0) | (includeFormation ? 1 : 0);
+    }
+
+    /**
+     * Limpia cache de stats para un héroe específico (sus cuatro combinaciones)
      */
     private void clearStatsCache(long heroId) {
-        List<Long> keysToRemove = new ArrayList<>();
-        for (Long key : statsCache.keySet()) {
-            // Si la key contiene el heroId, remover
-            if (key.toString().contains(String.valueOf(heroId))) {
-                keysToRemove.add(key);
-            }
-        }
-        for (Long key : keysToRemove) {
-            statsCache.remove(key);
+        for (long options = 0; options < 4; options++) {
+            statsCache.remove((heroId << 2) | options);
         }
     }
 
@@ -434,42 +569,26 @@ public class HeroManager {
     // ==================== ESTADÍSTICAS Y ANÁLISIS ====================
 
     /**
-     * Obtiene estadísticas del colección de héroes
+     * Obtiene estadísticas del colección de héroes.
+     * Solo la primera lectura (o la siguiente a clearCache) recorre la colección; después
+     * los contadores se mantienen en cada cambio y solo se recalcula el poder de los
+     * héroes que subieron de nivel, se mejoraron o cambiaron de equipamiento
      */
     public HeroCollectionStats getCollectionStats() {
-        List<Hero> allHeroes = getAllPlayerHeroes();
-
-        HeroCollectionStats stats = new HeroCollectionStats();
-        stats.totalHeroes = allHeroes.size();
-        stats.favoriteHeroes = 0;
-        stats.maxLevelHeroes = 0;
-        stats.totalPower = 0;
-
-        // Contadores por rareza, facción, rol
-        int[] rarityCount = new int[6]; // 0-5
-        int[] factionCount = new int[7]; // 0-6
-        int[] roleCount = new int[9]; // 0-8
-
-        for (Hero hero : allHeroes) {
-            if (hero.isFavorite()) stats.favoriteHeroes++;
-            if (hero.getLevel() >= GameConstants.MAX_HERO_LEVEL) stats.maxLevelHeroes++;
+        synchronized (collection) {
+            if (!collection.isBuilt()) {
+                List<Hero> allHeroes = getAllPlayerHeroes();
+                collection.rebuild(allHeroes);
+                Log.d(TAG, "Estadísticas de colección reconstruidas: " + allHeroes.size() + " héroes");
+            }
 
-            HeroStats heroStats = calculateHeroStats(hero.getId(), true, false);
-            if (heroStats != null) {
-                stats.totalPower += heroStats.calculateTotalPower();
+            for (long heroId : collection.takeStalePower()) {
+                HeroStats heroStats = calculateHeroStats(heroId, true, false);
+                collection.setPower(heroId, heroStats != null ? heroStats.calculateTotalPower() : 0);
             }
 
-            // Contadores
-            if (hero.getRarity() < rarityCount.length) rarityCount[hero.getRarity()]++;
-            if (hero.getFaction() < factionCount.length) factionCount[hero.getFaction()]++;
-            if (hero.getRole() < roleCount.length) roleCount[hero.getRole()]++;
+            return collection.toStats();
         }
-
-        stats.rarityDistribution = rarityCount;
-        stats.factionDistribution = factionCount;
-        stats.roleDistribution = roleCount;
-
-        return stats;
     }
 
     /**
@@ -588,6 +707,134 @@ public class HeroManager {
         }
     }
 
+    /**
+     * Contadores de la colección mantenidos de forma incremental. Guarda lo que aportó
+     * cada héroe para poder restarlo cuando cambia; el poder (que depende del
+     * equipamiento) se marca como pendiente y se recalcula al leer
+     */
+    private static class CollectionAggregate {
+        private final Map<Long, HeroEntry> entries = new HashMap<>();
+        private final Set<Long> stalePower = new LinkedHashSet<>();
+        private final int[] rarityCount = new int[6]; // 0-5
+        private final int[] factionCount = new int[7]; // 0-6
+        private final int[] roleCount = new int[9]; // 0-8
+        private int favoriteHeroes;
+        private int maxLevelHeroes;
+        private long totalPower;
+        private boolean built;
+
+        synchronized boolean isBuilt() {
+            return built;
+        }
+
+        synchronized void rebuild(List<Hero> allHeroes) {
+            reset();
+            built = true;
+            for (Hero hero : allHeroes) {
+                put(hero, true);
+            }
+        }
+
+        /**
+         * Alta o actualización de un héroe (sin efecto hasta la primera reconstrucción)
+         */
+        synchronized void put(Hero hero, boolean powerChanged) {
+            if (!built) return;
+
+            HeroEntry previous = entries.get(hero.getId());
+            long power = 0;
+            if (previous != null) {
+                apply(previous, -1);
+                power = previous.power;
+            }
+
+            HeroEntry entry = new HeroEntry(hero, power);
+            entries.put(hero.getId(), entry);
+            apply(entry, 1);
+
+            if (powerChanged || previous == null) {
+                stalePower.add(hero.getId());
+            }
+        }
+
+        synchronized void markPowerStale(long heroId) {
+            if (entries.containsKey(heroId)) {
+                stalePower.add(heroId);
+            }
+        }
+
+        /**
+         * Héroes cuyo poder hay que recalcular (vacía la lista)
+         */
+        synchronized long[] takeStalePower() {
+            long[] heroIds = new long[stalePower.size()];
+            int i = 0;
+            for (long heroId : stalePower) {
+                heroIds[i++] = heroId;
+            }
+            stalePower.clear();
+            return heroIds;
+        }
+
+        synchronized void setPower(long heroId, long power) {
+            HeroEntry entry = entries.get(heroId);
+            if (entry == null) return;
+            totalPower += power - entry.power;
+            entry.power = power;
+        }
+
+        synchronized void reset() {
+            entries.clear();
+            stalePower.clear();
+            Arrays.fill(rarityCount, 0);
+            Arrays.fill(factionCount, 0);
+            Arrays.fill(roleCount, 0);
+            favoriteHeroes = 0;
+            maxLevelHeroes = 0;
+            totalPower = 0;
+            built = false;
+        }
+
+        synchronized HeroCollectionStats toStats() {
+            HeroCollectionStats stats = new HeroCollectionStats();
+            stats.totalHeroes = entries.size();
+            stats.favoriteHeroes = favoriteHeroes;
+            stats.maxLevelHeroes = maxLevelHeroes;
+            stats.totalPower = totalPower;
+            stats.rarityDistribution = rarityCount.clone();
+            stats.factionDistribution = factionCount.clone();
+            stats.roleDistribution = roleCount.clone();
+            return stats;
+        }
+
+        private void apply(HeroEntry entry, int sign) {
+            if (entry.favorite) favoriteHeroes += sign;
+            if (entry.maxLevel) maxLevelHeroes += sign;
+            totalPower += sign * entry.power;
+            if (entry.rarity >= 0 && entry.rarity < rarityCount.length) rarityCount[entry.rarity] += sign;
+            if (entry.faction >= 0 && entry.faction < factionCount.length) factionCount[entry.faction] += sign;
+            if (entry.role >= 0 && entry.role < roleCount.length) roleCount[entry.role] += sign;
+        }
+    }
+
+    private static class HeroEntry {
+        final int rarity;
+        final int faction;
+        final int role;
+        final boolean favorite;
+        final boolean maxLevel;
+        long power;
+
+        HeroEntry(Hero hero, long power) {
+            this.rarity = hero.getRarity();
+            this.faction = hero.getFaction();
+            this.role = hero.getRole();
+            this.favorite = hero.isFavorite();
+            this.maxLevel = hero.getLevel() >= GameConstants.MAX_HERO_LEVEL;
+            this.power = power;
+        }
+    }
+
     /**
      * Análisis de sinergia del equipo
      */
@@ -609,6 +856,29 @@ public class HeroManager {
         }
     }
 
+    /**
+     * EXP y nivel resultantes de un reparto, aún sin escribir
+     */
+    static class ExperienceBatch {
+        final List<Hero> heroes;
+        final long expPerHero;
+        final long[] ids;
+        final long[] exps;
+        final int[] levels;
+
+        ExperienceBatch(List<Hero> heroes, long expPerHero) {
+            this.heroes = heroes;
+            this.expPerHero = expPerHero;
+            this.ids = new long[heroes.size()];
+            this.exps = new long[heroes.size()];
+            this.levels = new int[heroes.size()];
+        }
+
+        boolean isEmpty() {
+            return heroes.isEmpty();
+        }
+    }
+
     /*bonos de equipamiento
      */
     private void applyEquipmentBonuses(HeroStats stats, long heroId) {
@@ -804,20 +1074,9 @@ public class HeroManager {
         int currentLevel = hero.getLevel();
         long newExp = currentExp + expAmount;
 
-        // Calcular level ups
-        int newLevel = currentLevel;
-        int levelsGained = 0;
-
-        while (newLevel < GameConstants.MAX_HERO_LEVEL) {
-            long requiredExp = GameConstants.getExpRequiredForLevel(newLevel + 1);
-
-            if (newExp >= requiredExp) {
-                newLevel++;
-                levelsGained++;
-            } else {
-                break;
-            }
-        }
+        // Calcular level ups (búsqueda binaria en la tabla de EXP acumulada)
+        int newLevel = ExpTable.resolveLevel(newExp, currentLevel, GameConstants.MAX_HERO_LEVEL);
+        int levelsGained = newLevel - currentLevel;
 
         // Actualizar héroe
         hero.setExperience(newExp);
@@ -834,6 +1093,7 @@ public class HeroManager {
             // Limpiar caches afectados
             heroCache.put(heroId, hero);
             clearStatsCache(heroId);
+            if (levelsGained > 0) onHeroChanged(hero, true);
 
             Log.i(TAG, String.format("EXP añadida a héroe %d: %d (Nivel: %d → %d)",
                     heroId, expAmount, currentLevel, newLevel));
@@ -842,6 +1102,79 @@ public class HeroManager {
         return new LevelUpResult(levelsGained > 0, levelsGained, newLevel, hero.getId());
     }
 
+    /**
+     * Reparte la misma cantidad de EXP a varios héroes (pociones, recompensas AFK).
+     * Todos los cambios se escriben en una transacción y solo se invalidan las stats
+     * de los héroes que suben de nivel
+     */
+    public List<LevelUpResult> distributeExperience(List<Long> heroIds, long expPerHero) {
+        ExperienceBatch batch = prepareExperience(heroIds, expPerHero);
+        if (batch.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        if (dbHelper.updateHeroProgressBatch(batch.ids, batch.exps, batch.levels) == 0) {
+            Log.e(TAG, "Error repartiendo EXP a " + batch.heroes.size() + " héroes");
+            return new ArrayList<>();
+        }
+
+        return applyExperience(batch);
+    }
+
+    /**
+     * Calcula la EXP y el nivel resultantes de cada héroe sin escribir nada (para
+     * registrarlos junto con otros cambios, p. ej. la progresión offline)
+     */
+    ExperienceBatch prepareExperience(List<Long> heroIds, long expPerHero) {
+        List<Hero> heroes = new ArrayList<>(heroIds.size());
+        if (expPerHero > 0) {
+            for (long heroId : heroIds) {
+                Hero hero = getHeroById(heroId);
+                if (hero != null) {
+                    heroes.add(hero);
+                }
+            }
+        }
+
+        ExperienceBatch batch = new ExperienceBatch(heroes, expPerHero);
+        for (int i = 0; i < heroes.size(); i++) {
+            Hero hero = heroes.get(i);
+            batch.ids[i] = hero.getId();
+            batch.exps[i] = hero.getExperience() + expPerHero;
+            batch.levels[i] = ExpTable.resolveLevel(batch.exps[i], hero.getLevel(), GameConstants.MAX_HERO_LEVEL);
+        }
+        return batch;
+    }
+
+    /**
+     * Refleja en la caché un reparto de EXP ya registrado en la base de datos
+     */
+    List<LevelUpResult> applyExperience(ExperienceBatch batch) {
+        List<LevelUpResult> results = new ArrayList<>(batch.heroes.size());
+
+        int leveledUp = 0;
+        for (int i = 0; i < batch.heroes.size(); i++) {
+            Hero hero = batch.heroes.get(i);
+            int levelsGained = batch.levels[i] - hero.getLevel();
+
+            hero.setExperience(batch.exps[i]);
+            hero.setLevel(batch.levels[i]);
+            heroCache.put(batch.ids[i], hero);
+
+            // La EXP sin subir de nivel no cambia las stats
+            if (levelsGained > 0) {
+                clearStatsCache(batch.ids[i]);
+                onHeroChanged(hero, true);
+                leveledUp++;
+            }
+            results.add(new LevelUpResult(levelsGained > 0, levelsGained, batch.levels[i], batch.ids[i]));
+        }
+
+        Log.i(TAG, String.format("EXP repartida: %d a %d héroes (%d suben de nivel)",
+                batch.expPerHero, batch.heroes.size(), leveledUp));
+        return results;
+    }
+
     /**
      * Mejora un héroe (+1 enhancement)
      */
@@ -886,17 +1219,19 @@ public class HeroManager {
         values.put(DatabaseContract.PlayerHeroes.COLUMN_ATK, hero.getBaseAtk());
         values.put(DatabaseContract.PlayerHeroes.COLUMN_DEF, hero.getBaseDef());
         values.put(DatabaseContract.PlayerHeroes.COLUMN_SPEED, hero.getBaseSpeed());
-        values.put(DatabaseContract.PlayerHeroes.COLUMN_POWER_RATING,
-                HeroConstants.calculateHeroPower(hero.getBaseHp(), hero.getBaseAtk(),
-                        hero.getBaseDef(), hero.getBaseSpeed(),
-                        hero.getRarity(), hero.getStars(), newEnhancement));
+        int powerRating = (int) HeroConstants.calculateHeroPower(hero.getBaseHp(), hero.getBaseAtk(),
+                hero.getBaseDef(), hero.getBaseSpeed(),
+                hero.getRarity(), hero.getStars(), newEnhancement);
+        values.put(DatabaseContract.PlayerHeroes.COLUMN_POWER_RATING, powerRating);
 
         boolean success = dbHelper.updateHeroStats(heroId, values);
 
         if (success) {
+            hero.setPowerRating(powerRating);
             // Actualizar caches
             heroCache.put(heroId, hero);
             clearStatsCache(heroId);
+            onHeroChanged(hero, true);
 
             Log.i(TAG, "Héroe mejorado: " + heroId + " → +" + newEnhancement);
         }
@@ -915,9 +1250,8 @@ public class HeroManager {
         int baseSpeed = HeroConstants.getBaseStat(hero.getRole(), hero.getRarity(), "speed");
 
         // Aplicar multiplicadores
-        float totalMult = GameConstants.getRarityMultiplier(hero.getRarity()) *
-                GameConstants.getStarMultiplier(hero.getStars()) *
-                GameConstants.getEnhancementMultiplier(hero.getEnhancement());
+        float totalMult = StatMultiplierTable.getGrowthMultiplier(
+                hero.getRarity(), hero.getStars(), hero.getEnhancement());
 
         hero.setBaseHp(Math.round(baseHp * totalMult));
         hero.setBaseAtk(Math.round(baseAtk * totalMult));
@@ -1005,31 +1339,14 @@ public class HeroManager {
             // IDs y datos básicos
             hero.setId(cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerHeroes._ID)));
 
-            // Si el cursor incluye datos del template (join)
-            int nameIndex = cursor.getColumnIndex("name");
-            if (nameIndex != -1) {
-                hero.setName(cursor.getString(nameIndex));
-
-                int factionIndex = cursor.getColumnIndex("faction");
-                if (factionIndex != -1) {
-                    hero.setFaction(cursor.getInt(factionIndex));
-                }
-
-                int attributeIndex = cursor.getColumnIndex("attribute");
-                if (attributeIndex != -1) {
-                    hero.setAttribute(cursor.getInt(attributeIndex));
-                }
-
-                int roleIndex = cursor.getColumnIndex("role");
-                if (roleIndex != -1) {
-                    hero.setRole(cursor.getInt(roleIndex));
-                }
-
-                int rarityIndex = cursor.getColumnIndex("rarity");
-                if (rarityIndex != -1) {
-                    hero.setRarity(cursor.getInt(rarityIndex));
-                }
+            // Datos de plantilla: instancia compartida del registro, no una copia por héroe
+            String templateId = cursor.getString(
+                    cursor.getColumnIndexOrThrow(DatabaseContract.PlayerHeroes.COLUMN_HERO_TEMPLATE_ID));
+            HeroTemplate template = templateRegistry.get(templateId);
+            if (template == null) {
+                Log.w(TAG, "Template no encontrado para héroe " + hero.getId() + ": " + templateId);
             }
+            hero.setTemplate(template);
 
             // Stats del jugador
             hero.setLevel(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerHeroes.COLUMN_LEVEL)));
@@ -1042,6 +1359,7 @@ public class HeroManager {
             hero.setBaseAtk(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerHeroes.COLUMN_ATK)));
             hero.setBaseDef(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerHeroes.COLUMN_DEF)));
             hero.setBaseSpeed(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerHeroes.COLUMN_SPEED)));
+            hero.setPowerRating(cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerHeroes.COLUMN_POWER_RATING)));
 
             // Stats derivadas
             hero.setCritRate(cursor.getFloat(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerHeroes.COLUMN_CRIT_RATE)));
@@ -0,0 +1,143 @@
+package com.by.soh.managers;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import com.by.soh.constants.HeroConstants;
+import com.by.soh.database.DatabaseContract.HeroTemplates;
+import com.by.soh.database.GameDatabaseHelper;
+import com.by.soh.models.HeroTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registro de plantillas de héroe
+ * Las filas de hero_templates se leen una sola vez y cada plantilla queda como una única
+ * instancia inmutable compartida por todas las copias de ese héroe (flyweight), en lugar
+ * de copiar nombre, facción, rareza, stats base y habilidades en cada Hero
+ */
+public class HeroTemplateRegistry {
+
+    private static final String TAG = "HeroTemplateRegistry";
+
+    // Singleton instance
+    private static HeroTemplateRegistry instance;
+
+    private final GameDatabaseHelper dbHelper;
+
+    // Plantillas por hero_id (mapa inmutable). hero_templates solo se escribe al crear o
+    // actualizar la BD, antes de la primera lectura, así que basta con cargarlo una vez
+    private volatile Map<String, HeroTemplate> templates;
+
+    private HeroTemplateRegistry(Context context) {
+        this.dbHelper = GameDatabaseHelper.getInstance(context);
+    }
+
+    /**
+     * Obtiene la instancia singleton del registro
+     */
+    public static synchronized HeroTemplateRegistry getInstance(Context context) {
+        if (instance == null) {
+            instance = new HeroTemplateRegistry(context);
+        }
+        return instance;
+    }
+
+    // ==================== CONSULTAS ====================
+
+    /**
+     * Plantilla compartida de un héroe, o null si no existe
+     */
+    public HeroTemplate get(String templateId) {
+        if (templateId == null) return null;
+        return getTemplates().get(templateId);
+    }
+
+    /**
+     * Todas las plantillas, en el orden de la tabla
+     */
+    public Collection<HeroTemplate> getAll() {
+        return getTemplates().values();
+    }
+
+    public int size() {
+        return getTemplates().size();
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    private Map<String, HeroTemplate> getTemplates() {
+        Map<String, HeroTemplate> current = templates;
+        if (current == null) {
+            synchronized (this) {
+                if (templates == null) {
+                    templates = loadTemplates();
+                }
+                current = templates;
+            }
+        }
+        return current;
+    }
+
+    private Map<String, HeroTemplate> loadTemplates() {
+        Map<String, HeroTemplate> loaded = new LinkedHashMap<>();
+
+        Cursor cursor = dbHelper.getAllHeroTemplates();
+        if (cursor != null) {
+            try {
+                while (cursor.moveToNext()) {
+                    HeroTemplate template = fromCursor(cursor);
+                    loaded.put(template.getTemplateId(), template);
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+
+        Log.d(TAG, "Plantillas de héroe cargadas: " + loaded.size());
+        return Collections.unmodifiableMap(loaded);
+    }
+
+    private static HeroTemplate fromCursor(Cursor cursor) {
+        HeroTemplate.SkillDefinition[] skills = {
+                skillFromCursor(cursor, HeroTemplates.COLUMN_SKILL_1_NAME, HeroTemplates.COLUMN_SKILL_1_DESC,
+                        HeroConstants.SKILL_TYPE_BASIC),
+                skillFromCursor(cursor, HeroTemplates.COLUMN_SKILL_2_NAME, HeroTemplates.COLUMN_SKILL_2_DESC,
+                        HeroConstants.SKILL_TYPE_SPECIAL),
+                skillFromCursor(cursor, HeroTemplates.COLUMN_SKILL_3_NAME, HeroTemplates.COLUMN_SKILL_3_DESC,
+                        HeroConstants.SKILL_TYPE_ULTIMATE)
+        };
+
+        int skillCount = 0;
+        for (HeroTemplate.SkillDefinition skill : skills) {
+            if (skill != null) skills[skillCount++] = skill;
+        }
+
+        return new HeroTemplate(
+                cursor.getString(cursor.getColumnIndexOrThrow(HeroTemplates.COLUMN_HERO_ID)),
+                cursor.getString(cursor.getColumnIndexOrThrow(HeroTemplates.COLUMN_NAME)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(HeroTemplates.COLUMN_FACTION)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(HeroTemplates.COLUMN_ATTRIBUTE)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(HeroTemplates.COLUMN_ROLE)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(HeroTemplates.COLUMN_RARITY)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(HeroTemplates.COLUMN_BASE_HP)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(HeroTemplates.COLUMN_BASE_ATK)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(HeroTemplates.COLUMN_BASE_DEF)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(HeroTemplates.COLUMN_BASE_DEF_MAGIC)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(HeroTemplates.COLUMN_BASE_SPEED)),
+                Arrays.copyOf(skills, skillCount));
+    }
+
+    private static HeroTemplate.SkillDefinition skillFromCursor(Cursor cursor, String nameColumn,
+                                                                String descriptionColumn, int skillType) {
+        String name = cursor.getString(cursor.getColumnIndexOrThrow(nameColumn));
+        if (name == null || name.isEmpty()) return null;
+        return new HeroTemplate.SkillDefinition(name,
+                cursor.getString(cursor.getColumnIndexOrThrow(descriptionColumn)), skillType);
+    }
+}
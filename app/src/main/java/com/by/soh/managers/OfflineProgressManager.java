@@ -0,0 +1,362 @@
+package com.by.soh.managers;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.by.soh.constants.BattleConstants;
+import com.by.soh.constants.EquipmentConstants;
+import com.by.soh.constants.GameConstants;
+import com.by.soh.database.DatabaseContract;
+import com.by.soh.database.GameDatabaseHelper;
+import com.by.soh.models.Equipment;
+import com.by.soh.models.Hero;
+import com.by.soh.utils.ExpTable;
+import com.by.soh.utils.GameRandom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Progresión offline: al volver de un periodo AFK simula los combates que el equipo
+ * activo habría librado (un intento de etapa cada OFFLINE_BATTLE_INTERVAL_MINUTES),
+ * el avance de campaña, el botín y las subidas de nivel.
+ * La simulación no juega combate a combate: los intentos hasta ganar una etapa salen
+ * de una distribución geométrica, las victorias al repetir la última etapa de una
+ * binomial y las rarezas del botín de una multinomial, así que 12 horas se resuelven
+ * en microsegundos. El poder del equipo se toma al empezar (estimación conservadora).
+ * Se resuelve al volver a la app: EXP, campaña, botín y reinicio del reloj AFK se
+ * escriben en una sola transacción de la BD y las monedas en una del libro
+ */
+public class OfflineProgressManager {
+
+    private static final String TAG = "OfflineProgressManager";
+
+    // Singleton instance
+    private static OfflineProgressManager instance;
+
+    // Referencias
+    private Context context;
+    private GameDatabaseHelper dbHelper;
+    private PlayerDataManager playerDataManager;
+    private HeroManager heroManager;
+    private EquipmentManager equipmentManager;
+    private final GameRandom random = GameRandom.stream(GameRandom.STREAM_OFFLINE);
+
+    // Resolución fuera del hilo principal; el resultado se entrega en él
+    private final ExecutorService executor;
+    private final Handler mainHandler;
+
+    // Constructor privado
+    private OfflineProgressManager(Context context) {
+        this.context = context.getApplicationContext();
+        this.dbHelper = GameDatabaseHelper.getInstance(context);
+        this.playerDataManager = PlayerDataManager.getInstance(context);
+        this.heroManager = HeroManager.getInstance(context);
+        this.equipmentManager = EquipmentManager.getInstance(context);
+        this.executor = Executors.newSingleThreadExecutor();
+        this.mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Obtiene la instancia singleton del manager
+     */
+    public static synchronized OfflineProgressManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new OfflineProgressManager(context);
+        }
+        return instance;
+    }
+
+    // ==================== RESOLUCIÓN AL VOLVER ====================
+
+    /**
+     * Resuelve el periodo AFK en segundo plano (al volver a la app). El callback
+     * (opcional) se entrega en el hilo principal
+     */
+    public void resolveOfflineProgressAsync(OfflineCallback callback) {
+        executor.execute(() -> {
+            OfflineReport report;
+            try {
+                report = resolveOfflineProgress();
+            } catch (Exception e) {
+                Log.e(TAG, "Error resolviendo progreso offline", e);
+                report = emptyReport();
+            }
+
+            if (callback != null) {
+                OfflineReport delivered = report;
+                mainHandler.post(() -> callback.onOfflineProgressResolved(delivered));
+            }
+        });
+    }
+
+    /**
+     * Simula el periodo AFK y aplica el resultado: recompensas AFK base, combates,
+     * avance de campaña, EXP del equipo activo y equipamiento obtenido. Si la
+     * transacción falla no se aplica nada y el reloj AFK sigue corriendo
+     * (no llamar en el hilo principal: usar resolveOfflineProgressAsync)
+     */
+    public synchronized OfflineReport resolveOfflineProgress() {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException("resolveOfflineProgress accede a la BD; usar resolveOfflineProgressAsync");
+        }
+        long startTime = System.nanoTime();
+
+        long afkMinutes = playerDataManager.getAfkMinutes();
+        if (afkMinutes <= 0) {
+            return emptyReport();
+        }
+
+        List<Hero> team = heroManager.getActiveTeam();
+        int freeSlots = Math.max(0, GameConstants.MAX_INVENTORY_SLOTS -
+                equipmentManager.getInventoryStats().totalItems);
+
+        SimulationInput input = new SimulationInput();
+        input.afkMinutes = afkMinutes;
+        input.teamPower = heroManager.getActiveTeamPower();
+        input.stageIndex = toStageIndex(playerDataManager.getCurrentChapter(), playerDataManager.getCurrentStage());
+        input.freeInventorySlots = freeSlots;
+
+        SimulationResult result = simulate(input, random);
+        PlayerDataManager.AfkRewards base = playerDataManager.calculateAfkRewards();
+
+        // Jugador: EXP, nivel, campaña y reloj AFK en una sola fila
+        PlayerDataManager.PlayerData player = playerDataManager.getPlayerData();
+        long newExp = player.playerExp + base.exp + result.exp;
+        int newLevel = ExpTable.resolveLevel(newExp, player.playerLevel, GameConstants.MAX_PLAYER_LEVEL);
+        int chapter = player.currentChapter;
+        int stage = player.currentStage;
+        int progressGems = 0;
+        if (result.stagesCleared > 0) {
+            chapter = toChapter(result.finalStageIndex);
+            stage = toStage(result.finalStageIndex);
+            progressGems = playerDataManager.getProgressRewardGems(chapter, stage);
+        }
+        long afkTime = System.currentTimeMillis();
+
+        ContentValues playerValues = new ContentValues();
+        playerValues.put(DatabaseContract.PlayerData.COLUMN_PLAYER_EXP, newExp);
+        playerValues.put(DatabaseContract.PlayerData.COLUMN_PLAYER_LEVEL, newLevel);
+        playerValues.put(DatabaseContract.PlayerData.COLUMN_CURRENT_CHAPTER, chapter);
+        playerValues.put(DatabaseContract.PlayerData.COLUMN_CURRENT_STAGE, stage);
+        playerValues.put(DatabaseContract.PlayerData.COLUMN_LAST_AFK_TIME, afkTime);
+
+        // EXP de combate para cada héroe del equipo
+        List<Long> heroIds = new ArrayList<>(team.size());
+        for (Hero hero : team) {
+            heroIds.add(hero.getId());
+        }
+        HeroManager.ExperienceBatch heroExp = heroManager.prepareExperience(heroIds, result.exp);
+
+        // Botín
+        List<Equipment> loot = new ArrayList<>(result.getTotalDrops());
+        List<ContentValues> lootRows = new ArrayList<>(result.getTotalDrops());
+        for (int rarity = 1; rarity < result.dropsByRarity.length; rarity++) {
+            for (int i = 0; i < result.dropsByRarity[rarity]; i++) {
+                Equipment item = Equipment.createRandomEquipment(rarity, rarity, newLevel);
+                loot.add(item);
+                lootRows.add(dbHelper.buildEquipmentValues(item.getEquipmentType(), item.getRarity(),
+                        item.getMainStatType(), item.getMainStatValue(), item.secondaryStatsToJson(),
+                        item.getSetId()));
+            }
+        }
+
+        long[] equipmentIds = dbHelper.commitOfflineProgress(playerValues,
+                heroExp.ids, heroExp.exps, heroExp.levels, lootRows);
+        if (equipmentIds == null) {
+            Log.e(TAG, "Progreso offline no registrado; se reintentará al volver");
+            return emptyReport();
+        }
+
+        playerDataManager.applyOfflineCommit(newExp, newLevel, chapter, stage, afkTime);
+        heroManager.applyExperience(heroExp);
+        equipmentManager.applyLootCommit(loot, equipmentIds);
+
+        // Monedas: una sola transacción del libro, escrita sin esperar al siguiente lote
+        playerDataManager.applyTransaction(new CurrencyLedger.Transaction("offline_progress")
+                .add(CurrencyLedger.GOLD, base.gold + result.gold)
+                .add(CurrencyLedger.GEMS, base.gems + progressGems));
+        playerDataManager.flushCurrencyLedger();
+
+        long micros = (System.nanoTime() - startTime) / 1000;
+        Log.i(TAG, String.format("Progreso offline (%d min): %s, %d items creados en %dµs",
+                afkMinutes, result, equipmentIds.length, micros));
+        return new OfflineReport(base, result, equipmentIds.length);
+    }
+
+    // ==================== SIMULACIÓN ====================
+
+    /**
+     * Simula el periodo offline sin tocar la base de datos (reproducible con una
+     * semilla fija). Cada etapa se intenta hasta ganarla; al llegar a un muro los
+     * intentos restantes repiten la última etapa superada
+     */
+    public static SimulationResult simulate(SimulationInput input, GameRandom random) {
+        SimulationResult result = new SimulationResult();
+        long attemptsLeft = input.afkMinutes / GameConstants.OFFLINE_BATTLE_INTERVAL_MINUTES;
+        int stage = Math.max(1, input.stageIndex);
+
+        // Avance: intentos hasta la primera victoria ~ Geométrica(p)
+        while (attemptsLeft > 0) {
+            double winChance = getWinChance(input.teamPower, stage);
+            if (winChance < GameConstants.OFFLINE_MIN_WIN_CHANCE) {
+                break;
+            }
+
+            long attempts = random.geometric(winChance);
+            if (attempts > attemptsLeft) {
+                // Sin tiempo para ganar: todos los intentos restantes son derrotas
+                result.battles += attemptsLeft;
+                attemptsLeft = 0;
+                break;
+            }
+
+            attemptsLeft -= attempts;
+            result.battles += attempts;
+            result.wins++;
+            result.stagesCleared++;
+            result.gold += getStageGold(stage);
+            result.exp += getStageExp(stage);
+            stage++;
+        }
+
+        // Repetición de la última etapa superada ~ Binomial(intentos, p)
+        int farmStage = stage - 1;
+        if (attemptsLeft > 0 && farmStage >= 1) {
+            double winChance = getWinChance(input.teamPower, farmStage);
+            long farmWins = random.binomial(attemptsLeft, winChance);
+
+            result.battles += attemptsLeft;
+            result.wins += farmWins;
+            result.gold += farmWins * getStageGold(farmStage);
+            result.exp += farmWins * getStageExp(farmStage);
+        }
+
+        // Botín: nº de objetos ~ Binomial(victorias, p) y rarezas ~ Multinomial
+        long drops = random.binomial(result.wins, GameConstants.OFFLINE_DROP_CHANCE);
+        int kept = (int) Math.min(drops, input.freeInventorySlots);
+        result.discardedDrops = (int) (drops - kept);
+        result.dropsByRarity = random.multinomial(kept, EquipmentConstants.EQUIPMENT_DROP_RATES, EquipmentConstants.EQUIPMENT_GRAY);
+        result.finalStageIndex = stage;
+
+        return result;
+    }
+
+    /**
+     * Probabilidad de ganar una etapa: curva logística sobre el cociente de poder
+     * (50% con el poder recomendado)
+     */
+    public static double getWinChance(long teamPower, int stageIndex) {
+        if (teamPower <= 0) return 0.0;
+
+        double ratio = teamPower / getStagePower(stageIndex);
+        double weighted = Math.pow(ratio, GameConstants.OFFLINE_WIN_CURVE);
+        return weighted / (1.0 + weighted);
+    }
+
+    /**
+     * Poder recomendado de una etapa (índice global, 1 = capítulo 1 etapa 1)
+     */
+    public static double getStagePower(int stageIndex) {
+        return GameConstants.OFFLINE_STAGE_BASE_POWER *
+                Math.pow(GameConstants.OFFLINE_STAGE_POWER_GROWTH, stageIndex - 1);
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    private static long getStageGold(int stageIndex) {
+        return Math.round(BattleConstants.GOLD_PER_ENEMY_LEVEL * stageIndex);
+    }
+
+    private static long getStageExp(int stageIndex) {
+        return Math.round(BattleConstants.EXP_PER_ENEMY_LEVEL * stageIndex);
+    }
+
+    private static OfflineReport emptyReport() {
+        return new OfflineReport(new PlayerDataManager.AfkRewards(0, 0, 0), new SimulationResult(), 0);
+    }
+
+    private static int toStageIndex(int chapter, int stage) {
+        return (chapter - 1) * GameConstants.STAGES_PER_CHAPTER + stage;
+    }
+
+    private static int toChapter(int stageIndex) {
+        return (stageIndex - 1) / GameConstants.STAGES_PER_CHAPTER + 1;
+    }
+
+    private static int toStage(int stageIndex) {
+        return (stageIndex - 1) % GameConstants.STAGES_PER_CHAPTER + 1;
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Estado de partida de la simulación
+     */
+    public static class SimulationInput {
+        public long afkMinutes;
+        public long teamPower;
+        public int stageIndex;
+        public int freeInventorySlots;
+    }
+
+    /**
+     * Resultado agregado de la simulación
+     */
+    public static class SimulationResult {
+        public long battles;
+        public long wins;
+        public int stagesCleared;
+        public int finalStageIndex;
+        public long gold;
+        public long exp;
+        public int[] dropsByRarity = new int[EquipmentConstants.EQUIPMENT_DROP_RATES.length];
+        public int discardedDrops;
+
+        public int getTotalDrops() {
+            int total = 0;
+            for (int count : dropsByRarity) {
+                total += count;
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("SimulationResult{battles=%d, wins=%d, stagesCleared=%d, gold=%d, exp=%d, drops=%d, discarded=%d}",
+                    battles, wins, stagesCleared, gold, exp, getTotalDrops(), discardedDrops);
+        }
+    }
+
+    /**
+     * Aviso con el resultado de la resolución offline (en el hilo principal)
+     */
+    public interface OfflineCallback {
+        void onOfflineProgressResolved(OfflineReport report);
+    }
+
+    /**
+     * Resumen de lo obtenido durante el periodo offline
+     */
+    public static class OfflineReport {
+        public final PlayerDataManager.AfkRewards afkRewards;
+        public final SimulationResult simulation;
+        public final int itemsCreated;
+
+        public OfflineReport(PlayerDataManager.AfkRewards afkRewards, SimulationResult simulation, int itemsCreated) {
+            this.afkRewards = afkRewards;
+            this.simulation = simulation;
+            this.itemsCreated = itemsCreated;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("OfflineReport{%s, %s, items=%d}", afkRewards, simulation, itemsCreated);
+        }
+    }
+}
@@ -8,9 +8,17 @@ import android.util.Log;
 import com.by.soh.constants.GameConstants;
 import com.by.soh.database.GameDatabaseHelper;
 import com.by.soh.database.DatabaseContract;
+import com.by.soh.utils.ExpTable;
+import com.by.soh.utils.GameRandom;
+
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Manager para datos del jugador - progreso, monedas, nivel, experiencia, etc.
+ * Los datos se publican como snapshots versionados: cada cambio crea una copia nueva y
+ * la sustituye de golpe, así que un lector (de cualquier hilo) siempre ve un estado
+ * completo y no necesita bloquear. Las escrituras se serializan en el manager; como todas
+ * pasan por aquí no hay que releer la BD periódicamente
  */
 public class PlayerDataManager {
 
@@ -23,15 +31,17 @@ public class PlayerDataManager {
     private GameDatabaseHelper dbHelper;
     private Context context;
 
-    // Cache de datos del jugador
-    private PlayerData cachedPlayerData;
-    private long lastCacheUpdate;
-    private static final long CACHE_DURATION = 30 * 1000; // 30 segundos
+    // Saldos de monedas con escritura agrupada
+    private final CurrencyLedger currencyLedger;
+
+    // Snapshot publicado de los datos del jugador (no se modifica una vez publicado)
+    private final AtomicReference<PlayerData> snapshot = new AtomicReference<>();
 
     // Constructor privado
     private PlayerDataManager(Context context) {
         this.context = context.getApplicationContext();
         this.dbHelper = GameDatabaseHelper.getInstance(context);
+        this.currencyLedger = new CurrencyLedger(dbHelper);
         loadPlayerData();
     }
 
@@ -50,28 +60,37 @@ public class PlayerDataManager {
     /**
      * Carga los datos del jugador desde la base de datos
      */
-    private void loadPlayerData() {
+    private synchronized void loadPlayerData() {
         Cursor cursor = dbHelper.getPlayerData();
+        PlayerData.Builder loaded;
 
         if (cursor != null && cursor.moveToFirst()) {
-            cachedPlayerData = new PlayerData(cursor);
-            lastCacheUpdate = System.currentTimeMillis();
-            Log.d(TAG, "Datos del jugador cargados: " + cachedPlayerData.toString());
+            loaded = new PlayerData.Builder(cursor);
+
+            // Los movimientos de monedas aún no escritos van encima de lo leído
+            currencyLedger.reload();
+            syncBalances(loaded);
         } else {
             Log.e(TAG, "No se pudieron cargar los datos del jugador");
-            cachedPlayerData = createDefaultPlayerData();
+            loaded = createDefaultPlayerData();
         }
 
         if (cursor != null) {
             cursor.close();
         }
+
+        PlayerData previous = snapshot.get();
+        loaded.version = previous != null ? previous.version + 1 : 1;
+        PlayerData published = loaded.build();
+        snapshot.set(published);
+        Log.d(TAG, "Datos del jugador cargados: " + published.toString());
     }
 
     /**
      * Crea datos por defecto si no existen
      */
-    private PlayerData createDefaultPlayerData() {
-        PlayerData defaultData = new PlayerData();
+    private PlayerData.Builder createDefaultPlayerData() {
+        PlayerData.Builder defaultData = new PlayerData.Builder();
         defaultData.playerName = "Schwi";
         defaultData.playerLevel = 1;
         defaultData.playerExp = 0;
@@ -90,29 +109,38 @@ public class PlayerDataManager {
     }
 
     /**
-     * Refresca los datos desde la base de datos
+     * Relee los datos desde la base de datos (solo si se modificó por fuera del
+     * manager, p. ej. al cargar un guardado)
      */
     public void refreshPlayerData() {
         loadPlayerData();
     }
 
     /**
-     * Verifica si el cache es válido
+     * Publica una versión nueva aplicando el cambio sobre un borrador del snapshot
+     * actual. Llamar con el lock del manager
      */
-    private boolean isCacheValid() {
-        return (System.currentTimeMillis() - lastCacheUpdate) < CACHE_DURATION;
+    private PlayerData updateSnapshot(SnapshotUpdate update) {
+        PlayerData current = snapshot.get();
+        PlayerData.Builder next = current.toBuilder();
+        update.apply(next);
+        next.version = current.version + 1;
+        PlayerData published = next.build();
+        snapshot.set(published);
+        return published;
+    }
+
+    private interface SnapshotUpdate {
+        void apply(PlayerData.Builder data);
     }
 
     // ==================== GETTERS DE DATOS ====================
 
     /**
-     * Obtiene los datos completos del jugador
+     * Obtiene el snapshot actual de los datos del jugador (solo lectura)
      */
     public PlayerData getPlayerData() {
-        if (!isCacheValid()) {
-            refreshPlayerData();
-        }
-        return cachedPlayerData;
+        return snapshot.get();
     }
 
     /**
@@ -141,20 +169,15 @@ public class PlayerDataManager {
      */
     public long getExpRequiredForNextLevel() {
         int currentLevel = getPlayerLevel();
-        return GameConstants.getExpRequiredForLevel(currentLevel + 1);
+        return ExpTable.getExpForLevel(currentLevel + 1);
     }
 
     /**
      * Obtiene el progreso de experiencia (0.0 - 1.0)
      */
     public float getExpProgress() {
-        long currentExp = getPlayerExp();
-        long requiredExp = getExpRequiredForNextLevel();
-        long levelStartExp = GameConstants.getExpRequiredForLevel(getPlayerLevel());
-
-        if (requiredExp <= levelStartExp) return 1.0f;
-
-        return (float)(currentExp - levelStartExp) / (requiredExp - levelStartExp);
+        PlayerData data = getPlayerData();
+        return ExpTable.getProgress(data.playerExp, data.playerLevel);
     }
 
     /**
@@ -175,28 +198,28 @@ public class PlayerDataManager {
      * Obtiene el oro actual
      */
     public long getGold() {
-        return getPlayerData().gold;
+        return currencyLedger.getBalance(CurrencyLedger.GOLD);
     }
 
     /**
      * Obtiene las gemas actuales
      */
     public int getGems() {
-        return getPlayerData().gems;
+        return (int) currencyLedger.getBalance(CurrencyLedger.GEMS);
     }
 
     /**
      * Obtiene las monedas PvP actuales
      */
     public int getPvpCoins() {
-        return getPlayerData().pvpCoins;
+        return (int) currencyLedger.getBalance(CurrencyLedger.PVP_COINS);
     }
 
     /**
      * Obtiene las monedas de guild actuales
      */
     public int getGuildCoins() {
-        return getPlayerData().guildCoins;
+        return (int) currencyLedger.getBalance(CurrencyLedger.GUILD_COINS);
     }
 
     /**
@@ -258,16 +281,28 @@ public class PlayerDataManager {
 
     // ==================== OPERACIONES DE MONEDAS ====================
 
+    /**
+     * Aplica varios movimientos de monedas a la vez (todos o ninguno). El saldo cambia
+     * al instante; la escritura en la BD se agrupa en el libro de monedas
+     */
+    public synchronized boolean applyTransaction(CurrencyLedger.Transaction transaction) {
+        if (!currencyLedger.apply(transaction)) {
+            return false;
+        }
+
+        updateSnapshot(this::syncBalances);
+        Log.d(TAG, "Transacción aplicada: " + transaction);
+        return true;
+    }
+
     /**
      * Añade oro al jugador
      */
     public boolean addGold(long amount) {
         if (amount <= 0) return false;
 
-        long currentGold = getGold();
-        long newGold = Math.min(currentGold + amount, GameConstants.MAX_GOLD);
-
-        return updateCurrency("gold", newGold);
+        return applyTransaction(new CurrencyLedger.Transaction("add_gold")
+                .add(CurrencyLedger.GOLD, amount));
     }
 
     /**
@@ -279,8 +314,8 @@ public class PlayerDataManager {
             return false;
         }
 
-        long newGold = getGold() - amount;
-        return updateCurrency("gold", newGold);
+        return applyTransaction(new CurrencyLedger.Transaction("spend_gold")
+                .spend(CurrencyLedger.GOLD, amount));
     }
 
     /**
@@ -289,10 +324,8 @@ public class PlayerDataManager {
     public boolean addGems(int amount) {
         if (amount <= 0) return false;
 
-        int currentGems = getGems();
-        int newGems = Math.min(currentGems + amount, GameConstants.MAX_GEMS);
-
-        return updateCurrency("gems", newGems);
+        return applyTransaction(new CurrencyLedger.Transaction("add_gems")
+                .add(CurrencyLedger.GEMS, amount));
     }
 
     /**
@@ -304,8 +337,8 @@ public class PlayerDataManager {
             return false;
         }
 
-        int newGems = getGems() - amount;
-        return updateCurrency("gems", newGems);
+        return applyTransaction(new CurrencyLedger.Transaction("spend_gems")
+                .spend(CurrencyLedger.GEMS, amount));
     }
 
     /**
@@ -314,10 +347,8 @@ public class PlayerDataManager {
     public boolean addPvpCoins(int amount) {
         if (amount <= 0) return false;
 
-        int currentCoins = getPvpCoins();
-        int newCoins = currentCoins + amount;
-
-        return updateCurrency("pvp_coins", newCoins);
+        return applyTransaction(new CurrencyLedger.Transaction("add_pvp_coins")
+                .add(CurrencyLedger.PVP_COINS, amount));
     }
 
     /**
@@ -329,8 +360,8 @@ public class PlayerDataManager {
             return false;
         }
 
-        int newCoins = getPvpCoins() - amount;
-        return updateCurrency("pvp_coins", newCoins);
+        return applyTransaction(new CurrencyLedger.Transaction("spend_pvp_coins")
+                .spend(CurrencyLedger.PVP_COINS, amount));
     }
 
     /**
@@ -339,10 +370,8 @@ public class PlayerDataManager {
     public boolean addGuildCoins(int amount) {
         if (amount <= 0) return false;
 
-        int currentCoins = getGuildCoins();
-        int newCoins = currentCoins + amount;
-
-        return updateCurrency("guild_coins", newCoins);
+        return applyTransaction(new CurrencyLedger.Transaction("add_guild_coins")
+                .add(CurrencyLedger.GUILD_COINS, amount));
     }
 
     /**
@@ -354,43 +383,32 @@ public class PlayerDataManager {
             return false;
         }
 
-        int newCoins = getGuildCoins() - amount;
-        return updateCurrency("guild_coins", newCoins);
+        return applyTransaction(new CurrencyLedger.Transaction("spend_guild_coins")
+                .spend(CurrencyLedger.GUILD_COINS, amount));
     }
 
     /**
-     * Método helper para actualizar monedas
+     * Libro de monedas (para escuchar cambios de saldo desde la UI)
      */
-    private boolean updateCurrency(String currencyType, long newValue) {
-        ContentValues values = new ContentValues();
-
-        switch (currencyType) {
-            case "gold":
-                values.put(DatabaseContract.PlayerData.COLUMN_GOLD, newValue);
-                cachedPlayerData.gold = newValue;
-                break;
-            case "gems":
-                values.put(DatabaseContract.PlayerData.COLUMN_GEMS, (int)newValue);
-                cachedPlayerData.gems = (int)newValue;
-                break;
-            case "pvp_coins":
-                values.put(DatabaseContract.PlayerData.COLUMN_PVP_COINS, (int)newValue);
-                cachedPlayerData.pvpCoins = (int)newValue;
-                break;
-            case "guild_coins":
-                values.put(DatabaseContract.PlayerData.COLUMN_GUILD_COINS, (int)newValue);
-                cachedPlayerData.guildCoins = (int)newValue;
-                break;
-            default:
-                return false;
-        }
+    public CurrencyLedger getCurrencyLedger() {
+        return currencyLedger;
+    }
 
-        boolean success = dbHelper.updatePlayerData(values);
-        if (success) {
-            Log.d(TAG, "Actualizada moneda " + currencyType + " a: " + newValue);
-        }
+    /**
+     * Escribe ya los movimientos de monedas pendientes (antes de guardar o cargar)
+     */
+    public boolean flushCurrencyLedger() {
+        return currencyLedger.flush();
+    }
 
-        return success;
+    /**
+     * Copia los saldos del libro a unos datos aún no publicados
+     */
+    private void syncBalances(PlayerData.Builder data) {
+        data.gold = currencyLedger.getBalance(CurrencyLedger.GOLD);
+        data.gems = (int) currencyLedger.getBalance(CurrencyLedger.GEMS);
+        data.pvpCoins = (int) currencyLedger.getBalance(CurrencyLedger.PVP_COINS);
+        data.guildCoins = (int) currencyLedger.getBalance(CurrencyLedger.GUILD_COINS);
     }
 
     // ==================== OPERACIONES DE EXPERIENCIA Y NIVEL ====================
@@ -398,27 +416,17 @@ public class PlayerDataManager {
     /**
      * Añade experiencia al jugador
      */
-    public LevelUpResult addExperience(long amount) {
+    public synchronized LevelUpResult addExperience(long amount) {
         if (amount <= 0) return new LevelUpResult(false, 0, 0);
 
-        long currentExp = getPlayerExp();
-        int currentLevel = getPlayerLevel();
+        PlayerData data = getPlayerData();
+        long currentExp = data.playerExp;
+        int currentLevel = data.playerLevel;
         long newExp = currentExp + amount;
 
-        // Verificar level ups
-        int newLevel = currentLevel;
-        int levelsGained = 0;
-
-        while (newLevel < GameConstants.MAX_PLAYER_LEVEL) {
-            long requiredExp = GameConstants.getExpRequiredForLevel(newLevel + 1);
-
-            if (newExp >= requiredExp) {
-                newLevel++;
-                levelsGained++;
-            } else {
-                break;
-            }
-        }
+        // Verificar level ups (búsqueda binaria en la tabla de EXP acumulada)
+        int newLevel = ExpTable.resolveLevel(newExp, currentLevel, GameConstants.MAX_PLAYER_LEVEL);
+        int levelsGained = newLevel - currentLevel;
 
         // Actualizar en base de datos
         ContentValues values = new ContentValues();
@@ -427,8 +435,10 @@ public class PlayerDataManager {
 
         boolean success = dbHelper.updatePlayerData(values);
         if (success) {
-            cachedPlayerData.playerExp = newExp;
-            cachedPlayerData.playerLevel = newLevel;
+            updateSnapshot(updated -> {
+                updated.playerExp = newExp;
+                updated.playerLevel = newLevel;
+            });
 
             Log.i(TAG, String.format("EXP añadida: %d (Total: %d, Nivel: %d → %d)",
                     amount, newExp, currentLevel, newLevel));
@@ -441,9 +451,10 @@ public class PlayerDataManager {
      * Verifica si el jugador puede subir de nivel
      */
     public boolean canLevelUp() {
-        long currentExp = getPlayerExp();
-        int currentLevel = getPlayerLevel();
-        long requiredExp = GameConstants.getExpRequiredForLevel(currentLevel + 1);
+        PlayerData data = getPlayerData();
+        long currentExp = data.playerExp;
+        int currentLevel = data.playerLevel;
+        long requiredExp = ExpTable.getExpForLevel(currentLevel + 1);
 
         return currentExp >= requiredExp && currentLevel < GameConstants.MAX_PLAYER_LEVEL;
     }
@@ -453,9 +464,10 @@ public class PlayerDataManager {
     /**
      * Actualiza el progreso de campaña
      */
-    public boolean updateCampaignProgress(int chapter, int stage) {
-        int currentChapter = getCurrentChapter();
-        int currentStage = getCurrentStage();
+    public synchronized boolean updateCampaignProgress(int chapter, int stage) {
+        PlayerData data = getPlayerData();
+        int currentChapter = data.currentChapter;
+        int currentStage = data.currentStage;
 
         // Solo actualizar si es progreso hacia adelante
         boolean isProgress = (chapter > currentChapter) ||
@@ -468,8 +480,10 @@ public class PlayerDataManager {
 
         boolean success = dbHelper.updatePlayerProgress(chapter, stage);
         if (success) {
-            cachedPlayerData.currentChapter = chapter;
-            cachedPlayerData.currentStage = stage;
+            updateSnapshot(updated -> {
+                updated.currentChapter = chapter;
+                updated.currentStage = stage;
+            });
 
             Log.i(TAG, String.format("Progreso actualizado: %d-%d → %d-%d",
                     currentChapter, currentStage, chapter, stage));
@@ -485,16 +499,28 @@ public class PlayerDataManager {
      * Verifica y otorga recompensas por progreso
      */
     private void checkProgressRewards(int chapter, int stage) {
+        int gemsReward = getProgressRewardGems(chapter, stage);
+        if (gemsReward > 0) {
+            addGems(gemsReward);
+        }
+    }
+
+    /**
+     * Gemas por llegar a una etapa (capítulo completado e hitos), sin otorgarlas
+     */
+    int getProgressRewardGems(int chapter, int stage) {
+        int gemsReward = 0;
+
         // Recompensas por completar capítulos
         if (stage == 1 && chapter > 1) { // Completó el capítulo anterior
-            int gemsReward = 100 * (chapter - 1); // 100 gemas por capítulo
-            addGems(gemsReward);
-            Log.i(TAG, "Recompensa por capítulo " + (chapter-1) + ": " + gemsReward + " gemas");
+            int chapterReward = 100 * (chapter - 1); // 100 gemas por capítulo
+            gemsReward += chapterReward;
+            Log.i(TAG, "Recompensa por capítulo " + (chapter-1) + ": " + chapterReward + " gemas");
         }
 
         // Recompensas especiales por hitos
         if (chapter == 2 && stage == 1) {
-            addGems(200);
+            gemsReward += 200;
             Log.i(TAG, "Recompensa especial: Primer capítulo completado - 200 gemas");
         }
 
@@ -503,6 +529,8 @@ public class PlayerDataManager {
         if (GameConstants.isTeamSlotUnlockLevel(totalStages)) {
             Log.i(TAG, "¡Nuevo slot de equipo desbloqueado en nivel " + totalStages + "!");
         }
+
+        return gemsReward;
     }
 
     // ==================== SISTEMA AFK ====================
@@ -510,9 +538,9 @@ public class PlayerDataManager {
     /**
      * Actualiza el tiempo de inicio AFK
      */
-    public void startAfkMode() {
+    public synchronized void startAfkMode() {
         long currentTime = System.currentTimeMillis();
-        cachedPlayerData.lastAfkTime = currentTime;
+        updateSnapshot(updated -> updated.lastAfkTime = currentTime);
 
         ContentValues values = new ContentValues();
         values.put(DatabaseContract.PlayerData.COLUMN_LAST_AFK_TIME, currentTime);
@@ -522,27 +550,30 @@ public class PlayerDataManager {
     }
 
     /**
-     * Calcula y otorga recompensas AFK
+     * Minutos AFK desde el último reclamo, limitados a MAX_AFK_HOURS
      */
-    public AfkRewards calculateAfkRewards() {
-        long lastAfkTime = getPlayerData().lastAfkTime;
-        long currentTime = System.currentTimeMillis();
-        long afkDuration = currentTime - lastAfkTime;
+    public long getAfkMinutes() {
+        long afkDuration = System.currentTimeMillis() - getPlayerData().lastAfkTime;
 
-        // Convertir a minutos
+        // Convertir a minutos y limitar a máximo permitido
         long afkMinutes = afkDuration / (60 * 1000);
+        return Math.max(0, Math.min(afkMinutes, GameConstants.MAX_AFK_HOURS * 60L));
+    }
 
-        // Limitar a máximo permitido
-        long maxAfkMinutes = GameConstants.MAX_AFK_HOURS * 60;
-        afkMinutes = Math.min(afkMinutes, maxAfkMinutes);
+    /**
+     * Calcula y otorga recompensas AFK
+     */
+    public AfkRewards calculateAfkRewards() {
+        long afkMinutes = getAfkMinutes();
 
         if (afkMinutes <= 0) {
             return new AfkRewards(0, 0, 0);
         }
 
         // Calcular recompensas basadas en nivel y progreso
-        int playerLevel = getPlayerLevel();
-        int currentChapter = getCurrentChapter();
+        PlayerData data = getPlayerData();
+        int playerLevel = data.playerLevel;
+        int currentChapter = data.currentChapter;
 
         float levelMultiplier = 1.0f + (playerLevel - 1) * 0.1f; // +10% por nivel
         float chapterMultiplier = 1.0f + (currentChapter - 1) * 0.2f; // +20% por capítulo
@@ -550,14 +581,11 @@ public class PlayerDataManager {
         long goldReward = Math.round(GameConstants.AFK_GOLD_BASE_RATE * afkMinutes * levelMultiplier * chapterMultiplier);
         long expReward = Math.round(GameConstants.AFK_EXP_BASE_RATE * afkMinutes * levelMultiplier);
 
-        // Probabilidad de gemas (5% por hora)
-        int gemReward = 0;
+        // Probabilidad de gemas (5% por hora): nº de horas premiadas ~ Binomial(horas, 0.05)
         long afkHours = afkMinutes / 60;
-        for (int i = 0; i < afkHours; i++) {
-            if (Math.random() < 0.05) {
-                gemReward += 1 + (int)(Math.random() * 5); // 1-5 gemas
-            }
-        }
+        GameRandom random = GameRandom.stream(GameRandom.STREAM_AFK);
+        long gemDrops = random.binomial(afkHours, 0.05);
+        int gemReward = (int) random.sumUniform(gemDrops, 1, 5); // 1-5 gemas
 
         return new AfkRewards(goldReward, expReward, gemReward);
     }
@@ -573,10 +601,11 @@ public class PlayerDataManager {
             return false;
         }
 
-        // Otorgar recompensas
-        addGold(rewards.gold);
+        // Otorgar recompensas (oro y gemas en una sola transacción)
+        applyTransaction(new CurrencyLedger.Transaction("afk_rewards")
+                .add(CurrencyLedger.GOLD, rewards.gold)
+                .add(CurrencyLedger.GEMS, rewards.gems));
         addExperience(rewards.exp);
-        addGems(rewards.gems);
 
         // Actualizar tiempo AFK
         startAfkMode();
@@ -592,7 +621,7 @@ public class PlayerDataManager {
     /**
      * Incrementa el contador de pity
      */
-    public void incrementGachaPity() {
+    public synchronized void incrementGachaPity() {
         int currentPity = getGachaPityCount();
         int newPity = currentPity + 1;
 
@@ -600,7 +629,7 @@ public class PlayerDataManager {
         values.put(DatabaseContract.PlayerData.COLUMN_GACHA_PITY_COUNT, newPity);
 
         dbHelper.updatePlayerData(values);
-        cachedPlayerData.gachaPityCount = newPity;
+        updateSnapshot(updated -> updated.gachaPityCount = newPity);
 
         Log.d(TAG, "Contador pity incrementado: " + newPity);
     }
@@ -608,12 +637,12 @@ public class PlayerDataManager {
     /**
      * Resetea el contador de pity (cuando se obtiene un héroe raro)
      */
-    public void resetGachaPity() {
+    public synchronized void resetGachaPity() {
         ContentValues values = new ContentValues();
         values.put(DatabaseContract.PlayerData.COLUMN_GACHA_PITY_COUNT, 0);
 
         dbHelper.updatePlayerData(values);
-        cachedPlayerData.gachaPityCount = 0;
+        updateSnapshot(updated -> updated.gachaPityCount = 0);
 
         Log.d(TAG, "Contador pity reseteado");
     }
@@ -625,12 +654,43 @@ public class PlayerDataManager {
         return getGachaPityCount() >= GameConstants.PITY_SYSTEM_THRESHOLD;
     }
 
+    /**
+     * Refleja en la caché una invocación ya registrada en la base de datos
+     * (gemas y pity se escriben en la misma transacción que los héroes; el libro de
+     * monedas ya contabilizó el gasto en commitThrough)
+     */
+    synchronized void applyGachaCommit(int gemsSpent, int newPityCount) {
+        updateSnapshot(updated -> {
+            syncBalances(updated);
+            updated.gachaPityCount = newPityCount;
+        });
+
+        Log.d(TAG, "Invocación aplicada: -" + gemsSpent + " gemas, pity " + newPityCount);
+    }
+
+    /**
+     * Refleja en la caché una progresión offline ya registrada en la base de datos
+     * (EXP, nivel, campaña y reloj AFK van en la misma transacción que el botín)
+     */
+    synchronized void applyOfflineCommit(long newExp, int newLevel, int chapter, int stage, long afkTime) {
+        updateSnapshot(updated -> {
+            updated.playerExp = newExp;
+            updated.playerLevel = newLevel;
+            updated.currentChapter = chapter;
+            updated.currentStage = stage;
+            updated.lastAfkTime = afkTime;
+        });
+
+        Log.d(TAG, String.format("Progresión offline aplicada: exp=%d, nivel=%d, etapa %d-%d",
+                newExp, newLevel, chapter, stage));
+    }
+
     // ==================== OPERACIONES GENERALES ====================
 
     /**
      * Actualiza el nombre del jugador
      */
-    public boolean updatePlayerName(String newName) {
+    public synchronized boolean updatePlayerName(String newName) {
         if (newName == null || newName.trim().isEmpty()) {
             Log.w(TAG, "Nombre inválido");
             return false;
@@ -641,7 +701,7 @@ public class PlayerDataManager {
 
         boolean success = dbHelper.updatePlayerData(values);
         if (success) {
-            cachedPlayerData.playerName = newName.trim();
+            updateSnapshot(updated -> updated.playerName = newName.trim());
             Log.i(TAG, "Nombre del jugador actualizado: " + newName);
         }
 
@@ -651,7 +711,7 @@ public class PlayerDataManager {
     /**
      * Añade tiempo de juego
      */
-    public void addPlayTime(long milliseconds) {
+    public synchronized void addPlayTime(long milliseconds) {
         long currentPlayTime = getTotalPlayTime();
         long newPlayTime = currentPlayTime + milliseconds;
 
@@ -659,7 +719,7 @@ public class PlayerDataManager {
         values.put(DatabaseContract.PlayerData.COLUMN_TOTAL_PLAY_TIME, newPlayTime);
 
         dbHelper.updatePlayerData(values);
-        cachedPlayerData.totalPlayTime = newPlayTime;
+        updateSnapshot(updated -> updated.totalPlayTime = newPlayTime);
     }
 
     /**
@@ -671,7 +731,7 @@ public class PlayerDataManager {
         PlayerStats stats = new PlayerStats();
         stats.level = data.playerLevel;
         stats.totalExp = data.playerExp;
-        stats.expProgress = getExpProgress();
+        stats.expProgress = ExpTable.getProgress(data.playerExp, data.playerLevel);
         stats.totalGoldEarned = data.gold; // Esto podría ser un acumulativo en el futuro
         stats.totalPlayTimeHours = data.totalPlayTime / (60 * 60 * 1000);
         stats.chaptersCompleted = data.currentChapter - 1;
@@ -684,49 +744,49 @@ public class PlayerDataManager {
     // ==================== CLASES INTERNAS ====================
 
     /**
-     * Clase para almacenar datos del jugador
+     * Datos del jugador. Los snapshots publicados por el manager no se modifican:
+     * cada cambio publica una copia con version + 1
      */
     public static class PlayerData {
-        public String playerName;
-        public int playerLevel;
-        public long playerExp;
-        public int currentChapter;
-        public int currentStage;
-        public long gold;
-        public int gems;
-        public int pvpCoins;
-        public int guildCoins;
-        public long lastAfkTime;
-        public long totalPlayTime;
-        public int gachaPityCount;
-        public long createdAt;
-        public long updatedAt;
-
-        public PlayerData() {}
-
-        public PlayerData(Cursor cursor) {
-            loadFromCursor(cursor);
+        public final String playerName;
+        public final int playerLevel;
+        public final long playerExp;
+        public final int currentChapter;
+        public final int currentStage;
+        public final long gold;
+        public final int gems;
+        public final int pvpCoins;
+        public final int guildCoins;
+        public final long lastAfkTime;
+        public final long totalPlayTime;
+        public final int gachaPityCount;
+        public final long createdAt;
+        public final long updatedAt;
+        public final long version; // Versión del snapshot (no se guarda)
+
+        private PlayerData(Builder builder) {
+            playerName = builder.playerName;
+            playerLevel = builder.playerLevel;
+            playerExp = builder.playerExp;
+            currentChapter = builder.currentChapter;
+            currentStage = builder.currentStage;
+            gold = builder.gold;
+            gems = builder.gems;
+            pvpCoins = builder.pvpCoins;
+            guildCoins = builder.guildCoins;
+            lastAfkTime = builder.lastAfkTime;
+            totalPlayTime = builder.totalPlayTime;
+            gachaPityCount = builder.gachaPityCount;
+            createdAt = builder.createdAt;
+            updatedAt = builder.updatedAt;
+            version = builder.version;
         }
 
-        private void loadFromCursor(Cursor cursor) {
-            try {
-                playerName = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_PLAYER_NAME));
-                playerLevel = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_PLAYER_LEVEL));
-                playerExp = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_PLAYER_EXP));
-                currentChapter = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_CURRENT_CHAPTER));
-                currentStage = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_CURRENT_STAGE));
-                gold = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_GOLD));
-                gems = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_GEMS));
-                pvpCoins = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_PVP_COINS));
-                guildCoins = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_GUILD_COINS));
-                lastAfkTime = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_LAST_AFK_TIME));
-                totalPlayTime = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_TOTAL_PLAY_TIME));
-                gachaPityCount = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_GACHA_PITY_COUNT));
-                createdAt = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_CREATED_AT));
-                updatedAt = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_UPDATED_AT));
-            } catch (Exception e) {
-                Log.e(TAG, "Error cargando PlayerData desde cursor", e);
-            }
+        /**
+         * Borrador con los valores actuales (base de la siguiente versión)
+         */
+        public Builder toBuilder() {
+            return new Builder(this);
         }
 
         @Override
@@ -734,6 +794,75 @@ public class PlayerDataManager {
             return String.format("PlayerData{name='%s', level=%d, exp=%d, chapter=%d-%d, gold=%d, gems=%d}",
                     playerName, playerLevel, playerExp, currentChapter, currentStage, gold, gems);
         }
+
+        /**
+         * Borrador mutable de PlayerData; build() publica una copia inmutable
+         */
+        public static class Builder {
+            public String playerName;
+            public int playerLevel;
+            public long playerExp;
+            public int currentChapter;
+            public int currentStage;
+            public long gold;
+            public int gems;
+            public int pvpCoins;
+            public int guildCoins;
+            public long lastAfkTime;
+            public long totalPlayTime;
+            public int gachaPityCount;
+            public long createdAt;
+            public long updatedAt;
+            public long version;
+
+            public Builder() {}
+
+            private Builder(PlayerData data) {
+                playerName = data.playerName;
+                playerLevel = data.playerLevel;
+                playerExp = data.playerExp;
+                currentChapter = data.currentChapter;
+                currentStage = data.currentStage;
+                gold = data.gold;
+                gems = data.gems;
+                pvpCoins = data.pvpCoins;
+                guildCoins = data.guildCoins;
+                lastAfkTime = data.lastAfkTime;
+                totalPlayTime = data.totalPlayTime;
+                gachaPityCount = data.gachaPityCount;
+                createdAt = data.createdAt;
+                updatedAt = data.updatedAt;
+                version = data.version;
+            }
+
+            /**
+             * Lee los valores de la fila actual del cursor
+             */
+            public Builder(Cursor cursor) {
+                try {
+                    playerName = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_PLAYER_NAME));
+                    playerLevel = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_PLAYER_LEVEL));
+                    playerExp = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_PLAYER_EXP));
+                    currentChapter = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_CURRENT_CHAPTER));
+                    currentStage = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_CURRENT_STAGE));
+                    gold = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_GOLD));
+                    gems = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_GEMS));
+                    pvpCoins = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_PVP_COINS));
+                    guildCoins = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_GUILD_COINS));
+                    lastAfkTime = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_LAST_AFK_TIME));
+                    totalPlayTime = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_TOTAL_PLAY_TIME));
+                    gachaPityCount = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_GACHA_PITY_COUNT));
+                    createdAt = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_CREATED_AT));
+                    updatedAt = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseContract.PlayerData.COLUMN_UPDATED_AT));
+                } catch (Exception e) {
+                    Log.e(TAG, "Error cargando PlayerData desde cursor", e);
+                }
+            }
+
+            public PlayerData build() {
+                return new PlayerData(this);
+            }
+        }
     }
 
     /**
@@ -1,28 +1,54 @@
 package com.by.soh.managers;
 
+import android.content.ContentValues;
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.by.soh.constants.GameConstants;
+import com.by.soh.database.DatabaseContract;
+import com.by.soh.database.DatabaseSnapshot;
+import com.by.soh.database.DirtyTracker;
 import com.by.soh.database.GameDatabaseHelper;
+import com.by.soh.utils.AtomicFileWriter;
+import com.by.soh.utils.BinarySaveReader;
+import com.by.soh.utils.BinarySaveWriter;
+import com.by.soh.utils.BlockCompressor;
+import com.by.soh.utils.FileChecksums;
+import com.by.soh.utils.NoOpCodec;
+import com.by.soh.utils.SaveCodec;
+import com.by.soh.utils.SaveCodecs;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Manager para el sistema de guardado del juego
@@ -40,18 +66,54 @@ public class SaveGameManager {
     private GameDatabaseHelper dbHelper;
     private SharedPreferences preferences;
 
-    // Auto-save
-    private ScheduledExecutorService autoSaveExecutor;
+    // Auto-save (temporizador en el hilo principal, donde viven los managers)
+    private final Runnable autoSaveTick = this::onAutoSaveTick;
+
+    // Backups deduplicados
+    private BackupStore backupStore;
+
+    // Compresión de guardados y trozos de backup
+    private SaveCodec saveCodec;
+    private final ExecutorService compressionExecutor;
+
+    // Guardado incremental
+    private DirtyTracker dirtyTracker;
+    private SaveJournal saveJournal;
+    private long journalBaseTimestamp;
+
+    // Escritura de guardados en segundo plano
+    private SavePipeline savePipeline;
+    private Handler mainHandler;
     private boolean autoSaveEnabled;
     private long lastSaveTime;
     private long lastBackupTime;
 
+    // Telemetría por fases y tamaños de archivo conocidos (sin listar directorios)
+    private final SaveTelemetry telemetry = new SaveTelemetry();
+    private final Map<String, Long> saveFileSizes = new ConcurrentHashMap<>();
+
     // Configuraciones
     private static final String SAVE_DIRECTORY = "saves";
     private static final String BACKUP_DIRECTORY = "backups";
-    private static final int MAX_BACKUPS = 5;
+    private static final String BACKUP_CHECKSUM_SUFFIX = ".crc";
     private static final long BACKUP_INTERVAL = 24 * 60 * 60 * 1000L; // 24 horas
     private static final long AUTO_SAVE_INTERVAL = 60 * 1000L; // 1 minuto
+    private static final String AUTO_SAVE_NAME = "auto_save";
+    private static final String TELEMETRY_FILE = "save_telemetry.txt";
+
+    // Compactación del diario de guardado
+    private static final int JOURNAL_COMPACT_SEGMENTS = 30;
+    private static final long JOURNAL_COMPACT_BYTES = 256 * 1024L;
+
+    // Formato binario de guardado
+    private static final int SAVE_MAGIC = 0x534F4853; // "SOHS"
+    private static final int SAVE_FORMAT_VERSION = 3;
+    private static final int CHECKSUMS_SINCE_VERSION = 2;
+    private static final int SECTIONED_SINCE_VERSION = 3;
+
+    // Compresión por bloques en paralelo (se deja un núcleo libre para la UI)
+    private static final int COMPRESSION_THREADS =
+            Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
 
     // Constructor privado
     private SaveGameManager(Context context) {
@@ -60,8 +122,21 @@ public class SaveGameManager {
         this.preferences = context.getSharedPreferences(GameConstants.PREFS_NAME, Context.MODE_PRIVATE);
         this.lastSaveTime = preferences.getLong(GameConstants.PREF_LAST_SAVE_TIME, 0);
         this.autoSaveEnabled = true;
+        this.savePipeline = new SavePipeline(this::runSaveJob);
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.compressionExecutor = Executors.newFixedThreadPool(COMPRESSION_THREADS);
+        this.saveCodec = loadSaveCodec();
 
         initializeDirectories();
+
+        this.dirtyTracker = dbHelper.getDirtyTracker();
+        this.journalBaseTimestamp = preferences.getLong(GameConstants.PREF_SAVE_JOURNAL_BASE, 0);
+        this.saveJournal = new SaveJournal(
+                new File(context.getFilesDir(), SAVE_DIRECTORY + "/" + AUTO_SAVE_NAME + ".journal"));
+
+        this.backupStore = new BackupStore(new File(context.getFilesDir(), BACKUP_DIRECTORY));
+        savePipeline.execute(this::importLegacyBackups);
+
         startAutoSave();
 
         Log.i(TAG, "SaveGameManager inicializado");
@@ -97,104 +172,221 @@ public class SaveGameManager {
                 Log.d(TAG, "Directorio de backups creado: " + backupDir.getAbsolutePath());
             }
 
+            // Restos de escrituras interrumpidas (el destino quedó intacto)
+            AtomicFileWriter.deleteStaleTempFiles(saveDir);
+            AtomicFileWriter.deleteStaleTempFiles(backupDir);
+
+            // Única pasada por el directorio; después los tamaños se actualizan al escribir
+            File[] files = saveDir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    saveFileSizes.put(file.getName(), file.length());
+                }
+            }
+
         } catch (Exception e) {
             Log.e(TAG, "Error inicializando directorios", e);
         }
     }
 
     /**
-     * Inicia el sistema de auto-guardado
+     * Inicia el sistema de auto-guardado. El temporal corre en el hilo principal para
+     * capturar el estado de los managers en su propio hilo; la escritura va al pipeline
      */
     private void startAutoSave() {
-        if (autoSaveExecutor != null) {
-            autoSaveExecutor.shutdown();
-        }
-
-        autoSaveExecutor = Executors.newSingleThreadScheduledExecutor();
-        autoSaveExecutor.scheduleAtFixedRate(
-                this::performAutoSave,
-                AUTO_SAVE_INTERVAL,
-                AUTO_SAVE_INTERVAL,
-                TimeUnit.MILLISECONDS
-        );
+        mainHandler.removeCallbacks(autoSaveTick);
+        mainHandler.postDelayed(autoSaveTick, AUTO_SAVE_INTERVAL);
 
         Log.d(TAG, "Auto-save iniciado (intervalo: " + AUTO_SAVE_INTERVAL + "ms)");
     }
 
+    private void onAutoSaveTick() {
+        performAutoSave();
+        mainHandler.postDelayed(autoSaveTick, AUTO_SAVE_INTERVAL);
+    }
+
     // ==================== OPERACIONES DE GUARDADO ====================
 
     /**
      * Guarda el juego completo
      */
     public SaveResult saveGame() {
-        return saveGame("auto_save", false);
+        return saveGame(AUTO_SAVE_NAME, false);
     }
 
     /**
-     * Guarda el juego con nombre específico
+     * Guarda el juego con nombre específico y espera al resultado.
+     * El estado se captura en el hilo llamante y se escribe en el hilo del pipeline.
+     * Bloquea hasta terminar la escritura: no se permite desde el hilo principal
+     * (usar saveGameAsync)
      */
     public SaveResult saveGame(String saveName, boolean createBackup) {
-        long startTime = System.currentTimeMillis();
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException("saveGame bloquea el hilo principal; usar saveGameAsync");
+        }
+        Log.i(TAG, "Iniciando guardado: " + saveName);
+
+        SaveResult[] holder = new SaveResult[1];
+        CountDownLatch done = new CountDownLatch(1);
+        if (!submitFullSave(saveName, createBackup, result -> {
+            holder[0] = result;
+            done.countDown();
+        })) {
+            return new SaveResult(false, "Cola de guardado llena", 0);
+        }
 
         try {
-            Log.i(TAG, "Iniciando guardado: " + saveName);
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new SaveResult(false, "Guardado interrumpido", 0);
+        }
+        return holder[0];
+    }
 
-            // Verificar integridad de la base de datos
-            if (!dbHelper.checkDatabaseIntegrity()) {
-                Log.e(TAG, "Integridad de BD comprometida - abortando guardado");
-                return new SaveResult(false, "Integridad de base de datos comprometida", 0);
-            }
+    /**
+     * Guarda sin bloquear al llamante: el estado de los managers se captura aquí y la
+     * base de datos, la codificación y la escritura se hacen en el hilo del pipeline.
+     * El callback (opcional) se entrega en el hilo principal
+     */
+    public void saveGameAsync(String saveName, boolean createBackup, SaveCallback callback) {
+        if (!submitFullSave(saveName, createBackup, result -> deliverResult(callback, result))) {
+            deliverResult(callback, new SaveResult(false, "Cola de guardado llena", 0));
+        }
+    }
 
-            // Crear objeto de guardado
-            SaveData saveData = createSaveData();
+    /**
+     * Captura el estado y encola un guardado completo; false si la cola está llena
+     */
+    private boolean submitFullSave(String saveName, boolean createBackup, SaveCallback callback) {
+        SaveTelemetry.Trace trace = telemetry.startTrace();
+        CapturedState state;
+        try {
+            state = captureState();
+        } catch (Exception e) {
+            Log.e(TAG, "Error capturando estado", e);
+            callback.onSaveComplete(new SaveResult(false, "Error inesperado: " + e.getMessage(), 0));
+            return true;
+        }
+        trace.mark(SaveTelemetry.PHASE_SNAPSHOT);
 
-            // Guardar en archivo
-            boolean success = writeSaveToFile(saveData, saveName);
+        return savePipeline.submit(new SavePipeline.Job(saveName, state, false, createBackup, trace, callback));
+    }
 
-            if (success) {
-                lastSaveTime = System.currentTimeMillis();
-                updateLastSavePreference();
+    /**
+     * Ejecuta un trabajo del pipeline (hilo escritor): solo lee la captura inmutable y la
+     * base de datos, nunca las cachés de los managers
+     */
+    private SaveResult runSaveJob(SavePipeline.Job job) {
+        // El guardado lee la BD: escribir antes los movimientos de monedas pendientes.
+        // Se hace aquí y no al capturar, para no ejecutar la transacción en el hilo principal
+        PlayerDataManager.getInstance(context).flushCurrencyLedger();
 
-                // Crear backup si es necesario
-                if (createBackup || shouldCreateBackup()) {
-                    createBackup(saveName);
-                }
+        if (job.incremental) {
+            return appendDeltaSegment();
+        }
 
-                long duration = System.currentTimeMillis() - startTime;
-                Log.i(TAG, "Guardado completado: " + saveName + " (" + duration + "ms)");
+        SaveTelemetry.Trace trace = job.trace;
+        // La espera en cola cuenta en el total pero no en ninguna fase
+        trace.skip();
 
-                return new SaveResult(true, "Guardado exitoso", duration);
-            } else {
-                return new SaveResult(false, "Error escribiendo archivo", 0);
-            }
+        // Verificar integridad de la base de datos (completa solo al crear backup;
+        // el resto de niveles lo decide el verificador)
+        if (!dbHelper.verifyIntegrity(job.createBackup)) {
+            Log.e(TAG, "Integridad de BD comprometida - abortando guardado");
+            return new SaveResult(false, "Integridad de base de datos comprometida", 0);
+        }
+        trace.mark(SaveTelemetry.PHASE_INTEGRITY);
+
+        // Un guardado completo del auto-save consume los cambios pendientes
+        Map<String, DirtyTracker.DirtyTable> drained =
+                AUTO_SAVE_NAME.equals(job.saveName) ? dirtyTracker.drain() : null;
 
+        SaveData saveData;
+        try {
+            // Snapshot consistente de la BD (una transacción)
+            saveData = createSaveData(job.state);
         } catch (Exception e) {
-            Log.e(TAG, "Error durante el guardado", e);
+            Log.e(TAG, "Error capturando snapshot", e);
+            if (drained != null) dirtyTracker.requeue(drained);
             return new SaveResult(false, "Error inesperado: " + e.getMessage(), 0);
         }
+        trace.mark(SaveTelemetry.PHASE_SNAPSHOT);
+
+        return persistSaveData(saveData, job.saveName, job.createBackup, trace, drained);
     }
 
     /**
-     * Realiza auto-guardado
+     * Escribe un SaveData ya capturado y actualiza el estado de guardado.
+     * drained son los cambios consumidos por un guardado completo del auto-save (o null)
+     */
+    private SaveResult persistSaveData(SaveData saveData, String saveName, boolean createBackup,
+                                       SaveTelemetry.Trace trace, Map<String, DirtyTracker.DirtyTable> drained) {
+        boolean success = writeSaveToFile(saveData, saveName, trace);
+        trace.skip();
+
+        if (success) {
+            lastSaveTime = System.currentTimeMillis();
+            updateLastSavePreference();
+
+            // Nuevo guardado base: el diario anterior ya está incluido
+            if (drained != null) {
+                startNewJournal(saveData.timestamp);
+            }
+
+            // Crear backup si es necesario
+            if (createBackup || shouldCreateBackup()) {
+                createBackup(saveName);
+                trace.mark(SaveTelemetry.PHASE_BACKUP);
+            }
+
+            long duration = trace.finish(SaveTelemetry.PHASE_SAVE_TOTAL);
+            telemetry.record(trace);
+            Log.i(TAG, "Guardado completado: " + saveName + " (" + duration + "ms) " + trace);
+
+            return new SaveResult(true, "Guardado exitoso", duration, trace.toPhaseMap(),
+                    trace.getBytes(SaveTelemetry.PHASE_WRITE));
+        } else {
+            if (drained != null) dirtyTracker.requeue(drained);
+            return new SaveResult(false, "Error escribiendo archivo", 0);
+        }
+    }
+
+    /**
+     * Entrega el resultado de un guardado asíncrono en el hilo principal
+     */
+    private void deliverResult(SaveCallback callback, SaveResult result) {
+        if (callback != null) {
+            mainHandler.post(() -> callback.onSaveComplete(result));
+        }
+    }
+
+    /**
+     * Realiza auto-guardado (hilo principal): sin cambios no hay I/O; con cambios se
+     * encola un segmento del diario, y cuando el diario crece demasiado un guardado
+     * completo. Si el anterior aún no ha terminado no se captura nada nuevo: sus
+     * cambios entrarán en el siguiente
      */
     private void performAutoSave() {
         if (!autoSaveEnabled) return;
 
         try {
-            // Solo hacer auto-save si han pasado suficientes datos
-            long timeSinceLastSave = System.currentTimeMillis() - lastSaveTime;
-            if (timeSinceLastSave < GameConstants.AUTO_SAVE_INTERVAL_MS) {
-                return;
-            }
-
             // Verificar si hay cambios que guardar
-            if (!hasUnsavedChanges()) {
+            if (!hasUnsavedChanges() || savePipeline.isBusy(AUTO_SAVE_NAME)) {
                 return;
             }
 
-            SaveResult result = saveGame("auto_save", false);
-            if (!result.success) {
-                Log.w(TAG, "Auto-save falló: " + result.message);
+            SaveCallback onFailure = result -> {
+                if (!result.success) {
+                    Log.w(TAG, "Auto-save falló: " + result.message);
+                }
+            };
+
+            if (needsFullSave()) {
+                submitFullSave(AUTO_SAVE_NAME, false, onFailure);
+            } else {
+                savePipeline.submit(new SavePipeline.Job(AUTO_SAVE_NAME, null, true, false,
+                        telemetry.startTrace(), onFailure));
             }
 
         } catch (Exception e) {
@@ -202,30 +394,101 @@ public class SaveGameManager {
         }
     }
 
+    /**
+     * Escribe solo las filas modificadas desde el último guardado como segmento del diario
+     */
+    private SaveResult appendDeltaSegment() {
+        SaveTelemetry.Trace trace = telemetry.startTrace();
+        Map<String, DirtyTracker.DirtyTable> drained = dirtyTracker.drain();
+
+        try {
+            DatabaseSnapshot delta = dbHelper.captureDelta(drained);
+            trace.mark(SaveTelemetry.PHASE_SNAPSHOT);
+
+            long previousLength = saveJournal.length();
+            if (!saveJournal.append(journalBaseTimestamp, delta)) {
+                dirtyTracker.requeue(drained);
+                return new SaveResult(false, "Error escribiendo diario", 0);
+            }
+            trace.mark(SaveTelemetry.PHASE_JOURNAL_APPEND);
+            trace.addBytes(SaveTelemetry.PHASE_JOURNAL_APPEND, saveJournal.length() - previousLength);
+            telemetry.record(trace);
+            trackSaveFile(saveJournal.getFile());
+
+            lastSaveTime = System.currentTimeMillis();
+            updateLastSavePreference();
+
+            long duration = trace.getElapsedMillis();
+            Log.d(TAG, "Segmento de diario escrito: " + delta.getTables().size() + " tablas, " +
+                    delta.getTotalRows() + " filas (" + duration + "ms)");
+            return new SaveResult(true, "Guardado incremental", duration, trace.toPhaseMap(),
+                    trace.getBytes(SaveTelemetry.PHASE_JOURNAL_APPEND));
+
+        } catch (Exception e) {
+            dirtyTracker.requeue(drained);
+            throw e;
+        }
+    }
+
+    /**
+     * Indica si toca compactar el diario en un guardado completo
+     */
+    private boolean needsFullSave() {
+        File baseFile = new File(context.getFilesDir(), SAVE_DIRECTORY + "/" + AUTO_SAVE_NAME + ".save");
+        return journalBaseTimestamp == 0 || !baseFile.exists() ||
+                saveJournal.getSegmentCount() >= JOURNAL_COMPACT_SEGMENTS ||
+                saveJournal.length() >= JOURNAL_COMPACT_BYTES;
+    }
+
+    /**
+     * Registra un nuevo guardado base y vacía el diario
+     */
+    private void startNewJournal(long baseTimestamp) {
+        saveJournal.reset();
+        trackSaveFile(saveJournal.getFile());
+        journalBaseTimestamp = baseTimestamp;
+        preferences.edit()
+                .putLong(GameConstants.PREF_SAVE_JOURNAL_BASE, baseTimestamp)
+                .apply();
+    }
+
     // ==================== OPERACIONES DE CARGA ====================
 
     /**
      * Carga el último guardado
      */
     public LoadResult loadGame() {
-        return loadGame("auto_save");
+        return loadGame(AUTO_SAVE_NAME);
     }
 
     /**
      * Carga un guardado específico
      */
     public LoadResult loadGame(String saveName) {
-        long startTime = System.currentTimeMillis();
+        SaveTelemetry.Trace trace = telemetry.startTrace();
 
         try {
             Log.i(TAG, "Iniciando carga: " + saveName);
 
             // Leer archivo de guardado
-            SaveData saveData = readSaveFromFile(saveName);
-            if (saveData == null) {
+            File saveFile = new File(context.getFilesDir(), SAVE_DIRECTORY + "/" + saveName + ".save");
+            if (!saveFile.exists()) {
+                Log.w(TAG, "Archivo de guardado no existe: " + saveName);
                 return new LoadResult(false, "Archivo de guardado no encontrado", 0);
             }
 
+            SaveData saveData = readFullSave(saveFile, trace);
+            boolean fromBackup = false;
+            if (saveData == null) {
+                // Guardado dañado: usar el último backup que verifique
+                saveData = readLatestGoodBackup(saveName);
+                trace.mark(SaveTelemetry.PHASE_READ);
+                if (saveData == null) {
+                    return new LoadResult(false, "Guardado dañado y sin backup válido", 0);
+                }
+                fromBackup = true;
+            }
+
             // Verificar versión de compatibilidad
             if (!isCompatibleVersion(saveData.gameVersion)) {
                 return new LoadResult(false, "Versión incompatible: " + saveData.gameVersion, 0);
@@ -233,15 +496,29 @@ public class SaveGameManager {
 
             // Aplicar datos cargados
             boolean success = applySaveData(saveData);
+            trace.mark(SaveTelemetry.PHASE_APPLY);
+
+            // El auto-save se completa reaplicando los segmentos del diario
+            if (success && AUTO_SAVE_NAME.equals(saveName)) {
+                if (fromBackup) {
+                    // El diario referencia al guardado dañado: forzar un guardado completo
+                    startNewJournal(0);
+                } else {
+                    success = replayJournal(saveData.timestamp);
+                    trace.mark(SaveTelemetry.PHASE_JOURNAL_REPLAY);
+                }
+            }
 
             if (success) {
-                long duration = System.currentTimeMillis() - startTime;
-                Log.i(TAG, "Carga completada: " + saveName + " (" + duration + "ms)");
-
                 // Refrescar managers
                 refreshAllManagers();
 
-                return new LoadResult(true, "Carga exitosa", duration);
+                long duration = trace.finish(SaveTelemetry.PHASE_LOAD_TOTAL);
+                telemetry.record(trace);
+                Log.i(TAG, "Carga completada: " + saveName + " (" + duration + "ms) " + trace);
+
+                return new LoadResult(true, fromBackup ? "Guardado dañado, cargado desde backup" : "Carga exitosa",
+                        duration, trace.toPhaseMap(), trace.getBytes(SaveTelemetry.PHASE_READ));
             } else {
                 return new LoadResult(false, "Error aplicando datos", 0);
             }
@@ -255,30 +532,34 @@ public class SaveGameManager {
     // ==================== SISTEMA DE BACKUPS ====================
 
     /**
-     * Crea un backup del guardado actual
+     * Crea un backup del guardado actual en el almacén deduplicado; solo se escriben
+     * los trozos que cambiaron desde backups anteriores
      */
     public boolean createBackup(String sourceSaveName) {
+        long startTime = System.currentTimeMillis();
         try {
             String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault())
-                    .format(new Date());
+                    .format(new Date(startTime));
             String backupName = sourceSaveName + "_backup_" + timestamp;
 
             File sourceFile = new File(context.getFilesDir(), SAVE_DIRECTORY + "/" + sourceSaveName + ".save");
-            File backupFile = new File(context.getFilesDir(), BACKUP_DIRECTORY + "/" + backupName + ".backup");
 
             if (!sourceFile.exists()) {
                 Log.w(TAG, "Archivo fuente no existe para backup: " + sourceSaveName);
                 return false;
             }
 
-            // Copiar archivo
-            copyFile(sourceFile, backupFile);
+            // Los trozos se calculan sobre el guardado sin comprimir para que deduplicar funcione
+            try (InputStream raw = openRawSave(sourceFile)) {
+                backupStore.add(backupName, sourceSaveName, raw, startTime, saveCodec);
+            }
 
-            // Limpiar backups antiguos
-            cleanOldBackups();
+            // Retención por niveles y limpieza de trozos sin referencias
+            int removed = backupStore.applyRetention();
 
             lastBackupTime = System.currentTimeMillis();
-            Log.i(TAG, "Backup creado: " + backupName);
+            Log.i(TAG, "Backup creado: " + backupName + " en " + (lastBackupTime - startTime) + "ms" +
+                    (removed > 0 ? ", " + removed + " backups expirados" : ""));
 
             return true;
 
@@ -289,32 +570,37 @@ public class SaveGameManager {
     }
 
     /**
-     * Restaura desde un backup
+     * Restaura desde un backup leyéndolo directamente, sin copiarlo antes a un guardado
      */
     public LoadResult restoreFromBackup(String backupName) {
+        long startTime = System.currentTimeMillis();
         try {
             Log.i(TAG, "Restaurando desde backup: " + backupName);
 
-            File backupFile = new File(context.getFilesDir(), BACKUP_DIRECTORY + "/" + backupName + ".backup");
-            if (!backupFile.exists()) {
+            BackupStore.Entry entry = backupStore.getEntry(backupName);
+            if (entry == null) {
                 return new LoadResult(false, "Backup no encontrado", 0);
             }
 
-            // Crear save temporal desde backup
-            File tempSaveFile = new File(context.getFilesDir(), SAVE_DIRECTORY + "/temp_restore.save");
-            copyFile(backupFile, tempSaveFile);
-
-            // Cargar desde el temporal
-            LoadResult result = loadGame("temp_restore");
-
-            // Limpiar temporal
-            tempSaveFile.delete();
-
-            if (result.success) {
-                Log.i(TAG, "Restauración desde backup exitosa");
+            // Se decodifica directamente de los trozos, verificando cada uno
+            SaveData saveData = readStoredBackup(entry);
+            if (saveData == null) {
+                return new LoadResult(false, "Backup dañado o ilegible", 0);
             }
+            if (!isCompatibleVersion(saveData.gameVersion)) {
+                return new LoadResult(false, "Versión incompatible: " + saveData.gameVersion, 0);
+            }
+            if (!applySaveData(saveData)) {
+                return new LoadResult(false, "Error aplicando datos", 0);
+            }
+
+            // El estado ya no corresponde al auto-save + diario: el próximo guardado es completo
+            startNewJournal(0);
+            refreshAllManagers();
 
-            return result;
+            long duration = System.currentTimeMillis() - startTime;
+            Log.i(TAG, "Restauración desde backup exitosa (" + duration + "ms)");
+            return new LoadResult(true, "Restauración exitosa", duration);
 
         } catch (Exception e) {
             Log.e(TAG, "Error restaurando backup", e);
@@ -323,32 +609,20 @@ public class SaveGameManager {
     }
 
     /**
-     * Obtiene lista de backups disponibles
+     * Obtiene lista de backups disponibles (desde el índice en memoria, sin tocar disco)
      */
     public List<BackupInfo> getAvailableBackups() {
         List<BackupInfo> backups = new ArrayList<>();
-
-        try {
-            File backupDir = new File(context.getFilesDir(), BACKUP_DIRECTORY);
-            File[] files = backupDir.listFiles((dir, name) -> name.endsWith(".backup"));
-
-            if (files != null) {
-                for (File file : files) {
-                    BackupInfo info = new BackupInfo();
-                    info.name = file.getName().replace(".backup", "");
-                    info.size = file.length();
-                    info.timestamp = file.lastModified();
-                    info.formattedDate = new SimpleDateFormat("dd/MM/yyyy HH:mm",
-                            Locale.getDefault()).format(new Date(info.timestamp));
-                    backups.add(info);
-                }
-
-                // Ordenar por fecha (más reciente primero)
-                backups.sort((b1, b2) -> Long.compare(b2.timestamp, b1.timestamp));
-            }
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error obteniendo lista de backups", e);
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
+
+        // Ya ordenados por fecha (más reciente primero)
+        for (BackupStore.Entry entry : backupStore.getEntries()) {
+            BackupInfo info = new BackupInfo();
+            info.name = entry.name;
+            info.size = entry.size;
+            info.timestamp = entry.timestamp;
+            info.formattedDate = dateFormat.format(new Date(info.timestamp));
+            backups.add(info);
         }
 
         return backups;
@@ -357,25 +631,36 @@ public class SaveGameManager {
     // ==================== UTILIDADES DE ARCHIVOS ====================
 
     /**
-     * Crea los datos de guardado desde el estado actual
+     * Copia inmutable del estado de los managers. Se llama en el hilo que los usa
+     * (el principal): sus cachés no son seguras entre hilos
+     */
+    private CapturedState captureState() {
+        CapturedState state = new CapturedState();
+        state.capturedAt = System.currentTimeMillis();
+
+        // Datos del jugador (snapshot inmutable: se puede leer desde el hilo escritor)
+        state.playerData = PlayerDataManager.getInstance(context).getPlayerData();
+
+        // Estadísticas del equipamiento
+        state.equipmentStats = EquipmentManager.getInstance(context).getInventoryStats();
+        return state;
+    }
+
+    /**
+     * Crea los datos de guardado a partir de una captura; aquí solo se lee la base de
+     * datos, así que puede ejecutarse en el hilo escritor
      */
-    private SaveData createSaveData() {
+    private SaveData createSaveData(CapturedState state) {
         SaveData saveData = new SaveData();
 
         // Información general
         saveData.gameVersion = GameConstants.GAME_VERSION;
-        saveData.timestamp = System.currentTimeMillis();
-
-        // Datos del jugador
-        PlayerDataManager playerManager = PlayerDataManager.getInstance(context);
-        saveData.playerData = playerManager.getPlayerData();
-
-        // Estadísticas del equipamiento
-        EquipmentManager equipManager = EquipmentManager.getInstance(context);
-        saveData.equipmentStats = equipManager.getInventoryStats();
+        saveData.timestamp = state.capturedAt;
+        saveData.playerData = state.playerData;
+        saveData.equipmentStats = state.equipmentStats;
 
-        // Estadísticas de la base de datos
-        saveData.databaseStats = dbHelper.getDatabaseStats();
+        // Estado completo del jugador, capturado en una única transacción
+        saveData.snapshot = dbHelper.captureSnapshot();
 
         // Hash para verificación de integridad
         saveData.integrityHash = calculateSaveHash(saveData);
@@ -385,17 +670,15 @@ public class SaveGameManager {
     }
 
     /**
-     * Escribe los datos de guardado a archivo
+     * Escribe los datos de guardado a archivo en formato binario (escritura atómica)
      */
-    private boolean writeSaveToFile(SaveData saveData, String saveName) {
+    private boolean writeSaveToFile(SaveData saveData, String saveName, SaveTelemetry.Trace trace) {
         try {
             File saveFile = new File(context.getFilesDir(), SAVE_DIRECTORY + "/" + saveName + ".save");
 
-            JSONObject jsonSave = saveData.toJson();
-
-            FileOutputStream fos = new FileOutputStream(saveFile);
-            fos.write(jsonSave.toString(2).getBytes());
-            fos.close();
+            long syncNanos = writeBinarySave(saveData, saveFile, saveCodec, trace);
+            trace.add(SaveTelemetry.PHASE_FSYNC, syncNanos, 0);
+            trackSaveFile(saveFile);
 
             Log.d(TAG, "Guardado escrito a: " + saveFile.getAbsolutePath());
             return true;
@@ -406,51 +689,292 @@ public class SaveGameManager {
         }
     }
 
+    /**
+     * Escribe el guardado por secciones (cabecera y una sección por tabla), comprimidas
+     * por separado y en paralelo. Devuelve los ns empleados en forzar a disco
+     */
+    private long writeBinarySave(SaveData saveData, File saveFile, SaveCodec codec,
+                                 SaveTelemetry.Trace trace) throws IOException {
+        return AtomicFileWriter.write(saveFile, channel -> SectionedSave.write(channel, SAVE_MAGIC,
+                SAVE_FORMAT_VERSION, saveData, codec, compressionExecutor, trace));
+    }
+
+    /**
+     * Decodifica un guardado binario mapeando el archivo en memoria; devuelve null si no
+     * es binario. En el formato por secciones solo se decodifica la cabecera
+     */
+    private SaveData readBinarySave(File saveFile) throws IOException {
+        try (FileInputStream fis = new FileInputStream(saveFile);
+             FileChannel channel = fis.getChannel()) {
+            // El mapeo sigue siendo válido tras cerrar el canal
+            return readBinarySave(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Decodifica un guardado desde un canal secuencial (backups), cargándolo en memoria
+     */
+    private SaveData readBinarySave(ReadableByteChannel channel) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(BinarySaveWriter.DEFAULT_BUFFER_SIZE);
+        while (channel.read(buffer) >= 0) {
+            output.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+        return readBinarySave(ByteBuffer.wrap(output.toByteArray()));
+    }
+
+    /**
+     * Distingue por magic y versión: contenedor comprimido, guardado por secciones o
+     * flujo de registros de las versiones 1 y 2
+     */
+    private SaveData readBinarySave(ByteBuffer data) throws IOException {
+        if (data.remaining() < 6) {
+            return null;
+        }
+
+        int magic = data.getInt(data.position());
+        if (magic == BlockCompressor.MAGIC) {
+            return readBinarySave(ByteBuffer.wrap(BlockCompressor.read(data, compressionExecutor)));
+        }
+        if (magic != SAVE_MAGIC) {
+            return null;
+        }
+
+        int formatVersion = data.getShort(data.position() + 4) & 0xFFFF;
+        if (formatVersion > SAVE_FORMAT_VERSION) {
+            throw new IOException("Formato de guardado más reciente que el soportado: " + formatVersion);
+        }
+        if (formatVersion >= SECTIONED_SINCE_VERSION) {
+            SaveData saveData = SectionedSave.open(data).getHeader();
+            saveData.checksumVerified = true;
+            return saveData;
+        }
+
+        try (BinarySaveReader reader = new BinarySaveReader(data)) {
+            reader.readHeader(SAVE_MAGIC);
+            if (formatVersion >= CHECKSUMS_SINCE_VERSION) {
+                reader.enableChecksums();
+            }
+
+            SaveData saveData = SaveData.readFrom(reader);
+            saveData.checksumVerified = formatVersion >= CHECKSUMS_SINCE_VERSION;
+            return saveData;
+        }
+    }
+
+    /**
+     * Decodifica (una sola vez) las tablas de un guardado por secciones
+     */
+    private DatabaseSnapshot materializeSnapshot(SaveData saveData) throws IOException {
+        if (saveData.snapshot == null && saveData.sections != null) {
+            saveData.snapshot = saveData.sections.readSnapshot(compressionExecutor);
+        }
+        return saveData.snapshot;
+    }
+
+    /**
+     * Contenido de un guardado para calcular los trozos de backup. Los contenedores
+     * comprimidos enteros se descomprimen; en el formato por secciones cada tabla se
+     * comprime por separado, así que las tablas sin cambios dan los mismos bytes y deduplican
+     */
+    private InputStream openRawSave(File saveFile) throws IOException {
+        try (FileInputStream fis = new FileInputStream(saveFile);
+             FileChannel channel = fis.getChannel()) {
+            if (isBlockCompressed(channel)) {
+                return new ByteArrayInputStream(BlockCompressor.read(
+                        channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), compressionExecutor));
+            }
+        }
+        return new FileInputStream(saveFile);
+    }
+
+    /**
+     * Mira el magic sin mover la posición del canal
+     */
+    private boolean isBlockCompressed(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(4);
+        while (magic.hasRemaining()) {
+            if (channel.read(magic, magic.position()) < 0) return false;
+        }
+        magic.flip();
+        return magic.getInt() == BlockCompressor.MAGIC;
+    }
+
+    /**
+     * Lee un guardado JSON (formato anterior o exportación de debug)
+     */
+    private SaveData readJsonSave(File saveFile) throws IOException, JSONException {
+        byte[] data = new byte[(int) saveFile.length()];
+        try (FileInputStream fis = new FileInputStream(saveFile)) {
+            int offset = 0;
+            while (offset < data.length) {
+                int read = fis.read(data, offset, data.length - offset);
+                if (read < 0) break;
+                offset += read;
+            }
+        }
+        return SaveData.fromJson(new JSONObject(new String(data, StandardCharsets.UTF_8)));
+    }
+
     /**
      * Lee los datos de guardado desde archivo
      */
     private SaveData readSaveFromFile(String saveName) {
+        File saveFile = new File(context.getFilesDir(), SAVE_DIRECTORY + "/" + saveName + ".save");
+
+        if (!saveFile.exists()) {
+            Log.w(TAG, "Archivo de guardado no existe: " + saveName);
+            return null;
+        }
+        return readSaveFile(saveFile);
+    }
+
+    /**
+     * Lee y verifica un archivo de guardado o backup; null si no se puede leer o está dañado.
+     * Los checksums se comprueban registro a registro durante la misma lectura
+     */
+    private SaveData readSaveFile(File saveFile) {
         try {
-            File saveFile = new File(context.getFilesDir(), SAVE_DIRECTORY + "/" + saveName + ".save");
+            SaveData saveData = readBinarySave(saveFile);
+            if (saveData == null) {
+                // Guardados anteriores al formato binario
+                Log.d(TAG, "Guardado en formato JSON: " + saveFile.getName());
+                saveData = readJsonSave(saveFile);
+            }
 
-            if (!saveFile.exists()) {
-                Log.w(TAG, "Archivo de guardado no existe: " + saveName);
-                return null;
+            // Los formatos sin checksums por registro solo tienen el hash antiguo
+            if (!saveData.checksumVerified) {
+                String expectedHash = calculateSaveHash(saveData);
+                if (!expectedHash.equals(saveData.integrityHash)) {
+                    Log.w(TAG, "Hash de integridad no coincide - posible corrupción");
+                    // No fallar completamente, pero loggear warning
+                }
             }
 
-            FileInputStream fis = new FileInputStream(saveFile);
-            byte[] data = new byte[(int) saveFile.length()];
-            fis.read(data);
-            fis.close();
+            Log.d(TAG, "Save leído desde: " + saveFile.getAbsolutePath());
+            return saveData;
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error leyendo save desde archivo: " + saveFile.getName(), e);
+            return null;
+        }
+    }
 
-            String jsonString = new String(data);
-            JSONObject jsonSave = new JSONObject(jsonString);
+    /**
+     * Lee un guardado con todas sus tablas; null si cualquier sección está dañada
+     */
+    private SaveData readFullSave(File saveFile, SaveTelemetry.Trace trace) {
+        SaveData saveData = readSaveFile(saveFile);
+        trace.mark(SaveTelemetry.PHASE_READ);
+        trace.addBytes(SaveTelemetry.PHASE_READ, saveFile.length());
+        if (saveData == null) {
+            return null;
+        }
+        try {
+            materializeSnapshot(saveData);
+            trace.mark(SaveTelemetry.PHASE_DECODE);
+            return saveData;
+        } catch (Exception e) {
+            Log.e(TAG, "Sección dañada en: " + saveFile.getName(), e);
+            return null;
+        }
+    }
 
-            SaveData saveData = SaveData.fromJson(jsonSave);
+    /**
+     * Cabecera de un guardado (jugador, versión, fecha) sin decodificar sus tablas.
+     * Con el formato por secciones no depende del tamaño del guardado
+     */
+    public SaveData getSaveSummary(String saveName) {
+        return readSaveFromFile(saveName);
+    }
 
-            // Verificar integridad
-            String expectedHash = calculateSaveHash(saveData);
-            if (!expectedHash.equals(saveData.integrityHash)) {
-                Log.w(TAG, "Hash de integridad no coincide - posible corrupción");
-                // No fallar completamente, pero loggear warning
+    /**
+     * Busca, del más reciente al más antiguo, el primer backup del guardado que verifique
+     */
+    private SaveData readLatestGoodBackup(String saveName) {
+        for (BackupStore.Entry entry : backupStore.getEntries()) {
+            if (!saveName.equals(entry.saveName)) continue;
+
+            SaveData saveData = readStoredBackup(entry);
+            if (saveData != null) {
+                Log.w(TAG, "Guardado dañado, recuperado desde backup: " + entry.name);
+                return saveData;
             }
+        }
 
-            Log.d(TAG, "Save leído desde: " + saveFile.getAbsolutePath());
-            return saveData;
+        Log.e(TAG, "Ningún backup válido para: " + saveName);
+        return null;
+    }
 
+    /**
+     * Decodifica un backup del almacén; null si algún trozo o registro no verifica
+     */
+    private SaveData readStoredBackup(BackupStore.Entry entry) {
+        try (ReadableByteChannel channel = backupStore.open(entry)) {
+            SaveData saveData = readBinarySave(channel);
+            if (saveData == null) {
+                Log.w(TAG, "Backup sin formato binario: " + entry.name);
+                return null;
+            }
+            materializeSnapshot(saveData);
+            return saveData;
         } catch (Exception e) {
-            Log.e(TAG, "Error leyendo save desde archivo", e);
+            Log.e(TAG, "Error leyendo backup: " + entry.name, e);
             return null;
         }
     }
 
+    /**
+     * Exporta un guardado como JSON legible junto al binario (solo en debug)
+     */
+    public boolean exportSaveAsJson(String saveName) {
+        if (!GameConstants.DEBUG_MODE) {
+            Log.w(TAG, "Exportación JSON solo disponible en modo debug");
+            return false;
+        }
+
+        SaveData saveData = readSaveFromFile(saveName);
+        if (saveData == null) {
+            return false;
+        }
+
+        // Estadísticas de la BD actual: se calculan solo aquí, no en cada guardado
+        saveData.databaseStats = dbHelper.getDatabaseStats();
+
+        File jsonFile = new File(context.getFilesDir(), SAVE_DIRECTORY + "/" + saveName + ".json");
+        try (FileOutputStream fos = new FileOutputStream(jsonFile)) {
+            fos.write(saveData.toJson().toString(2).getBytes(StandardCharsets.UTF_8));
+            trackSaveFile(jsonFile);
+            Log.d(TAG, "Guardado exportado a JSON: " + jsonFile.getAbsolutePath());
+            return true;
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error exportando guardado a JSON", e);
+            return false;
+        }
+    }
+
     /**
      * Aplica los datos cargados al estado del juego
      */
     private boolean applySaveData(SaveData saveData) {
         try {
-            // Los datos ya están en la base de datos, solo necesitamos
-            // refrescar los managers para que recojan los cambios
+            // Los movimientos pendientes son del estado anterior: escribirlos antes de sustituirlo
+            PlayerDataManager.getInstance(context).flushCurrencyLedger();
+
+            DatabaseSnapshot snapshot = materializeSnapshot(saveData);
+            if (snapshot != null) {
+                // Guardado completo: reemplazar el estado del jugador en una transacción
+                if (!dbHelper.restoreSnapshot(snapshot)) {
+                    return false;
+                }
+            } else if (saveData.playerData != null) {
+                // Guardados anteriores solo contenían los datos del jugador
+                if (!dbHelper.updatePlayerData(toContentValues(saveData.playerData))) {
+                    return false;
+                }
+            }
 
             Log.d(TAG, "Datos de guardado aplicados exitosamente");
             return true;
@@ -462,20 +986,76 @@ public class SaveGameManager {
     }
 
     /**
-     * Copia un archivo a otro ubicación
+     * Reaplica en orden los segmentos del diario sobre el guardado base recién cargado
      */
-    private void copyFile(File source, File destination) throws IOException {
-        FileInputStream fis = new FileInputStream(source);
-        FileOutputStream fos = new FileOutputStream(destination);
+    private boolean replayJournal(long baseTimestamp) {
+        List<DatabaseSnapshot> segments = saveJournal.readSegments(baseTimestamp);
+        for (DatabaseSnapshot segment : segments) {
+            if (!dbHelper.applyDelta(segment)) {
+                return false;
+            }
+        }
 
-        byte[] buffer = new byte[1024];
-        int length;
-        while ((length = fis.read(buffer)) > 0) {
-            fos.write(buffer, 0, length);
+        // La BD coincide ahora con lo que hay en disco
+        dirtyTracker.clear();
+        if (!segments.isEmpty()) {
+            Log.d(TAG, "Diario reaplicado: " + segments.size() + " segmentos");
         }
+        return true;
+    }
 
-        fis.close();
-        fos.close();
+    /**
+     * Convierte los datos del jugador de un guardado antiguo en columnas de player_data
+     */
+    private ContentValues toContentValues(PlayerDataManager.PlayerData playerData) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseContract.PlayerData.COLUMN_PLAYER_NAME, playerData.playerName);
+        values.put(DatabaseContract.PlayerData.COLUMN_PLAYER_LEVEL, playerData.playerLevel);
+        values.put(DatabaseContract.PlayerData.COLUMN_PLAYER_EXP, playerData.playerExp);
+        values.put(DatabaseContract.PlayerData.COLUMN_CURRENT_CHAPTER, playerData.currentChapter);
+        values.put(DatabaseContract.PlayerData.COLUMN_CURRENT_STAGE, playerData.currentStage);
+        values.put(DatabaseContract.PlayerData.COLUMN_GOLD, playerData.gold);
+        values.put(DatabaseContract.PlayerData.COLUMN_GEMS, playerData.gems);
+        values.put(DatabaseContract.PlayerData.COLUMN_PVP_COINS, playerData.pvpCoins);
+        values.put(DatabaseContract.PlayerData.COLUMN_GUILD_COINS, playerData.guildCoins);
+        return values;
+    }
+
+    /**
+     * Comprueba un backup de copia completa contra su checksum registrado. Los backups
+     * sin checksum se aceptan (sus registros se verifican igualmente al leerlos)
+     */
+    private boolean verifyBackupChecksum(File backupFile) {
+        File checksumFile = new File(backupFile.getParentFile(), backupFile.getName() + BACKUP_CHECKSUM_SUFFIX);
+        if (!checksumFile.exists()) {
+            return true;
+        }
+
+        try {
+            byte[] content = new byte[(int) checksumFile.length()];
+            try (FileInputStream fis = new FileInputStream(checksumFile)) {
+                int offset = 0;
+                while (offset < content.length) {
+                    int read = fis.read(content, offset, content.length - offset);
+                    if (read < 0) break;
+                    offset += read;
+                }
+            }
+
+            String[] parts = new String(content, StandardCharsets.UTF_8).trim().split(" ");
+            int algorithm = Integer.parseInt(parts[0]);
+            long expected = Long.parseUnsignedLong(parts[1], 16);
+
+            if (FileChecksums.checksum(backupFile, algorithm) != expected) {
+                Log.w(TAG, "Checksum de backup incorrecto: " + backupFile.getName());
+                return false;
+            }
+            return true;
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error verificando backup: " + backupFile.getName(), e);
+            return false;
+        }
     }
 
     // ==================== VERIFICACIONES Y UTILIDADES ====================
@@ -484,9 +1064,7 @@ public class SaveGameManager {
      * Verifica si hay cambios sin guardar
      */
     private boolean hasUnsavedChanges() {
-        // Simple verificación basada en tiempo
-        long timeSinceLastSave = System.currentTimeMillis() - lastSaveTime;
-        return timeSinceLastSave > GameConstants.AUTO_SAVE_INTERVAL_MS;
+        return !dirtyTracker.isClean();
     }
 
     /**
@@ -518,28 +1096,71 @@ public class SaveGameManager {
     }
 
     /**
-     * Limpia backups antiguos manteniendo solo los más recientes
+     * Mueve al almacén deduplicado los backups de copia completa de versiones anteriores.
+     * Se ejecuta en el hilo escritor. Los backups JSON se convierten al formato binario y
+     * el original solo se borra cuando la copia importada se lee bien; los que no pasan
+     * el checksum se conservan tal cual
      */
-    private void cleanOldBackups() {
-        try {
-            File backupDir = new File(context.getFilesDir(), BACKUP_DIRECTORY);
-            File[] files = backupDir.listFiles((dir, name) -> name.endsWith(".backup"));
-
-            if (files != null && files.length > MAX_BACKUPS) {
-                // Ordenar por fecha de modificación (más antiguos primero)
-                java.util.Arrays.sort(files, (f1, f2) -> Long.compare(f1.lastModified(), f2.lastModified()));
+    private void importLegacyBackups() {
+        File backupDir = new File(context.getFilesDir(), BACKUP_DIRECTORY);
+        File[] files = backupDir.listFiles((dir, name) -> name.endsWith(".backup"));
+        if (files == null || files.length == 0) return;
+
+        int imported = 0;
+        for (File file : files) {
+            String name = file.getName().substring(0, file.getName().length() - ".backup".length());
+            int separator = name.indexOf("_backup_");
+            String saveName = separator > 0 ? name.substring(0, separator) : name;
+
+            if (!verifyBackupChecksum(file)) {
+                Log.w(TAG, "Backup anterior conservado sin importar: " + file.getName());
+                continue;
+            }
 
-                // Eliminar los más antiguos
-                for (int i = 0; i < files.length - MAX_BACKUPS; i++) {
-                    if (files[i].delete()) {
-                        Log.d(TAG, "Backup antiguo eliminado: " + files[i].getName());
+            try {
+                if (backupStore.getEntry(name) == null) {
+                    try (InputStream raw = openLegacyBackup(file)) {
+                        backupStore.add(name, saveName, raw, file.lastModified(), saveCodec);
                     }
                 }
+
+                // Borrar el original solo si la copia del almacén se puede restaurar
+                BackupStore.Entry entry = backupStore.getEntry(name);
+                if (entry == null || readStoredBackup(entry) == null) {
+                    backupStore.remove(name);
+                    Log.w(TAG, "Backup importado ilegible, se conserva el original: " + file.getName());
+                    continue;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error importando backup: " + file.getName(), e);
+                continue;
             }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error limpiando backups antiguos", e);
+            file.delete();
+            new File(backupDir, file.getName() + BACKUP_CHECKSUM_SUFFIX).delete();
+            imported++;
         }
+
+        if (imported > 0) {
+            backupStore.applyRetention();
+        }
+        Log.i(TAG, "Backups anteriores importados al almacén: " + imported + "/" + files.length);
+    }
+
+    /**
+     * Contenido sin comprimir de un backup anterior en formato binario; los backups JSON
+     * se convierten antes, ya que los del almacén solo se decodifican como binario
+     */
+    private InputStream openLegacyBackup(File backupFile) throws IOException, JSONException {
+        if (readBinarySave(backupFile) != null) {
+            return openRawSave(backupFile);
+        }
+
+        SaveData saveData = readJsonSave(backupFile);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        SectionedSave.write(Channels.newChannel(encoded), SAVE_MAGIC, SAVE_FORMAT_VERSION, saveData,
+                SaveCodecs.forId(SaveCodecs.NONE), null, null);
+        return new ByteArrayInputStream(encoded.toByteArray());
     }
 
     /**
@@ -558,6 +1179,7 @@ public class SaveGameManager {
         try {
             PlayerDataManager.getInstance(context).refreshPlayerData();
             EquipmentManager.getInstance(context).clearCache();
+            HeroManager.getInstance(context).clearCache();
             Log.d(TAG, "Managers refrescados");
         } catch (Exception e) {
             Log.e(TAG, "Error refrescando managers", e);
@@ -581,6 +1203,36 @@ public class SaveGameManager {
         return autoSaveEnabled;
     }
 
+    /**
+     * Elige el códec de los próximos guardados y backups (ver SaveCodecs).
+     * Los archivos existentes guardan su propio códec y se siguen leyendo igual
+     */
+    public boolean setSaveCodec(int codecId) {
+        try {
+            saveCodec = SaveCodecs.forId(codecId);
+        } catch (IOException e) {
+            Log.w(TAG, "Códec no soportado: " + codecId);
+            return false;
+        }
+        preferences.edit().putInt(GameConstants.PREF_SAVE_CODEC, codecId).apply();
+        Log.d(TAG, "Códec de guardado: " + saveCodec.getName());
+        return true;
+    }
+
+    public int getSaveCodec() {
+        return saveCodec.getId();
+    }
+
+    private SaveCodec loadSaveCodec() {
+        int codecId = preferences.getInt(GameConstants.PREF_SAVE_CODEC, GameConstants.DEFAULT_SAVE_CODEC);
+        try {
+            return SaveCodecs.forId(codecId);
+        } catch (IOException e) {
+            Log.w(TAG, "Códec guardado desconocido, usando el predeterminado: " + codecId);
+            return new NoOpCodec();
+        }
+    }
+
     /**
      * Obtiene el tiempo del último guardado
      */
@@ -620,36 +1272,84 @@ public class SaveGameManager {
         stats.lastSaveTime = lastSaveTime;
         stats.lastBackupTime = lastBackupTime;
 
-        // Archivos
-        File saveDir = new File(context.getFilesDir(), SAVE_DIRECTORY);
-        File backupDir = new File(context.getFilesDir(), BACKUP_DIRECTORY);
-
-        stats.saveFilesCount = saveDir.listFiles() != null ? saveDir.listFiles().length : 0;
-        stats.backupFilesCount = backupDir.listFiles() != null ? backupDir.listFiles().length : 0;
+        // Archivos (tamaños mantenidos al escribir, sin listar directorios)
+        stats.saveFilesCount = saveFileSizes.size();
+        stats.backupFilesCount = backupStore.getEntryCount();
 
         // Tamaños
-        stats.totalSaveSize = calculateDirectorySize(saveDir);
-        stats.totalBackupSize = calculateDirectorySize(backupDir);
+        long totalSaveSize = 0;
+        for (long size : saveFileSizes.values()) {
+            totalSaveSize += size;
+        }
+        stats.totalSaveSize = totalSaveSize;
+        stats.totalBackupSize = backupStore.getStoredSize();
+        stats.backupLogicalSize = backupStore.getLogicalSize();
+
+        // Diario incremental
+        stats.journalSegments = saveJournal.getSegmentCount();
+        stats.journalSize = saveJournal.length();
+        stats.pendingChanges = dirtyTracker.getDirtyTableCount();
+
+        // Pipeline de escritura
+        stats.queuedSaves = savePipeline.getPendingCount();
+        stats.supersededSaves = savePipeline.getSupersededCount();
 
         return stats;
     }
 
     /**
-     * Calcula el tamaño de un directorio
+     * Actualiza el tamaño conocido de un archivo del directorio de guardado
+     */
+    private void trackSaveFile(File file) {
+        if (file.exists()) {
+            saveFileSizes.put(file.getName(), file.length());
+        } else {
+            saveFileSizes.remove(file.getName());
+        }
+    }
+
+    // ==================== TELEMETRÍA ====================
+
+    /**
+     * Percentiles e histograma de cada fase de guardado y carga en la ventana reciente
      */
-    private long calculateDirectorySize(File directory) {
-        long size = 0;
+    public SavePerformanceStats getPerformanceStats() {
+        SavePerformanceStats stats = new SavePerformanceStats();
+        stats.device = String.format("%s %s (API %d, %d núcleos)", Build.MANUFACTURER, Build.MODEL,
+                Build.VERSION.SDK_INT, Runtime.getRuntime().availableProcessors());
+        stats.codec = saveCodec.getName();
+        stats.phases = telemetry.getPhaseStats();
+        return stats;
+    }
+
+    /**
+     * Vuelca el informe de telemetría a un archivo local (files/save_telemetry.txt)
+     */
+    public boolean dumpPerformanceStats() {
+        File dumpFile = new File(context.getFilesDir(), TELEMETRY_FILE);
+        String report = getPerformanceStats() + "\n" + telemetry.formatReport();
+
         try {
-            File[] files = directory.listFiles();
-            if (files != null) {
-                for (File file : files) {
-                    size += file.length();
+            AtomicFileWriter.write(dumpFile, channel -> {
+                ByteBuffer buffer = ByteBuffer.wrap(report.getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
                 }
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error calculando tamaño de directorio", e);
+            });
+            Log.d(TAG, "Telemetría volcada a: " + dumpFile.getAbsolutePath());
+            return true;
+
+        } catch (IOException e) {
+            Log.e(TAG, "Error volcando telemetría", e);
+            return false;
         }
-        return size;
+    }
+
+    /**
+     * Vacía los histogramas (por ejemplo tras cambiar de códec)
+     */
+    public void resetPerformanceStats() {
+        telemetry.reset();
     }
 
     // ==================== CLEANUP ====================
@@ -658,16 +1358,13 @@ public class SaveGameManager {
      * Detiene el sistema de auto-guardado
      */
     public void shutdown() {
-        if (autoSaveExecutor != null) {
-            autoSaveExecutor.shutdown();
-            try {
-                if (!autoSaveExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                    autoSaveExecutor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                autoSaveExecutor.shutdownNow();
-            }
-        }
+        mainHandler.removeCallbacks(autoSaveTick);
+
+        // Terminar los guardados pendientes antes de cerrar
+        savePipeline.shutdown(5000);
+        compressionExecutor.shutdown();
+        PlayerDataManager.getInstance(context).flushCurrencyLedger();
+        dbHelper.getIntegrityVerifier().markCleanShutdown();
         Log.i(TAG, "SaveGameManager finalizado");
     }
 
@@ -677,12 +1374,28 @@ public class SaveGameManager {
      * Datos de guardado
      */
     public static class SaveData {
+        // Tags de registro del formato binario
+        private static final int TAG_INFO = 1;
+        private static final int TAG_PLAYER_DATA = 2;
+        private static final int TAG_EQUIPMENT_STATS = 3;
+        private static final int TAG_DATABASE_STATS = 4;
+        private static final int TAG_TABLE = 5;
+        private static final int TAG_DELTA_TABLE = 6;
+
         public String gameVersion;
         public long timestamp;
         public PlayerDataManager.PlayerData playerData;
         public EquipmentManager.EquipmentInventoryStats equipmentStats;
+        // Solo en la exportación de debug (los guardados anteriores pueden traerlas)
         public String databaseStats;
         public String integrityHash;
+        public DatabaseSnapshot snapshot;
+
+        // Leído con checksums por registro verificados (no se serializa)
+        transient boolean checksumVerified;
+
+        // Tablas pendientes de decodificar (formato por secciones)
+        transient SectionedSave sections;
 
         public JSONObject toJson() throws JSONException {
             JSONObject json = new JSONObject();
@@ -705,6 +1418,10 @@ public class SaveGameManager {
                 json.put("playerData", playerJson);
             }
 
+            if (databaseStats != null) {
+                json.put("databaseStats", databaseStats);
+            }
+
             return json;
         }
 
@@ -714,17 +1431,254 @@ public class SaveGameManager {
             saveData.timestamp = json.getLong("timestamp");
             saveData.integrityHash = json.optString("integrityHash", "");
 
-            // Aquí podrías expandir la deserialización según necesites
+            JSONObject playerJson = json.optJSONObject("playerData");
+            if (playerJson != null) {
+                PlayerDataManager.PlayerData.Builder player = new PlayerDataManager.PlayerData.Builder();
+                player.playerName = playerJson.optString("playerName");
+                player.playerLevel = playerJson.optInt("playerLevel");
+                player.playerExp = playerJson.optLong("playerExp");
+                player.currentChapter = playerJson.optInt("currentChapter");
+                player.currentStage = playerJson.optInt("currentStage");
+                player.gold = playerJson.optLong("gold");
+                player.gems = playerJson.optInt("gems");
+                player.pvpCoins = playerJson.optInt("pvpCoins");
+                player.guildCoins = playerJson.optInt("guildCoins");
+                saveData.playerData = player.build();
+            }
 
             return saveData;
         }
 
+        /**
+         * Codifica la cabecera del guardado (todo salvo las tablas) como registros binarios
+         */
+        public void writeHeaderTo(BinarySaveWriter writer) throws IOException {
+            writer.beginRecord(TAG_INFO);
+            writer.writeString(gameVersion);
+            writer.writeLong(timestamp);
+            writer.writeString(integrityHash);
+            writer.endRecord();
+
+            if (playerData != null) {
+                writer.beginRecord(TAG_PLAYER_DATA);
+                writer.writeString(playerData.playerName);
+                writer.writeInt(playerData.playerLevel);
+                writer.writeLong(playerData.playerExp);
+                writer.writeInt(playerData.currentChapter);
+                writer.writeInt(playerData.currentStage);
+                writer.writeLong(playerData.gold);
+                writer.writeInt(playerData.gems);
+                writer.writeInt(playerData.pvpCoins);
+                writer.writeInt(playerData.guildCoins);
+                writer.writeLong(playerData.lastAfkTime);
+                writer.writeLong(playerData.totalPlayTime);
+                writer.writeInt(playerData.gachaPityCount);
+                writer.writeLong(playerData.createdAt);
+                writer.writeLong(playerData.updatedAt);
+                writer.endRecord();
+            }
+
+            if (equipmentStats != null) {
+                writer.beginRecord(TAG_EQUIPMENT_STATS);
+                writer.writeInt(equipmentStats.totalItems);
+                writer.writeInt(equipmentStats.equippedItems);
+                writer.writeInt(equipmentStats.lockedItems);
+                writer.writeLong(equipmentStats.totalPower);
+                writer.writeIntArray(equipmentStats.rarityCount);
+                writer.writeIntArray(equipmentStats.typeCount);
+                writer.endRecord();
+            }
+
+            if (databaseStats != null) {
+                writer.beginRecord(TAG_DATABASE_STATS);
+                writer.writeString(databaseStats);
+                writer.endRecord();
+            }
+        }
+
+        /**
+         * Codifica una tabla: nombre, columnas y filas con un byte de tipo por valor.
+         * Las tablas parciales (deltas del diario) añaden los ids borrados al final
+         */
+        static void writeTable(BinarySaveWriter writer, DatabaseSnapshot.TableImage table) throws IOException {
+            writer.beginRecord(table.fullTable ? TAG_TABLE : TAG_DELTA_TABLE);
+            writer.writeString(table.name);
+            writer.writeInt(table.columns.length);
+            for (String column : table.columns) {
+                writer.writeString(column);
+            }
+
+            writer.writeInt(table.rows.size());
+            for (Object[] row : table.rows) {
+                for (Object value : row) {
+                    if (value == null) {
+                        writer.writeByte(DatabaseSnapshot.TYPE_NULL);
+                    } else if (value instanceof Long) {
+                        writer.writeByte(DatabaseSnapshot.TYPE_INTEGER);
+                        writer.writeLong((Long) value);
+                    } else if (value instanceof Double) {
+                        writer.writeByte(DatabaseSnapshot.TYPE_FLOAT);
+                        writer.writeDouble((Double) value);
+                    } else if (value instanceof byte[]) {
+                        writer.writeByte(DatabaseSnapshot.TYPE_BLOB);
+                        writer.writeBytes((byte[]) value);
+                    } else {
+                        writer.writeByte(DatabaseSnapshot.TYPE_STRING);
+                        writer.writeString(value.toString());
+                    }
+                }
+            }
+
+            if (!table.fullTable) {
+                writer.writeInt(table.deletedIds.length);
+                for (long rowId : table.deletedIds) {
+                    writer.writeLong(rowId);
+                }
+            }
+            writer.endRecord();
+        }
+
+        /**
+         * Decodifica un registro de tabla completa o parcial; null si el tag no es de tabla
+         */
+        static DatabaseSnapshot.TableImage readTable(BinarySaveReader reader, int tag) throws IOException {
+            if (tag != TAG_TABLE && tag != TAG_DELTA_TABLE) {
+                return null;
+            }
+
+            String name = reader.readString();
+            String[] columns = new String[reader.readInt()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = reader.readString();
+            }
+
+            int rowCount = reader.readInt();
+            List<Object[]> rows = new ArrayList<>(rowCount);
+            for (int r = 0; r < rowCount; r++) {
+                Object[] row = new Object[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    switch (reader.readByte()) {
+                        case DatabaseSnapshot.TYPE_INTEGER:
+                            row[i] = reader.readLong();
+                            break;
+                        case DatabaseSnapshot.TYPE_FLOAT:
+                            row[i] = reader.readDouble();
+                            break;
+                        case DatabaseSnapshot.TYPE_STRING:
+                            row[i] = reader.readString();
+                            break;
+                        case DatabaseSnapshot.TYPE_BLOB:
+                            row[i] = reader.readBytes();
+                            break;
+                        default:
+                            row[i] = null;
+                            break;
+                    }
+                }
+                rows.add(row);
+            }
+
+            if (tag == TAG_TABLE) {
+                return new DatabaseSnapshot.TableImage(name, columns, rows);
+            }
+
+            long[] deletedIds = new long[reader.readInt()];
+            for (int i = 0; i < deletedIds.length; i++) {
+                deletedIds[i] = reader.readLong();
+            }
+            return new DatabaseSnapshot.TableImage(name, columns, rows, false, deletedIds);
+        }
+
+        /**
+         * Decodifica los registros binarios campo a campo; los tags desconocidos
+         * y los campos añadidos en versiones posteriores se saltan
+         */
+        public static SaveData readFrom(BinarySaveReader reader) throws IOException {
+            SaveData saveData = new SaveData();
+            List<DatabaseSnapshot.TableImage> tables = new ArrayList<>();
+
+            int tag;
+            while ((tag = reader.nextRecord()) != BinarySaveWriter.TAG_END) {
+                switch (tag) {
+                    case TAG_INFO:
+                        saveData.gameVersion = reader.readString();
+                        saveData.timestamp = reader.readLong();
+                        saveData.integrityHash = reader.readString();
+                        break;
+
+                    case TAG_PLAYER_DATA:
+                        PlayerDataManager.PlayerData.Builder player = new PlayerDataManager.PlayerData.Builder();
+                        player.playerName = reader.readString();
+                        player.playerLevel = reader.readInt();
+                        player.playerExp = reader.readLong();
+                        player.currentChapter = reader.readInt();
+                        player.currentStage = reader.readInt();
+                        player.gold = reader.readLong();
+                        player.gems = reader.readInt();
+                        player.pvpCoins = reader.readInt();
+                        player.guildCoins = reader.readInt();
+                        player.lastAfkTime = reader.readLong();
+                        player.totalPlayTime = reader.readLong();
+                        player.gachaPityCount = reader.readInt();
+                        player.createdAt = reader.readLong();
+                        player.updatedAt = reader.readLong();
+                        saveData.playerData = player.build();
+                        break;
+
+                    case TAG_EQUIPMENT_STATS:
+                        EquipmentManager.EquipmentInventoryStats stats = new EquipmentManager.EquipmentInventoryStats();
+                        stats.totalItems = reader.readInt();
+                        stats.equippedItems = reader.readInt();
+                        stats.lockedItems = reader.readInt();
+                        stats.totalPower = reader.readLong();
+                        stats.rarityCount = reader.readIntArray();
+                        stats.typeCount = reader.readIntArray();
+                        saveData.equipmentStats = stats;
+                        break;
+
+                    case TAG_DATABASE_STATS:
+                        saveData.databaseStats = reader.readString();
+                        break;
+
+                    case TAG_TABLE:
+                        tables.add(readTable(reader, tag));
+                        break;
+
+                    default:
+                        // Registro desconocido: nextRecord() lo salta
+                        break;
+                }
+            }
+
+            if (!tables.isEmpty()) {
+                saveData.snapshot = new DatabaseSnapshot(saveData.timestamp, tables);
+            }
+            return saveData;
+        }
+
         @Override
         public String toString() {
-            return String.format("SaveData{version='%s', timestamp=%d}", gameVersion, timestamp);
+            return String.format("SaveData{version='%s', timestamp=%d, rows=%d}", gameVersion, timestamp,
+                    snapshot != null ? snapshot.getTotalRows() : 0);
         }
     }
 
+    /**
+     * Estado de los managers capturado en su hilo para un guardado en segundo plano
+     */
+    static class CapturedState {
+        long capturedAt;
+        PlayerDataManager.PlayerData playerData;
+        EquipmentManager.EquipmentInventoryStats equipmentStats;
+    }
+
+    /**
+     * Callback de guardado asíncrono (se invoca en el hilo principal)
+     */
+    public interface SaveCallback {
+        void onSaveComplete(SaveResult result);
+    }
+
     /**
      * Resultado de operación de guardado
      */
@@ -732,17 +1686,26 @@ public class SaveGameManager {
         public final boolean success;
         public final String message;
         public final long duration;
+        public final Map<String, Long> phaseMicros; // fase -> µs (vacío si falló)
+        public final long bytesWritten;
 
         public SaveResult(boolean success, String message, long duration) {
+            this(success, message, duration, new LinkedHashMap<>(), 0);
+        }
+
+        public SaveResult(boolean success, String message, long duration,
+                          Map<String, Long> phaseMicros, long bytesWritten) {
             this.success = success;
             this.message = message;
             this.duration = duration;
+            this.phaseMicros = phaseMicros;
+            this.bytesWritten = bytesWritten;
         }
 
         @Override
         public String toString() {
-            return String.format("SaveResult{success=%b, message='%s', duration=%dms}",
-                    success, message, duration);
+            return String.format("SaveResult{success=%b, message='%s', duration=%dms, bytes=%d, phases=%s}",
+                    success, message, duration, bytesWritten, phaseMicros);
         }
     }
 
@@ -753,17 +1716,26 @@ public class SaveGameManager {
         public final boolean success;
         public final String message;
         public final long duration;
+        public final Map<String, Long> phaseMicros; // fase -> µs (vacío si falló)
+        public final long bytesRead;
 
         public LoadResult(boolean success, String message, long duration) {
+            this(success, message, duration, new LinkedHashMap<>(), 0);
+        }
+
+        public LoadResult(boolean success, String message, long duration,
+                          Map<String, Long> phaseMicros, long bytesRead) {
             this.success = success;
             this.message = message;
             this.duration = duration;
+            this.phaseMicros = phaseMicros;
+            this.bytesRead = bytesRead;
         }
 
         @Override
         public String toString() {
-            return String.format("LoadResult{success=%b, message='%s', duration=%dms}",
-                    success, message, duration);
+            return String.format("LoadResult{success=%b, message='%s', duration=%dms, bytes=%d, phases=%s}",
+                    success, message, duration, bytesRead, phaseMicros);
         }
     }
 
@@ -794,12 +1766,54 @@ public class SaveGameManager {
         public int backupFilesCount;
         public long totalSaveSize;
         public long totalBackupSize;
+        public long backupLogicalSize;
+        public int journalSegments;
+        public long journalSize;
+        public int pendingChanges;
+        public int queuedSaves;
+        public int supersededSaves;
+
+        @Override
+        public String toString() {
+            return String.format("SaveSystemStats{autoSave=%b, saves=%d, backups=%d (%dKB stored/%dKB logical), totalSize=%dKB, journal=%d segs/%dKB, dirtyTables=%d, queued=%d, superseded=%d}",
+                    autoSaveEnabled, saveFilesCount, backupFilesCount, totalBackupSize / 1024, backupLogicalSize / 1024,
+                    (totalSaveSize + totalBackupSize) / 1024, journalSegments, journalSize / 1024, pendingChanges,
+                    queuedSaves, supersededSaves);
+        }
+    }
+
+    /**
+     * Resumen de una fase en la ventana móvil de telemetría
+     */
+    public static class PhaseStats {
+        public String phase;
+        public int samples;
+        public long totalCount;
+        public long totalBytes;
+        public long avgMicros;
+        public long p50Micros;
+        public long p95Micros;
+        public long maxMicros;
+        public int[] buckets; // muestras por cubeta: la cubeta i cubre hasta 2^i µs
+
+        @Override
+        public String toString() {
+            return String.format("%s{n=%d, avg=%dµs, p50=%dµs, p95=%dµs, max=%dµs, bytes=%d}",
+                    phase, samples, avgMicros, p50Micros, p95Micros, maxMicros, totalBytes);
+        }
+    }
+
+    /**
+     * Telemetría de guardado y carga del dispositivo actual
+     */
+    public static class SavePerformanceStats {
+        public String device;
+        public String codec;
+        public List<PhaseStats> phases;
 
         @Override
         public String toString() {
-            return String.format("SaveSystemStats{autoSave=%b, saves=%d, backups=%d, totalSize=%dKB}",
-                    autoSaveEnabled, saveFilesCount, backupFilesCount,
-                    (totalSaveSize + totalBackupSize) / 1024);
+            return String.format("SavePerformanceStats{device='%s', codec=%s, phases=%s}", device, codec, phases);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,212 @@
+package com.by.soh.managers;
+
+import android.util.Log;
+
+import com.by.soh.database.DatabaseSnapshot;
+import com.by.soh.utils.BinarySaveReader;
+import com.by.soh.utils.BinarySaveWriter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Diario de guardado incremental
+ * Cada auto-save con cambios añade al final un segmento con solo las filas modificadas
+ * desde el último segmento. Los segmentos referencian el timestamp del guardado completo
+ * sobre el que se aplican; al compactar se escribe un guardado completo y se vacía el diario
+ */
+class SaveJournal {
+
+    private static final String TAG = "SaveJournal";
+
+    private static final int JOURNAL_MAGIC = 0x534F484A; // "SOHJ"
+    private static final int JOURNAL_FORMAT_VERSION = 2;
+    private static final int CHECKSUMS_SINCE_VERSION = 2;
+    private static final int TAG_SEGMENT_INFO = 1;
+
+    private final File file;
+    private int segmentCount;
+
+    SaveJournal(File file) {
+        this.file = file;
+        this.segmentCount = recover();
+    }
+
+    // ==================== ESCRITURA ====================
+
+    /**
+     * Añade un segmento con los cambios capturados. Devuelve false si falla la escritura
+     */
+    synchronized boolean append(long baseTimestamp, DatabaseSnapshot delta) {
+        long previousLength = file.length();
+
+        try (FileOutputStream fos = new FileOutputStream(file, true);
+             FileChannel channel = fos.getChannel();
+             BinarySaveWriter writer = new BinarySaveWriter(channel)) {
+
+            writer.writeHeader(JOURNAL_MAGIC, JOURNAL_FORMAT_VERSION);
+            writer.enableChecksums(BinarySaveWriter.preferredChecksum());
+
+            writer.beginRecord(TAG_SEGMENT_INFO);
+            writer.writeLong(baseTimestamp);
+            writer.writeLong(delta.getCapturedAt());
+            writer.endRecord();
+
+            for (DatabaseSnapshot.TableImage table : delta.getTables()) {
+                SaveGameManager.SaveData.writeTable(writer, table);
+            }
+            writer.finish();
+            channel.force(false);
+
+            segmentCount++;
+            return true;
+
+        } catch (IOException e) {
+            Log.e(TAG, "Error añadiendo segmento al diario", e);
+            truncate(previousLength);
+            return false;
+        }
+    }
+
+    /**
+     * Vacía el diario (tras escribir un guardado completo)
+     */
+    synchronized void reset() {
+        if (file.exists() && !file.delete()) {
+            truncate(0);
+        }
+        segmentCount = 0;
+    }
+
+    // ==================== LECTURA ====================
+
+    /**
+     * Lee en orden los segmentos que corresponden al guardado base indicado
+     */
+    synchronized List<DatabaseSnapshot> readSegments(long baseTimestamp) {
+        List<DatabaseSnapshot> segments = new ArrayList<>();
+        if (!file.exists()) {
+            return segments;
+        }
+
+        try (FileInputStream fis = new FileInputStream(file);
+             BinarySaveReader reader = new BinarySaveReader(fis.getChannel())) {
+
+            while (!reader.isAtEnd()) {
+                Segment segment = readSegment(reader);
+                if (segment == null) break;
+
+                if (segment.baseTimestamp == baseTimestamp) {
+                    segments.add(segment.delta);
+                } else {
+                    Log.w(TAG, "Segmento de otro guardado base ignorado");
+                }
+            }
+
+        } catch (IOException e) {
+            // Segmento final incompleto: se conservan los anteriores
+            Log.w(TAG, "Diario truncado, " + segments.size() + " segmentos válidos", e);
+        }
+
+        return segments;
+    }
+
+    synchronized int getSegmentCount() {
+        return segmentCount;
+    }
+
+    long length() {
+        return file.length();
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    /**
+     * Decodifica un segmento; null si la cabecera no es válida.
+     * Un checksum incorrecto lanza IOException (segmento dañado o a medio escribir)
+     */
+    private Segment readSegment(BinarySaveReader reader) throws IOException {
+        int version = reader.readHeader(JOURNAL_MAGIC);
+        if (version < 1 || version > JOURNAL_FORMAT_VERSION) {
+            return null;
+        }
+        if (version >= CHECKSUMS_SINCE_VERSION) {
+            reader.enableChecksums();
+        }
+
+        Segment segment = new Segment();
+        long capturedAt = 0;
+        List<DatabaseSnapshot.TableImage> tables = new ArrayList<>();
+
+        int tag;
+        while ((tag = reader.nextRecord()) != BinarySaveWriter.TAG_END) {
+            if (tag == TAG_SEGMENT_INFO) {
+                segment.baseTimestamp = reader.readLong();
+                capturedAt = reader.readLong();
+            } else {
+                DatabaseSnapshot.TableImage table = SaveGameManager.SaveData.readTable(reader, tag);
+                if (table != null) {
+                    tables.add(table);
+                }
+            }
+        }
+
+        segment.delta = new DatabaseSnapshot(capturedAt, tables);
+        return segment;
+    }
+
+    /**
+     * Recorre el diario al abrirlo y corta un posible segmento final a medio escribir,
+     * para que los siguientes segmentos se añadan tras el último válido
+     */
+    private int recover() {
+        if (!file.exists()) {
+            return 0;
+        }
+
+        int count = 0;
+        long validLength = 0;
+        try (FileInputStream fis = new FileInputStream(file);
+             BinarySaveReader reader = new BinarySaveReader(fis.getChannel())) {
+
+            while (!reader.isAtEnd()) {
+                if (readSegment(reader) == null) break;
+                count++;
+                validLength = reader.getPosition();
+            }
+
+        } catch (IOException e) {
+            Log.w(TAG, "Segmento final incompleto en el diario", e);
+        }
+
+        if (validLength < file.length()) {
+            truncate(validLength);
+        }
+        return count;
+    }
+
+    private void truncate(long length) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        } catch (IOException e) {
+            Log.e(TAG, "Error truncando el diario", e);
+        }
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    private static class Segment {
+        long baseTimestamp;
+        DatabaseSnapshot delta;
+    }
+}
@@ -0,0 +1,201 @@
+package com.by.soh.managers;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Etapa de escritura de guardados en segundo plano
+ * El estado de los managers se captura en su hilo (el principal) y se entrega aquí como
+ * trabajo; un único hilo escritor toma la base de datos, codifica y escribe. Como mucho
+ * hay un trabajo pendiente por guardado: si llega uno nuevo antes de empezar el anterior,
+ * el nuevo lo sustituye (el más reciente gana) y el antiguo no se escribe nunca.
+ * La cola está acotada: con MAX_PENDING guardados distintos en espera se rechazan los
+ * nuevos en lugar de bloquear al llamante
+ */
+class SavePipeline {
+
+    private static final String TAG = "SavePipeline";
+
+    private static final int MAX_PENDING = 4;
+
+    /**
+     * Escritura de un trabajo (se ejecuta en el hilo escritor)
+     */
+    interface JobRunner {
+        SaveGameManager.SaveResult run(Job job);
+    }
+
+    private final JobRunner runner;
+    private final ExecutorService writerExecutor;
+
+    // Trabajos en espera por nombre de guardado, en orden de llegada
+    private final Map<String, Job> pending = new LinkedHashMap<>();
+    private String running;
+    private boolean draining;
+    private int supersededCount;
+    private int rejectedCount;
+
+    SavePipeline(JobRunner runner) {
+        this.runner = runner;
+        this.writerExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    // ==================== ENTRADA ====================
+
+    /**
+     * Encola un trabajo. Si ya había uno pendiente para el mismo guardado se fusionan:
+     * gana el estado más reciente y un guardado completo sustituye a uno incremental.
+     * Devuelve false si la cola está llena (el callback no se invoca)
+     */
+    synchronized boolean submit(Job job) {
+        Job previous = pending.remove(job.saveName);
+        if (previous != null) {
+            job.absorb(previous);
+            supersededCount++;
+            Log.d(TAG, "Guardado pendiente sustituido por uno más reciente: " + job.saveName);
+        } else if (pending.size() >= MAX_PENDING) {
+            rejectedCount++;
+            Log.w(TAG, "Cola de guardado llena, descartado: " + job.saveName);
+            return false;
+        }
+
+        pending.put(job.saveName, job);
+        if (!draining) {
+            draining = true;
+            writerExecutor.execute(this::drain);
+        }
+        return true;
+    }
+
+    /**
+     * Ejecuta una tarea de mantenimiento en el hilo escritor, en orden con los guardados
+     */
+    void execute(Runnable task) {
+        writerExecutor.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                Log.e(TAG, "Error en tarea del hilo escritor", e);
+            }
+        });
+    }
+
+    /**
+     * Indica si el guardado tiene un trabajo en espera o escribiéndose
+     */
+    synchronized boolean isBusy(String saveName) {
+        return pending.containsKey(saveName) || saveName.equals(running);
+    }
+
+    synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    synchronized int getSupersededCount() {
+        return supersededCount;
+    }
+
+    synchronized int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    // ==================== ESCRITOR ====================
+
+    private void drain() {
+        while (true) {
+            Job job;
+            synchronized (this) {
+                Iterator<Job> iterator = pending.values().iterator();
+                if (!iterator.hasNext()) {
+                    draining = false;
+                    running = null;
+                    return;
+                }
+                job = iterator.next();
+                iterator.remove();
+                running = job.saveName;
+            }
+
+            SaveGameManager.SaveResult result;
+            try {
+                result = runner.run(job);
+            } catch (Exception e) {
+                Log.e(TAG, "Error en trabajo de guardado: " + job.saveName, e);
+                result = new SaveGameManager.SaveResult(false, "Error inesperado: " + e.getMessage(), 0);
+            }
+            job.complete(result);
+        }
+    }
+
+    // ==================== CLEANUP ====================
+
+    /**
+     * Termina los trabajos pendientes (hasta timeoutMs) y detiene el hilo escritor
+     */
+    void shutdown(long timeoutMs) {
+        writerExecutor.shutdown();
+        try {
+            if (!writerExecutor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                writerExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writerExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Guardado pendiente. state es la captura inmutable del estado de los managers
+     * (null en los segmentos incrementales, que solo leen la base de datos)
+     */
+    static class Job {
+        final String saveName;
+        final SaveTelemetry.Trace trace;
+        SaveGameManager.CapturedState state;
+        boolean incremental;
+        boolean createBackup;
+        private final List<SaveGameManager.SaveCallback> callbacks = new ArrayList<>();
+
+        Job(String saveName, SaveGameManager.CapturedState state, boolean incremental, boolean createBackup,
+            SaveTelemetry.Trace trace, SaveGameManager.SaveCallback callback) {
+            this.saveName = saveName;
+            this.state = state;
+            this.incremental = incremental;
+            this.createBackup = createBackup;
+            this.trace = trace;
+            if (callback != null) callbacks.add(callback);
+        }
+
+        /**
+         * Incorpora un trabajo anterior no iniciado: sus callbacks reciben el resultado
+         * del nuevo, y se conserva la petición de backup y de guardado completo
+         */
+        private void absorb(Job previous) {
+            callbacks.addAll(0, previous.callbacks);
+            createBackup |= previous.createBackup;
+            if (!previous.incremental && incremental) {
+                incremental = false;
+                state = previous.state;
+            }
+        }
+
+        /**
+         * Callbacks invocados en el hilo escritor
+         */
+        private void complete(SaveGameManager.SaveResult result) {
+            for (SaveGameManager.SaveCallback callback : callbacks) {
+                callback.onSaveComplete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.by.soh.managers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Telemetría de guardado y carga por fases
+ * Cada operación registra en una traza el tiempo y los bytes de cada fase; al cerrarla
+ * las muestras entran en un histograma móvil por fase (las últimas WINDOW_SIZE muestras,
+ * en cubetas logarítmicas de microsegundos). Sirve para ver qué fase empeora en cada
+ * dispositivo sin conectar un profiler
+ */
+class SaveTelemetry {
+
+    // Fases de guardado
+    static final int PHASE_INTEGRITY = 0;
+    static final int PHASE_SNAPSHOT = 1;
+    static final int PHASE_SERIALIZE = 2;
+    static final int PHASE_COMPRESS = 3;
+    static final int PHASE_WRITE = 4;
+    static final int PHASE_FSYNC = 5;
+    static final int PHASE_BACKUP = 6;
+    static final int PHASE_SAVE_TOTAL = 7;
+    static final int PHASE_JOURNAL_APPEND = 8;
+
+    // Fases de carga
+    static final int PHASE_READ = 9;
+    static final int PHASE_DECODE = 10;
+    static final int PHASE_APPLY = 11;
+    static final int PHASE_JOURNAL_REPLAY = 12;
+    static final int PHASE_LOAD_TOTAL = 13;
+
+    static final String[] PHASE_NAMES = {
+            "integrity", "snapshot", "serialize", "compress", "write", "fsync", "backup", "save_total",
+            "journal_append", "read", "decode", "apply", "journal_replay", "load_total"
+    };
+
+    private static final int PHASE_COUNT = PHASE_NAMES.length;
+    private static final int WINDOW_SIZE = 128;
+    private static final int BUCKET_COUNT = 24; // 1µs .. ~8s en potencias de dos
+
+    private final PhaseHistogram[] histograms = new PhaseHistogram[PHASE_COUNT];
+
+    SaveTelemetry() {
+        for (int i = 0; i < PHASE_COUNT; i++) {
+            histograms[i] = new PhaseHistogram();
+        }
+    }
+
+    // ==================== TRAZAS ====================
+
+    /**
+     * Nueva traza para una operación de guardado o carga
+     */
+    Trace startTrace() {
+        return new Trace();
+    }
+
+    /**
+     * Incorpora las fases medidas en la traza al histograma móvil
+     */
+    void record(Trace trace) {
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            if (trace.measured.get(phase) != 0) {
+                histograms[phase].add(trace.nanos.get(phase), trace.bytes.get(phase));
+            }
+        }
+    }
+
+    // ==================== CONSULTA ====================
+
+    /**
+     * Resumen de cada fase con muestras en la ventana actual
+     */
+    List<SaveGameManager.PhaseStats> getPhaseStats() {
+        List<SaveGameManager.PhaseStats> result = new ArrayList<>();
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            SaveGameManager.PhaseStats stats = histograms[phase].summarize(PHASE_NAMES[phase]);
+            if (stats != null) {
+                result.add(stats);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Informe de texto con percentiles y el histograma de cada fase
+     */
+    String formatReport() {
+        StringBuilder report = new StringBuilder();
+        for (SaveGameManager.PhaseStats stats : getPhaseStats()) {
+            report.append(stats).append('\n');
+            report.append("  buckets(µs<=):");
+            for (int bucket = 0; bucket < stats.buckets.length; bucket++) {
+                if (stats.buckets[bucket] > 0) {
+                    report.append(' ').append(1L << bucket).append('=').append(stats.buckets[bucket]);
+                }
+            }
+            report.append('\n');
+        }
+        return report.toString();
+    }
+
+    void reset() {
+        for (PhaseHistogram histogram : histograms) {
+            histogram.clear();
+        }
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Tiempos y bytes de una operación. Las fases que corren en paralelo (codificación
+     * y compresión por secciones) suman el tiempo de todas sus tareas
+     */
+    static class Trace {
+        private final AtomicLongArray nanos = new AtomicLongArray(PHASE_COUNT);
+        private final AtomicLongArray bytes = new AtomicLongArray(PHASE_COUNT);
+        private final AtomicLongArray measured = new AtomicLongArray(PHASE_COUNT);
+        private final long startedAt = System.nanoTime();
+        private long lastMark = startedAt;
+
+        /**
+         * Asigna a la fase el tiempo transcurrido desde la marca anterior
+         */
+        void mark(int phase) {
+            long now = System.nanoTime();
+            add(phase, now - lastMark, 0);
+            lastMark = now;
+        }
+
+        /**
+         * Reinicia la marca sin asignar el tiempo a ninguna fase
+         */
+        void skip() {
+            lastMark = System.nanoTime();
+        }
+
+        void add(int phase, long elapsedNanos, long byteCount) {
+            nanos.addAndGet(phase, elapsedNanos);
+            bytes.addAndGet(phase, byteCount);
+            measured.set(phase, 1);
+        }
+
+        void addBytes(int phase, long byteCount) {
+            bytes.addAndGet(phase, byteCount);
+        }
+
+        /**
+         * Cierra la traza con el tiempo total en la fase indicada; devuelve los ms
+         */
+        long finish(int totalPhase) {
+            long total = System.nanoTime() - startedAt;
+            add(totalPhase, total, 0);
+            return total / 1_000_000;
+        }
+
+        long getElapsedMillis() {
+            return (System.nanoTime() - startedAt) / 1_000_000;
+        }
+
+        long getBytes(int phase) {
+            return bytes.get(phase);
+        }
+
+        /**
+         * Fases medidas en orden, en microsegundos
+         */
+        Map<String, Long> toPhaseMap() {
+            Map<String, Long> phases = new LinkedHashMap<>();
+            for (int phase = 0; phase < PHASE_COUNT; phase++) {
+                if (measured.get(phase) != 0) {
+                    phases.put(PHASE_NAMES[phase], nanos.get(phase) / 1000);
+                }
+            }
+            return phases;
+        }
+
+        @Override
+        public String toString() {
+            return toPhaseMap().toString();
+        }
+    }
+
+    /**
+     * Ventana circular de muestras con contadores por cubeta mantenidos al entrar
+     * y salir cada muestra
+     */
+    private static class PhaseHistogram {
+        private final long[] samples = new long[WINDOW_SIZE];
+        private final int[] buckets = new int[BUCKET_COUNT];
+        private int next;
+        private int size;
+        private long totalCount;
+        private long totalBytes;
+
+        synchronized void add(long nanos, long byteCount) {
+            if (size == WINDOW_SIZE) {
+                buckets[bucketOf(samples[next])]--;
+            } else {
+                size++;
+            }
+            samples[next] = nanos;
+            buckets[bucketOf(nanos)]++;
+            next = (next + 1) % WINDOW_SIZE;
+            totalCount++;
+            totalBytes += byteCount;
+        }
+
+        synchronized SaveGameManager.PhaseStats summarize(String name) {
+            if (size == 0) return null;
+
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            long sum = 0;
+            for (long sample : sorted) {
+                sum += sample;
+            }
+
+            SaveGameManager.PhaseStats stats = new SaveGameManager.PhaseStats();
+            stats.phase = name;
+            stats.samples = size;
+            stats.totalCount = totalCount;
+            stats.totalBytes = totalBytes;
+            stats.avgMicros = sum / size / 1000;
+            stats.p50Micros = sorted[(size - 1) / 2] / 1000;
+            stats.p95Micros = sorted[(int) Math.ceil(size * 0.95) - 1] / 1000;
+            stats.maxMicros = sorted[size - 1] / 1000;
+            stats.buckets = buckets.clone();
+            return stats;
+        }
+
+        synchronized void clear() {
+            Arrays.fill(buckets, 0);
+            next = 0;
+            size = 0;
+            totalCount = 0;
+            totalBytes = 0;
+        }
+
+        private static int bucketOf(long nanos) {
+            long micros = Math.max(1, nanos / 1000);
+            int bucket = 64 - Long.numberOfLeadingZeros(micros - 1);
+            return Math.min(bucket, BUCKET_COUNT - 1);
+        }
+    }
+}
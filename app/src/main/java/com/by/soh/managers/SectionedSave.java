@@ -0,0 +1,343 @@
+package com.by.soh.managers;
+
+import com.by.soh.database.DatabaseSnapshot;
+import com.by.soh.utils.BinarySaveReader;
+import com.by.soh.utils.BinarySaveWriter;
+import com.by.soh.utils.BlockCompressor;
+import com.by.soh.utils.SaveCodec;
+import com.by.soh.utils.SaveCodecs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.CRC32;
+
+/**
+ * Guardado por secciones con tabla de contenidos al final
+ * Cabecera (magic + versión), secciones, TOC y pie con la posición del TOC.
+ * Cada sección es un flujo de registros independiente y comprimido por separado:
+ * la cabecera del jugador se decodifica al abrir y las tablas solo cuando se piden,
+ * leyendo del archivo mapeado en memoria. Abrir un guardado cuesta lo mismo sea cual
+ * sea el número de filas guardadas
+ */
+class SectionedSave {
+
+    private static final int FOOTER_MAGIC = 0x534F4854; // "SOHT"
+    private static final int FILE_HEADER_SIZE = 4 + 2;
+    private static final int FOOTER_SIZE = 8 + 4 + 4 + 4;
+
+    private static final int KIND_HEADER = 1;
+    private static final int KIND_TABLE = 2;
+
+    private final ByteBuffer data;
+    private final List<Section> sections;
+    private final SaveGameManager.SaveData header;
+
+    private SectionedSave(ByteBuffer data, List<Section> sections) throws IOException {
+        this.data = data;
+        this.sections = sections;
+
+        Section headerSection = null;
+        for (Section section : sections) {
+            if (section.kind == KIND_HEADER) {
+                headerSection = section;
+                break;
+            }
+        }
+        if (headerSection == null) {
+            throw new IOException("Guardado sin sección de cabecera");
+        }
+
+        try (BinarySaveReader reader = openSection(headerSection)) {
+            this.header = SaveGameManager.SaveData.readFrom(reader);
+        }
+        this.header.sections = this;
+    }
+
+    // ==================== ESCRITURA ====================
+
+    /**
+     * Codifica y comprime cada sección en paralelo y escribe el archivo completo.
+     * trace (opcional) recibe los tiempos de codificación, compresión y escritura
+     */
+    static void write(WritableByteChannel out, int magic, int version, SaveGameManager.SaveData saveData,
+                      SaveCodec codec, ExecutorService pool, SaveTelemetry.Trace trace) throws IOException {
+        List<Callable<Section>> tasks = new ArrayList<>();
+        tasks.add(() -> encodeSection(KIND_HEADER, "", codec, saveData::writeHeaderTo, trace));
+        if (saveData.snapshot != null) {
+            for (DatabaseSnapshot.TableImage table : saveData.snapshot.getTables()) {
+                tasks.add(() -> encodeSection(KIND_TABLE, table.name, codec,
+                        writer -> SaveGameManager.SaveData.writeTable(writer, table), trace));
+            }
+        }
+        List<Section> encoded = BlockCompressor.runAll(tasks, pool);
+        long writeStart = System.nanoTime();
+
+        ByteBuffer fileHeader = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        fileHeader.putInt(magic);
+        fileHeader.putShort((short) version);
+        fileHeader.flip();
+        writeFully(out, fileHeader);
+
+        long offset = FILE_HEADER_SIZE;
+        for (Section section : encoded) {
+            section.offset = offset;
+            writeFully(out, ByteBuffer.wrap(section.payload));
+            offset += section.payload.length;
+        }
+
+        byte[] toc = encodeToc(encoded);
+        writeFully(out, ByteBuffer.wrap(toc));
+
+        CRC32 crc = new CRC32();
+        crc.update(toc, 0, toc.length);
+
+        ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+        footer.putLong(offset);
+        footer.putInt(toc.length);
+        footer.putInt((int) crc.getValue());
+        footer.putInt(FOOTER_MAGIC);
+        footer.flip();
+        writeFully(out, footer);
+
+        if (trace != null) {
+            trace.add(SaveTelemetry.PHASE_WRITE, System.nanoTime() - writeStart, offset + toc.length + FOOTER_SIZE);
+        }
+    }
+
+    // ==================== LECTURA ====================
+
+    /**
+     * Abre un guardado por secciones (normalmente un archivo mapeado). Solo lee el TOC
+     * y la sección de cabecera
+     */
+    static SectionedSave open(ByteBuffer file) throws IOException {
+        ByteBuffer data = file.slice();
+        if (data.remaining() < FILE_HEADER_SIZE + FOOTER_SIZE) {
+            throw new IOException("Guardado por secciones truncado");
+        }
+
+        int footerStart = data.limit() - FOOTER_SIZE;
+        long tocOffset = data.getLong(footerStart);
+        int tocLength = data.getInt(footerStart + 8);
+        int tocCrc = data.getInt(footerStart + 12);
+        if (data.getInt(footerStart + 16) != FOOTER_MAGIC) {
+            throw new IOException("Pie de guardado inválido");
+        }
+        if (tocOffset < FILE_HEADER_SIZE || tocLength < 0 || tocOffset + tocLength != footerStart) {
+            throw new IOException("Tabla de contenidos fuera de rango");
+        }
+
+        byte[] toc = new byte[tocLength];
+        ByteBuffer tocView = data.duplicate();
+        tocView.position((int) tocOffset);
+        tocView.get(toc);
+
+        CRC32 crc = new CRC32();
+        crc.update(toc, 0, toc.length);
+        if ((int) crc.getValue() != tocCrc) {
+            throw new IOException("Checksum de la tabla de contenidos incorrecto");
+        }
+
+        return new SectionedSave(data, decodeToc(toc, tocOffset));
+    }
+
+    /**
+     * Datos del jugador e información general, ya decodificados
+     */
+    SaveGameManager.SaveData getHeader() {
+        return header;
+    }
+
+    /**
+     * Nombres de las tablas guardadas, sin decodificarlas
+     */
+    List<String> getTableNames() {
+        List<String> names = new ArrayList<>();
+        for (Section section : sections) {
+            if (section.kind == KIND_TABLE) names.add(section.name);
+        }
+        return names;
+    }
+
+    /**
+     * Decodifica una sola tabla; null si el guardado no la contiene
+     */
+    DatabaseSnapshot.TableImage readTable(String name) throws IOException {
+        for (Section section : sections) {
+            if (section.kind == KIND_TABLE && section.name.equals(name)) {
+                return decodeTable(section);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodifica todas las tablas (en paralelo) respetando el orden guardado
+     */
+    DatabaseSnapshot readSnapshot(ExecutorService pool) throws IOException {
+        List<Callable<DatabaseSnapshot.TableImage>> tasks = new ArrayList<>();
+        for (Section section : sections) {
+            if (section.kind == KIND_TABLE) {
+                tasks.add(() -> decodeTable(section));
+            }
+        }
+        return new DatabaseSnapshot(header.timestamp, BlockCompressor.runAll(tasks, pool));
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    private interface SectionBody {
+        void writeTo(BinarySaveWriter writer) throws IOException;
+    }
+
+    /**
+     * Codifica una sección como flujo de registros con checksums y la comprime.
+     * Si comprimir no reduce el tamaño se guarda tal cual
+     */
+    private static Section encodeSection(int kind, String name, SaveCodec codec, SectionBody body,
+                                         SaveTelemetry.Trace trace) throws IOException {
+        long start = System.nanoTime();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinarySaveWriter writer = new BinarySaveWriter(Channels.newChannel(output));
+        writer.enableChecksums(BinarySaveWriter.preferredChecksum());
+        body.writeTo(writer);
+        writer.finish();
+        byte[] raw = output.toByteArray();
+        long encoded = System.nanoTime();
+
+        Section section = new Section();
+        section.kind = kind;
+        section.name = name;
+        section.rawLength = raw.length;
+        section.codecId = codec.getId();
+        section.payload = codec.compress(raw, 0, raw.length);
+        if (section.codecId != SaveCodecs.NONE && section.payload.length >= raw.length) {
+            section.codecId = SaveCodecs.NONE;
+            section.payload = raw;
+        }
+        section.storedLength = section.payload.length;
+
+        if (trace != null) {
+            trace.add(SaveTelemetry.PHASE_SERIALIZE, encoded - start, raw.length);
+            trace.add(SaveTelemetry.PHASE_COMPRESS, System.nanoTime() - encoded, section.storedLength);
+        }
+        return section;
+    }
+
+    private DatabaseSnapshot.TableImage decodeTable(Section section) throws IOException {
+        try (BinarySaveReader reader = openSection(section)) {
+            int tag;
+            while ((tag = reader.nextRecord()) != BinarySaveWriter.TAG_END) {
+                DatabaseSnapshot.TableImage table = SaveGameManager.SaveData.readTable(reader, tag);
+                if (table != null) return table;
+            }
+        }
+        throw new IOException("Sección sin tabla: " + section.name);
+    }
+
+    /**
+     * Lector sobre el contenido de una sección. Sin compresión lee directamente del
+     * buffer mapeado; comprimida se descomprime primero
+     */
+    private BinarySaveReader openSection(Section section) throws IOException {
+        ByteBuffer stored = data.duplicate();
+        stored.position((int) section.offset);
+        stored.limit((int) section.offset + section.storedLength);
+
+        ByteBuffer raw;
+        if (section.codecId == SaveCodecs.NONE) {
+            raw = stored.slice();
+        } else {
+            byte[] compressed = new byte[section.storedLength];
+            stored.get(compressed);
+            byte[] decompressed = new byte[section.rawLength];
+            SaveCodecs.forId(section.codecId).decompress(compressed, 0, compressed.length,
+                    decompressed, 0, decompressed.length);
+            raw = ByteBuffer.wrap(decompressed);
+        }
+
+        BinarySaveReader reader = new BinarySaveReader(raw);
+        reader.enableChecksums();
+        return reader;
+    }
+
+    private static byte[] encodeToc(List<Section> sections) {
+        int size = 4;
+        List<byte[]> names = new ArrayList<>(sections.size());
+        for (Section section : sections) {
+            byte[] name = section.name.getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            size += 1 + 4 + name.length + 8 + 4 + 4 + 1;
+        }
+
+        ByteBuffer toc = ByteBuffer.allocate(size);
+        toc.putInt(sections.size());
+        for (int i = 0; i < sections.size(); i++) {
+            Section section = sections.get(i);
+            toc.put((byte) section.kind);
+            toc.putInt(names.get(i).length);
+            toc.put(names.get(i));
+            toc.putLong(section.offset);
+            toc.putInt(section.storedLength);
+            toc.putInt(section.rawLength);
+            toc.put((byte) section.codecId);
+        }
+        return toc.array();
+    }
+
+    private static List<Section> decodeToc(byte[] bytes, long tocOffset) throws IOException {
+        ByteBuffer toc = ByteBuffer.wrap(bytes);
+        int count = toc.getInt();
+        List<Section> sections = new ArrayList<>(Math.max(count, 0));
+
+        for (int i = 0; i < count; i++) {
+            Section section = new Section();
+            section.kind = toc.get();
+            byte[] name = new byte[toc.getInt()];
+            toc.get(name);
+            section.name = new String(name, StandardCharsets.UTF_8);
+            section.offset = toc.getLong();
+            section.storedLength = toc.getInt();
+            section.rawLength = toc.getInt();
+            section.codecId = toc.get() & 0xFF;
+
+            if (section.offset < FILE_HEADER_SIZE || section.storedLength < 0 || section.rawLength < 0 ||
+                    section.offset + section.storedLength > tocOffset) {
+                throw new IOException("Sección fuera de rango: " + section.name);
+            }
+            sections.add(section);
+        }
+        return sections;
+    }
+
+    private static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Entrada de la tabla de contenidos
+     */
+    private static class Section {
+        int kind;
+        String name;
+        long offset;
+        int storedLength;
+        int rawLength;
+        int codecId;
+
+        // Solo al escribir
+        byte[] payload;
+    }
+}
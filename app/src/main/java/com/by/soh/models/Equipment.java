@@ -5,6 +5,7 @@ import android.util.Log;
 
 import com.by.soh.constants.EquipmentConstants;
 import com.by.soh.constants.GameConstants;
+import com.by.soh.utils.GameRandom;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -152,16 +153,35 @@ public class Equipment {
         }
 
         // Generar stats aleatorios
+        GameRandom random = GameRandom.stream(GameRandom.STREAM_EQUIPMENT);
         for (int i = 0; i < statsCount && i < availableStats.size(); i++) {
-            int randomIndex = (int) (Math.random() * availableStats.size());
+            int randomIndex = random.nextInt(availableStats.size());
             String statType = availableStats.get(randomIndex);
             availableStats.remove(randomIndex); // Evitar duplicados
 
-            int value = valueRange[0] + (int) (Math.random() * (valueRange[1] - valueRange[0] + 1));
+            int value = random.nextInt(valueRange[0], valueRange[1]);
             this.secondaryStats.add(new SecondaryStat(statType, value));
         }
     }
 
+    /**
+     * Genera valores de stats secundarios aleatorios para una rareza
+     */
+    public static int[] generateRandomSecondaryStats(int rarity) {
+        int count = EquipmentConstants.getSecondaryStatsCount(rarity);
+        if (count == 0) return new int[0];
+
+        int[] stats = new int[count];
+        int[] range = EquipmentConstants.getSecondaryStatRange(rarity);
+
+        GameRandom random = GameRandom.stream(GameRandom.STREAM_EQUIPMENT);
+        for (int i = 0; i < count; i++) {
+            stats[i] = random.nextInt(range[0], range[1]);
+        }
+
+        return stats;
+    }
+
     // ==================== MÉTODOS DE MEJORA ====================
 
     /**
@@ -196,12 +216,13 @@ public class Equipment {
         // Probabilidad de mejora basada en rareza
         float upgradeChance = EquipmentConstants.REJUVE_UPGRADE_CHANCE[this.rarity];
 
-        if (Math.random() < upgradeChance) {
+        GameRandom random = GameRandom.stream(GameRandom.STREAM_EQUIPMENT);
+        if (random.chance(upgradeChance)) {
             // Regenerar stats secundarios con posible mejora
             generateSecondaryStats();
 
             // 25% chance de mejorar valores ligeramente
-            if (Math.random() < 0.25f) {
+            if (random.chance(0.25f)) {
                 for (SecondaryStat stat : this.secondaryStats) {
                     stat.value += 1;
                 }
@@ -438,16 +459,18 @@ public class Equipment {
      * Crea equipamiento aleatorio basado en nivel y rareza
      */
     public static Equipment createRandomEquipment(int minRarity, int maxRarity, int playerLevel) {
+        GameRandom random = GameRandom.stream(GameRandom.STREAM_EQUIPMENT);
+
         // Determinar rareza aleatoria dentro del rango
-        int rarity = minRarity + (int) (Math.random() * (maxRarity - minRarity + 1));
+        int rarity = random.nextInt(minRarity, maxRarity);
 
         // Tipo aleatorio
-        int type = 1 + (int) (Math.random() * 6); // 1-6 tipos de equipment
+        int type = random.nextInt(1, 6); // 1-6 tipos de equipment
 
         // Set aleatorio (70% chance de no tener set)
         int setId = 0;
-        if (Math.random() > 0.7) {
-            setId = 1 + (int) (Math.random() * (EquipmentConstants.SET_NAMES.length - 1));
+        if (random.chance(0.3)) {
+            setId = random.nextInt(1, EquipmentConstants.SET_NAMES.length - 1);
         }
 
         // Stat principal basado en tipo
@@ -455,7 +478,7 @@ public class Equipment {
         int baseStat = EquipmentConstants.getBaseEquipmentStat(type, rarity);
 
         // Variación aleatoria ±10%
-        float variation = 0.9f + (float) (Math.random() * 0.2f);
+        float variation = random.nextFloat(0.9f, 1.1f);
         int mainStatValue = Math.round(baseStat * variation);
 
         return new Equipment(type, rarity, 0, mainStatType, mainStatValue, setId);
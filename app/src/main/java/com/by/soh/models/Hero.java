@@ -11,11 +11,8 @@ import java.util.List;
 public class Hero {
 
     private long id;
-    private String name;
-    private int faction;
-    private int attribute;
-    private int role;
-    private int rarity;
+    // Datos de plantilla compartidos (nombre, facción, rol, rareza...)
+    private HeroTemplate template = HeroTemplate.UNKNOWN;
 
     private int level;
     private int stars;
@@ -27,6 +24,7 @@ public class Hero {
     private int baseDef;
     private int baseSpeed;
     private int baseMagicDef;
+    private int powerRating;
 
     private float critRate;
     private float critDamage;
@@ -52,12 +50,11 @@ public class Hero {
         initializeDefaultStats();
     }
     public Hero(String name, int faction, int attribute, int role, int rarity) {
+        this(HeroTemplate.forRole(name, faction, attribute, role, rarity));
+    }
+    public Hero(HeroTemplate template) {
         this();
-        this.name = name;
-        this.faction = faction;
-        this.attribute = attribute;
-        this.role = role;
-        this.rarity = rarity;
+        this.template = template;
         this.level = 1;
         this.stars = 1;
         this.enhancement = 0;
@@ -73,13 +70,11 @@ public class Hero {
     }
 
     private void initializeBaseStats() {
-        if (role > 0 && role < HeroConstants.BASE_HP_BY_ROLE.length) {
-            this.baseHp = HeroConstants.BASE_HP_BY_ROLE[role];
-            this.baseAtk = HeroConstants.BASE_ATK_BY_ROLE[role];
-            this.baseDef = HeroConstants.BASE_DEF_BY_ROLE[role];
-            this.baseSpeed = HeroConstants.BASE_SPEED_BY_ROLE[role];
-            this.baseMagicDef = HeroConstants.BASE_DEF_MAGIC_BY_ROLE[role];
-        }
+        this.baseHp = template.getBaseHp();
+        this.baseAtk = template.getBaseAtk();
+        this.baseDef = template.getBaseDef();
+        this.baseSpeed = template.getBaseSpeed();
+        this.baseMagicDef = template.getBaseMagicDef();
     }
 
     public boolean isAwakened() {
@@ -96,15 +91,15 @@ public class Hero {
     }
 
     public String getFactionName() {
-        return HeroConstants.getFactionName(this.faction);
+        return HeroConstants.getFactionName(getFaction());
     }
 
     public String getAttributeName() {
-        return HeroConstants.getAttributeName(this.attribute);
+        return HeroConstants.getAttributeName(getAttribute());
     }
 
     public String getRoleName() {
-        return HeroConstants.getRoleName(this.role);
+        return HeroConstants.getRoleName(getRole());
     }
 
     public boolean isFavorite() {
@@ -114,20 +109,17 @@ public class Hero {
     public long getId() { return id; }
     public void setId(long id) { this.id = id; }
 
-    public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
-
-    public int getFaction() { return faction; }
-    public void setFaction(int faction) { this.faction = faction; }
-
-    public int getAttribute() { return attribute; }
-    public void setAttribute(int attribute) { this.attribute = attribute; }
-
-    public int getRole() { return role; }
-    public void setRole(int role) { this.role = role; }
+    public HeroTemplate getTemplate() { return template; }
+    public void setTemplate(HeroTemplate template) {
+        this.template = template != null ? template : HeroTemplate.UNKNOWN;
+    }
 
-    public int getRarity() { return rarity; }
-    public void setRarity(int rarity) { this.rarity = rarity; }
+    public String getTemplateId() { return template.getTemplateId(); }
+    public String getName() { return template.getName(); }
+    public int getFaction() { return template.getFaction(); }
+    public int getAttribute() { return template.getAttribute(); }
+    public int getRole() { return template.getRole(); }
+    public int getRarity() { return template.getRarity(); }
 
     public int getLevel() { return level; }
     public void setLevel(int level) { this.level = Math.max(1, level); }
@@ -160,6 +152,10 @@ public class Hero {
     public int getBaseMagicDef() { return baseMagicDef; }
     public void setBaseMagicDef(int baseMagicDef) { this.baseMagicDef = Math.max(0, baseMagicDef); }
 
+    // Poder guardado en power_rating (se reescribe al mejorar)
+    public int getPowerRating() { return powerRating; }
+    public void setPowerRating(int powerRating) { this.powerRating = Math.max(0, powerRating); }
+
     public float getCritRate() { return critRate; }
     public void setCritRate(float critRate) { this.critRate = Math.max(0.0f, Math.min(1.0f, critRate)); }
 
@@ -205,7 +201,7 @@ public class Hero {
     @Override
     public String toString() {
         return String.format("Hero{id=%d, name='%s', level=%d, enhancement=+%d}",
-                id, name, level, enhancement);
+                id, getName(), level, enhancement);
     }
 
     @Override
@@ -36,6 +36,9 @@ public class HeroSkill {
     private boolean isFavorite;
     private int timesUsed;
 
+    // Definición compartida por todas las copias del héroe (nombre y descripción)
+    private HeroTemplate.SkillDefinition definition;
+
     public HeroSkill() {
         this.maxLevel = 3;
         this.currentLevel = 1;
@@ -64,6 +67,11 @@ public class HeroSkill {
         this.effectType = effectType;
     }
 
+    public HeroSkill(long heroId, HeroTemplate.SkillDefinition definition) {
+        this(heroId, null, definition.getSkillType(), definition.getUnlockRequirement());
+        this.definition = definition;
+    }
+
     private void setupDefaultsByType() {
         switch (skillType) {
             case HeroConstants.SKILL_TYPE_BASIC:
@@ -103,7 +111,7 @@ public class HeroSkill {
 
     @SuppressLint("DefaultLocale")
     public String getFullName() {
-        return String.format("%s Lv.%d", name, currentLevel);
+        return String.format("%s Lv.%d", getName(), currentLevel);
     }
 
     public String getSkillTypeName() {
@@ -121,10 +129,12 @@ public class HeroSkill {
     public long getHeroId() { return heroId; }
     public void setHeroId(long heroId) { this.heroId = heroId; }
 
-    public String getName() { return name; }
+    public String getName() { return name != null || definition == null ? name : definition.getName(); }
     public void setName(String name) { this.name = name; }
 
-    public String getDescription() { return description; }
+    public String getDescription() {
+        return description != null || definition == null ? description : definition.getDescription();
+    }
     public void setDescription(String description) { this.description = description; }
 
     public int getSkillType() { return skillType; }
@@ -205,6 +215,6 @@ public class HeroSkill {
     @Override
     public String toString() {
         return String.format("HeroSkill{id=%d, name='%s', type='%s', level=%d/%d, unlocked=%b}",
-                id, name, getSkillTypeName(), currentLevel, maxLevel, isUnlocked);
+                id, getName(), getSkillTypeName(), currentLevel, maxLevel, isUnlocked);
     }
 }
\ No newline at end of file
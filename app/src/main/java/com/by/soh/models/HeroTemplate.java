@@ -0,0 +1,138 @@
+package com.by.soh.models;
+
+import android.annotation.SuppressLint;
+
+import androidx.annotation.NonNull;
+
+import com.by.soh.constants.GameConstants;
+import com.by.soh.constants.HeroConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Datos de plantilla de un héroe (fila de hero_templates), inmutables
+ * Todas las copias del mismo héroe comparten una única instancia (ver HeroTemplateRegistry);
+ * cada Hero guarda solo sus datos propios (nivel, estrellas, stats escaladas...) y una
+ * referencia a su plantilla
+ */
+public final class HeroTemplate {
+
+    // Plantilla vacía para héroes sin datos de plantilla
+    public static final HeroTemplate UNKNOWN =
+            new HeroTemplate(null, null, 0, 0, 0, 0, 0, 0, 0, 0, 0, new SkillDefinition[0]);
+
+    private final String templateId;
+    private final String name;
+    private final int faction;
+    private final int attribute;
+    private final int role;
+    private final int rarity;
+
+    private final int baseHp;
+    private final int baseAtk;
+    private final int baseDef;
+    private final int baseMagicDef;
+    private final int baseSpeed;
+
+    private final List<SkillDefinition> skills;
+
+    public HeroTemplate(String templateId, String name, int faction, int attribute, int role, int rarity,
+                        int baseHp, int baseAtk, int baseDef, int baseMagicDef, int baseSpeed,
+                        SkillDefinition[] skills) {
+        this.templateId = templateId;
+        this.name = name;
+        this.faction = faction;
+        this.attribute = attribute;
+        this.role = role;
+        this.rarity = rarity;
+        this.baseHp = baseHp;
+        this.baseAtk = baseAtk;
+        this.baseDef = baseDef;
+        this.baseMagicDef = baseMagicDef;
+        this.baseSpeed = baseSpeed;
+        this.skills = Collections.unmodifiableList(Arrays.asList(skills.clone()));
+    }
+
+    /**
+     * Plantilla suelta (sin fila en la BD) con las stats base del rol
+     */
+    public static HeroTemplate forRole(String name, int faction, int attribute, int role, int rarity) {
+        boolean knownRole = role > 0 && role < HeroConstants.BASE_HP_BY_ROLE.length;
+        return new HeroTemplate(null, name, faction, attribute, role, rarity,
+                knownRole ? HeroConstants.BASE_HP_BY_ROLE[role] : 0,
+                knownRole ? HeroConstants.BASE_ATK_BY_ROLE[role] : 0,
+                knownRole ? HeroConstants.BASE_DEF_BY_ROLE[role] : 0,
+                knownRole ? HeroConstants.BASE_DEF_MAGIC_BY_ROLE[role] : 0,
+                knownRole ? HeroConstants.BASE_SPEED_BY_ROLE[role] : 0,
+                new SkillDefinition[0]);
+    }
+
+    /**
+     * Habilidades de un héroe concreto: estado propio (nivel, desbloqueo) y definición compartida
+     */
+    public List<HeroSkill> createSkills(long heroId) {
+        List<HeroSkill> heroSkills = new ArrayList<>(skills.size());
+        for (SkillDefinition definition : skills) {
+            heroSkills.add(new HeroSkill(heroId, definition));
+        }
+        return heroSkills;
+    }
+
+    public String getTemplateId() { return templateId; }
+    public String getName() { return name; }
+    public int getFaction() { return faction; }
+    public int getAttribute() { return attribute; }
+    public int getRole() { return role; }
+    public int getRarity() { return rarity; }
+
+    public int getBaseHp() { return baseHp; }
+    public int getBaseAtk() { return baseAtk; }
+    public int getBaseDef() { return baseDef; }
+    public int getBaseMagicDef() { return baseMagicDef; }
+    public int getBaseSpeed() { return baseSpeed; }
+
+    public List<SkillDefinition> getSkills() { return skills; }
+
+    @NonNull
+    @SuppressLint("DefaultLocale")
+    @Override
+    public String toString() {
+        return String.format("HeroTemplate{id='%s', name='%s', rarity=%d, skills=%d}",
+                templateId, name, rarity, skills.size());
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Definición de una habilidad (igual para todas las copias del héroe)
+     */
+    public static final class SkillDefinition {
+        private final String name;
+        private final String description;
+        private final int skillType;
+        private final int unlockRequirement;
+
+        public SkillDefinition(String name, String description, int skillType) {
+            this.name = name;
+            this.description = description;
+            this.skillType = skillType;
+            this.unlockRequirement = getUnlockEnhancement(skillType);
+        }
+
+        public String getName() { return name; }
+        public String getDescription() { return description; }
+        public int getSkillType() { return skillType; }
+        public int getUnlockRequirement() { return unlockRequirement; }
+
+        private static int getUnlockEnhancement(int skillType) {
+            switch (skillType) {
+                case HeroConstants.SKILL_TYPE_SPECIAL: return GameConstants.SPECIAL_SKILL_UNLOCK_ENHANCEMENT;
+                case HeroConstants.SKILL_TYPE_ULTIMATE: return GameConstants.ULTIMATE_SKILL_UNLOCK_ENHANCEMENT;
+                default: return 0;
+            }
+        }
+    }
+}
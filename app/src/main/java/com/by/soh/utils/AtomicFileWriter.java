@@ -0,0 +1,94 @@
+package com.by.soh.utils;
+
+import android.os.Build;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escritura atómica de archivos
+ * Se escribe en un temporal junto al destino, se fuerza a disco, se renombra sobre el
+ * destino y se sincroniza el directorio. Tras un cierre inesperado el destino contiene
+ * la versión anterior completa o la nueva completa, nunca una mezcla
+ */
+public class AtomicFileWriter {
+
+    private static final String TAG = "AtomicFileWriter";
+
+    public static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Contenido a escribir sobre el canal del temporal
+     */
+    public interface WriteAction {
+        void write(FileChannel channel) throws IOException;
+    }
+
+    private AtomicFileWriter() {
+    }
+
+    /**
+     * Escribe el archivo de forma atómica; si algo falla el destino no se toca.
+     * Devuelve los nanosegundos empleados en forzar a disco (archivo y directorio)
+     */
+    public static long write(File target, WriteAction action) throws IOException {
+        File temp = new File(target.getParentFile(), target.getName() + TEMP_SUFFIX);
+        long syncNanos;
+
+        try (FileOutputStream fos = new FileOutputStream(temp);
+             FileChannel channel = fos.getChannel()) {
+            action.write(channel);
+            long syncStart = System.nanoTime();
+            channel.force(true);
+            syncNanos = System.nanoTime() - syncStart;
+        } catch (IOException | RuntimeException e) {
+            temp.delete();
+            throw e;
+        }
+
+        // rename(2) sustituye el destino de forma atómica dentro del mismo sistema de archivos
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("No se pudo renombrar " + temp.getName() + " a " + target.getName());
+        }
+
+        long syncStart = System.nanoTime();
+        syncDirectory(target.getParentFile());
+        return syncNanos + System.nanoTime() - syncStart;
+    }
+
+    /**
+     * Fuerza a disco la entrada de directorio (para que el rename sobreviva a un corte)
+     */
+    public static void syncDirectory(File directory) {
+        // Abrir un directorio como canal requiere java.nio.file (API 26)
+        if (directory == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Algunos sistemas de archivos no permiten sincronizar directorios
+            Log.w(TAG, "No se pudo sincronizar el directorio: " + directory.getName(), e);
+        }
+    }
+
+    /**
+     * Elimina temporales huérfanos de escrituras interrumpidas
+     */
+    public static void deleteStaleTempFiles(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(TEMP_SUFFIX));
+        if (files == null) return;
+
+        for (File file : files) {
+            if (file.delete()) {
+                Log.d(TAG, "Temporal huérfano eliminado: " + file.getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.by.soh.utils;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Checksum;
+
+/**
+ * Lector del formato binario de guardado (ver BinarySaveWriter)
+ * Decodifica campo a campo desde un buffer que se rellena del canal bajo demanda,
+ * sin cargar el archivo completo ni construir un árbol intermedio.
+ * Con checksums activados cada registro se carga entero y se verifica antes de
+ * entregar ningún campo, así un archivo corrupto se detecta en la misma pasada
+ */
+public class BinarySaveReader implements Closeable {
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    // Límite de seguridad para registros verificados (se cargan completos en memoria)
+    private static final int MAX_CHECKED_RECORD_SIZE = 64 * 1024 * 1024;
+
+    // Bytes restantes del registro actual
+    private int recordRemaining;
+
+    // Checksum por registro (null = formato sin checksums)
+    private Checksum checksum;
+    private ByteBuffer record = ByteBuffer.allocate(0);
+
+    // De dónde se leen los campos: el buffer del canal o el registro ya verificado
+    private ByteBuffer source;
+
+    // Bytes leídos del canal (para calcular la posición lógica)
+    private long channelBytesRead;
+
+    public BinarySaveReader(ReadableByteChannel channel) {
+        this(channel, BinarySaveWriter.DEFAULT_BUFFER_SIZE);
+    }
+
+    public BinarySaveReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.flip(); // vacío
+        this.source = buffer;
+    }
+
+    /**
+     * Lee directamente de un buffer ya cargado o mapeado (sin copiarlo)
+     */
+    public BinarySaveReader(ByteBuffer data) {
+        this.channel = null;
+        this.buffer = data.slice();
+        this.source = buffer;
+    }
+
+    // ==================== ESTRUCTURA ====================
+
+    /**
+     * Lee la cabecera y devuelve la versión de formato, o -1 si el magic no coincide
+     */
+    public int readHeader(int expectedMagic) throws IOException {
+        require(6);
+        int magic = buffer.getInt();
+        int version = buffer.getShort() & 0xFFFF;
+        return magic == expectedMagic ? version : -1;
+    }
+
+    /**
+     * Lee el algoritmo de checksum que sigue a la cabecera y activa la verificación
+     */
+    public void enableChecksums() throws IOException {
+        require(1);
+        checksum = BinarySaveWriter.newChecksum(buffer.get());
+    }
+
+    /**
+     * Salta lo que quede del registro actual y devuelve el tag del siguiente
+     * (BinarySaveWriter.TAG_END al terminar)
+     */
+    public int nextRecord() throws IOException {
+        skipRecord();
+        source = buffer;
+        require(2);
+        int tag = buffer.getShort() & 0xFFFF;
+        if (tag == BinarySaveWriter.TAG_END) {
+            return tag;
+        }
+        require(4);
+        int length = buffer.getInt();
+        if (length < 0) {
+            throw new IOException("Longitud de registro inválida: " + length);
+        }
+        if (checksum != null) {
+            loadVerifiedRecord(tag, length);
+        }
+        recordRemaining = length;
+        return tag;
+    }
+
+    /**
+     * Descarta los bytes no leídos del registro actual (campos desconocidos)
+     */
+    public void skipRecord() throws IOException {
+        if (source != buffer) {
+            source.position(source.limit());
+            recordRemaining = 0;
+            return;
+        }
+        while (recordRemaining > 0) {
+            if (!buffer.hasRemaining()) {
+                fill();
+            }
+            int skip = Math.min(recordRemaining, buffer.remaining());
+            buffer.position(buffer.position() + skip);
+            recordRemaining -= skip;
+        }
+    }
+
+    /**
+     * Indica si se alcanzó el fin del canal (p.ej. entre segmentos de un diario)
+     */
+    public boolean isAtEnd() throws IOException {
+        if (buffer.hasRemaining()) {
+            return false;
+        }
+        if (channel == null) {
+            return true;
+        }
+        buffer.clear();
+        int read = channel.read(buffer);
+        buffer.flip();
+        if (read > 0) {
+            channelBytesRead += read;
+        }
+        return read < 0;
+    }
+
+    /**
+     * Posición lógica de lectura dentro del canal
+     */
+    public long getPosition() {
+        return channelBytesRead - buffer.remaining();
+    }
+
+    /**
+     * Indica si quedan campos por leer en el registro actual
+     */
+    public boolean hasMoreFields() {
+        return recordRemaining > 0;
+    }
+
+    // ==================== CAMPOS ====================
+
+    public int readInt() throws IOException {
+        consume(4);
+        return source.getInt();
+    }
+
+    public long readLong() throws IOException {
+        consume(8);
+        return source.getLong();
+    }
+
+    public float readFloat() throws IOException {
+        consume(4);
+        return source.getFloat();
+    }
+
+    public double readDouble() throws IOException {
+        consume(8);
+        return source.getDouble();
+    }
+
+    public int readByte() throws IOException {
+        consume(1);
+        return source.get();
+    }
+
+    public byte[] readBytes() throws IOException {
+        int length = readInt();
+        if (length < 0) {
+            return null;
+        }
+        checkRecord(length);
+        byte[] bytes = new byte[length];
+        readFully(bytes);
+        return bytes;
+    }
+
+    public boolean readBoolean() throws IOException {
+        consume(1);
+        return source.get() != 0;
+    }
+
+    public String readString() throws IOException {
+        int length = readInt();
+        if (length < 0) {
+            return null;
+        }
+        checkRecord(length);
+        byte[] bytes = new byte[length];
+        readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int[] readIntArray() throws IOException {
+        int length = readInt();
+        if (length < 0) {
+            return null;
+        }
+        checkRecord(length * 4L);
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = readInt();
+        }
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    /**
+     * Reserva bytes del registro actual y garantiza que estén en el buffer
+     */
+    private void consume(int bytes) throws IOException {
+        checkRecord(bytes);
+        if (source == buffer) {
+            require(bytes);
+        }
+        recordRemaining -= bytes;
+    }
+
+    /**
+     * Copia bytes del registro actual
+     */
+    private void readFully(byte[] bytes) throws IOException {
+        if (source == buffer) {
+            readRaw(bytes, bytes.length);
+        } else {
+            source.get(bytes);
+        }
+        recordRemaining -= bytes.length;
+    }
+
+    /**
+     * Copia bytes del canal rellenando el buffer por trozos
+     */
+    private void readRaw(byte[] target, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            if (!buffer.hasRemaining()) {
+                fill();
+            }
+            int chunk = Math.min(length - offset, buffer.remaining());
+            buffer.get(target, offset, chunk);
+            offset += chunk;
+        }
+    }
+
+    /**
+     * Carga el payload completo y su checksum; los campos se leen después de la copia
+     */
+    private void loadVerifiedRecord(int tag, int length) throws IOException {
+        if (length > MAX_CHECKED_RECORD_SIZE) {
+            throw new IOException("Registro demasiado grande: " + length);
+        }
+        if (record.capacity() < length) {
+            record = ByteBuffer.allocate(Math.max(length, record.capacity() * 2));
+        }
+        readRaw(record.array(), length);
+        require(4);
+        int expected = buffer.getInt();
+
+        checksum.reset();
+        checksum.update(record.array(), 0, length);
+        if ((int) checksum.getValue() != expected) {
+            throw new IOException("Checksum incorrecto en registro " + tag);
+        }
+
+        record.clear();
+        record.limit(length);
+        source = record;
+    }
+
+    private void checkRecord(long bytes) throws IOException {
+        if (bytes > recordRemaining) {
+            throw new IOException("Lectura más allá del fin del registro");
+        }
+    }
+
+    /**
+     * Garantiza al menos n bytes disponibles en el buffer (n <= capacidad)
+     */
+    private void require(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            fill();
+        }
+    }
+
+    private void fill() throws IOException {
+        if (channel == null) {
+            throw new EOFException("Fin inesperado del archivo de guardado");
+        }
+        buffer.compact();
+        int read = channel.read(buffer);
+        buffer.flip();
+        if (read < 0) {
+            throw new EOFException("Fin inesperado del archivo de guardado");
+        }
+        channelBytesRead += read;
+    }
+}
@@ -0,0 +1,274 @@
+package com.by.soh.utils;
+
+import android.os.Build;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * Escritor del formato binario de guardado
+ * Cabecera: magic (4 bytes) + versión de formato (u16)
+ * Registros: tag (u16) + longitud (u32) + payload, terminados por TAG_END
+ * Con checksums activados la cabecera lleva además el algoritmo (u8) y cada registro
+ * termina con el checksum de su payload (u32)
+ * Los bytes se acumulan en un buffer y se vuelcan al canal al llenarse
+ */
+public class BinarySaveWriter implements Closeable {
+
+    public static final int TAG_END = 0;
+    public static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+    private static final int INITIAL_RECORD_CAPACITY = 1024;
+
+    // Algoritmos de checksum por registro
+    public static final int CHECKSUM_CRC32 = 1;
+    public static final int CHECKSUM_CRC32C = 2;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    // Payload del registro en curso (la longitud debe conocerse antes de escribirlo)
+    private ByteBuffer record;
+    private int currentTag = -1;
+
+    // Checksum por registro (null = formato sin checksums)
+    private Checksum checksum;
+
+    private long bytesWritten;
+
+    public BinarySaveWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public BinarySaveWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.record = ByteBuffer.allocate(INITIAL_RECORD_CAPACITY);
+    }
+
+    // ==================== ESTRUCTURA ====================
+
+    /**
+     * Escribe la cabecera del archivo
+     */
+    public void writeHeader(int magic, int formatVersion) throws IOException {
+        ensureBuffer(6);
+        buffer.putInt(magic);
+        buffer.putShort((short) formatVersion);
+    }
+
+    /**
+     * Activa el checksum por registro; se escribe justo después de la cabecera
+     */
+    public void enableChecksums(int algorithm) throws IOException {
+        checksum = newChecksum(algorithm);
+        ensureBuffer(1);
+        buffer.put((byte) algorithm);
+    }
+
+    /**
+     * Inicia un registro; los write* siguientes van a su payload
+     */
+    public void beginRecord(int tag) {
+        if (currentTag != -1) {
+            throw new IllegalStateException("Registro " + currentTag + " sin cerrar");
+        }
+        currentTag = tag;
+        record.clear();
+    }
+
+    /**
+     * Cierra el registro en curso y lo pasa al buffer de salida
+     */
+    public void endRecord() throws IOException {
+        if (currentTag == -1) {
+            throw new IllegalStateException("No hay registro abierto");
+        }
+        record.flip();
+        ensureBuffer(6);
+        buffer.putShort((short) currentTag);
+        buffer.putInt(record.remaining());
+
+        int crc = 0;
+        if (checksum != null) {
+            checksum.reset();
+            checksum.update(record.array(), record.arrayOffset() + record.position(), record.remaining());
+            crc = (int) checksum.getValue();
+        }
+
+        putBytes(record);
+
+        if (checksum != null) {
+            ensureBuffer(4);
+            buffer.putInt(crc);
+        }
+        currentTag = -1;
+    }
+
+    /**
+     * Escribe el marcador de fin y vuelca el buffer al canal
+     */
+    public void finish() throws IOException {
+        ensureBuffer(2);
+        buffer.putShort((short) TAG_END);
+        flush();
+    }
+
+    // ==================== CAMPOS ====================
+
+    public void writeInt(int value) {
+        ensureRecord(4).putInt(value);
+    }
+
+    public void writeLong(long value) {
+        ensureRecord(8).putLong(value);
+    }
+
+    public void writeFloat(float value) {
+        ensureRecord(4).putFloat(value);
+    }
+
+    public void writeDouble(double value) {
+        ensureRecord(8).putDouble(value);
+    }
+
+    public void writeByte(int value) {
+        ensureRecord(1).put((byte) value);
+    }
+
+    /**
+     * Escribe un array de bytes como longitud (i32, -1 = null) + contenido
+     */
+    public void writeBytes(byte[] value) {
+        if (value == null) {
+            writeInt(-1);
+            return;
+        }
+        ensureRecord(4 + value.length).putInt(value.length).put(value);
+    }
+
+    public void writeBoolean(boolean value) {
+        ensureRecord(1).put(value ? (byte) 1 : (byte) 0);
+    }
+
+    /**
+     * Escribe un String como longitud (i32, -1 = null) + bytes UTF-8
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureRecord(4 + bytes.length).putInt(bytes.length).put(bytes);
+    }
+
+    /**
+     * Escribe un array de enteros como longitud (i32, -1 = null) + valores
+     */
+    public void writeIntArray(int[] values) {
+        if (values == null) {
+            writeInt(-1);
+            return;
+        }
+        ByteBuffer target = ensureRecord(4 + values.length * 4);
+        target.putInt(values.length);
+        for (int value : values) {
+            target.putInt(value);
+        }
+    }
+
+    // ==================== VOLCADO ====================
+
+    /**
+     * Vuelca el buffer pendiente al canal
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Bytes ya volcados al canal más los pendientes en el buffer
+     */
+    public long getPosition() {
+        return bytesWritten + buffer.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    // ==================== CHECKSUMS ====================
+
+    /**
+     * CRC32C (acelerado por hardware) desde API 26; CRC32 en versiones anteriores
+     */
+    public static int preferredChecksum() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.O ? CHECKSUM_CRC32C : CHECKSUM_CRC32;
+    }
+
+    /**
+     * Crea el checksum de un algoritmo; falla si el dispositivo no lo soporta
+     */
+    public static Checksum newChecksum(int algorithm) throws IOException {
+        switch (algorithm) {
+            case CHECKSUM_CRC32:
+                return new CRC32();
+            case CHECKSUM_CRC32C:
+                if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+                    throw new IOException("CRC32C no disponible en este dispositivo");
+                }
+                return new CRC32C();
+            default:
+                throw new IOException("Algoritmo de checksum desconocido: " + algorithm);
+        }
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    private ByteBuffer ensureRecord(int bytes) {
+        if (currentTag == -1) {
+            throw new IllegalStateException("Campo escrito fuera de un registro");
+        }
+        if (record.remaining() < bytes) {
+            int newCapacity = Math.max(record.capacity() * 2, record.position() + bytes);
+            ByteBuffer grown = ByteBuffer.allocate(newCapacity);
+            record.flip();
+            grown.put(record);
+            record = grown;
+        }
+        return record;
+    }
+
+    private void ensureBuffer(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Copia bytes al buffer de salida volcando por trozos si no caben
+     */
+    private void putBytes(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int chunk = Math.min(source.remaining(), buffer.remaining());
+            int limit = source.limit();
+            source.limit(source.position() + chunk);
+            buffer.put(source);
+            source.limit(limit);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.by.soh.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Contenedor comprimido por bloques independientes
+ * Cabecera: magic (4) + versión (u16) + códec (u8) + tamaño de bloque (i32)
+ *           + tamaño original (i32) + nº de bloques (i32) + tamaño comprimido de cada bloque
+ * Después, los bloques comprimidos seguidos. Al ser independientes se comprimen y
+ * descomprimen en paralelo en un pool pequeño
+ */
+public class BlockCompressor {
+
+    public static final int MAGIC = 0x534F485A; // "SOHZ"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 1 + 4 + 4 + 4;
+
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private BlockCompressor() {
+    }
+
+    // ==================== ESCRITURA ====================
+
+    /**
+     * Comprime data[0, length) y escribe el contenedor. Con pool null (o un solo
+     * bloque) se comprime en el hilo actual
+     */
+    public static void write(WritableByteChannel out, byte[] data, int length, SaveCodec codec,
+                             int blockSize, ExecutorService pool) throws IOException {
+        int blockCount = (length + blockSize - 1) / blockSize;
+
+        List<Callable<byte[]>> tasks = new ArrayList<>(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            int offset = i * blockSize;
+            int size = Math.min(blockSize, length - offset);
+            tasks.add(() -> codec.compress(data, offset, size));
+        }
+        List<byte[]> blocks = runAll(tasks, pool);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 4 * blockCount);
+        header.putInt(MAGIC);
+        header.putShort((short) FORMAT_VERSION);
+        header.put((byte) codec.getId());
+        header.putInt(blockSize);
+        header.putInt(length);
+        header.putInt(blockCount);
+        for (byte[] block : blocks) {
+            header.putInt(block.length);
+        }
+        header.flip();
+        writeFully(out, header);
+
+        for (byte[] block : blocks) {
+            writeFully(out, ByteBuffer.wrap(block));
+        }
+    }
+
+    // ==================== LECTURA ====================
+
+    /**
+     * Descomprime el contenedor (en memoria o mapeado) y devuelve los datos originales
+     */
+    public static byte[] read(ByteBuffer data, ExecutorService pool) throws IOException {
+        ByteBuffer in = data.slice();
+        if (in.remaining() < HEADER_SIZE) {
+            throw new EOFException("Contenedor comprimido truncado");
+        }
+        if (in.getInt() != MAGIC) {
+            throw new IOException("No es un contenedor comprimido");
+        }
+        int version = in.getShort() & 0xFFFF;
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Versión de contenedor no soportada: " + version);
+        }
+        SaveCodec codec = SaveCodecs.forId(in.get());
+        int blockSize = in.getInt();
+        int rawLength = in.getInt();
+        int blockCount = in.getInt();
+        if (blockSize <= 0 || rawLength < 0 || blockCount != (rawLength + blockSize - 1) / blockSize) {
+            throw new IOException("Cabecera de contenedor inválida");
+        }
+
+        if (in.remaining() < 4L * blockCount) {
+            throw new EOFException("Contenedor comprimido truncado");
+        }
+        int[] compressedSizes = new int[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            compressedSizes[i] = in.getInt();
+        }
+
+        // Los bloques se copian del buffer en orden; la descompresión va en paralelo
+        byte[] output = new byte[rawLength];
+        List<Callable<byte[]>> tasks = new ArrayList<>(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            int compressedSize = compressedSizes[i];
+            if (compressedSize < 0 || compressedSize > in.remaining()) {
+                throw new IOException("Tamaño de bloque inválido: " + compressedSize);
+            }
+            byte[] block = new byte[compressedSize];
+            in.get(block);
+
+            int offset = i * blockSize;
+            int size = Math.min(blockSize, rawLength - offset);
+            tasks.add(() -> {
+                codec.decompress(block, 0, compressedSize, output, offset, size);
+                return null;
+            });
+        }
+        runAll(tasks, pool);
+
+        return output;
+    }
+
+    // ==================== MÉTODOS HELPER ====================
+
+    /**
+     * Ejecuta las tareas en el pool (o en el hilo actual si no hay pool o solo hay una)
+     * y devuelve los resultados en el mismo orden
+     */
+    public static <T> List<T> runAll(List<Callable<T>> tasks, ExecutorService pool) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+
+        try {
+            if (pool == null || tasks.size() <= 1) {
+                for (Callable<T> task : tasks) {
+                    results.add(task.call());
+                }
+                return results;
+            }
+
+            List<Future<T>> futures = pool.invokeAll(tasks);
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException("Error en tarea de compresión", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Compresión interrumpida", e);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package com.by.soh.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Índice en memoria por columnas para filtrar y ordenar colecciones (héroes, equipamiento)
+ * Cada atributo filtrable es un array de enteros con un bitmap por valor, y cada criterio
+ * de orden guarda una permutación ya ordenada de las filas. Una consulta combina bitmaps
+ * con AND y recorre la permutación, sin tocar la BD ni ordenar en cada llamada.
+ * Una vez construidas las columnas, altas, cambios y bajas solo parchean la fila afectada:
+ * su bit en cada bitmap y su posición en cada permutación (búsqueda binaria + desplazamiento).
+ * Las bajas dejan un hueco que se compacta en la siguiente reconstrucción completa
+ */
+public class ColumnarIndex<T> {
+
+    // Con más huecos que filas vivas se compacta en la siguiente consulta
+    private static final int MIN_ROWS_TO_COMPACT = 64;
+
+    private final Map<String, BitmapColumn<T>> bitmaps = new LinkedHashMap<>();
+    private final Map<String, SortKey<T>> sortKeys = new LinkedHashMap<>();
+
+    // Filas en orden de alta (null = hueco de una baja) y su posición por id
+    private final List<T> rowList = new ArrayList<>();
+    private final Map<Long, Integer> positions = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final ToLongFunction<T> idExtractor;
+
+    // Columnas pendientes de reconstrucción completa
+    private boolean built;
+    private boolean dirty = true;
+    private long rebuilds;
+
+    public ColumnarIndex(ToLongFunction<T> idExtractor) {
+        this.idExtractor = idExtractor;
+    }
+
+    // ==================== DEFINICIÓN ====================
+
+    /**
+     * Atributo categórico (facción, rareza, tipo, flags 0/1...) con un bitmap por valor
+     */
+    public ColumnarIndex<T> addBitmap(String name, ToIntFunction<T> extractor) {
+        bitmaps.put(name, new BitmapColumn<>(extractor));
+        return this;
+    }
+
+    /**
+     * Criterio de orden numérico; también admite filtros de mínimo (atLeast)
+     */
+    public ColumnarIndex<T> addSortKey(String name, ToLongFunction<T> extractor, boolean descending) {
+        sortKeys.put(name, new SortKey<>(extractor, null, descending));
+        return this;
+    }
+
+    /**
+     * Criterio de orden arbitrario (p. ej. por nombre)
+     */
+    public ColumnarIndex<T> addSortKey(String name, Comparator<T> comparator) {
+        sortKeys.put(name, new SortKey<>(null, comparator, false));
+        return this;
+    }
+
+    // ==================== FILAS ====================
+
+    /**
+     * true si ya se cargaron las filas (rebuild) y el índice se mantiene al día
+     */
+    public synchronized boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Sustituye todas las filas
+     */
+    public synchronized void rebuild(List<T> allRows) {
+        clearRows();
+        for (T row : allRows) {
+            long id = idExtractor.applyAsLong(row);
+            Integer position = positions.get(id);
+            if (position != null) {
+                rowList.set(position, row);
+            } else {
+                appendRow(id, row);
+            }
+        }
+        built = true;
+        dirty = true;
+    }
+
+    /**
+     * Alta o cambio de una fila (sin efecto hasta el primer rebuild)
+     */
+    public synchronized void put(T row) {
+        if (!built) return;
+
+        long id = idExtractor.applyAsLong(row);
+        Integer position = positions.get(id);
+        if (position == null) {
+            int newRow = appendRow(id, row);
+            if (dirty) return;
+            for (BitmapColumn<T> column : bitmaps.values()) {
+                column.set(newRow, row, false);
+            }
+            for (SortKey<T> key : sortKeys.values()) {
+                key.insert(newRow, row, rowList);
+            }
+        } else {
+            rowList.set(position, row);
+            if (dirty) return;
+            for (BitmapColumn<T> column : bitmaps.values()) {
+                column.set(position, row, true);
+            }
+            for (SortKey<T> key : sortKeys.values()) {
+                key.remove(position, rowList);
+                key.insert(position, row, rowList);
+            }
+        }
+    }
+
+    public synchronized void remove(long id) {
+        Integer position = positions.remove(id);
+        if (position == null) return;
+
+        rowList.set(position, null);
+        live.clear(position);
+        if (dirty) return;
+        for (BitmapColumn<T> column : bitmaps.values()) {
+            column.clear(position);
+        }
+        for (SortKey<T> key : sortKeys.values()) {
+            key.remove(position, rowList);
+        }
+
+        int holes = rowList.size() - positions.size();
+        if (holes >= MIN_ROWS_TO_COMPACT && holes > positions.size()) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Descarta las filas; hay que volver a llamar a rebuild
+     */
+    public synchronized void reset() {
+        clearRows();
+        built = false;
+        dirty = true;
+    }
+
+    public synchronized int size() {
+        return positions.size();
+    }
+
+    /**
+     * Veces que se reconstruyeron las columnas por completo (diagnóstico)
+     */
+    public synchronized long getRebuildCount() {
+        return rebuilds;
+    }
+
+    // ==================== CONSULTAS ====================
+
+    public Query query() {
+        return new Query();
+    }
+
+    private List<T> execute(Query query) {
+        synchronized (this) {
+            ensureColumns();
+            int rowCount = rowList.size();
+
+            BitSet filter = (BitSet) live.clone();
+            for (Map.Entry<String, Integer> condition : query.equals.entrySet()) {
+                BitSet bitmap = bitmapColumn(condition.getKey()).bitmaps.get(condition.getValue());
+                if (bitmap == null) return new ArrayList<>();
+                filter.and(bitmap);
+            }
+            for (Map.Entry<String, Long> condition : query.minimums.entrySet()) {
+                filter.and(sortKey(condition.getKey()).atLeast(condition.getValue(), rowCount));
+            }
+
+            List<T> results = new ArrayList<>(filter.cardinality());
+            if (query.orderBy != null) {
+                SortKey<T> key = sortKey(query.orderBy);
+                for (int i = 0; i < key.size; i++) {
+                    int row = key.permutation[i];
+                    if (filter.get(row)) results.add(rowList.get(row));
+                }
+            } else {
+                for (int row = filter.nextSetBit(0); row >= 0; row = filter.nextSetBit(row + 1)) {
+                    results.add(rowList.get(row));
+                }
+            }
+            return results;
+        }
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    private void clearRows() {
+        rowList.clear();
+        positions.clear();
+        live.clear();
+    }
+
+    private int appendRow(long id, T row) {
+        int position = rowList.size();
+        rowList.add(row);
+        positions.put(id, position);
+        live.set(position);
+        return position;
+    }
+
+    /**
+     * Reconstrucción completa (tras rebuild o con demasiados huecos): compacta las filas
+     * y vuelve a ordenar las permutaciones
+     */
+    private void ensureColumns() {
+        if (!dirty) return;
+
+        if (positions.size() != rowList.size()) {
+            List<T> compacted = new ArrayList<>(positions.size());
+            for (T row : rowList) {
+                if (row != null) compacted.add(row);
+            }
+            clearRows();
+            for (T row : compacted) {
+                appendRow(idExtractor.applyAsLong(row), row);
+            }
+        }
+
+        for (BitmapColumn<T> column : bitmaps.values()) {
+            column.build(rowList);
+        }
+        for (SortKey<T> key : sortKeys.values()) {
+            key.build(rowList);
+        }
+        dirty = false;
+        rebuilds++;
+    }
+
+    private BitmapColumn<T> bitmapColumn(String name) {
+        BitmapColumn<T> column = bitmaps.get(name);
+        if (column == null) throw new IllegalArgumentException("Columna no indexada: " + name);
+        return column;
+    }
+
+    private SortKey<T> sortKey(String name) {
+        SortKey<T> key = sortKeys.get(name);
+        if (key == null) throw new IllegalArgumentException("Orden no indexado: " + name);
+        return key;
+    }
+
+    private static int[] ensureCapacity(int[] array, int required) {
+        if (array.length >= required) return array;
+        return Arrays.copyOf(array, Math.max(required, array.length + (array.length >> 1) + 16));
+    }
+
+    private static long[] ensureCapacity(long[] array, int required) {
+        if (array.length >= required) return array;
+        return Arrays.copyOf(array, Math.max(required, array.length + (array.length >> 1) + 16));
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Consulta: condiciones de igualdad y mínimos (AND) más un orden opcional
+     */
+    public class Query {
+        private final Map<String, Integer> equals = new LinkedHashMap<>();
+        private final Map<String, Long> minimums = new LinkedHashMap<>();
+        private String orderBy;
+
+        public Query where(String column, int value) {
+            equals.put(column, value);
+            return this;
+        }
+
+        /**
+         * Solo filas cuyo valor del criterio numérico sea >= minimum
+         */
+        public Query atLeast(String sortKey, long minimum) {
+            minimums.put(sortKey, minimum);
+            return this;
+        }
+
+        public Query orderBy(String sortKey) {
+            this.orderBy = sortKey;
+            return this;
+        }
+
+        public List<T> list() {
+            return execute(this);
+        }
+    }
+
+    private static class BitmapColumn<T> {
+        final ToIntFunction<T> extractor;
+        int[] values = new int[0];
+        final Map<Integer, BitSet> bitmaps = new HashMap<>();
+
+        BitmapColumn(ToIntFunction<T> extractor) {
+            this.extractor = extractor;
+        }
+
+        void build(List<T> rowList) {
+            values = new int[rowList.size()];
+            bitmaps.clear();
+            for (int row = 0; row < values.length; row++) {
+                set(row, rowList.get(row), false);
+            }
+        }
+
+        /**
+         * Valor de una fila nueva o cambiada: mueve su bit al bitmap del valor nuevo
+         */
+        void set(int row, T item, boolean existing) {
+            int value = extractor.applyAsInt(item);
+            if (existing) {
+                if (values[row] == value) return;
+                clear(row);
+            }
+            values = ensureCapacity(values, row + 1);
+            values[row] = value;
+            BitSet bitmap = bitmaps.get(value);
+            if (bitmap == null) {
+                bitmap = new BitSet();
+                bitmaps.put(value, bitmap);
+            }
+            bitmap.set(row);
+        }
+
+        void clear(int row) {
+            BitSet bitmap = bitmaps.get(values[row]);
+            if (bitmap != null) bitmap.clear(row);
+        }
+    }
+
+    private static class SortKey<T> {
+        final ToLongFunction<T> extractor;
+        final Comparator<T> comparator;
+        final boolean descending;
+        long[] values = new long[0];
+        int[] permutation = new int[0];
+        int size;
+
+        SortKey(ToLongFunction<T> extractor, Comparator<T> comparator, boolean descending) {
+            this.extractor = extractor;
+            this.comparator = comparator;
+            this.descending = descending;
+        }
+
+        void build(List<T> rowList) {
+            int rowCount = rowList.size();
+            if (extractor != null) {
+                values = new long[rowCount];
+                for (int row = 0; row < rowCount; row++) {
+                    values[row] = extractor.applyAsLong(rowList.get(row));
+                }
+            }
+
+            permutation = new int[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                permutation[row] = row;
+            }
+            size = rowCount;
+            sort(rowList);
+        }
+
+        /**
+         * Coloca una fila en su sitio de la permutación (búsqueda binaria)
+         */
+        void insert(int row, T item, List<T> rowList) {
+            if (extractor != null) {
+                values = ensureCapacity(values, row + 1);
+                values[row] = extractor.applyAsLong(item);
+            }
+
+            int index = lowerBound(row, rowList);
+            permutation = ensureCapacity(permutation, size + 1);
+            System.arraycopy(permutation, index, permutation, index + 1, size - index);
+            permutation[index] = row;
+            size++;
+        }
+
+        /**
+         * Quita una fila de la permutación. Con clave numérica se localiza por el valor
+         * guardado; con comparador hay que buscarla, porque la fila puede haber cambiado
+         */
+        void remove(int row, List<T> rowList) {
+            int index = -1;
+            if (extractor != null) {
+                index = lowerBound(row, rowList);
+                if (index >= size || permutation[index] != row) index = -1;
+            }
+            if (index < 0) {
+                for (int i = 0; i < size; i++) {
+                    if (permutation[i] == row) {
+                        index = i;
+                        break;
+                    }
+                }
+            }
+            if (index < 0) return;
+
+            System.arraycopy(permutation, index + 1, permutation, index, size - index - 1);
+            size--;
+        }
+
+        /**
+         * Orden total: la clave y, a igualdad, el orden de alta (posición de la fila)
+         */
+        int compareRows(int a, int b, List<T> rowList) {
+            int result;
+            if (extractor != null) {
+                result = descending ? Long.compare(values[b], values[a]) : Long.compare(values[a], values[b]);
+            } else {
+                result = comparator.compare(rowList.get(a), rowList.get(b));
+            }
+            return result != 0 ? result : Integer.compare(a, b);
+        }
+
+        /**
+         * Primera posición de la permutación que no va antes que row
+         */
+        private int lowerBound(int row, List<T> rowList) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareRows(permutation[mid], row, rowList) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Merge sort ascendente sobre el array primitivo (sin Integer[] ni boxing)
+         */
+        private void sort(List<T> rowList) {
+            int[] source = permutation;
+            int[] target = new int[size];
+            for (int width = 1; width < size; width <<= 1) {
+                for (int from = 0; from < size; from += width << 1) {
+                    int middle = Math.min(from + width, size);
+                    int to = Math.min(from + (width << 1), size);
+                    int left = from;
+                    int right = middle;
+                    for (int i = from; i < to; i++) {
+                        if (left < middle && (right >= to || compareRows(source[left], source[right], rowList) <= 0)) {
+                            target[i] = source[left++];
+                        } else {
+                            target[i] = source[right++];
+                        }
+                    }
+                }
+                int[] swap = source;
+                source = target;
+                target = swap;
+            }
+            permutation = source;
+        }
+
+        /**
+         * Filas con valor >= minimum: un prefijo (o sufijo) de la permutación,
+         * localizado por búsqueda binaria
+         */
+        BitSet atLeast(long minimum, int rowCount) {
+            if (extractor == null) {
+                throw new IllegalArgumentException("El criterio no es numérico");
+            }
+
+            BitSet result = new BitSet(rowCount);
+            // Primera posición de la permutación que no cumple (descendente) o que cumple (ascendente)
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                boolean satisfies = values[permutation[mid]] >= minimum;
+                if (satisfies == descending) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            int from = descending ? 0 : low;
+            int to = descending ? low : size;
+            for (int i = from; i < to; i++) {
+                result.set(permutation[i]);
+            }
+            return result;
+        }
+    }
+}
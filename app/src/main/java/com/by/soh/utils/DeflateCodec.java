@@ -0,0 +1,81 @@
+package com.by.soh.utils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Códec Deflate (zlib) con nivel configurable
+ * Deflater/Inflater se reutilizan por hilo para no reservar memoria nativa en cada bloque
+ */
+public class DeflateCodec implements SaveCodec {
+
+    private final int id;
+    private final String name;
+    private final int level;
+
+    private final ThreadLocal<Deflater> deflaters;
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
+    public DeflateCodec(int id, String name, int level) {
+        this.id = id;
+        this.name = name;
+        this.level = level;
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(this.level));
+    }
+
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public byte[] compress(byte[] source, int offset, int length) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(source, offset, length);
+        deflater.finish();
+
+        // Cota de zlib para datos incompresibles; casi nunca hace falta crecer
+        byte[] output = new byte[length + (length >> 12) + (length >> 14) + 64];
+        int size = 0;
+        while (!deflater.finished()) {
+            if (size == output.length) {
+                output = Arrays.copyOf(output, output.length * 2);
+            }
+            size += deflater.deflate(output, size, output.length - size);
+        }
+        return Arrays.copyOf(output, size);
+    }
+
+    @Override
+    public void decompress(byte[] source, int offset, int length,
+                           byte[] target, int targetOffset, int rawLength) throws IOException {
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(source, offset, length);
+
+        try {
+            int size = 0;
+            while (size < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(target, targetOffset + size, rawLength - size);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                size += inflated;
+            }
+            if (size != rawLength || !inflater.finished()) {
+                throw new IOException("Bloque comprimido incompleto: " + size + "/" + rawLength);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Bloque comprimido dañado", e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.by.soh.utils;
+
+import com.by.soh.constants.GameConstants;
+
+/**
+ * Tabla precalculada de experiencia acumulada por nivel
+ * La experiencia guardada es el total acumulado, así que el nivel que corresponde a una
+ * cantidad es el mayor nivel cuyo umbral no la supera: una búsqueda binaria sobre la
+ * tabla en lugar de recorrer nivel a nivel. Los umbrales salen de
+ * GameConstants.getExpRequiredForLevel, que sigue siendo la fórmula de referencia
+ */
+public class ExpTable {
+
+    private static final int MAX_LEVEL =
+            Math.max(GameConstants.MAX_PLAYER_LEVEL, GameConstants.MAX_HERO_LEVEL);
+
+    // THRESHOLDS[nivel] = experiencia total necesaria para alcanzar ese nivel
+    private static final long[] THRESHOLDS = new long[MAX_LEVEL + 1];
+
+    static {
+        for (int level = 1; level <= MAX_LEVEL; level++) {
+            THRESHOLDS[level] = GameConstants.getExpRequiredForLevel(level);
+        }
+    }
+
+    private ExpTable() {
+    }
+
+    /**
+     * Experiencia total necesaria para alcanzar el nivel
+     */
+    public static long getExpForLevel(int level) {
+        if (level <= 0) return 0;
+        if (level > MAX_LEVEL) return GameConstants.getExpRequiredForLevel(level);
+        return THRESHOLDS[level];
+    }
+
+    /**
+     * Nivel que corresponde a la experiencia total, sin bajar de currentLevel ni pasar
+     * de maxLevel. Mismo resultado que subir nivel a nivel mientras alcance el umbral
+     */
+    public static int resolveLevel(long totalExp, int currentLevel, int maxLevel) {
+        int high = Math.min(maxLevel, MAX_LEVEL);
+        if (currentLevel >= high) return currentLevel;
+
+        // Mayor nivel en (currentLevel, high] con umbral <= totalExp
+        int low = currentLevel;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (THRESHOLDS[mid] <= totalExp) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Progreso hacia el siguiente nivel (0.0 - 1.0)
+     */
+    public static float getProgress(long totalExp, int level) {
+        long levelStart = getExpForLevel(level);
+        long nextLevel = getExpForLevel(level + 1);
+        if (nextLevel <= levelStart) return 1.0f;
+
+        return (float) (totalExp - levelStart) / (nextLevel - levelStart);
+    }
+}
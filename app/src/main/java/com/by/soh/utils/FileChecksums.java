@@ -0,0 +1,38 @@
+package com.by.soh.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.Checksum;
+
+/**
+ * Utilidades de verificación de archivos completos
+ */
+public class FileChecksums {
+
+    private static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+
+    private FileChecksums() {
+    }
+
+    /**
+     * Checksum del archivo completo con el algoritmo indicado
+     * (ver BinarySaveWriter.CHECKSUM_*), leído en bloques
+     */
+    public static long checksum(File file, int algorithm) throws IOException {
+        Checksum checksum = BinarySaveWriter.newChecksum(algorithm);
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKSUM_BUFFER_SIZE);
+
+        try (FileInputStream fis = new FileInputStream(file);
+             FileChannel channel = fis.getChannel()) {
+            int read;
+            while ((read = channel.read(buffer)) >= 0) {
+                checksum.update(buffer.array(), 0, read);
+                buffer.clear();
+            }
+        }
+        return checksum.getValue();
+    }
+}
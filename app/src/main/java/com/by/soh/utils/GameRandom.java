@@ -0,0 +1,280 @@
+package com.by.soh.utils;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generador aleatorio del juego
+ * Cada subsistema (AFK, botín, equipamiento, combate...) tiene su propio flujo, derivado
+ * de una semilla raíz: fijando la semilla con setSeed las tiradas de cada subsistema son
+ * reproducibles, y las de uno no alteran la secuencia de los demás.
+ * Además de tiradas simples ofrece muestreo binomial, multinomial y por tabla de alias,
+ * para que "N tiradas independientes" cuesten una o k extracciones con la misma
+ * distribución
+ */
+public class GameRandom {
+
+    // Flujos por subsistema
+    public static final int STREAM_AFK = 0;
+    public static final int STREAM_LOOT = 1;
+    public static final int STREAM_EQUIPMENT = 2;
+    public static final int STREAM_BATTLE = 3;
+    public static final int STREAM_OFFLINE = 4;
+    public static final int STREAM_GACHA = 5;
+
+    private static final int STREAM_COUNT = 6;
+
+    // Media máxima de cada tramo de la inversión binomial (q^n no llega a desbordar)
+    private static final double BINOMIAL_CHUNK_MEAN = 32.0;
+
+    private static final GameRandom[] STREAMS = new GameRandom[STREAM_COUNT];
+    private static long rootSeed;
+
+    static {
+        long seed = System.nanoTime() ^ System.currentTimeMillis();
+        for (int i = 0; i < STREAM_COUNT; i++) {
+            STREAMS[i] = new GameRandom(0);
+        }
+        setSeed(seed);
+    }
+
+    private SplittableRandom source;
+
+    /**
+     * Generador independiente con semilla fija (simulaciones y auditorías)
+     */
+    public GameRandom(long seed) {
+        this.source = new SplittableRandom(seed);
+    }
+
+    // ==================== FLUJOS ====================
+
+    /**
+     * Flujo compartido de un subsistema (STREAM_*)
+     */
+    public static GameRandom stream(int streamId) {
+        return STREAMS[streamId];
+    }
+
+    /**
+     * Reinicia todos los flujos a partir de una semilla raíz
+     */
+    public static synchronized void setSeed(long seed) {
+        rootSeed = seed;
+        SplittableRandom root = new SplittableRandom(seed);
+        for (GameRandom stream : STREAMS) {
+            stream.reseed(root.split());
+        }
+    }
+
+    /**
+     * Semilla raíz actual (para reproducir una sesión)
+     */
+    public static synchronized long getSeed() {
+        return rootSeed;
+    }
+
+    private synchronized void reseed(SplittableRandom newSource) {
+        this.source = newSource;
+    }
+
+    // ==================== TIRADAS SIMPLES ====================
+
+    /**
+     * Uniforme en [0, 1)
+     */
+    public synchronized double nextDouble() {
+        return source.nextDouble();
+    }
+
+    /**
+     * Entero uniforme en [0, bound)
+     */
+    public synchronized int nextInt(int bound) {
+        return source.nextInt(bound);
+    }
+
+    /**
+     * Entero uniforme en [min, max], ambos incluidos
+     */
+    public synchronized int nextInt(int min, int max) {
+        if (max <= min) return min;
+        return source.nextInt(min, max + 1);
+    }
+
+    /**
+     * Float uniforme en [min, max)
+     */
+    public synchronized float nextFloat(float min, float max) {
+        return min + (float) (source.nextDouble() * (max - min));
+    }
+
+    /**
+     * true con probabilidad chance
+     */
+    public synchronized boolean chance(double chance) {
+        return source.nextDouble() < chance;
+    }
+
+    /**
+     * Suma de count enteros uniformes en [min, max] (count extracciones)
+     */
+    public synchronized long sumUniform(long count, int min, int max) {
+        long total = 0;
+        for (long i = 0; i < count; i++) {
+            total += max <= min ? min : source.nextInt(min, max + 1);
+        }
+        return total;
+    }
+
+    // ==================== DISTRIBUCIONES ====================
+
+    /**
+     * Nº de intentos hasta el primer éxito (incluido) con probabilidad p, por inversión
+     */
+    public synchronized long geometric(double p) {
+        if (p >= 1.0) return 1;
+        if (p <= 0.0) return Long.MAX_VALUE;
+
+        double u = 1.0 - source.nextDouble(); // (0, 1]
+        return Math.max(1, (long) Math.ceil(Math.log(u) / Math.log1p(-p)));
+    }
+
+    /**
+     * Nº de éxitos en n tiradas independientes con probabilidad p.
+     * Inversión exacta por tramos de media acotada: coste proporcional a n·min(p, 1-p)
+     * en lugar de a n
+     */
+    public synchronized long binomial(long n, double p) {
+        if (n <= 0 || p <= 0.0) return 0;
+        if (p >= 1.0) return n;
+        if (p > 0.5) return n - binomialInversion(n, 1.0 - p);
+        return binomialInversion(n, p);
+    }
+
+    /**
+     * Reparto de n tiradas entre categorías con los pesos dados (no hace falta que
+     * sumen 1), como binomiales condicionadas: k extracciones en lugar de n
+     */
+    public synchronized int[] multinomial(int n, float[] weights, int fromIndex) {
+        int[] counts = new int[weights.length];
+        double remainingWeight = 0;
+        for (int i = fromIndex; i < weights.length; i++) {
+            remainingWeight += weights[i];
+        }
+
+        int remaining = n;
+        for (int i = fromIndex; i < weights.length && remaining > 0; i++) {
+            if (i == weights.length - 1 || remainingWeight <= weights[i]) {
+                counts[i] = remaining;
+                break;
+            }
+            counts[i] = (int) binomial(remaining, weights[i] / remainingWeight);
+            remaining -= counts[i];
+            remainingWeight -= weights[i];
+        }
+        return counts;
+    }
+
+    /**
+     * Índice con probabilidad proporcional a su peso en la tabla, en O(1)
+     */
+    public synchronized int sample(AliasTable table) {
+        int column = source.nextInt(table.probability.length);
+        return source.nextDouble() < table.probability[column] ? column : table.alias[column];
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    private long binomialInversion(long n, double p) {
+        // Tramos de tamaño acotado para que q^m no se anule en double
+        long chunk = Math.max(1, (long) (BINOMIAL_CHUNK_MEAN / p));
+        long successes = 0;
+        for (long done = 0; done < n; done += chunk) {
+            successes += binomialChunk(Math.min(chunk, n - done), p);
+        }
+        return successes;
+    }
+
+    private long binomialChunk(long n, double p) {
+        double q = 1.0 - p;
+        double ratio = p / q;
+        double probability = Math.pow(q, n);
+        double u = source.nextDouble();
+        long x = 0;
+        while (u > probability && x < n) {
+            u -= probability;
+            x++;
+            probability *= ratio * (n - x + 1) / x;
+        }
+        return x;
+    }
+
+    // ==================== CLASES INTERNAS ====================
+
+    /**
+     * Tabla de alias (Vose) para muestrear una distribución discreta en O(1).
+     * Los pesos no necesitan estar normalizados; los nulos o negativos nunca salen
+     */
+    public static class AliasTable {
+        private final double[] probability;
+        private final int[] alias;
+
+        public AliasTable(float[] weights) {
+            int size = weights.length;
+            probability = new double[size];
+            alias = new int[size];
+
+            double total = 0;
+            for (float weight : weights) {
+                total += Math.max(0f, weight);
+            }
+            if (total <= 0) {
+                throw new IllegalArgumentException("La suma de pesos debe ser positiva");
+            }
+
+            // Pesos escalados a media 1: las columnas < 1 se completan con una > 1
+            double[] scaled = new double[size];
+            int[] small = new int[size];
+            int[] large = new int[size];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < size; i++) {
+                scaled[i] = Math.max(0f, weights[i]) * size / total;
+                if (scaled[i] < 1.0) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                probability[less] = scaled[less];
+                alias[less] = more;
+                scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+                if (scaled[more] < 1.0) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+
+            // Restos por redondeo: columnas completas
+            while (largeCount > 0) {
+                int index = large[--largeCount];
+                probability[index] = 1.0;
+                alias[index] = index;
+            }
+            while (smallCount > 0) {
+                int index = small[--smallCount];
+                probability[index] = 1.0;
+                alias[index] = index;
+            }
+        }
+
+        public int size() {
+            return probability.length;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.by.soh.utils;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Códec sin compresión (dispositivos donde la CPU es más cara que el disco)
+ */
+public class NoOpCodec implements SaveCodec {
+
+    @Override
+    public int getId() {
+        return SaveCodecs.NONE;
+    }
+
+    @Override
+    public String getName() {
+        return "none";
+    }
+
+    @Override
+    public byte[] compress(byte[] source, int offset, int length) {
+        return Arrays.copyOfRange(source, offset, offset + length);
+    }
+
+    @Override
+    public void decompress(byte[] source, int offset, int length,
+                           byte[] target, int targetOffset, int rawLength) throws IOException {
+        if (length != rawLength) {
+            throw new IOException("Bloque sin comprimir con tamaño incorrecto: " + length + "/" + rawLength);
+        }
+        System.arraycopy(source, offset, target, targetOffset, length);
+    }
+}
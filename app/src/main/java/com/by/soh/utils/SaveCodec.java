@@ -0,0 +1,30 @@
+package com.by.soh.utils;
+
+import java.io.IOException;
+
+/**
+ * Códec de compresión para bloques de guardado y trozos de backup
+ * Cada bloque se comprime de forma independiente; el tamaño original lo guarda
+ * el contenedor, así que el códec no necesita registrarlo
+ */
+public interface SaveCodec {
+
+    /**
+     * Identificador persistido en el archivo (ver SaveCodecs)
+     */
+    int getId();
+
+    String getName();
+
+    /**
+     * Comprime un bloque y devuelve los bytes comprimidos
+     */
+    byte[] compress(byte[] source, int offset, int length);
+
+    /**
+     * Descomprime un bloque directamente sobre target; falla si no produce
+     * exactamente rawLength bytes
+     */
+    void decompress(byte[] source, int offset, int length,
+                    byte[] target, int targetOffset, int rawLength) throws IOException;
+}
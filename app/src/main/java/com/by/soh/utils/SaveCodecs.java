@@ -0,0 +1,40 @@
+package com.by.soh.utils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Registro de códecs disponibles; el id de cada uno se persiste en los archivos
+ */
+public class SaveCodecs {
+
+    public static final int NONE = 0;
+    public static final int DEFLATE = 1;
+    public static final int DEFLATE_FAST = 2;
+
+    private static final List<SaveCodec> CODECS = Collections.unmodifiableList(Arrays.asList(
+            new NoOpCodec(),
+            new DeflateCodec(DEFLATE, "deflate", Deflater.DEFAULT_COMPRESSION),
+            new DeflateCodec(DEFLATE_FAST, "deflate-fast", Deflater.BEST_SPEED)
+    ));
+
+    private SaveCodecs() {
+    }
+
+    /**
+     * Códec de un id leído de archivo
+     */
+    public static SaveCodec forId(int id) throws IOException {
+        for (SaveCodec codec : CODECS) {
+            if (codec.getId() == id) return codec;
+        }
+        throw new IOException("Códec desconocido: " + id);
+    }
+
+    public static List<SaveCodec> all() {
+        return CODECS;
+    }
+}
@@ -0,0 +1,109 @@
+package com.by.soh.utils;
+
+import com.by.soh.constants.GameConstants;
+
+/**
+ * Tablas precalculadas de los multiplicadores de stats de héroe
+ * Rareza, estrellas, mejora y nivel son enteros pequeños y acotados, así que el producto
+ * rareza × estrellas × mejora se guarda en una tabla densa y el de nivel en otra. Los
+ * valores se calculan con las mismas fórmulas de GameConstants y en el mismo orden de
+ * multiplicación, por lo que el resultado es idéntico bit a bit.
+ * Fuera de los rangos se usa la fórmula directamente
+ */
+public class StatMultiplierTable {
+
+    private static final int MAX_RARITY = GameConstants.MYTHIC_RARITY;
+    private static final int MAX_STARS = GameConstants.MAX_STARS;
+    private static final int MAX_ENHANCEMENT = GameConstants.MAX_ENHANCEMENT;
+    private static final int MAX_LEVEL = GameConstants.MAX_HERO_LEVEL;
+
+    private static final int STAR_STRIDE = MAX_ENHANCEMENT + 1;
+    private static final int RARITY_STRIDE = (MAX_STARS + 1) * STAR_STRIDE;
+
+    // GROWTH[rareza * RARITY_STRIDE + estrellas * STAR_STRIDE + mejora] = rareza × estrellas × mejora
+    private static final float[] GROWTH = new float[(MAX_RARITY + 1) * RARITY_STRIDE];
+
+    // LEVEL[nivel] = 1 + 5% por nivel después del 1
+    private static final float[] LEVEL = new float[MAX_LEVEL + 1];
+
+    static {
+        for (int rarity = 0; rarity <= MAX_RARITY; rarity++) {
+            for (int stars = 0; stars <= MAX_STARS; stars++) {
+                for (int enhancement = 0; enhancement <= MAX_ENHANCEMENT; enhancement++) {
+                    GROWTH[index(rarity, stars, enhancement)] = computeGrowth(rarity, stars, enhancement);
+                }
+            }
+        }
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            LEVEL[level] = computeLevel(level);
+        }
+    }
+
+    private StatMultiplierTable() {
+    }
+
+    // ==================== MULTIPLICADORES ====================
+
+    /**
+     * Multiplicador combinado de rareza, estrellas y mejora
+     */
+    public static float getGrowthMultiplier(int rarity, int stars, int enhancement) {
+        if (rarity < 0 || rarity > MAX_RARITY || stars < 0 || stars > MAX_STARS
+                || enhancement < 0 || enhancement > MAX_ENHANCEMENT) {
+            return computeGrowth(rarity, stars, enhancement);
+        }
+        return GROWTH[index(rarity, stars, enhancement)];
+    }
+
+    /**
+     * Multiplicador de nivel
+     */
+    public static float getLevelMultiplier(int level) {
+        if (level < 0 || level > MAX_LEVEL) return computeLevel(level);
+        return LEVEL[level];
+    }
+
+    /**
+     * Multiplicador total de las stats base (rareza × estrellas × mejora × nivel)
+     */
+    public static float getTotalMultiplier(int rarity, int stars, int enhancement, int level) {
+        return getGrowthMultiplier(rarity, stars, enhancement) * getLevelMultiplier(level);
+    }
+
+    // ==================== CÁLCULO POR LOTES ====================
+
+    /**
+     * Multiplicadores totales de count héroes a partir de sus columnas
+     */
+    public static void fillTotalMultipliers(int[] rarities, int[] stars, int[] enhancements, int[] levels,
+                                            float[] out, int count) {
+        for (int i = 0; i < count; i++) {
+            out[i] = getTotalMultiplier(rarities[i], stars[i], enhancements[i], levels[i]);
+        }
+    }
+
+    /**
+     * out[i] = round(base[i] × multipliers[i]); bucle plano sobre arrays primitivos
+     */
+    public static void scaleStats(int[] base, float[] multipliers, int[] out, int count) {
+        for (int i = 0; i < count; i++) {
+            out[i] = Math.round(base[i] * multipliers[i]);
+        }
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    private static int index(int rarity, int stars, int enhancement) {
+        return rarity * RARITY_STRIDE + stars * STAR_STRIDE + enhancement;
+    }
+
+    private static float computeGrowth(int rarity, int stars, int enhancement) {
+        return GameConstants.getRarityMultiplier(rarity) *
+                GameConstants.getStarMultiplier(stars) *
+                GameConstants.getEnhancementMultiplier(enhancement);
+    }
+
+    private static float computeLevel(int level) {
+        return 1.0f + (level - 1) * 0.05f;
+    }
+}
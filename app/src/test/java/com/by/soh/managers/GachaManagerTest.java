@@ -0,0 +1,142 @@
+package com.by.soh.managers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.by.soh.constants.GameConstants;
+import com.by.soh.utils.GameRandom;
+
+import org.junit.Test;
+
+/**
+ * Pity y tasas del gacha sobre rollRarities y simulate (sin base de datos)
+ */
+public class GachaManagerTest {
+
+    private static final int THRESHOLD = GameConstants.PITY_SYSTEM_THRESHOLD;
+    private static final int GUARANTEED = GameConstants.PITY_GUARANTEED_RARITY;
+
+    @Test
+    public void rollRaritiesGuaranteesRarityOnceThresholdIsReached() {
+        GameRandom random = new GameRandom(44);
+        int[] rarity = new int[1];
+
+        for (int pity = 0; pity <= THRESHOLD + 5; pity++) {
+            for (int i = 0; i < 2_000; i++) {
+                int pityAfter = GachaManager.rollRarities(random, pity, rarity);
+
+                assertTrue("rareza fuera de rango: " + rarity[0],
+                        rarity[0] >= GameConstants.COMMON_RARITY && rarity[0] <= GameConstants.MYTHIC_RARITY);
+                if (pity >= THRESHOLD) {
+                    assertTrue("pity " + pity + " sin garantía: " + rarity[0], rarity[0] >= GUARANTEED);
+                }
+                assertEquals(rarity[0] >= GUARANTEED ? 0 : pity + 1, pityAfter);
+            }
+        }
+    }
+
+    @Test
+    public void rollRaritiesAdvancesPityWithinMultiPull() {
+        GameRandom random = new GameRandom(4401);
+        int[] rarities = new int[GameConstants.GACHA_MULTI_PULL_COUNT];
+
+        for (int i = 0; i < 50_000; i++) {
+            int pityBefore = random.nextInt(0, THRESHOLD);
+            int pityAfter = GachaManager.rollRarities(random, pityBefore, rarities);
+
+            // El contador se replica tirada a tirada, no por invocación
+            int pity = pityBefore;
+            for (int rarity : rarities) {
+                if (pity >= THRESHOLD) {
+                    assertTrue("tirada con pity " + pity + " sin garantía: " + rarity, rarity >= GUARANTEED);
+                }
+                pity = rarity >= GUARANTEED ? 0 : pity + 1;
+            }
+            assertEquals(pity, pityAfter);
+        }
+    }
+
+    @Test
+    public void pityPullKeepsRelativeRatesOfGuaranteedRarities() {
+        GameRandom random = new GameRandom(4402);
+        int[] rarity = new int[1];
+        int samples = 400_000;
+
+        long[] counts = new long[GameConstants.MYTHIC_RARITY + 1];
+        for (int i = 0; i < samples; i++) {
+            GachaManager.rollRarities(random, THRESHOLD, rarity);
+            counts[rarity[0]]++;
+        }
+
+        float[] rates = publishedRates();
+        double guaranteedTotal = 0;
+        for (int r = GUARANTEED; r < rates.length; r++) guaranteedTotal += rates[r];
+        for (int r = GUARANTEED; r < rates.length; r++) {
+            assertFrequency(GameConstants.RARITY_NAMES[r], counts[r], samples, rates[r] / guaranteedTotal);
+        }
+    }
+
+    @Test
+    public void simulateNeverExceedsPityThreshold() {
+        GachaManager.GachaSimulation simulation =
+                GachaManager.simulate(1_000_000, GameConstants.GACHA_MULTI_PULL_COUNT, 4403);
+
+        assertTrue("racha " + simulation.longestDrought, simulation.longestDrought <= THRESHOLD);
+        assertTrue(simulation.pityActivations > 0);
+        assertEquals(0, simulation.counts[0]);
+
+        long total = 0;
+        for (long count : simulation.counts) total += count;
+        assertEquals(simulation.pulls, total);
+    }
+
+    @Test
+    public void simulateMatchesExpectedRates() {
+        int pulls = 2_000_000;
+        GachaManager.GachaSimulation simulation = GachaManager.simulate(pulls, 1, 4404);
+
+        double expected = GachaManager.getExpectedGuaranteedRate();
+        assertFrequency("garantizada+", Math.round(simulation.getGuaranteedRate() * pulls), pulls, expected);
+
+        // Fuera del pity las rarezas garantizadas mantienen su proporción publicada
+        float[] rates = publishedRates();
+        double guaranteedTotal = 0;
+        for (int r = GUARANTEED; r < rates.length; r++) guaranteedTotal += rates[r];
+        for (int r = GUARANTEED; r < rates.length; r++) {
+            assertFrequency(GameConstants.RARITY_NAMES[r], simulation.counts[r], pulls,
+                    expected * rates[r] / guaranteedTotal);
+        }
+    }
+
+    @Test
+    public void simulateIsDeterministicPerSeed() {
+        GachaManager.GachaSimulation first = GachaManager.simulate(100_000, GameConstants.GACHA_MULTI_PULL_COUNT, 7);
+        GachaManager.GachaSimulation second = GachaManager.simulate(100_000, GameConstants.GACHA_MULTI_PULL_COUNT, 7);
+
+        assertArrayEquals(first.counts, second.counts);
+        assertEquals(first.pityActivations, second.pityActivations);
+        assertEquals(first.longestDrought, second.longestDrought);
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    private static float[] publishedRates() {
+        return new float[]{
+                0f,
+                GameConstants.COMMON_GACHA_RATE,
+                GameConstants.RARE_GACHA_RATE,
+                GameConstants.EPIC_GACHA_RATE,
+                GameConstants.LEGENDARY_GACHA_RATE,
+                GameConstants.MYTHIC_GACHA_RATE
+        };
+    }
+
+    /**
+     * Frecuencia observada dentro de 5 errores estándar de la probabilidad esperada
+     */
+    private static void assertFrequency(String label, long hits, long samples, double probability) {
+        double error = Math.sqrt(probability * (1.0 - probability) / samples);
+        assertEquals(label, probability, (double) hits / samples, 5.0 * error);
+    }
+}
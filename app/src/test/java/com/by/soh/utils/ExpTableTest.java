@@ -0,0 +1,80 @@
+package com.by.soh.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import com.by.soh.constants.GameConstants;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * ExpTable frente a la subida nivel a nivel que hacían addExperience y addExperienceToHero
+ */
+public class ExpTableTest {
+
+    @Test
+    public void thresholdsMatchFormula() {
+        int maxLevel = Math.max(GameConstants.MAX_PLAYER_LEVEL, GameConstants.MAX_HERO_LEVEL);
+        for (int level = 1; level <= maxLevel + 5; level++) {
+            assertEquals("nivel " + level, GameConstants.getExpRequiredForLevel(level),
+                    ExpTable.getExpForLevel(level));
+        }
+        assertEquals(0, ExpTable.getExpForLevel(0));
+    }
+
+    @Test
+    public void resolveLevelMatchesLoopAtThresholds() {
+        int[] maxLevels = {GameConstants.MAX_PLAYER_LEVEL, GameConstants.MAX_HERO_LEVEL};
+        for (int maxLevel : maxLevels) {
+            for (int level = 1; level <= maxLevel; level++) {
+                long threshold = GameConstants.getExpRequiredForLevel(level);
+                for (long exp = threshold - 1; exp <= threshold + 1; exp++) {
+                    for (int currentLevel = 1; currentLevel <= level; currentLevel++) {
+                        assertEquals(String.format("exp=%d actual=%d max=%d", exp, currentLevel, maxLevel),
+                                loopLevel(exp, currentLevel, maxLevel),
+                                ExpTable.resolveLevel(exp, currentLevel, maxLevel));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void resolveLevelMatchesLoopOnRandomCases() {
+        Random random = new Random(41);
+        long maxExp = GameConstants.getExpRequiredForLevel(GameConstants.MAX_PLAYER_LEVEL + 10);
+
+        for (int i = 0; i < 200_000; i++) {
+            int maxLevel = random.nextBoolean() ? GameConstants.MAX_PLAYER_LEVEL : GameConstants.MAX_HERO_LEVEL;
+            int currentLevel = 1 + random.nextInt(maxLevel + 5);
+            long exp = (long) (random.nextDouble() * maxExp);
+
+            assertEquals(String.format("exp=%d actual=%d max=%d", exp, currentLevel, maxLevel),
+                    loopLevel(exp, currentLevel, maxLevel),
+                    ExpTable.resolveLevel(exp, currentLevel, maxLevel));
+        }
+    }
+
+    @Test
+    public void resolveLevelNeverLowersCurrentLevel() {
+        assertEquals(10, ExpTable.resolveLevel(0, 10, GameConstants.MAX_HERO_LEVEL));
+        assertEquals(GameConstants.MAX_HERO_LEVEL + 3,
+                ExpTable.resolveLevel(Long.MAX_VALUE, GameConstants.MAX_HERO_LEVEL + 3, GameConstants.MAX_HERO_LEVEL));
+    }
+
+    /**
+     * Bucle original: subir mientras la EXP alcance el umbral del siguiente nivel
+     */
+    private static int loopLevel(long exp, int currentLevel, int maxLevel) {
+        int level = currentLevel;
+        while (level < maxLevel) {
+            if (exp >= GameConstants.getExpRequiredForLevel(level + 1)) {
+                level++;
+            } else {
+                break;
+            }
+        }
+        return level;
+    }
+}
@@ -0,0 +1,191 @@
+package com.by.soh.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Momentos de las distribuciones de GameRandom frente a sus valores teóricos.
+ * Semillas fijas: las tolerancias son de 5 errores estándar, así que el resultado es
+ * reproducible y un sesgo real de la implementación no pasa
+ */
+public class GameRandomTest {
+
+    private static final double SIGMAS = 5.0;
+
+    @Test
+    public void binomialMeanAndVariance() {
+        long[] ns = {1, 10, 60, 1_000, 20_000};
+        double[] ps = {0.001, 0.05, 0.3, 0.5, 0.8, 0.999};
+        GameRandom random = new GameRandom(43);
+
+        for (long n : ns) {
+            for (double p : ps) {
+                int samples = n > 1_000 ? 4_000 : 20_000;
+                double[] values = new double[samples];
+                for (int i = 0; i < samples; i++) {
+                    long x = random.binomial(n, p);
+                    assertTrue("fuera de rango: " + x, x >= 0 && x <= n);
+                    values[i] = x;
+                }
+
+                double q = 1.0 - p;
+                double mean = n * p;
+                double variance = n * p * q;
+                double fourthMoment = variance * (1.0 + 3.0 * (n - 2) * p * q);
+                assertMoments(String.format("Binomial(%d, %s)", n, p), values, mean, variance, fourthMoment);
+            }
+        }
+    }
+
+    @Test
+    public void binomialMatchesProbabilityMass() {
+        GameRandom random = new GameRandom(4301);
+        int n = 12;
+        double p = 0.3;
+        int samples = 400_000;
+
+        long[] counts = new long[n + 1];
+        for (int i = 0; i < samples; i++) {
+            counts[(int) random.binomial(n, p)]++;
+        }
+
+        double probability = Math.pow(1.0 - p, n);
+        for (int k = 0; k <= n; k++) {
+            assertFrequency("P(X=" + k + ")", counts[k], samples, probability);
+            probability *= (p / (1.0 - p)) * (n - k) / (k + 1);
+        }
+    }
+
+    @Test
+    public void binomialEdgeCases() {
+        GameRandom random = new GameRandom(1);
+        assertEquals(0, random.binomial(0, 0.5));
+        assertEquals(0, random.binomial(-3, 0.5));
+        assertEquals(0, random.binomial(100, 0.0));
+        assertEquals(100, random.binomial(100, 1.0));
+    }
+
+    @Test
+    public void multinomialMarginals() {
+        float[] weights = {0f, 45f, 30f, 15f, 7f, 3f};
+        int n = 500;
+        int samples = 20_000;
+        GameRandom random = new GameRandom(4302);
+
+        double total = 0;
+        for (int i = 1; i < weights.length; i++) total += weights[i];
+
+        double[][] values = new double[weights.length][samples];
+        for (int s = 0; s < samples; s++) {
+            int[] counts = random.multinomial(n, weights, 1);
+            int sum = 0;
+            for (int i = 0; i < counts.length; i++) {
+                values[i][s] = counts[i];
+                sum += counts[i];
+            }
+            assertEquals("índice excluido", 0, counts[0]);
+            assertEquals("suma de categorías", n, sum);
+        }
+
+        // Cada categoría es marginalmente Binomial(n, w_i / Σw)
+        for (int i = 1; i < weights.length; i++) {
+            double p = weights[i] / total;
+            double q = 1.0 - p;
+            double variance = n * p * q;
+            assertMoments("categoría " + i, values[i], n * p, variance,
+                    variance * (1.0 + 3.0 * (n - 2) * p * q));
+        }
+    }
+
+    @Test
+    public void geometricMeanAndVariance() {
+        double[] ps = {0.02, 0.25, 0.9};
+        GameRandom random = new GameRandom(4303);
+
+        for (double p : ps) {
+            int samples = 100_000;
+            double[] values = new double[samples];
+            for (int i = 0; i < samples; i++) {
+                long x = random.geometric(p);
+                assertTrue("intentos < 1: " + x, x >= 1);
+                values[i] = x;
+            }
+
+            double q = 1.0 - p;
+            double variance = q / (p * p);
+            // Cuarto momento central de la geométrica: q(1 + 9q + q²) / p⁴
+            double fourthMoment = q * (1.0 + 9.0 * q + q * q) / Math.pow(p, 4);
+            assertMoments("Geométrica(" + p + ")", values, 1.0 / p, variance, fourthMoment);
+        }
+    }
+
+    @Test
+    public void aliasTableMatchesWeights() {
+        float[] weights = {0f, 50f, 30f, 15f, 4f, 1f, -2f};
+        GameRandom.AliasTable table = new GameRandom.AliasTable(weights);
+        GameRandom random = new GameRandom(4304);
+        int samples = 1_000_000;
+
+        long[] counts = new long[weights.length];
+        for (int i = 0; i < samples; i++) {
+            counts[random.sample(table)]++;
+        }
+
+        assertEquals("peso 0", 0, counts[0]);
+        assertEquals("peso negativo", 0, counts[6]);
+        for (int i = 1; i <= 5; i++) {
+            assertFrequency("índice " + i, counts[i], samples, weights[i] / 100.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aliasTableRejectsZeroTotal() {
+        new GameRandom.AliasTable(new float[]{0f, 0f});
+    }
+
+    @Test
+    public void sameSeedSameSequence() {
+        GameRandom first = new GameRandom(99);
+        GameRandom second = new GameRandom(99);
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(first.binomial(500, 0.1), second.binomial(500, 0.1));
+            assertEquals(first.geometric(0.3), second.geometric(0.3));
+        }
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    /**
+     * Media y varianza muestrales dentro de SIGMAS errores estándar (el de la varianza
+     * sale del cuarto momento central μ4)
+     */
+    private static void assertMoments(String label, double[] values, double mean, double variance,
+                                      double fourthMoment) {
+        int count = values.length;
+        double sum = 0;
+        for (double value : values) sum += value;
+        double sampleMean = sum / count;
+
+        double squares = 0;
+        for (double value : values) {
+            double delta = value - sampleMean;
+            squares += delta * delta;
+        }
+        double sampleVariance = squares / (count - 1);
+
+        double meanError = Math.sqrt(variance / count);
+        // Var(s²) = (μ4 − σ⁴(N−3)/(N−1)) / N
+        double varianceError = Math.sqrt(Math.max(0.0,
+                fourthMoment - variance * variance * (count - 3) / (count - 1)) / count);
+
+        assertEquals(label + " media", mean, sampleMean, SIGMAS * meanError + 1e-9);
+        assertEquals(label + " varianza", variance, sampleVariance, SIGMAS * varianceError + 1e-9);
+    }
+
+    private static void assertFrequency(String label, long hits, int samples, double probability) {
+        double error = Math.sqrt(probability * (1.0 - probability) / samples);
+        assertEquals(label, probability, (double) hits / samples, SIGMAS * error + 1e-9);
+    }
+}
@@ -0,0 +1,120 @@
+package com.by.soh.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import com.by.soh.constants.GameConstants;
+import com.by.soh.constants.HeroConstants;
+
+import org.junit.Test;
+
+/**
+ * Tablas de multiplicadores frente a las fórmulas de GameConstants, bit a bit, en todas
+ * las combinaciones de rareza, estrellas, mejora y nivel
+ */
+public class StatMultiplierTableTest {
+
+    private static final int MAX_RARITY = GameConstants.MYTHIC_RARITY;
+    private static final int MAX_STARS = GameConstants.MAX_STARS;
+    private static final int MAX_ENHANCEMENT = GameConstants.MAX_ENHANCEMENT;
+    private static final int MAX_LEVEL = GameConstants.MAX_HERO_LEVEL;
+
+    @Test
+    public void tablesMatchFormulaBitForBit() {
+        for (int rarity = 0; rarity <= MAX_RARITY; rarity++) {
+            for (int star = 0; star <= MAX_STARS; star++) {
+                for (int enhancement = 0; enhancement <= MAX_ENHANCEMENT; enhancement++) {
+                    for (int level = 1; level <= MAX_LEVEL; level++) {
+                        assertBits(String.format("r=%d s=%d e=%d l=%d", rarity, star, enhancement, level),
+                                reference(rarity, star, enhancement, level),
+                                StatMultiplierTable.getTotalMultiplier(rarity, star, enhancement, level));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void outOfRangeFallsBackToFormula() {
+        int[][] cases = {
+                {-1, 1, 0, 1},
+                {MAX_RARITY + 1, 1, 0, 1},
+                {1, MAX_STARS + 1, 0, 1},
+                {1, 1, MAX_ENHANCEMENT + 1, 1},
+                {1, 1, 0, 0},
+                {1, 1, 0, MAX_LEVEL + 1},
+        };
+        for (int[] c : cases) {
+            assertBits(String.format("r=%d s=%d e=%d l=%d", c[0], c[1], c[2], c[3]),
+                    reference(c[0], c[1], c[2], c[3]),
+                    StatMultiplierTable.getTotalMultiplier(c[0], c[1], c[2], c[3]));
+        }
+    }
+
+    @Test
+    public void batchPathMatchesFormula() {
+        int combinations = (MAX_RARITY + 1) * (MAX_STARS + 1) * (MAX_ENHANCEMENT + 1) * MAX_LEVEL;
+        int[] rarities = new int[combinations];
+        int[] stars = new int[combinations];
+        int[] enhancements = new int[combinations];
+        int[] levels = new int[combinations];
+        int[] base = new int[combinations];
+        int[] expected = new int[combinations];
+
+        int row = 0;
+        for (int rarity = 0; rarity <= MAX_RARITY; rarity++) {
+            for (int star = 0; star <= MAX_STARS; star++) {
+                for (int enhancement = 0; enhancement <= MAX_ENHANCEMENT; enhancement++) {
+                    for (int level = 1; level <= MAX_LEVEL; level++) {
+                        rarities[row] = rarity;
+                        stars[row] = star;
+                        enhancements[row] = enhancement;
+                        levels[row] = level;
+                        base[row] = 100 + (row * 37) % 4900;
+                        expected[row] = Math.round(base[row] * reference(rarity, star, enhancement, level));
+                        row++;
+                    }
+                }
+            }
+        }
+
+        float[] multipliers = new float[combinations];
+        int[] scaled = new int[combinations];
+        StatMultiplierTable.fillTotalMultipliers(rarities, stars, enhancements, levels, multipliers, combinations);
+        StatMultiplierTable.scaleStats(base, multipliers, scaled, combinations);
+
+        for (int i = 0; i < combinations; i++) {
+            assertEquals("fila " + i, expected[i], scaled[i]);
+        }
+    }
+
+    @Test
+    public void growthMatchesHeroPowerFormula() {
+        // calculateHeroPower sigue usando GameConstants: ambos caminos deben dar lo mismo
+        for (int rarity = 0; rarity <= MAX_RARITY; rarity++) {
+            for (int star = 0; star <= MAX_STARS; star++) {
+                for (int enhancement = 0; enhancement <= MAX_ENHANCEMENT; enhancement++) {
+                    float growth = StatMultiplierTable.getGrowthMultiplier(rarity, star, enhancement);
+                    assertEquals(String.format("r=%d s=%d e=%d", rarity, star, enhancement),
+                            Math.round((1000 * 0.5 + 200 * 2.0 + 150 * 1.5 + 100 * 0.5) * growth),
+                            HeroConstants.calculateHeroPower(1000, 200, 150, 100, rarity, star, enhancement));
+                }
+            }
+        }
+    }
+
+    // ==================== MÉTODOS HELPER PRIVADOS ====================
+
+    /**
+     * Fórmula de referencia, tal como la aplicaba calculateBaseStats
+     */
+    private static float reference(int rarity, int stars, int enhancement, int level) {
+        return GameConstants.getRarityMultiplier(rarity) *
+                GameConstants.getStarMultiplier(stars) *
+                GameConstants.getEnhancementMultiplier(enhancement) *
+                (1.0f + (level - 1) * 0.05f);
+    }
+
+    private static void assertBits(String label, float expected, float actual) {
+        assertEquals(label, Float.floatToIntBits(expected), Float.floatToIntBits(actual));
+    }
+}